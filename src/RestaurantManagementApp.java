@@ -1,9 +1,13 @@
 import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
+import view.EdtWatchdog;
 import view.LoginFrame;
+import view.SchemaMigrator;
 
 public class RestaurantManagementApp {
     public static void main(String[] args) {
+        EdtWatchdog.install();
+        SchemaMigrator.migrateAtStartup();
         // Set Look and Feel
         try {
             UIManager.setLookAndFeel(UIManager.getLookAndFeel());
@@ -7,13 +7,12 @@ import java.util.List;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.table.DefaultTableCellRenderer;
-import javax.swing.table.DefaultTableModel;
 
 public class AdminFrame extends JFrame {
     private UserDAO userDAO;
     private JTabbedPane tabbedPane;
     private JTable adminTable, managerTable, kasirTable, customerTable, allRoundTable;
-    private DefaultTableModel adminTableModel, managerTableModel, kasirTableModel, customerTableModel, allRoundTableModel;
+    private UserTableModel adminTableModel, managerTableModel, kasirTableModel, customerTableModel, allRoundTableModel;
     private JTextField usernameField, namaField, searchField;
     private JPasswordField passwordField;
     private JComboBox<String> roleComboBox;
@@ -21,6 +20,9 @@ public class AdminFrame extends JFrame {
     private JLabel totalAdminLabel, totalManagerLabel, totalKasirLabel, totalCustomerLabel, totalAllLabel;
     private int selectedUserId = -1;
     private String currentRole = "Admin";
+    
+    // User table loads and searches share one slot so the latest request wins
+    private final DataAccess.Slot usersSlot = new DataAccess.Slot();
 
     // Modern color scheme
     private static final Color PRIMARY_COLOR = new Color(64, 81, 181);
@@ -41,7 +43,6 @@ public class AdminFrame extends JFrame {
         setupLayout();
         setupEventListeners();
         loadAllUserData();
-        updateStatistics();
         
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setTitle("Admin Dashboard - User Management System");
@@ -53,46 +54,20 @@ public class AdminFrame extends JFrame {
 
     private void initializeComponents() {
         // Initialize tables with modern styling
-        String[] columnNames = {"ID", "Username", "Nama", "Role", "Actions"};
-        
-        adminTableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        // Every tab views the same user list filtered by role
+        adminTableModel = new UserTableModel("admin");
         adminTable = createModernTable(adminTableModel);
         
-        managerTableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        managerTableModel = new UserTableModel("manager");
         managerTable = createModernTable(managerTableModel);
         
-        kasirTableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        kasirTableModel = new UserTableModel("kasir");
         kasirTable = createModernTable(kasirTableModel);
 
-        customerTableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        customerTableModel = new UserTableModel("customer");
         customerTable = createModernTable(customerTableModel);
         
-        allRoundTableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        allRoundTableModel = new UserTableModel(null);
         allRoundTable = createModernTable(allRoundTableModel);
 
         // Form fields with modern styling
@@ -122,7 +97,7 @@ public class AdminFrame extends JFrame {
         styleModernTabbedPane(tabbedPane);
     }
 
-    private JTable createModernTable(DefaultTableModel model) {
+    private JTable createModernTable(UserTableModel model) {
         JTable table = new JTable(model);
         table.setFont(new Font("Segoe UI", Font.PLAIN, 14));
         table.setRowHeight(50);
@@ -544,60 +519,39 @@ public class AdminFrame extends JFrame {
         searchField.addActionListener(e -> searchUser());
     }
 
-    private void handleTableSelection(JTable table, DefaultTableModel model) {
+    private void handleTableSelection(JTable table, UserTableModel model) {
         int selectedRow = table.getSelectedRow();
         if (selectedRow != -1) {
-            selectedUserId = (Integer) model.getValueAt(selectedRow, 0);
-            usernameField.setText((String) model.getValueAt(selectedRow, 1));
-            namaField.setText((String) model.getValueAt(selectedRow, 2));
-            roleComboBox.setSelectedItem((String) model.getValueAt(selectedRow, 3));
+            User user = model.getUserAt(selectedRow);
+            selectedUserId = user.getUserId();
+            usernameField.setText(user.getUsername());
+            namaField.setText(user.getNama());
+            roleComboBox.setSelectedItem(user.getRole());
             
             // Clear password field for security
             passwordField.setText("");
         }
     }
 
+    /**
+     * Reload every user table and the statistics from one background query
+     */
     private void loadAllUserData() {
-        // Clear all tables
-        adminTableModel.setRowCount(0);
-        managerTableModel.setRowCount(0);
-        kasirTableModel.setRowCount(0);
-        customerTableModel.setRowCount(0);
-        allRoundTableModel.setRowCount(0);
-
-        List<User> users = userDAO.findAll();
-        for (User user : users) {
-            Object[] rowData = {
-                user.getUserId(),
-                user.getUsername(),
-                user.getNama(),
-                user.getRole(),
-                "Actions"
-            };
-
-            // Add to All Round table
-            allRoundTableModel.addRow(rowData);
-
-            // Add to specific role table
-            switch (user.getRole().toLowerCase()) {
-                case "admin":
-                    adminTableModel.addRow(rowData);
-                    break;
-                case "manager":
-                    managerTableModel.addRow(rowData);
-                    break;
-                case "kasir":
-                    kasirTableModel.addRow(rowData);
-                    break;
-                case "customer":
-                    customerTableModel.addRow(rowData);
-                    break;
-            }
-        }
+        usersSlot.submit(() -> userDAO.findAll(), users -> {
+            showUserData(users);
+            updateStatistics(users);
+        });
+    }
+
+    private void showUserData(List<User> users) {
+        adminTableModel.setUsers(users);
+        managerTableModel.setUsers(users);
+        kasirTableModel.setUsers(users);
+        customerTableModel.setUsers(users);
+        allRoundTableModel.setUsers(users);
     }
 
-    private void updateStatistics() {
-        List<User> users = userDAO.findAll();
+    private void updateStatistics(List<User> users) {
         int adminCount = 0, managerCount = 0, kasirCount = 0, customerCount = 0;
 
         for (User user : users) {
@@ -633,14 +587,15 @@ public class AdminFrame extends JFrame {
                 (String) roleComboBox.getSelectedItem()
             );
 
-            if (userDAO.create(user)) {
-                showSuccessMessage("User berhasil ditambahkan!");
-                clearForm();
-                loadAllUserData();
-                updateStatistics();
-            } else {
-                showErrorMessage("Gagal menambahkan user!");
-            }
+            DataAccess.submit(() -> userDAO.create(user), created -> {
+                if (created) {
+                    showSuccessMessage("User berhasil ditambahkan!");
+                    clearForm();
+                    loadAllUserData();
+                } else {
+                    showErrorMessage("Gagal menambahkan user!");
+                }
+            });
         }
     }
 
@@ -659,14 +614,15 @@ public class AdminFrame extends JFrame {
             );
             user.setUserId(selectedUserId);
 
-            if (userDAO.update(user)) {
-                showSuccessMessage("User berhasil diupdate!");
-                clearForm();
-                loadAllUserData();
-                updateStatistics();
-            } else {
-                showErrorMessage("Gagal mengupdate user!");
-            }
+            DataAccess.submit(() -> userDAO.update(user), updated -> {
+                if (updated) {
+                    showSuccessMessage("User berhasil diupdate!");
+                    clearForm();
+                    loadAllUserData();
+                } else {
+                    showErrorMessage("Gagal mengupdate user!");
+                }
+            });
         }
     }
 
@@ -681,14 +637,16 @@ public class AdminFrame extends JFrame {
             "Konfirmasi Hapus", JOptionPane.YES_NO_OPTION);
 
         if (confirm == JOptionPane.YES_OPTION) {
-            if (userDAO.delete(selectedUserId)) {
-                showSuccessMessage("User berhasil dihapus!");
-                clearForm();
-                loadAllUserData();
-                updateStatistics();
-            } else {
-                showErrorMessage("Gagal menghapus user!");
-            }
+            int userId = selectedUserId;
+            DataAccess.submit(() -> userDAO.delete(userId), deleted -> {
+                if (deleted) {
+                    showSuccessMessage("User berhasil dihapus!");
+                    clearForm();
+                    loadAllUserData();
+                } else {
+                    showErrorMessage("Gagal menghapus user!");
+                }
+            });
         }
     }
 
@@ -699,49 +657,30 @@ public class AdminFrame extends JFrame {
             return;
         }
 
-        User user = userDAO.findByUsername(searchTerm);
-        if (user != null) {
-            // Clear all tables first
-            adminTableModel.setRowCount(0);
-            managerTableModel.setRowCount(0);
-            kasirTableModel.setRowCount(0);
-            customerTableModel.setRowCount(0);
-            allRoundTableModel.setRowCount(0);
-
-            Object[] rowData = {
-                user.getUserId(),
-                user.getUsername(),
-                user.getNama(),
-                user.getRole(),
-                "Actions"
-            };
-
-            // Add to All Round table
-            allRoundTableModel.addRow(rowData);
-
-            // Add to appropriate table and switch to that tab
-            switch (user.getRole().toLowerCase()) {
-                case "admin":
-                    adminTableModel.addRow(rowData);
-                    tabbedPane.setSelectedIndex(1); // Admin tab
-                    break;
-                case "manager":
-                    managerTableModel.addRow(rowData);
-                    tabbedPane.setSelectedIndex(2); // Manager tab
-                    break;
-                case "kasir":
-                    kasirTableModel.addRow(rowData);
-                    tabbedPane.setSelectedIndex(3); // Kasir tab
-                    break;
-                case "customer":
-                    customerTableModel.addRow(rowData);
-                    tabbedPane.setSelectedIndex(4); // Customer tab
-                    break;
+        usersSlot.submit(() -> userDAO.findByUsername(searchTerm), user -> {
+            if (user != null) {
+                showUserData(List.of(user));
+
+                // Switch to the tab for the user's role
+                switch (user.getRole().toLowerCase()) {
+                    case "admin":
+                        tabbedPane.setSelectedIndex(1); // Admin tab
+                        break;
+                    case "manager":
+                        tabbedPane.setSelectedIndex(2); // Manager tab
+                        break;
+                    case "kasir":
+                        tabbedPane.setSelectedIndex(3); // Kasir tab
+                        break;
+                    case "customer":
+                        tabbedPane.setSelectedIndex(4); // Customer tab
+                        break;
+                }
+            } else {
+                showInfoMessage("User tidak ditemukan!");
+                loadAllUserData();
             }
-        } else {
-            showInfoMessage("User tidak ditemukan!");
-            loadAllUserData();
-        }
+        });
     }
 
     private void clearForm() {
@@ -796,6 +735,8 @@ public class AdminFrame extends JFrame {
     }
 
     public static void main(String[] args) {
+        EdtWatchdog.install();
+        SchemaMigrator.migrateAtStartup();
         SwingUtilities.invokeLater(() -> {
             try {
                 UIManager.setLookAndFeel(UIManager.getLookAndFeel());
@@ -0,0 +1,79 @@
+package view;
+
+
+import java.sql.Timestamp;
+import java.text.NumberFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Cancelled order rows for ManagerFrame, newest first, stored column by column.
+ * Cancellation reasons come from a short list, so they are dictionary-encoded too.
+ */
+public class CancelledTableModel extends ColumnarTableModel {
+    private final NumberFormat currencyFormat;
+    private final SimpleDateFormat dateFormat;
+
+    private final Dictionary customerNames = new Dictionary();
+    private final Dictionary reasons = new Dictionary();
+
+    private int[] batalIds = new int[0];
+    private int[] orderIds = new int[0];
+    private int[] customerCodes = new int[0];
+    private long[] tanggalBatalMillis = new long[0];
+    private int[] reasonCodes = new int[0];
+    private long[] amountCents = new long[0];
+
+    public CancelledTableModel(NumberFormat currencyFormat, SimpleDateFormat dateFormat) {
+        super("Order ID", "Customer", "Cancel Date", "Reason", "Amount Lost");
+        this.currencyFormat = currencyFormat;
+        this.dateFormat = dateFormat;
+    }
+
+    public void append(List<ReportDAO.CancelledOrderRow> rows) {
+        int first = beginAppend(rows.size());
+        for (ReportDAO.CancelledOrderRow row : rows) {
+            batalIds[size] = row.idBatal();
+            orderIds[size] = row.idPesanan();
+            customerCodes[size] = customerNames.encode(row.customerName() != null ? row.customerName() : "Unknown");
+            tanggalBatalMillis[size] = row.tanggalBatal().getTime();
+            reasonCodes[size] = reasons.encode(row.alasanBatal());
+            amountCents[size] = toCents(row.totalPesanan());
+            size++;
+        }
+        endAppend(first);
+    }
+
+    @Override
+    protected void ensureCapacity(int capacity) {
+        batalIds = grow(batalIds, capacity);
+        orderIds = grow(orderIds, capacity);
+        customerCodes = grow(customerCodes, capacity);
+        tanggalBatalMillis = grow(tanggalBatalMillis, capacity);
+        reasonCodes = grow(reasonCodes, capacity);
+        amountCents = grow(amountCents, capacity);
+    }
+
+    @Override
+    protected void clearColumns() {
+        customerNames.clear();
+        reasons.clear();
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        switch (column) {
+            case 0: return orderIds[row];
+            case 1: return customerNames.decode(customerCodes[row]);
+            case 2: return dateFormat.format(new Date(tanggalBatalMillis[row]));
+            case 3: return reasons.decode(reasonCodes[row]);
+            default: return currencyFormat.format(fromCents(amountCents[row]));
+        }
+    }
+
+    /** Get the keyset position of the last loaded row, null when empty */
+    public Timestamp getLastTanggalBatal() { return size > 0 ? new Timestamp(tanggalBatalMillis[size - 1]) : null; }
+
+    public int getLastBatalId() { return size > 0 ? batalIds[size - 1] : 0; }
+}
@@ -0,0 +1,206 @@
+package view;
+
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Base for read-only table models that keep each column in a primitive array
+ * instead of one Object[] per row. Subclasses store raw values (ids, epoch millis,
+ * cents, dictionary codes) and format them in getValueAt, which Swing only calls
+ * for visible cells. Rows are appended a page at a time with one insert event.
+ *
+ * With a page loader installed, the next page is requested when the viewport
+ * scrolls within PREFETCH_ROWS of the last loaded row.
+ */
+public abstract class ColumnarTableModel extends AbstractTableModel {
+    private static final int PREFETCH_ROWS = 50;
+
+    private final String[] columnNames;
+    protected int size;
+
+    private Runnable pageLoader;
+    private boolean hasMore;
+    private boolean loading;
+    private JTable pagedTable;
+
+    protected ColumnarTableModel(String... columnNames) {
+        this.columnNames = columnNames;
+    }
+
+    @Override
+    public int getRowCount() {
+        return size;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    /**
+     * Grow every column array to hold at least capacity rows
+     */
+    protected abstract void ensureCapacity(int capacity);
+
+    /**
+     * Release references held by object columns and dictionaries; primitive columns
+     * are simply overwritten
+     */
+    protected void clearColumns() {
+    }
+
+    /**
+     * Drop all rows and any paging state
+     */
+    public void clear() {
+        size = 0;
+        hasMore = false;
+        loading = false;
+        clearColumns();
+        fireTableDataChanged();
+    }
+
+    /**
+     * Reserve room for count more rows and return the index of the first one
+     */
+    protected int beginAppend(int count) {
+        ensureCapacity(size + count);
+        return size;
+    }
+
+    /**
+     * Publish the rows added since beginAppend with a single event
+     */
+    protected void endAppend(int firstRow) {
+        if (size > firstRow) {
+            fireTableRowsInserted(firstRow, size - 1);
+        }
+    }
+
+    /**
+     * Get the new capacity of a column array that must hold needed rows
+     */
+    protected static int grow(int current, int needed) {
+        return Math.max(needed, Math.max(16, current + (current >> 1)));
+    }
+
+    protected static int[] grow(int[] column, int capacity) {
+        return column.length >= capacity ? column : Arrays.copyOf(column, grow(column.length, capacity));
+    }
+
+    protected static long[] grow(long[] column, int capacity) {
+        return column.length >= capacity ? column : Arrays.copyOf(column, grow(column.length, capacity));
+    }
+
+    protected static <T> T[] grow(T[] column, int capacity) {
+        return column.length >= capacity ? column : Arrays.copyOf(column, grow(column.length, capacity));
+    }
+
+    protected static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    protected static double fromCents(long cents) {
+        return cents / 100.0;
+    }
+
+    /**
+     * Load pages on demand. The loader runs on the EDT and must call pageLoaded
+     * (or pageFailed) once its page has been appended.
+     */
+    public void installPaging(JTable table, JScrollPane scrollPane, Runnable loader) {
+        this.pagedTable = table;
+        this.pageLoader = loader;
+        scrollPane.getViewport().addChangeListener(e -> loadMoreIfNeeded());
+    }
+
+    /**
+     * Start a fresh paged load: clears the rows and asks for the first page
+     */
+    public void reload() {
+        clear();
+        hasMore = true;
+        loadMoreIfNeeded();
+    }
+
+    public void pageLoaded(boolean morePages) {
+        loading = false;
+        hasMore = morePages;
+        // The first page may not fill the viewport, in which case nothing scrolls
+        loadMoreIfNeeded();
+    }
+
+    public void pageFailed() {
+        loading = false;
+        hasMore = false;
+    }
+
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    private void loadMoreIfNeeded() {
+        if (pageLoader == null || loading || !hasMore) {
+            return;
+        }
+        if (size > 0) {
+            Rectangle visible = pagedTable.getVisibleRect();
+            if (visible.isEmpty()) {
+                // Hidden tab: wait until it is shown and the viewport changes
+                return;
+            }
+            int lastVisible = pagedTable.rowAtPoint(new Point(0, visible.y + visible.height - 1));
+            if (lastVisible >= 0 && lastVisible < size - PREFETCH_ROWS) {
+                return;
+            }
+        }
+        loading = true;
+        pageLoader.run();
+    }
+
+    /**
+     * Maps repeated strings such as statuses and payment methods to small int codes
+     */
+    public static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        public int encode(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        public String decode(int code) {
+            return values.get(code);
+        }
+
+        public void clear() {
+            codes.clear();
+            values.clear();
+        }
+    }
+}
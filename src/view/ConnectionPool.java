@@ -0,0 +1,396 @@
+package view;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded pool of MySQL connections used by DatabaseConnection.
+ * Connections are borrowed per DAO operation and returned by calling close().
+ */
+public class ConnectionPool {
+    // Upper bounds (ms) of the borrow wait-time histogram buckets, the last bucket is open-ended
+    private static final long[] WAIT_BUCKETS_MS = {0, 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000};
+
+    private static final LatencyHistogram BORROW_WAIT = Metrics.histogram("pool.borrowWait");
+    private static final boolean LEAK_TRACE = Boolean.getBoolean("db.leakTrace");
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutMs;
+    private final long idleTimeoutMs;
+    private final long leakThresholdMs;
+    private final int statementCacheSize;
+
+    private final LinkedBlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+    private final Map<PooledEntry, Borrow> borrowed = new ConcurrentHashMap<>();
+    private final Semaphore permits;
+    private final AtomicInteger totalCount = new AtomicInteger();
+    private final AtomicInteger waiterCount = new AtomicInteger();
+    private final AtomicLongArray waitHistogram = new AtomicLongArray(WAIT_BUCKETS_MS.length + 1);
+    private final StatementCache.Counters statementCounters = new StatementCache.Counters();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean shutdown;
+
+    public ConnectionPool(String url, String username, String password,
+                          int minSize, int maxSize, long borrowTimeoutMs,
+                          long idleTimeoutMs, long leakThresholdMs, int statementCacheSize) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMs = borrowTimeoutMs;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.leakThresholdMs = leakThresholdMs;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "connection-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 30, 30, TimeUnit.SECONDS);
+
+        for (int i = 0; i < minSize; i++) {
+            try {
+                idle.offerLast(new PooledEntry(openPhysical()));
+            } catch (SQLException e) {
+                System.err.println("Failed to pre-fill connection pool: " + e.getMessage());
+                break;
+            }
+        }
+    }
+
+    /**
+     * Borrow a connection, waiting at most the borrow timeout for one to become free.
+     * The returned connection goes back to the pool when close() is called.
+     */
+    public Connection borrow() throws SQLException {
+        return borrow(null);
+    }
+
+    /**
+     * Borrow a connection and time the borrow, from the start of the wait until
+     * close(), into timer (may be null)
+     */
+    public Connection borrow(LatencyHistogram timer) throws SQLException {
+        if (shutdown) {
+            throw new SQLNonTransientConnectionException("Connection pool has been shut down", "08003");
+        }
+
+        long start = System.nanoTime();
+        FlightEvents.DatabaseCall flight = timer == null ? null : FlightEvents.beginDatabaseCall(timer.getName());
+        waiterCount.incrementAndGet();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        } finally {
+            waiterCount.decrementAndGet();
+        }
+        long waited = System.nanoTime() - start;
+        recordWait(waited / 1_000_000L);
+        BORROW_WAIT.record(waited);
+
+        if (!acquired) {
+            Metrics.counter("pool.borrowTimeouts").increment();
+            throw new SQLTransientConnectionException("Timed out after " + borrowTimeoutMs + " ms waiting for a database connection "
+                    + "(active=" + getActiveCount() + ", max=" + maxSize + ")");
+        }
+
+        try {
+            PooledEntry entry = takeValidEntry();
+            // Filling in a stack trace on every borrow is costly, so only when asked for
+            Throwable origin = LEAK_TRACE ? new Throwable("Connection borrowed here") : null;
+            borrowed.put(entry, new Borrow(Thread.currentThread().getName(), origin));
+            return entry.newHandle(timer, start, flight);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledEntry takeValidEntry() throws SQLException {
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            if (isUsable(entry.physical)) {
+                return entry;
+            }
+            discard(entry);
+        }
+        return new PooledEntry(openPhysical());
+    }
+
+    private boolean isUsable(Connection physical) {
+        try {
+            return !physical.isClosed() && physical.isValid(2);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection openPhysical() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, username, password);
+        totalCount.incrementAndGet();
+        return physical;
+    }
+
+    private void release(PooledEntry entry) {
+        borrowed.remove(entry);
+        entry.statementCache.releaseAll();
+        try {
+            if (shutdown || entry.physical.isClosed()) {
+                discard(entry);
+                return;
+            }
+            if (!entry.physical.getAutoCommit()) {
+                // Never hand a half-finished transaction to the next borrower
+                entry.physical.rollback();
+                entry.physical.setAutoCommit(true);
+            }
+            entry.lastReturned = System.currentTimeMillis();
+            idle.offerFirst(entry);
+        } catch (SQLException e) {
+            discard(entry);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledEntry entry) {
+        totalCount.decrementAndGet();
+        entry.statementCache.clear();
+        try {
+            entry.physical.close();
+        } catch (SQLException e) {
+            // Already broken, nothing else to do
+        }
+    }
+
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+
+        // Idle eviction, oldest first, keeping at least minSize connections open
+        Iterator<PooledEntry> it = idle.descendingIterator();
+        while (it.hasNext() && totalCount.get() > minSize) {
+            PooledEntry entry = it.next();
+            if (now - entry.lastReturned > idleTimeoutMs && idle.remove(entry)) {
+                discard(entry);
+            }
+        }
+
+        // Leak detection
+        for (Map.Entry<PooledEntry, Borrow> e : borrowed.entrySet()) {
+            Borrow borrow = e.getValue();
+            if (!borrow.reported && now - borrow.borrowedAt > leakThresholdMs) {
+                borrow.reported = true;
+                System.err.println("Possible connection leak: connection held by thread " + borrow.threadName
+                        + " for " + (now - borrow.borrowedAt) + " ms"
+                        + (borrow.origin == null ? "; run with -Ddb.leakTrace=true to see where it was borrowed" : ""));
+                if (borrow.origin != null) {
+                    borrow.origin.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private void recordWait(long waitMs) {
+        int bucket = WAIT_BUCKETS_MS.length;
+        for (int i = 0; i < WAIT_BUCKETS_MS.length; i++) {
+            if (waitMs <= WAIT_BUCKETS_MS[i]) {
+                bucket = i;
+                break;
+            }
+        }
+        waitHistogram.incrementAndGet(bucket);
+    }
+
+    /**
+     * Close every connection and stop the housekeeping thread
+     */
+    public void shutdown() {
+        shutdown = true;
+        housekeeper.shutdownNow();
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            discard(entry);
+        }
+    }
+
+    public int getActiveCount() {
+        return borrowed.size();
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getWaiterCount() {
+        return waiterCount.get();
+    }
+
+    public int getTotalCount() {
+        return totalCount.get();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Upper bounds in ms of the wait-time histogram buckets; the extra last bucket counts everything slower
+     */
+    public long[] getWaitTimeBucketBounds() {
+        return WAIT_BUCKETS_MS.clone();
+    }
+
+    public long[] getWaitTimeHistogram() {
+        long[] counts = new long[waitHistogram.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = waitHistogram.get(i);
+        }
+        return counts;
+    }
+
+    public StatementCache.Counters getStatementCacheCounters() {
+        return statementCounters;
+    }
+
+    public String getStats() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("active=").append(getActiveCount())
+          .append(", idle=").append(getIdleCount())
+          .append(", waiters=").append(getWaiterCount())
+          .append(", total=").append(getTotalCount())
+          .append(", max=").append(maxSize)
+          .append(", waitMs={");
+        long[] counts = getWaitTimeHistogram();
+        for (int i = 0; i < counts.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(i < WAIT_BUCKETS_MS.length ? "<=" + WAIT_BUCKETS_MS[i] : ">" + WAIT_BUCKETS_MS[i - 1])
+              .append(":").append(counts[i]);
+        }
+        sb.append("}, stmtCache={hits=").append(statementCounters.getHits())
+          .append(", misses=").append(statementCounters.getMisses())
+          .append(", evictions=").append(statementCounters.getEvictions())
+          .append("}");
+        return sb.toString();
+    }
+
+    private static class Borrow {
+        final long borrowedAt = System.currentTimeMillis();
+        final String threadName;
+        final Throwable origin;
+        volatile boolean reported;
+
+        Borrow(String threadName, Throwable origin) {
+            this.threadName = threadName;
+            this.origin = origin;
+        }
+    }
+
+    private class PooledEntry {
+        final Connection physical;
+        final StatementCache statementCache = new StatementCache(statementCacheSize, statementCounters);
+        volatile long lastReturned = System.currentTimeMillis();
+
+        PooledEntry(Connection physical) {
+            this.physical = physical;
+        }
+
+        Connection newHandle(LatencyHistogram timer, long borrowStartedAt, FlightEvents.DatabaseCall flight) {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Handle(this, timer, borrowStartedAt, flight));
+        }
+    }
+
+    /**
+     * Per-borrow view of a pooled connection; close() returns it to the pool instead of closing the socket
+     */
+    private class Handle implements InvocationHandler {
+        private final PooledEntry entry;
+        private final LatencyHistogram timer;
+        private final long borrowStartedAt;
+        private final FlightEvents.DatabaseCall flight;
+        private boolean closed;
+
+        Handle(PooledEntry entry, LatencyHistogram timer, long borrowStartedAt, FlightEvents.DatabaseCall flight) {
+            this.entry = entry;
+            this.timer = timer;
+            this.borrowStartedAt = borrowStartedAt;
+            this.flight = flight;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(entry);
+                        if (timer != null) {
+                            timer.record(System.nanoTime() - borrowStartedAt);
+                        }
+                        if (flight != null) {
+                            flight.commit();
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || entry.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + entry.physical + "]";
+                default:
+                    if (closed) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+                    if (isCacheablePrepare(method, args)) {
+                        int autoGeneratedKeys = args.length == 2 ? (Integer) args[1] : -1;
+                        return entry.statementCache.prepare(entry.physical, (Connection) proxy, (String) args[0], autoGeneratedKeys);
+                    }
+                    try {
+                        return method.invoke(entry.physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+
+        private boolean isCacheablePrepare(Method method, Object[] args) {
+            if (!"prepareStatement".equals(method.getName())) {
+                return false;
+            }
+            Class<?>[] types = method.getParameterTypes();
+            return types.length == 1 || (types.length == 2 && types[1] == int.class);
+        }
+    }
+}
@@ -3,15 +3,12 @@ package view;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.File;
-import java.io.IOException;
-import java.sql.Timestamp;
 import java.text.NumberFormat;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
-import javax.imageio.ImageIO;
 import javax.swing.*;
 
 public class CustomerFrame extends JFrame {
@@ -23,9 +20,9 @@ public class CustomerFrame extends JFrame {
     private MenuDAO menuDAO;
     private UserDAO userDAO;
     private PesananDibatalkanDAO pesananDibatalkanDAO;
+    private OrderService orderService;
     
     // Current user info
-    private int currentUserId = -1;
     private String currentCustomerName = null;
     
     // Data untuk menu items
@@ -36,6 +33,9 @@ public class CustomerFrame extends JFrame {
     private JScrollPane cartScrollPane;
     private NumberFormat currencyFormat;
     private JLabel welcomeLabel;
+    private JScrollPane menuScrollPane;
+    private boolean menuLoaded = false;
+    private boolean checkoutInProgress = false;
     
     // Modern color scheme
     private static final Color PRIMARY_COLOR = new Color(79, 70, 229); // Indigo
@@ -50,12 +50,15 @@ public class CustomerFrame extends JFrame {
     
     // Menu item class
     static class MenuItem {
+        // Shown until the photo arrives, and for items without one
+        static final ImageIcon PLACEHOLDER_ICON = createPlaceholderImage();
+        
         String name;
         int price;
         String description;
         String category;
         String imagePath;
-        ImageIcon imageIcon;
+        ImageIcon imageIcon; // set by ThumbnailService once loaded
         int menuId;
         
         MenuItem(String name, int price, String description, String category, String imagePath) {
@@ -64,26 +67,9 @@ public class CustomerFrame extends JFrame {
             this.description = description;
             this.category = category;
             this.imagePath = imagePath;
-            this.imageIcon = loadImage(imagePath);
         }
         
-        private ImageIcon loadImage(String path) {
-            try {
-                if (path != null && !path.isEmpty()) {
-                    File imageFile = new File(path);
-                    if (imageFile.exists()) {
-                        BufferedImage img = ImageIO.read(imageFile);
-                        Image scaledImg = img.getScaledInstance(180, 120, Image.SCALE_SMOOTH);
-                        return new ImageIcon(scaledImg);
-                    }
-                }
-            } catch (IOException e) {
-                System.err.println("Error loading image: " + path + " - " + e.getMessage());
-            }
-            return createPlaceholderImage();
-        }
-        
-        private ImageIcon createPlaceholderImage() {
+        private static ImageIcon createPlaceholderImage() {
             BufferedImage placeholder = new BufferedImage(180, 120, BufferedImage.TYPE_INT_RGB);
             Graphics2D g2d = placeholder.createGraphics();
             
@@ -125,6 +111,12 @@ public class CustomerFrame extends JFrame {
             this.quantity = quantity;
         }
     }
+    
+    // Result of the payment writes done off the EDT
+    static class PaymentResult {
+        boolean notaCreated;
+        String receiptId;
+    }
 
     public CustomerFrame() {
         initializeDAOs();
@@ -133,6 +125,7 @@ public class CustomerFrame extends JFrame {
         initializeComponents();
         setupLayout();
         setupEventHandlers();
+        loadMenuFromDatabase();
     }
     
     private void initializeDAOs() {
@@ -144,6 +137,7 @@ public class CustomerFrame extends JFrame {
             menuDAO = new MenuDAO();
             userDAO = new UserDAO();
             pesananDibatalkanDAO = new PesananDibatalkanDAO();
+            orderService = new OrderService();
             System.out.println("All DAOs initialized successfully");
         } catch (Exception e) {
             System.err.println("Error initializing DAOs: " + e.getMessage());
@@ -158,55 +152,63 @@ public class CustomerFrame extends JFrame {
     private void initializeMenuData() {
         menuItems = new ArrayList<>();
         orderItems = new ArrayList<>();
-        loadMenuFromDatabase();
     }
     
     private void loadMenuFromDatabase() {
-        try {
-            List<Menu> dbMenus = menuDAO.findAll();
+        DataAccess.submit(this::buildMenuItems, loaded -> {
+            menuLoaded = true;
+            menuItems = loaded;
+            menuScrollPane.setViewportView(createMenuPanel());
+            menuScrollPane.revalidate();
             
-            if (dbMenus.isEmpty()) {
+            if (loaded.isEmpty()) {
                 JOptionPane.showMessageDialog(this, 
                     "Tidak ada menu yang ditemukan di database.\nSilakan hubungi administrator.", 
                     "Menu Kosong", 
                     JOptionPane.WARNING_MESSAGE);
-                return;
             }
-            
-            for (Menu menu : dbMenus) {
-                String imagePath = null;
-                String description = menu.getDeskripsi();
-                
-                if (menu.getGambar() != null && !menu.getGambar().trim().isEmpty()) {
-                    imagePath = menu.getGambar();
-                } else {
-                    imagePath = findImageForMenu(menu.getNamaMenu());
-                }
-                
-                if (description == null || description.trim().isEmpty()) {
-                    description = generateFallbackDescription(menu.getNamaMenu(), menu.getJenisMenu());
-                }
-                
-                MenuItem menuItem = new MenuItem(
-                    menu.getNamaMenu(),
-                    (int) menu.getHarga(),
-                    description,
-                    menu.getJenisMenu().toUpperCase(),
-                    imagePath
-                );
-                menuItem.menuId = menu.getIdMenu();
-                menuItems.add(menuItem);
-            }
-            
-            System.out.println("Loaded " + menuItems.size() + " menu items from database");
-        } catch (Exception e) {
-            System.err.println("Error loading menu from database: " + e.getMessage());
-            e.printStackTrace();
+        }, e -> {
             JOptionPane.showMessageDialog(this, 
                 "Error memuat menu dari database: " + e.getMessage(), 
                 "Database Error", 
                 JOptionPane.ERROR_MESSAGE);
+        });
+    }
+    
+    /**
+     * Get menu items from the database with their images loaded. Runs off the EDT.
+     */
+    private List<MenuItem> buildMenuItems() {
+        List<MenuItem> loaded = new ArrayList<>();
+        List<Menu> dbMenus = MenuCatalog.get().getAll();
+        
+        for (Menu menu : dbMenus) {
+            String imagePath = null;
+            String description = menu.getDeskripsi();
+            
+            if (menu.getGambar() != null && !menu.getGambar().trim().isEmpty()) {
+                imagePath = menu.getGambar();
+            } else {
+                imagePath = findImageForMenu(menu.getNamaMenu());
+            }
+            
+            if (description == null || description.trim().isEmpty()) {
+                description = generateFallbackDescription(menu.getNamaMenu(), menu.getJenisMenu());
+            }
+            
+            MenuItem menuItem = new MenuItem(
+                menu.getNamaMenu(),
+                (int) menu.getHarga(),
+                description,
+                menu.getJenisMenu().toUpperCase(),
+                imagePath
+            );
+            menuItem.menuId = menu.getIdMenu();
+            loaded.add(menuItem);
         }
+        
+        System.out.println("Loaded " + loaded.size() + " menu items from database");
+        return loaded;
     }
     
     private String findImageForMenu(String menuName) {
@@ -261,7 +263,7 @@ public class CustomerFrame extends JFrame {
         
         // Left Panel - Menu
         JPanel menuPanel = createMenuPanel();
-        JScrollPane menuScrollPane = new JScrollPane(menuPanel);
+        menuScrollPane = new JScrollPane(menuPanel);
         menuScrollPane.setPreferredSize(new Dimension(900, 600));
         menuScrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
         menuScrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
@@ -357,7 +359,7 @@ public class CustomerFrame extends JFrame {
             emptyPanel.setBackground(CARD_COLOR);
             emptyPanel.setBorder(BorderFactory.createEmptyBorder(40, 40, 40, 40));
             
-            JLabel emptyLabel = new JLabel("Menu tidak tersedia", SwingConstants.CENTER);
+            JLabel emptyLabel = new JLabel(menuLoaded ? "Menu tidak tersedia" : "Memuat menu...", SwingConstants.CENTER);
             emptyLabel.setFont(new Font("Inter", Font.BOLD, 18));
             emptyLabel.setForeground(TEXT_SECONDARY);
             
@@ -457,7 +459,14 @@ public class CustomerFrame extends JFrame {
         if (item.imageIcon != null) {
             imageLabel.setIcon(item.imageIcon);
         } else {
-            imageLabel.setIcon(item.createPlaceholderImage());
+            // Show the placeholder now and swap in the photo when it has been decoded
+            imageLabel.setIcon(MenuItem.PLACEHOLDER_ICON);
+            ThumbnailService.load(item.imagePath, 180, 120, icon -> {
+                if (icon != null) {
+                    item.imageIcon = icon;
+                    imageLabel.setIcon(icon);
+                }
+            });
         }
         
         imageContainer.add(imageLabel, BorderLayout.CENTER);
@@ -729,11 +738,15 @@ public class CustomerFrame extends JFrame {
     }
     
     private void updateTotal() {
+        totalLabel.setText(currencyFormat.format(cartTotal(orderItems)));
+    }
+
+    static double cartTotal(List<OrderItem> items) {
         double total = 0;
-        for (OrderItem orderItem : orderItems) {
+        for (OrderItem orderItem : items) {
             total += orderItem.menuItem.price * orderItem.quantity;
         }
-        totalLabel.setText(currencyFormat.format(total));
+        return total;
     }
 
     private int findMenuIdByName(String menuName) {
@@ -744,11 +757,9 @@ public class CustomerFrame extends JFrame {
                 }
             }
             
-            List<Menu> allMenus = menuDAO.findAll();
-            for (Menu menu : allMenus) {
-                if (menu.getNamaMenu().equals(menuName)) {
-                    return menu.getIdMenu();
-                }
+            Menu menu = MenuCatalog.get().findByName(menuName);
+            if (menu != null) {
+                return menu.getIdMenu();
             }
         } catch (Exception e) {
             System.err.println("Error finding menu ID: " + e.getMessage());
@@ -756,10 +767,10 @@ public class CustomerFrame extends JFrame {
         return -1;
     }
 
-    private void proceedToPayment(int orderId, double total) {
+    private void proceedToPayment(OrderReplicator.Submitted order, double total) {
         List<OrderItem> savedOrderItems = new ArrayList<>(orderItems);
         
-        PaymentMethodDialog paymentDialog = new PaymentMethodDialog(this, orderId, total, savedOrderItems);
+        PaymentMethodDialog paymentDialog = new PaymentMethodDialog(this, order, total, savedOrderItems);
         paymentDialog.setVisible(true);
 
         String metodeBayar = paymentDialog.getSelectedPaymentMethod();
@@ -770,52 +781,43 @@ public class CustomerFrame extends JFrame {
         }
     }
     
-    private void cancelOrder(int orderId, String cancelReason) {
-        try {
-            if (customerOrderDAO.updateStatus(orderId, "dibatalkan")) {
-                PesananDibatalkan pesananBatal = new PesananDibatalkan(
-                    orderId,
-                    new Timestamp(System.currentTimeMillis()),
-                    cancelReason
-                );
-                
-                if (pesananDibatalkanDAO.create(pesananBatal)) {
-                    JOptionPane.showMessageDialog(this,
-                        "Order cancelled successfully!\n" +
-                        "Order ID: " + orderId + "\n" +
-                        "Reason: " + cancelReason,
-                        "Order Cancelled",
-                        JOptionPane.INFORMATION_MESSAGE);
-                } else {
-                    JOptionPane.showMessageDialog(this,
-                        "Order cancelled, but failed to log cancellation.",
-                        "Warning",
-                        JOptionPane.WARNING_MESSAGE);
-                }
+    private void cancelOrder(String orderKey, String orderLabel, String cancelReason) {
+        DataAccess.submit(() -> OrderReplicator.get().submitCancel(orderKey, cancelReason), cancelled -> {
+            if (cancelled.isApplied()) {
+                JOptionPane.showMessageDialog(this,
+                    "Order cancelled successfully!\n" +
+                    orderLabel + "\n" +
+                    "Reason: " + cancelReason,
+                    "Order Cancelled",
+                    JOptionPane.INFORMATION_MESSAGE);
             } else {
                 JOptionPane.showMessageDialog(this,
-                    "Failed to cancel order!",
-                    "Error",
-                    JOptionPane.ERROR_MESSAGE);
+                    "Cancellation saved on this kiosk.\n" +
+                    orderLabel + "\n" +
+                    "Reason: " + cancelReason + "\n\n" +
+                    "The server is not responding, so the cancellation will be sent automatically.\n" +
+                    "Please tell the cashier if the order was already paid.",
+                    "Cancellation Queued",
+                    JOptionPane.INFORMATION_MESSAGE);
             }
-        } catch (Exception e) {
-            e.printStackTrace();
+        }, e -> {
             JOptionPane.showMessageDialog(this,
                 "Error cancelling order: " + e.getMessage(),
                 "Error",
                 JOptionPane.ERROR_MESSAGE);
-        }
+        });
     }
     
     private void checkout() {
+        if (checkoutInProgress) {
+            return;
+        }
         if (orderItems.isEmpty()) {
             JOptionPane.showMessageDialog(this, "Cart is empty!", "Warning", JOptionPane.WARNING_MESSAGE);
             return;
         }
 
-        double total = orderItems.stream()
-            .mapToDouble(item -> item.menuItem.price * item.quantity)
-            .sum();
+        double total = cartTotal(orderItems);
 
         // Create modern checkout dialog
         JDialog checkoutDialog = new JDialog(this, "Checkout", true);
@@ -1037,128 +1039,59 @@ public class CustomerFrame extends JFrame {
         String customerName = customerNameField.getText().trim();
         String messageOptional = messageArea.getText().trim();
 
-        // Save customer to database
-        int customerId = saveOrUpdateCustomer(customerName);
-        if (customerId <= 0) {
-            JOptionPane.showMessageDialog(this, 
-                "Failed to save customer data!", 
-                "Error", 
-                JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
-        currentUserId = customerId;
-        currentCustomerName = customerName;
-        updateHeaderWithCustomerName();
-
-        // Save order to database
-        try {
-            CustomerOrder customerOrder = new CustomerOrder(
-                new Timestamp(System.currentTimeMillis()),
-                total,
-                messageOptional.isEmpty() ? null : messageOptional,
-                customerId,
-                "pending"
-            );
-            
-            int orderId = customerOrderDAO.create(customerOrder);
-            if (orderId <= 0) {
-                JOptionPane.showMessageDialog(this, "Failed to save order!", "Error", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
-            
-            // Save order details
-            boolean allDetailsSaved = true;
-            for (OrderItem orderItem : orderItems) {
+        List<OrderItem> itemsToSave = new ArrayList<>(orderItems);
+        checkoutInProgress = true;
+        
+        DataAccess.submit(() -> {
+            // Build order lines
+            List<OrderReplicator.Line> lines = new ArrayList<>();
+            for (OrderItem orderItem : itemsToSave) {
                 int menuId = findMenuIdByName(orderItem.menuItem.name);
                 if (menuId <= 0) {
                     System.err.println("Menu ID not found for: " + orderItem.menuItem.name);
                     continue;
                 }
                 
-                OrderDetail orderDetail = new OrderDetail(
-                    orderId,
-                    menuId,
-                    orderItem.quantity,
-                    (double) orderItem.menuItem.price
-                );
-                
-                if (!orderDetailDAO.create(orderDetail)) {
-                    allDetailsSaved = false;
-                    System.err.println("Failed to save order detail for: " + orderItem.menuItem.name);
-                }
+                lines.add(new OrderReplicator.Line(menuId, orderItem.quantity, (double) orderItem.menuItem.price));
             }
             
-            if (!allDetailsSaved) {
-                int choice = JOptionPane.showConfirmDialog(this,
-                    "Some order details failed to save.\n" +
-                    "Do you want to cancel this order?",
-                    "Error Saving Details",
-                    JOptionPane.YES_NO_OPTION,
-                    JOptionPane.WARNING_MESSAGE);
-                
-                if (choice == JOptionPane.YES_OPTION) {
-                    cancelOrder(orderId, "Failed to save order details");
-                    return;
-                }
-            } else {
+            // Journaled locally first, then written to the database with the customer,
+            // header and details in one transaction
+            return OrderReplicator.get().submitOrder(customerName,
+                messageOptional.isEmpty() ? null : messageOptional, total, lines);
+        }, submitted -> {
+            checkoutInProgress = false;
+            currentCustomerName = customerName;
+            updateHeaderWithCustomerName();
+            
+            if (submitted.isApplied()) {
                 JOptionPane.showMessageDialog(this, 
-                    "Order saved successfully!\nOrder ID: " + orderId + 
+                    "Order saved successfully!\nOrder ID: " + submitted.orderId() + 
                     "\nCustomer: " + customerName, 
                     "Order Success", JOptionPane.INFORMATION_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(this, 
+                    "Order saved on this kiosk!\nOrder Ref: " + shortRef(submitted.key()) + 
+                    "\nCustomer: " + customerName +
+                    "\n\nThe server is not responding, so the order will be sent automatically.", 
+                    "Order Saved", JOptionPane.INFORMATION_MESSAGE);
             }
             
             // Proceed to payment
-            proceedToPayment(orderId, total);
-            
-        } catch (Exception e) {
-            e.printStackTrace();
+            proceedToPayment(submitted, total);
+        }, e -> {
+            checkoutInProgress = false;
             JOptionPane.showMessageDialog(this, 
                 "Error saving order: " + e.getMessage(), 
                 "Error", JOptionPane.ERROR_MESSAGE);
-        }
-    }
-
-    private int saveOrUpdateCustomer(String customerName) {
-        try {
-            List<User> allUsers = userDAO.findAll();
-            for (User user : allUsers) {
-                if (user.getNama().equalsIgnoreCase(customerName) && 
-                    "customer".equalsIgnoreCase(user.getRole())) {
-                    return user.getUserId();
-                }
-            }
-            
-            String username = generateCustomerUsername(customerName);
-            
-            User newCustomer = new User(
-                username,
-                "default123",
-                customerName,
-                "customer"
-            );
-            
-            if (userDAO.create(newCustomer)) {
-                User createdUser = userDAO.findByUsername(username);
-                if (createdUser != null) {
-                    return createdUser.getUserId();
-                }
-            }
-            
-            return -1;
-            
-        } catch (Exception e) {
-            System.err.println("Error saving customer: " + e.getMessage());
-            e.printStackTrace();
-            return -1;
-        }
+        });
     }
 
-    private String generateCustomerUsername(String customerName) {
-        String baseUsername = customerName.toLowerCase().replaceAll("\\s+", "");
-        long timestamp = System.currentTimeMillis();
-        String timestampSuffix = String.valueOf(timestamp).substring(8);
-        return "cust_" + baseUsername + "_" + timestampSuffix;
+    /**
+     * Short form of a journal key for staff and customers to read out
+     */
+    static String shortRef(String key) {
+        return key.substring(0, 8).toUpperCase();
     }
 
     private void updateHeaderWithCustomerName() {
@@ -1172,14 +1105,17 @@ public class CustomerFrame extends JFrame {
     // PaymentMethodDialog class with improved error handling
     class PaymentMethodDialog extends JDialog {
         private int orderId;
+        private String orderKey;
         private double totalAmount;
         private String selectedPaymentMethod;
         private CustomerFrame parentFrame;
         private List<OrderItem> savedOrderItems;
+        private boolean processing = false;
 
-        public PaymentMethodDialog(Frame parent, int orderId, double totalAmount, List<OrderItem> savedOrderItems) {
+        public PaymentMethodDialog(Frame parent, OrderReplicator.Submitted order, double totalAmount, List<OrderItem> savedOrderItems) {
             super(parent, "Payment Method", true);
-            this.orderId = orderId;
+            this.orderId = order.orderId();
+            this.orderKey = order.key();
             this.totalAmount = totalAmount;
             this.parentFrame = (CustomerFrame) parent;
             this.savedOrderItems = new ArrayList<>(savedOrderItems);
@@ -1190,6 +1126,13 @@ public class CustomerFrame extends JFrame {
             setupPaymentDialog();
         }
         
+        /**
+         * Order number to show: the database id, or the journal reference while the order is queued
+         */
+        private String orderLabel() {
+            return orderId > 0 ? "Order ID: " + orderId : "Order Ref: " + shortRef(orderKey);
+        }
+        
         private void setupPaymentDialog() {
             JPanel mainPanel = new JPanel(new BorderLayout(20, 20));
             mainPanel.setBackground(CARD_COLOR);
@@ -1205,7 +1148,7 @@ public class CustomerFrame extends JFrame {
             titleLabel.setHorizontalAlignment(SwingConstants.CENTER);
             
             JLabel infoLabel = new JLabel(
-                "<html><center>Order ID: " + orderId + 
+                "<html><center>" + orderLabel() + 
                 "<br>Total: " + currencyFormat.format(totalAmount) + "</center></html>");
             infoLabel.setFont(new Font("Inter", Font.BOLD, 14));
             infoLabel.setForeground(TEXT_SECONDARY);
@@ -1223,7 +1166,6 @@ public class CustomerFrame extends JFrame {
             cashButton.addActionListener(e -> {
                 selectedPaymentMethod = "cash";
                 processCashPayment();
-                dispose();
             });
             
             JButton qrisButton = createPaymentButton("📱 QRIS", "Pay with digital wallet");
@@ -1308,74 +1250,45 @@ public class CustomerFrame extends JFrame {
             return button;
         }
 
+        /**
+         * Writes the pending cash payment in the background, then shows the receipt ID
+         * and closes this dialog.
+         */
         private void processCashPayment() {
-            try {
-                // Validate database connection
-                if (pembayaranDAO == null) {
-                    throw new Exception("Payment DAO is not initialized");
-                }
-                
-                System.out.println("Processing cash payment for order ID: " + orderId);
-                
-                // Update order status
-                boolean statusUpdated = customerOrderDAO.updateStatus(orderId, "menunggu_pembayaran");
-                if (!statusUpdated) {
-                    throw new Exception("Failed to update order status");
-                }
-                
-                // Create payment record
-                Pembayaran pembayaran = new Pembayaran(
-                    orderId,
-                    1, // Default cashier ID
-                    new Timestamp(System.currentTimeMillis()),
-                    selectedPaymentMethod,
-                    totalAmount,
-                    "menunggu"
-                );
-                
-                boolean paymentCreated = pembayaranDAO.create(pembayaran);
-                if (!paymentCreated) {
-                    throw new Exception("Failed to create payment record");
-                }
+            if (processing) {
+                return;
+            }
+            processing = true;
+            System.out.println("Processing cash payment for " + orderLabel());
+            
+            DataAccess.submit(() -> {
+                // Order status, payment and nota are written in one transaction once applied
+                OrderReplicator.Submitted payment = OrderReplicator.get().submitPayment(orderKey,
+                    "menunggu_pembayaran", selectedPaymentMethod, totalAmount, "menunggu", 1); // Default cashier ID
                 
-                // Create nota
-                if (notaDAO != null) {
-                    Nota nota = new Nota(
-                        orderId,
-                        new Timestamp(System.currentTimeMillis()),
-                        totalAmount,
-                        selectedPaymentMethod,
-                        "menunggu"
-                    );
-                    
-                    boolean notaCreated = notaDAO.create(nota);
-                    if (notaCreated) {
-                        Nota createdNota = notaDAO.findByOrderId(orderId);
-                        if (createdNota != null) {
-                            showCashPaymentPending(createdNota.getIdNota());
-                        } else {
-                            showCashPaymentPending(orderId);
-                        }
-                    } else {
-                        showCashPaymentPending(orderId);
-                        JOptionPane.showMessageDialog(this, 
-                            "Payment processed but receipt creation failed.", 
-                            "Warning", JOptionPane.WARNING_MESSAGE);
-                    }
-                } else {
-                    showCashPaymentPending(orderId);
+                PaymentResult result = new PaymentResult();
+                result.notaCreated = payment.notaId() > 0;
+                result.receiptId = result.notaCreated ? String.valueOf(payment.notaId()) : shortRef(payment.key());
+                return result;
+            }, result -> {
+                showCashPaymentPending(result.receiptId);
+                if (!result.notaCreated) {
+                    JOptionPane.showMessageDialog(this, 
+                        "The server is not responding, so this payment is saved on the kiosk.\n" +
+                        "It will reach the cashier automatically; show them your name and this reference.", 
+                        "Payment Queued", JOptionPane.INFORMATION_MESSAGE);
                 }
-                
-            } catch (Exception e) {
+                dispose();
+            }, e -> {
                 System.err.println("Error processing cash payment: " + e.getMessage());
-                e.printStackTrace();
                 JOptionPane.showMessageDialog(this, 
                     "Error processing payment: " + e.getMessage(), 
                     "Payment Error", JOptionPane.ERROR_MESSAGE);
-            }
+                dispose();
+            });
         }
 
-        private void showCashPaymentPending(int notaId) {
+        private void showCashPaymentPending(String receiptId) {
             JDialog pendingDialog = new JDialog(this, "Cash Payment - Awaiting Confirmation", true);
             pendingDialog.setSize(500, 450);
             pendingDialog.setLocationRelativeTo(this);
@@ -1412,7 +1325,7 @@ public class CustomerFrame extends JFrame {
             receiptLabel.setFont(new Font("Inter", Font.BOLD, 16));
             receiptLabel.setForeground(new Color(146, 64, 14));
             
-            JLabel receiptIdLabel = new JLabel(String.valueOf(notaId), SwingConstants.CENTER);
+            JLabel receiptIdLabel = new JLabel(receiptId, SwingConstants.CENTER);
             receiptIdLabel.setFont(new Font("Inter", Font.BOLD, 48));
             receiptIdLabel.setForeground(WARNING_COLOR);
             
@@ -1430,7 +1343,7 @@ public class CustomerFrame extends JFrame {
             
             String[] details = {
                 "Customer: " + currentCustomerName,
-                "Order ID: " + orderId,
+                orderLabel(),
                 "Total: " + currencyFormat.format(totalAmount),
                 "Method: Cash"
             };
@@ -1449,7 +1362,7 @@ public class CustomerFrame extends JFrame {
             buttonPanel.setBackground(CARD_COLOR);
             
             JButton printButton = createModernButton("Print Receipt", SECONDARY_COLOR, Color.WHITE);
-            printButton.addActionListener(e -> printReceiptId(notaId));
+            printButton.addActionListener(e -> printReceiptId(receiptId));
             
             JButton closeButton = createModernButton("Close", new Color(107, 114, 128), Color.WHITE);
             closeButton.addActionListener(e -> {
@@ -1474,7 +1387,7 @@ public class CustomerFrame extends JFrame {
             pendingDialog.setVisible(true);
         }
 
-        private void printReceiptId(int notaId) {
+        private void printReceiptId(String receiptId) {
             try {
                 // Create receipt content
                 StringBuilder receipt = new StringBuilder();
@@ -1482,8 +1395,8 @@ public class CustomerFrame extends JFrame {
                 receipt.append("         DAPUR ARUNIKA\n");
                 receipt.append("     CASH PAYMENT RECEIPT\n");
                 receipt.append("========================================\n\n");
-                receipt.append("RECEIPT ID: ").append(notaId).append("\n");
-                receipt.append("ORDER ID: ").append(orderId).append("\n");
+                receipt.append("RECEIPT ID: ").append(receiptId).append("\n");
+                receipt.append(orderLabel().toUpperCase()).append("\n");
                 receipt.append("CUSTOMER: ").append(currentCustomerName).append("\n");
                 receipt.append("DATE: ").append(LocalDateTime.now()
                         .format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm"))).append("\n");
@@ -1598,7 +1511,7 @@ public class CustomerFrame extends JFrame {
             detailPanel.setLayout(new BoxLayout(detailPanel, BoxLayout.Y_AXIS));
             detailPanel.setBackground(CARD_COLOR);
             
-            JLabel orderLabel = new JLabel("Order ID: " + orderId, SwingConstants.CENTER);
+            JLabel orderLabel = new JLabel(orderLabel(), SwingConstants.CENTER);
             orderLabel.setFont(new Font("Inter", Font.BOLD, 14));
             orderLabel.setForeground(TEXT_SECONDARY);
             
@@ -1627,7 +1540,6 @@ public class CustomerFrame extends JFrame {
             completeButton.addActionListener(e -> {
                 qrisDialog.dispose();
                 processQRISPayment();
-                dispose();
             });
             
             JButton cancelQrisButton = createModernButton("Cancel Payment", DANGER_COLOR, Color.WHITE);
@@ -1655,49 +1567,34 @@ public class CustomerFrame extends JFrame {
         }
 
         private void processQRISPayment() {
-            try {
-                // Update order status
-                customerOrderDAO.updateStatus(orderId, "selesai");
-                
-                // Create payment record
-                Pembayaran pembayaran = new Pembayaran(
-                    orderId,
-                    1, // Default cashier ID for QRIS
-                    new Timestamp(System.currentTimeMillis()),
-                    selectedPaymentMethod,
-                    totalAmount,
-                    "berhasil"
-                );
+            if (processing) {
+                return;
+            }
+            processing = true;
+            
+            DataAccess.submit(() -> {
+                // Order status, payment and nota are written in one transaction once applied
+                OrderReplicator.Submitted payment = OrderReplicator.get().submitPayment(orderKey,
+                    "selesai", selectedPaymentMethod, totalAmount, "berhasil", 1); // Default cashier ID for QRIS
                 
-                if (pembayaranDAO.create(pembayaran)) {
-                    // Create nota
-                    Nota nota = new Nota(
-                        orderId,
-                        new Timestamp(System.currentTimeMillis()),
-                        totalAmount,
-                        selectedPaymentMethod,
-                        "berhasil"
-                    );
-                    
-                    if (notaDAO.create(nota)) {
-                        showSuccessReceipt();
-                    } else {
-                        JOptionPane.showMessageDialog(this, 
-                            "Payment successful but receipt creation failed.", 
-                            "Warning", JOptionPane.WARNING_MESSAGE);
-                    }
-                } else {
+                PaymentResult result = new PaymentResult();
+                result.notaCreated = payment.notaId() > 0;
+                return result;
+            }, result -> {
+                if (!result.notaCreated) {
                     JOptionPane.showMessageDialog(this, 
-                        "Failed to process payment!", 
-                        "Error", JOptionPane.ERROR_MESSAGE);
+                        "Payment successful! The server is not responding, so the receipt\n" +
+                        "is saved on this kiosk and will be sent automatically.", 
+                        "Payment Queued", JOptionPane.INFORMATION_MESSAGE);
                 }
-                
-            } catch (Exception e) {
-                e.printStackTrace();
+                showSuccessReceipt();
+                dispose();
+            }, e -> {
                 JOptionPane.showMessageDialog(this, 
                     "Error processing QRIS payment: " + e.getMessage(), 
                     "Error", JOptionPane.ERROR_MESSAGE);
-            }
+                dispose();
+            });
         }
 
         private void showSuccessReceipt() {
@@ -1736,7 +1633,7 @@ public class CustomerFrame extends JFrame {
             
             String[] orderInfo = {
                 "Customer: " + currentCustomerName,
-                "Order ID: " + orderId,
+                orderLabel(),
                 "Payment Method: " + selectedPaymentMethod.toUpperCase(),
                 "Date: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm"))
             };
@@ -1859,7 +1756,7 @@ public class CustomerFrame extends JFrame {
                 
                 int confirm = JOptionPane.showConfirmDialog(this,
                     "Are you sure you want to cancel this order?\n" +
-                    "Order ID: " + orderId + "\n" +
+                    orderLabel() + "\n" +
                     "Total: " + currencyFormat.format(totalAmount) + "\n" +
                     "Reason: " + selectedReason,
                     "Confirm Cancellation",
@@ -1867,7 +1764,7 @@ public class CustomerFrame extends JFrame {
                     JOptionPane.QUESTION_MESSAGE);
                 
                 if (confirm == JOptionPane.YES_OPTION) {
-                    parentFrame.cancelOrder(orderId, selectedReason);
+                    parentFrame.cancelOrder(orderKey, orderLabel(), selectedReason);
                     dispose();
                 }
             }
@@ -1901,6 +1798,8 @@ public class CustomerFrame extends JFrame {
     }
     
     public static void main(String[] args) {
+        EdtWatchdog.install();
+        SchemaMigrator.migrateAtStartup();
         SwingUtilities.invokeLater(() -> {
             try {
                 UIManager.setLookAndFeel(UIManager.getLookAndFeel());
@@ -3,15 +3,23 @@ package view;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class CustomerOrderDAO {
-    private Connection connection;
 
-    public CustomerOrderDAO() {
-        this.connection = DatabaseConnection.getConnection();
+    public int create(CustomerOrder order) {
+        try (Connection connection = DatabaseConnection.getConnection("CustomerOrderDAO.create")) {
+            return create(connection, order);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return -1;
     }
 
-    public int create(CustomerOrder order) {
+    /**
+     * Insert the order on a caller-supplied connection so it can share a transaction
+     */
+    public int create(Connection connection, CustomerOrder order) throws SQLException {
         String sql = "INSERT INTO CustomerOrder (tanggal_pesanan, total_pesanan, catatan, customer_id, status_pesanan) VALUES (?, ?, ?, ?, ?)";
         try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setTimestamp(1, order.getTanggalPesanan());
@@ -27,38 +35,39 @@ public class CustomerOrderDAO {
                     return generatedKeys.getInt(1);
                 }
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
         }
         return -1;
     }
 
     public boolean updateStatus(int idPesanan, String newStatus) {
+        try (Connection connection = DatabaseConnection.getConnection("CustomerOrderDAO.updateStatus")) {
+            return updateStatus(connection, idPesanan, newStatus);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Update the status on a caller-supplied connection so it can share a transaction
+     */
+    public boolean updateStatus(Connection connection, int idPesanan, String newStatus) throws SQLException {
         String sql = "UPDATE CustomerOrder SET status_pesanan = ? WHERE id_pesanan = ?";
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, newStatus);
             stmt.setInt(2, idPesanan);
             return stmt.executeUpdate() > 0;
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return false;
         }
     }
 
     public CustomerOrder findById(int idPesanan) {
         String sql = "SELECT * FROM CustomerOrder WHERE id_pesanan = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("CustomerOrderDAO.findById");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, idPesanan);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
-                CustomerOrder order = new CustomerOrder();
-                order.setIdPesanan(rs.getInt("id_pesanan"));
-                order.setTanggalPesanan(rs.getTimestamp("tanggal_pesanan"));
-                order.setTotalPesanan(rs.getDouble("total_pesanan"));
-                order.setCatatan(rs.getString("catatan"));
-                order.setCustomerId(rs.getInt("customer_id"));
-                order.setStatusPesanan(rs.getString("status_pesanan"));
-                return order;
+                return mapRow(rs);
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -66,24 +75,104 @@ public class CustomerOrderDAO {
         return null;
     }
 
+    /**
+     * Get one page of orders, newest first. Pass status = null for every status and
+     * afterTanggal = null for the first page, otherwise the tanggal/id of the last row
+     * of the previous page (keyset pagination).
+     */
+    public List<CustomerOrder> findPage(String status, Timestamp afterTanggal, int afterId, int limit) {
+        List<CustomerOrder> orders = new ArrayList<>();
+        String sql = """
+            SELECT * FROM CustomerOrder
+            WHERE (? IS NULL OR status_pesanan = ?)
+            AND (? IS NULL OR tanggal_pesanan < ? OR (tanggal_pesanan = ? AND id_pesanan < ?))
+            ORDER BY tanggal_pesanan DESC, id_pesanan DESC
+            LIMIT ?
+            """;
+        try (Connection connection = DatabaseConnection.getConnection("CustomerOrderDAO.findPageByStatus");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setString(1, status);
+            stmt.setString(2, status);
+            stmt.setTimestamp(3, afterTanggal);
+            stmt.setTimestamp(4, afterTanggal);
+            stmt.setTimestamp(5, afterTanggal);
+            stmt.setInt(6, afterId);
+            stmt.setInt(7, limit);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                orders.add(mapRow(rs));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return orders;
+    }
+
     public List<CustomerOrder> findAll() {
         List<CustomerOrder> orders = new ArrayList<>();
         String sql = "SELECT * FROM CustomerOrder ORDER BY tanggal_pesanan DESC";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("CustomerOrderDAO.findAll");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
-                CustomerOrder order = new CustomerOrder();
-                order.setIdPesanan(rs.getInt("id_pesanan"));
-                order.setTanggalPesanan(rs.getTimestamp("tanggal_pesanan"));
-                order.setTotalPesanan(rs.getDouble("total_pesanan"));
-                order.setCatatan(rs.getString("catatan"));
-                order.setCustomerId(rs.getInt("customer_id"));
-                order.setStatusPesanan(rs.getString("status_pesanan"));
-                orders.add(order);
+                orders.add(mapRow(rs));
             }
         } catch (SQLException e) {
             e.printStackTrace();
         }
         return orders;
     }
+
+    /**
+     * Get up to limit rows with id_pesanan greater than afterId, in id_pesanan order.
+     * Pass 0 for the first page, then the last id_pesanan of the previous page.
+     */
+    public List<CustomerOrder> findPage(int afterId, int limit) {
+        List<CustomerOrder> orders = new ArrayList<>();
+        String sql = "SELECT * FROM CustomerOrder WHERE id_pesanan > ? ORDER BY id_pesanan LIMIT ?";
+        try (Connection connection = DatabaseConnection.getConnection("CustomerOrderDAO.findPage");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                orders.add(mapRow(rs));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return orders;
+    }
+
+    /**
+     * Hand every row to action in id_pesanan order without loading the table into memory.
+     * The driver streams rows one at a time and the connection is held until the
+     * last row, so action must not block or touch the database. Returns the row count.
+     */
+    public int stream(Consumer<? super CustomerOrder> action) throws SQLException {
+        String sql = "SELECT * FROM CustomerOrder ORDER BY id_pesanan";
+        int count = 0;
+        try (Connection connection = DatabaseConnection.getConnection("CustomerOrderDAO.stream");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    action.accept(mapRow(rs));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    static CustomerOrder mapRow(ResultSet rs) throws SQLException {
+        CustomerOrder order = new CustomerOrder();
+        order.setIdPesanan(rs.getInt("id_pesanan"));
+        order.setTanggalPesanan(rs.getTimestamp("tanggal_pesanan"));
+        order.setTotalPesanan(rs.getDouble("total_pesanan"));
+        order.setCatatan(rs.getString("catatan"));
+        order.setCustomerId(rs.getInt("customer_id"));
+        order.setStatusPesanan(rs.getString("status_pesanan"));
+        return order;
+    }
 }
@@ -0,0 +1,245 @@
+package view;
+
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Every ReportDAO dashboard figure loaded at once. The queries are independent, so
+ * load() starts them together, each on its own pooled connection, and a refresh
+ * takes about as long as the slowest one. A query that misses QUERY_TIMEOUT_MS or
+ * fails leaves its section empty instead of holding up the rest. The remaining budget
+ * is also set as each statement's query timeout, so the driver kills a query that runs
+ * past it and its connection and thread are freed for the next refresh.
+ *
+ * The snapshot holds ReportDAO's immutable result records, so it can be handed
+ * to the EDT as is. Each section records how long its query took.
+ *
+ * For now this is only a loader: LoadGenerator's manager and the main below use it,
+ * while ManagerFrame still shows DashboardStats.
+ *
+ * Usage: DashboardSnapshot (prints the per-query latency breakdown)
+ */
+public final class DashboardSnapshot {
+    // Below the connection pool size so the fan-out never waits on the pool
+    private static final int QUERY_THREADS = 8;
+    private static final long QUERY_TIMEOUT_MS = 5_000;
+    private static final int TOP_CUSTOMERS = 10;
+
+    private static final AtomicInteger threadNumber = new AtomicInteger();
+    private static final ExecutorService executor = Executors.newFixedThreadPool(QUERY_THREADS, r -> {
+        Thread t = new Thread(r, "dashboard-query-" + threadNumber.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+    });
+
+    public enum Status { OK, TIMED_OUT, FAILED }
+
+    private final Section<ReportDAO.DailyOrderSummary> dailyOrders;
+    private final Section<ReportDAO.DailyPaymentSummary> dailyPayments;
+    private final Section<List<ReportDAO.PaymentMethodRow>> paymentMethods;
+    private final Section<ReportDAO.MenuPerformance> menuPerformance;
+    private final Section<ReportDAO.HourlyAnalysis> hourlyAnalysis;
+    private final Section<ReportDAO.WeeklySummary> weeklySummary;
+    private final Section<List<ReportDAO.TopCustomer>> topCustomers;
+    private final Section<ReportDAO.CancellationAnalysis> cancelledOrders;
+    private final Date loadedAt;
+    private final long totalMillis;
+
+    private DashboardSnapshot(Loader loader, Date loadedAt, long startedAt) {
+        this.dailyOrders = loader.dailyOrders.await();
+        this.dailyPayments = loader.dailyPayments.await();
+        this.paymentMethods = loader.paymentMethods.await();
+        this.menuPerformance = loader.menuPerformance.await();
+        this.hourlyAnalysis = loader.hourlyAnalysis.await();
+        this.weeklySummary = loader.weeklySummary.await();
+        this.topCustomers = loader.topCustomers.await();
+        this.cancelledOrders = loader.cancelledOrders.await();
+        this.loadedAt = loadedAt;
+        this.totalMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    }
+
+    /**
+     * Run every dashboard query concurrently and wait for all of them (or their timeouts).
+     * Blocks, so call it off the EDT.
+     */
+    public static DashboardSnapshot load() {
+        Date now = new Date();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(QUERY_TIMEOUT_MS);
+        ReportDAO reportDAO = ReportDAO.withDeadline(deadline);
+
+        Loader loader = new Loader(deadline);
+        loader.dailyOrders = loader.start("dailyOrders", () -> reportDAO.getDailyOrderSummary(now));
+        loader.dailyPayments = loader.start("dailyPayments", () -> reportDAO.getDailyPaymentSummary(now));
+        loader.paymentMethods = loader.start("paymentMethods", reportDAO::getPaymentMethodSummary);
+        loader.menuPerformance = loader.start("menuPerformance", reportDAO::getMenuPerformance);
+        loader.hourlyAnalysis = loader.start("hourlyAnalysis", reportDAO::getHourlyAnalysis);
+        loader.weeklySummary = loader.start("weeklySummary", reportDAO::getWeeklySummary);
+        loader.topCustomers = loader.start("topCustomers", () -> reportDAO.getTopCustomers(TOP_CUSTOMERS));
+        loader.cancelledOrders = loader.start("cancelledOrders", reportDAO::getCancelledOrdersAnalysis);
+
+        return new DashboardSnapshot(loader, now, start);
+    }
+
+    public Section<ReportDAO.DailyOrderSummary> getDailyOrders() { return dailyOrders; }
+
+    public Section<ReportDAO.DailyPaymentSummary> getDailyPayments() { return dailyPayments; }
+
+    public Section<List<ReportDAO.PaymentMethodRow>> getPaymentMethods() { return paymentMethods; }
+
+    public Section<ReportDAO.MenuPerformance> getMenuPerformance() { return menuPerformance; }
+
+    public Section<ReportDAO.HourlyAnalysis> getHourlyAnalysis() { return hourlyAnalysis; }
+
+    public Section<ReportDAO.WeeklySummary> getWeeklySummary() { return weeklySummary; }
+
+    public Section<List<ReportDAO.TopCustomer>> getTopCustomers() { return topCustomers; }
+
+    public Section<ReportDAO.CancellationAnalysis> getCancelledOrders() { return cancelledOrders; }
+
+    public Date getLoadedAt() { return new Date(loadedAt.getTime()); }
+
+    /** Get the wall time of the whole load, roughly the slowest section */
+    public long getTotalMillis() { return totalMillis; }
+
+    /** Get every section in load order, for the latency breakdown */
+    public List<Section<?>> getSections() {
+        return List.of(dailyOrders, dailyPayments, paymentMethods, menuPerformance,
+                hourlyAnalysis, weeklySummary, topCustomers, cancelledOrders);
+    }
+
+    /** Get true when every section loaded */
+    public boolean isComplete() {
+        for (Section<?> section : getSections()) {
+            if (section.getStatus() != Status.OK) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get a one-line-per-query latency report, slowest first
+     */
+    public String formatLatencies() {
+        List<Section<?>> sections = new ArrayList<>(getSections());
+        sections.sort((a, b) -> Long.compare(b.getMillis(), a.getMillis()));
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("dashboard total %d ms%n", totalMillis));
+        for (Section<?> section : sections) {
+            sb.append(String.format("  %-16s %6d ms  %s%n", section.getName(), section.getMillis(), section.getStatus()));
+        }
+        return sb.toString();
+    }
+
+    public static void main(String[] args) {
+        SchemaMigrator.migrateAtStartup();
+        try {
+            // First load also warms the pool and the statement caches
+            load();
+            System.out.print(load().formatLatencies());
+        } finally {
+            DatabaseConnection.closeConnection();
+        }
+    }
+
+    /**
+     * One query's result, outcome and latency. value is null unless status is OK.
+     */
+    public static final class Section<T> {
+        private final String name;
+        private final T value;
+        private final Status status;
+        private final long millis;
+
+        Section(String name, T value, Status status, long millis) {
+            this.name = name;
+            this.value = value;
+            this.status = status;
+            this.millis = millis;
+        }
+
+        public String getName() { return name; }
+        public T getValue() { return value; }
+        public Status getStatus() { return status; }
+        public long getMillis() { return millis; }
+        public boolean isOk() { return status == Status.OK; }
+    }
+
+    private static final class Loader {
+        final long deadline;
+
+        Pending<ReportDAO.DailyOrderSummary> dailyOrders;
+        Pending<ReportDAO.DailyPaymentSummary> dailyPayments;
+        Pending<List<ReportDAO.PaymentMethodRow>> paymentMethods;
+        Pending<ReportDAO.MenuPerformance> menuPerformance;
+        Pending<ReportDAO.HourlyAnalysis> hourlyAnalysis;
+        Pending<ReportDAO.WeeklySummary> weeklySummary;
+        Pending<List<ReportDAO.TopCustomer>> topCustomers;
+        Pending<ReportDAO.CancellationAnalysis> cancelledOrders;
+
+        Loader(long deadline) {
+            this.deadline = deadline;
+        }
+
+        <T> Pending<T> start(String name, Callable<T> query) {
+            return new Pending<>(name, deadline, query);
+        }
+    }
+
+    private static final class Pending<T> {
+        final String name;
+        final long deadline;
+        final long startedAt = System.nanoTime();
+        volatile long finishedAt;
+        final Future<T> future;
+
+        Pending(String name, long deadline, Callable<T> query) {
+            this.name = name;
+            this.deadline = deadline;
+            this.future = executor.submit(() -> {
+                try {
+                    return query.call();
+                } finally {
+                    finishedAt = System.nanoTime();
+                }
+            });
+        }
+
+        Section<T> await() {
+            try {
+                T value = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                return new Section<>(name, value, Status.OK, elapsedMillis());
+            } catch (TimeoutException e) {
+                // No interrupt (see DataAccess.Slot); the statement's query timeout has the server kill it
+                future.cancel(false);
+                System.err.println("Dashboard query " + name + " timed out");
+                return new Section<>(name, null, Status.TIMED_OUT, elapsedMillis());
+            } catch (ExecutionException e) {
+                System.err.println("Dashboard query " + name + " failed: " + e.getCause());
+                e.getCause().printStackTrace();
+                return new Section<>(name, null, Status.FAILED, elapsedMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(false);
+                return new Section<>(name, null, Status.FAILED, elapsedMillis());
+            }
+        }
+
+        private long elapsedMillis() {
+            long end = finishedAt != 0 ? finishedAt : System.nanoTime();
+            return TimeUnit.NANOSECONDS.toMillis(end - startedAt);
+        }
+    }
+}
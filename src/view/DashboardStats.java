@@ -0,0 +1,93 @@
+package view;
+
+
+import java.sql.*;
+
+/**
+ * Headline numbers for the manager dashboard: revenue, order, cancellation and
+ * menu counts, read with one statement. Revenue and orders come from the sales
+ * rollups, so the cost does not grow with the order tables. The result is cached
+ * for TTL_MS; OrderService and MenuDAO writes invalidate it so this terminal sees
+ * its own changes at once, other terminals' within the TTL.
+ */
+public final class DashboardStats {
+    private static final long TTL_MS = 10_000;
+
+    static final String STATS_SQL = """
+        SELECT
+            (SELECT COALESCE(SUM(paid_total), 0) FROM sales_rollup_hourly) as total_revenue,
+            (SELECT COALESCE(SUM(order_count), 0) FROM sales_rollup_hourly) as total_orders,
+            (SELECT COUNT(*) FROM PesananDibatalkan) as total_cancelled,
+            (SELECT COUNT(*) FROM Menu) as total_menus
+        """;
+
+    private static volatile DashboardStats cached;
+    // Bumped by invalidate() so a load that raced with a write is not cached
+    private static long generation;
+
+    private final double totalRevenue;
+    private final int totalOrders;
+    private final int totalCancelled;
+    private final int totalMenus;
+    private final long loadedAt;
+
+    private DashboardStats(double totalRevenue, int totalOrders, int totalCancelled, int totalMenus, long loadedAt) {
+        this.totalRevenue = totalRevenue;
+        this.totalOrders = totalOrders;
+        this.totalCancelled = totalCancelled;
+        this.totalMenus = totalMenus;
+        this.loadedAt = loadedAt;
+    }
+
+    /**
+     * Get the dashboard numbers, querying at most once per TTL. Call off the EDT.
+     */
+    public static DashboardStats get() throws SQLException {
+        DashboardStats stats = cached;
+        if (stats != null && System.currentTimeMillis() - stats.loadedAt < TTL_MS) {
+            return stats;
+        }
+
+        long startGeneration;
+        synchronized (DashboardStats.class) {
+            startGeneration = generation;
+        }
+        stats = load();
+        synchronized (DashboardStats.class) {
+            if (generation == startGeneration) {
+                cached = stats;
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Drop the cached numbers so the next get() queries again
+     */
+    public static synchronized void invalidate() {
+        generation++;
+        cached = null;
+    }
+
+    private static DashboardStats load() throws SQLException {
+        try (Connection connection = DatabaseConnection.getConnection("DashboardStats.load");
+             PreparedStatement stmt = connection.prepareStatement(STATS_SQL)) {
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            return new DashboardStats(
+                rs.getDouble("total_revenue"),
+                rs.getInt("total_orders"),
+                rs.getInt("total_cancelled"),
+                rs.getInt("total_menus"),
+                System.currentTimeMillis());
+        }
+    }
+
+    public double getTotalRevenue() { return totalRevenue; }
+
+    public int getTotalOrders() { return totalOrders; }
+
+    public int getTotalCancelled() { return totalCancelled; }
+
+    public int getTotalMenus() { return totalMenus; }
+}
@@ -0,0 +1,140 @@
+package view;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+
+/**
+ * Shared background executor for database work. Frames hand DAO calls to it and
+ * get the result back on the Swing event thread, so the EDT never waits on JDBC.
+ */
+public final class DataAccess {
+    // Stay below the connection pool size so workers never queue inside the pool
+    private static final int WORKER_COUNT = 8;
+    private static final int QUEUE_CAPACITY = 256;
+
+    private static final AtomicInteger threadNumber = new AtomicInteger();
+    private static final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            WORKER_COUNT, WORKER_COUNT, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(QUEUE_CAPACITY),
+            r -> {
+                Thread t = new Thread(r, "data-access-" + threadNumber.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+
+    static {
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    private DataAccess() {
+    }
+
+    /**
+     * Run work on a background thread and pass its result to onSuccess on the EDT
+     */
+    public static <T> void submit(Callable<T> work, Consumer<? super T> onSuccess) {
+        submit(work, onSuccess, null);
+    }
+
+    /**
+     * Run work on a background thread; onSuccess or onError is called on the EDT
+     */
+    public static <T> void submit(Callable<T> work, Consumer<? super T> onSuccess, Consumer<? super Exception> onError) {
+        schedule(work, onSuccess, onError, () -> true);
+    }
+
+    private static <T> Future<?> schedule(Callable<T> work, Consumer<? super T> onSuccess,
+                                          Consumer<? super Exception> onError, BooleanSupplier stillWanted) {
+        // Each task is one action for N+1 detection, named after the frame method that submitted it
+        String actionName = QueryTracer.ENABLED ? QueryTracer.caller() : null;
+        try {
+            return executor.submit(() -> {
+                if (!stillWanted.getAsBoolean()) {
+                    return;
+                }
+                T result;
+                QueryTracer.Action action = QueryTracer.beginAction(actionName);
+                try {
+                    result = work.call();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    deliver(onError, e, stillWanted);
+                    return;
+                } finally {
+                    QueryTracer.endAction(action);
+                }
+                deliver(onSuccess, result, stillWanted);
+            });
+        } catch (RejectedExecutionException e) {
+            System.err.println("Data access queue is full, request dropped");
+            deliver(onError, e, stillWanted);
+            return null;
+        }
+    }
+
+    private static <V> void deliver(Consumer<? super V> callback, V value, BooleanSupplier stillWanted) {
+        if (callback == null) {
+            return;
+        }
+        SwingUtilities.invokeLater(() -> {
+            if (stillWanted.getAsBoolean()) {
+                callback.accept(value);
+            }
+        });
+    }
+
+    public static int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public static int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * A slot holds at most one live request, e.g. the data behind one table.
+     * Submitting again supersedes the previous request: if it has not started it is
+     * cancelled, and if it is already running its result is discarded.
+     */
+    public static final class Slot {
+        private final AtomicLong generation = new AtomicLong();
+        private Future<?> pending;
+
+        public <T> void submit(Callable<T> work, Consumer<? super T> onSuccess) {
+            submit(work, onSuccess, null);
+        }
+
+        public synchronized <T> void submit(Callable<T> work, Consumer<? super T> onSuccess,
+                                            Consumer<? super Exception> onError) {
+            long mine = generation.incrementAndGet();
+            cancelPending();
+            pending = schedule(work, onSuccess, onError, () -> generation.get() == mine);
+        }
+
+        /**
+         * Drop the current request without starting a new one
+         */
+        public synchronized void cancel() {
+            generation.incrementAndGet();
+            cancelPending();
+        }
+
+        private void cancelPending() {
+            if (pending != null) {
+                // No interrupt: interrupting a thread inside a JDBC socket read can poison the
+                // pooled connection. A running query finishes and its result is dropped instead.
+                pending.cancel(false);
+                pending = null;
+            }
+        }
+    }
+}
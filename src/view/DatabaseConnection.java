@@ -2,34 +2,87 @@ package view;
 
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import javax.swing.SwingUtilities;
 
 public class DatabaseConnection {
-    private static final String URL = "jdbc:mysql://localhost:3306/pemesananmakanan";
-    private static final String USERNAME = "root";
-    private static final String PASSWORD = "";
-    private static Connection connection = null;
-
-    public static Connection getConnection() {
-        try {
-            if (connection == null || connection.isClosed()) {
-                Class.forName("com.mysql.cj.jdbc.Driver");
-                connection = DriverManager.getConnection(URL, USERNAME, PASSWORD);
+    // Overridable with -Ddb.url, -Ddb.user and -Ddb.password, e.g. to point LoadGenerator at a scratch database
+    private static final String URL = System.getProperty("db.url",
+            "jdbc:mysql://localhost:3306/pemesananmakanan?useServerPrepStmts=true&rewriteBatchedStatements=true&useLocalSessionState=true");
+    private static final String USERNAME = System.getProperty("db.user", "root");
+    private static final String PASSWORD = System.getProperty("db.password", "");
+
+    // Pool sizing: four terminals plus the manager dashboard during the lunch rush
+    private static final int POOL_MIN_SIZE = 2;
+    private static final int POOL_MAX_SIZE = Integer.getInteger("db.pool.max", 10);
+    private static final long BORROW_TIMEOUT_MS = 5_000;
+    private static final long IDLE_TIMEOUT_MS = 5 * 60_000;
+    private static final long LEAK_THRESHOLD_MS = 60_000;
+    private static final int STATEMENT_CACHE_SIZE = 64;
+
+    // Read without a lock on every borrow; only creating and closing the pool synchronize
+    private static volatile ConnectionPool pool = null;
+
+    /**
+     * Borrow a pooled connection. Callers must close it (try-with-resources)
+     * to return it to the pool. Run with -ea to catch JDBC calls made on the EDT,
+     * and with -Ddb.trace=true to trace every statement (see QueryTracer).
+     */
+    public static Connection getConnection() throws SQLException {
+        assert !SwingUtilities.isEventDispatchThread()
+                : "JDBC on the Swing event thread, run it through DataAccess";
+        return QueryTracer.wrap(getPool().borrow());
+    }
+
+    /**
+     * Borrow a pooled connection and time the operation, from the borrow until close(),
+     * into the Metrics histogram named operation (e.g. "MenuDAO.findById")
+     */
+    public static Connection getConnection(String operation) throws SQLException {
+        assert !SwingUtilities.isEventDispatchThread()
+                : "JDBC on the Swing event thread, run it through DataAccess";
+        return QueryTracer.wrap(getPool().borrow(Metrics.histogram(operation)));
+    }
+
+    /**
+     * Get the pool, creating it on first use. Schema migrations are not run here;
+     * mains call SchemaMigrator.migrateAtStartup() before opening any screen.
+     */
+    public static ConnectionPool getPool() throws SQLException {
+        ConnectionPool current = pool;
+        if (current != null) {
+            return current;
+        }
+        synchronized (DatabaseConnection.class) {
+            if (pool == null) {
+                try {
+                    Class.forName("com.mysql.cj.jdbc.Driver");
+                } catch (ClassNotFoundException e) {
+                    throw new SQLException("MySQL JDBC driver not found", e);
+                }
+                ConnectionPool created = new ConnectionPool(URL, USERNAME, PASSWORD,
+                        POOL_MIN_SIZE, POOL_MAX_SIZE, BORROW_TIMEOUT_MS,
+                        IDLE_TIMEOUT_MS, LEAK_THRESHOLD_MS, STATEMENT_CACHE_SIZE);
+                registerPoolGauges(created);
+                pool = created;
             }
-        } catch (ClassNotFoundException | SQLException e) {
-            e.printStackTrace();
+            return pool;
         }
-        return connection;
     }
 
-    public static void closeConnection() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
+    private static void registerPoolGauges(ConnectionPool current) {
+        Metrics.gauge("pool.active", current::getActiveCount);
+        Metrics.gauge("pool.idle", current::getIdleCount);
+        Metrics.gauge("pool.waiters", current::getWaiterCount);
+        Metrics.gauge("pool.total", current::getTotalCount);
+        Metrics.gauge("statementCache.hits", current.getStatementCacheCounters()::getHits);
+        Metrics.gauge("statementCache.misses", current.getStatementCacheCounters()::getMisses);
+    }
+
+    public static synchronized void closeConnection() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
         }
     }
 }
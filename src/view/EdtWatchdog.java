@@ -0,0 +1,179 @@
+package view;
+
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Measures how long every event takes on the Swing event thread. Installed once at
+ * startup; it replaces the system event queue with one that times each dispatch into
+ * the "ui.dispatch" histogram and the view.EdtDispatch JFR event.
+ *
+ * A watchdog thread samples the EDT stack while an event runs past -Dui.stallMs
+ * (default 200). When the event finishes, the stall is printed to stderr with the
+ * application frames the EDT was caught in, counted in "ui.stalls", and recorded as a
+ * view.EdtStall JFR event, so a recording lines it up with view.DatabaseCall events.
+ */
+public final class EdtWatchdog {
+    private static final long STALL_NANOS = Long.getLong("ui.stallMs", 200) * 1_000_000L;
+    private static final long SAMPLE_INTERVAL_MS = 50;
+    private static final int MAX_SAMPLED_FRAMES = 40;
+    private static final int STACK_DEPTH = 25;
+
+    private static final LatencyHistogram DISPATCH = Metrics.histogram("ui.dispatch");
+    private static final Metrics.Counter STALLS = Metrics.counter("ui.stalls");
+
+    private static boolean installed;
+
+    // Written by the EDT only; the watchdog reads them to find the event in progress
+    private static volatile long dispatchStartedAt;
+    private static volatile int dispatchSeq;
+    private static volatile Thread edt;
+
+    // Samples for the event numbered sampledSeq, guarded by the class lock
+    private static int sampledSeq;
+    private static final Map<String, Integer> sampledFrames = new LinkedHashMap<>();
+    private static StackTraceElement[] firstSample;
+
+    private EdtWatchdog() {
+    }
+
+    /**
+     * Start timing the event thread; calling it again does nothing
+     */
+    public static synchronized void install() {
+        if (installed) {
+            return;
+        }
+        installed = true;
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(new TimedEventQueue());
+
+        Thread watchdog = new Thread(EdtWatchdog::watch, "edt-watchdog");
+        watchdog.setDaemon(true);
+        watchdog.start();
+    }
+
+    private static void watch() {
+        while (true) {
+            try {
+                Thread.sleep(SAMPLE_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long startedAt = dispatchStartedAt;
+            Thread thread = edt;
+            if (startedAt != 0 && thread != null && System.nanoTime() - startedAt >= STALL_NANOS) {
+                sample(dispatchSeq, thread.getStackTrace());
+            }
+        }
+    }
+
+    private static synchronized void sample(int seq, StackTraceElement[] stack) {
+        if (seq != sampledSeq) {
+            sampledSeq = seq;
+            sampledFrames.clear();
+            firstSample = stack;
+        }
+        if (sampledFrames.size() < MAX_SAMPLED_FRAMES) {
+            sampledFrames.merge(topAppFrame(stack), 1, Integer::sum);
+        }
+    }
+
+    private static void reportStall(int seq, AWTEvent event, long nanos) {
+        STALLS.increment();
+        String samples;
+        String stack;
+        synchronized (EdtWatchdog.class) {
+            if (seq == sampledSeq && firstSample != null) {
+                StringBuilder sb = new StringBuilder();
+                for (Map.Entry<String, Integer> e : sampledFrames.entrySet()) {
+                    if (sb.length() > 0) sb.append(", ");
+                    sb.append(e.getValue()).append(" x ").append(e.getKey());
+                }
+                samples = sb.toString();
+                stack = formatStack(firstSample);
+            } else {
+                samples = "not sampled";
+                stack = "";
+            }
+            sampledSeq = 0;
+            sampledFrames.clear();
+            firstSample = null;
+        }
+
+        String description = event.getClass().getSimpleName() + "[" + event.paramString() + "]";
+        System.err.printf("EDT stall: %d ms in %s%n  sampled in: %s%n%s",
+                nanos / 1_000_000L, description, samples, stack);
+
+        FlightEvents.EdtStall flight = new FlightEvents.EdtStall();
+        if (flight.isEnabled()) {
+            flight.event = description;
+            flight.durationMillis = nanos / 1_000_000L;
+            flight.samples = samples;
+            flight.stack = stack;
+            flight.commit();
+        }
+    }
+
+    /**
+     * Get the innermost frame from this application, e.g. "KasirFrame.cariNota:412"
+     */
+    private static String topAppFrame(StackTraceElement[] stack) {
+        for (StackTraceElement frame : stack) {
+            String className = frame.getClassName();
+            if (className.startsWith("view.") && !className.startsWith("view.EdtWatchdog")) {
+                return className.substring(5) + "." + frame.getMethodName() + ":" + frame.getLineNumber();
+            }
+        }
+        return stack.length > 0 ? stack[0].toString() : "?";
+    }
+
+    private static String formatStack(StackTraceElement[] stack) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < stack.length && i < STACK_DEPTH; i++) {
+            sb.append("    at ").append(stack[i]).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    private static final class TimedEventQueue extends EventQueue {
+        @Override
+        protected void dispatchEvent(AWTEvent event) {
+            if (edt == null) {
+                edt = Thread.currentThread();
+            }
+            // Modal dialogs dispatch nested events from inside this one; the outer event is
+            // then waiting on the user, not stalled, so it is neither timed nor reported
+            int seq = ++dispatchSeq;
+            long outerStartedAt = dispatchStartedAt;
+            long start = System.nanoTime();
+            dispatchStartedAt = start;
+
+            FlightEvents.EdtDispatch flight = new FlightEvents.EdtDispatch();
+            flight.begin();
+            try {
+                super.dispatchEvent(event);
+            } finally {
+                long nanos = System.nanoTime() - start;
+                boolean nested = dispatchSeq != seq;
+                // Resume timing the event this one was nested in, from now
+                dispatchStartedAt = outerStartedAt == 0 ? 0 : System.nanoTime();
+
+                flight.end();
+                if (flight.shouldCommit()) {
+                    flight.event = event.getClass().getSimpleName();
+                    flight.commit();
+                }
+                if (!nested) {
+                    DISPATCH.record(nanos);
+                    if (nanos >= STALL_NANOS) {
+                        reportStall(seq, event, nanos);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package view;
+
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Custom Java Flight Recorder events. They cost next to nothing unless a recording
+ * enables them; jfr/restaurant.jfc turns them all on, for example
+ * java -XX:StartFlightRecording=settings=default,settings=jfr/restaurant.jfc,maxage=24h,disk=true ...
+ */
+final class FlightEvents {
+
+    private FlightEvents() {
+    }
+
+    @Name("view.EdtDispatch")
+    @Label("EDT Dispatch")
+    @Category({"Restaurant", "UI"})
+    @Description("One event dispatched on the Swing event thread")
+    @Threshold("20 ms")
+    @StackTrace(false)
+    static final class EdtDispatch extends Event {
+        @Label("Event")
+        String event;
+    }
+
+    @Name("view.EdtStall")
+    @Label("EDT Stall")
+    @Category({"Restaurant", "UI"})
+    @Description("An EDT event that ran past the stall threshold, with where the EDT was sampled")
+    @StackTrace(false)
+    static final class EdtStall extends Event {
+        @Label("Event")
+        String event;
+
+        @Label("Duration (ms)")
+        long durationMillis;
+
+        @Label("Sampled Frames")
+        String samples;
+
+        @Label("First Sampled Stack")
+        String stack;
+    }
+
+    @Name("view.DatabaseCall")
+    @Label("Database Call")
+    @Category({"Restaurant", "Database"})
+    @Description("A DAO or service operation such as ReportDAO.getHourlyAnalysis, from borrowing its connection until closing it")
+    @Threshold("5 ms")
+    static final class DatabaseCall extends Event {
+        static final EventType TYPE = EventType.getEventType(DatabaseCall.class);
+
+        @Label("Operation")
+        String operation;
+    }
+
+    @Name("view.OrderCreate")
+    @Label("Order Create")
+    @Category({"Restaurant", "Orders"})
+    @Description("OrderService.createOrder or OrderReplicator applying a journaled order: the order header and its lines in one transaction")
+    static final class OrderCreate extends Event {
+        @Label("Order Id")
+        int orderId;
+
+        @Label("Lines")
+        int lineCount;
+
+        @Label("Total")
+        double total;
+
+        @Label("Success")
+        boolean success;
+
+        void finish(int orderId, int lineCount, double total) {
+            end();
+            if (shouldCommit()) {
+                this.orderId = orderId;
+                this.lineCount = lineCount;
+                this.total = total;
+                this.success = orderId > 0;
+                commit();
+            }
+        }
+    }
+
+    @Name("view.OrderPayment")
+    @Label("Order Payment")
+    @Category({"Restaurant", "Orders"})
+    @Description("OrderService.recordPayment (and processPayment) or OrderReplicator applying a journaled payment: order status, payment and nota in one transaction")
+    static final class OrderPayment extends Event {
+        @Label("Order Id")
+        int orderId;
+
+        @Label("Method")
+        String method;
+
+        @Label("Amount")
+        double amount;
+
+        @Label("Success")
+        boolean success;
+
+        void finish(int orderId, String method, double amount, boolean success) {
+            end();
+            if (shouldCommit()) {
+                this.orderId = orderId;
+                this.method = method;
+                this.amount = amount;
+                this.success = success;
+                commit();
+            }
+        }
+    }
+
+    @Name("view.OrderCancel")
+    @Label("Order Cancel")
+    @Category({"Restaurant", "Orders"})
+    @Description("OrderService.cancelOrder or OrderReplicator applying a journaled cancellation")
+    static final class OrderCancel extends Event {
+        @Label("Order Id")
+        int orderId;
+
+        @Label("Success")
+        boolean success;
+
+        void finish(int orderId, boolean success) {
+            end();
+            if (shouldCommit()) {
+                this.orderId = orderId;
+                this.success = success;
+                commit();
+            }
+        }
+    }
+
+    @Name("view.JournalSubmit")
+    @Label("Journal Submit")
+    @Category({"Restaurant", "Orders"})
+    @Description("OrderReplicator.submit*: the local journal write and sync, then the wait for the database apply")
+    static final class JournalSubmit extends Event {
+        @Label("Record Type")
+        String recordType;
+
+        @Label("Key")
+        String key;
+
+        @Label("Applied")
+        @Description("Whether the database write finished within journal.applyWaitMs")
+        boolean applied;
+
+        void finish(String recordType, String key, boolean applied) {
+            end();
+            if (shouldCommit()) {
+                this.recordType = recordType;
+                this.key = key;
+                this.applied = applied;
+                commit();
+            }
+        }
+    }
+
+    @Name("view.PaymentConfirm")
+    @Label("Cash Payment Confirm")
+    @Category({"Restaurant", "Orders"})
+    @Description("PaymentService.confirm: a cashier confirming a cash nota")
+    static final class PaymentConfirm extends Event {
+        @Label("Nota Id")
+        int notaId;
+
+        @Label("Outcome")
+        String outcome;
+
+        void finish(int notaId, PaymentService.Outcome outcome) {
+            end();
+            if (shouldCommit()) {
+                this.notaId = notaId;
+                this.outcome = outcome == null ? "ERROR" : outcome.name();
+                commit();
+            }
+        }
+    }
+
+    @Name("view.ImageDecode")
+    @Label("Image Decode")
+    @Category({"Restaurant", "Images"})
+    @Description("ImageUtils.readSubsampled: decoding a menu photo at reduced resolution")
+    static final class ImageDecode extends Event {
+        @Label("Path")
+        String path;
+
+        @Label("Source Width")
+        int sourceWidth;
+
+        @Label("Source Height")
+        int sourceHeight;
+
+        @Label("Subsampling")
+        int subsampling;
+
+        @Label("Decoded Width")
+        int width;
+
+        @Label("Decoded Height")
+        int height;
+    }
+
+    /**
+     * Start timing a database call; returns null, allocating nothing, when no recording wants it
+     */
+    static DatabaseCall beginDatabaseCall(String operation) {
+        if (!DatabaseCall.TYPE.isEnabled()) {
+            return null;
+        }
+        DatabaseCall event = new DatabaseCall();
+        event.operation = operation;
+        event.begin();
+        return event;
+    }
+}
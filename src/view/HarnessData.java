@@ -0,0 +1,101 @@
+package view;
+
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Test data helpers shared by the harness and load generator mains. Their orders are
+ * tagged through catatan and removed again afterwards, rollups included.
+ */
+final class HarnessData {
+
+    private static final String FIND_USER_SQL = "SELECT user_id FROM User WHERE LOWER(role) = ? ORDER BY user_id LIMIT 1";
+
+    private static final String FIND_ORDERS_SQL = "SELECT id_pesanan FROM CustomerOrder WHERE catatan = ?";
+
+    private static final String[] DELETE_ORDER_SQL = {
+        "DELETE FROM Nota WHERE id_pesanan = ?",
+        "DELETE FROM Pembayaran WHERE id_pesanan = ?",
+        "DELETE FROM OrderDetail WHERE id_pesanan = ?",
+        "DELETE FROM PesananDibatalkan WHERE id_pesanan = ?",
+        "DELETE FROM payment_change_log WHERE id_pesanan = ?",
+        "DELETE FROM order_journal_applied WHERE id_pesanan = ?",
+        "DELETE FROM CustomerOrder WHERE id_pesanan = ?"
+    };
+
+    private HarnessData() {
+    }
+
+    /**
+     * Stop unless -Ddb.url was given, so a tool that writes test orders never runs
+     * against the default production database by accident
+     */
+    static void requireScratchDatabase(String tool) {
+        if (System.getProperty("db.url") == null) {
+            System.err.println(tool + " writes test orders; point it at a scratch database with -Ddb.url=jdbc:mysql://...");
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Get the lowest user id with the given role (lower case)
+     */
+    static int findUser(String role) throws SQLException {
+        try (Connection connection = DatabaseConnection.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(FIND_USER_SQL)) {
+            stmt.setString(1, role);
+            ResultSet rs = stmt.executeQuery();
+            if (!rs.next()) {
+                throw new IllegalStateException("No user with role " + role);
+            }
+            return rs.getInt(1);
+        }
+    }
+
+    /**
+     * Get the ids of the orders tagged with marker, e.g. those applied from a journal
+     * after their submit had already returned
+     */
+    static List<Integer> findOrderIds(String marker) throws SQLException {
+        List<Integer> orderIds = new ArrayList<>();
+        try (Connection connection = DatabaseConnection.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(FIND_ORDERS_SQL)) {
+            stmt.setString(1, marker);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                orderIds.add(rs.getInt(1));
+            }
+        }
+        return orderIds;
+    }
+
+    /**
+     * Delete test orders and everything hanging off them, taking their contribution
+     * back out of the rollups
+     */
+    static void deleteOrders(List<Integer> orderIds) throws SQLException {
+        try (Connection connection = DatabaseConnection.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                for (int orderId : orderIds) {
+                    SalesRollup.replace(connection, SalesRollup.capture(connection, orderId), null);
+                    for (String sql : DELETE_ORDER_SQL) {
+                        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                            stmt.setInt(1, orderId);
+                            stmt.executeUpdate();
+                        }
+                    }
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+        DashboardStats.invalidate();
+    }
+}
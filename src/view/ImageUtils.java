@@ -9,7 +9,11 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Iterator;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import javax.swing.ImageIcon;
 
 public class ImageUtils {
@@ -54,7 +58,7 @@ public class ImageUtils {
                 return null;
             }
 
-            BufferedImage originalImage = ImageIO.read(imageFile);
+            BufferedImage originalImage = readSubsampled(imageFile, width, height);
             if (originalImage == null) {
                 System.err.println("Cannot read image file: " + imagePath);
                 return null;
@@ -69,6 +73,51 @@ public class ImageUtils {
         }
     }
 
+    /**
+     * Decode an image at reduced resolution, skipping source pixels so the result is
+     * still at least width x height. Large photos are never decoded at full size.
+     * @return the decoded image or null if no reader supports the file
+     */
+    public static BufferedImage readSubsampled(File imageFile, int width, int height) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(imageFile)) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                FlightEvents.ImageDecode flight = new FlightEvents.ImageDecode();
+                flight.begin();
+                reader.setInput(input, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                int step = Math.max(1, Math.min(sourceWidth / Math.max(1, width),
+                                                sourceHeight / Math.max(1, height)));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                BufferedImage decoded = reader.read(0, param);
+
+                flight.end();
+                if (flight.shouldCommit()) {
+                    flight.path = imageFile.getPath();
+                    flight.sourceWidth = sourceWidth;
+                    flight.sourceHeight = sourceHeight;
+                    flight.subsampling = step;
+                    flight.width = decoded.getWidth();
+                    flight.height = decoded.getHeight();
+                    flight.commit();
+                }
+                return decoded;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
     /**
      * Load thumbnail version of image
      */
@@ -0,0 +1,50 @@
+package view;
+
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Placeholder lists for "IN (?, ?, ...)" queries in a few fixed sizes, so a lookup
+ * of any number of ids uses one of SIZES.length statements instead of a new SQL
+ * string (and server-side plan, and StatementCache entry) per id count. Short
+ * lists are padded by repeating their last id, which IN ignores.
+ */
+final class InLists {
+    private static final int[] SIZES = {1, 8, 32, 128};
+
+    // Longest list one statement takes; callers split longer ones into chunks of this size
+    static final int MAX_SIZE = SIZES[SIZES.length - 1];
+
+    private InLists() {
+    }
+
+    /**
+     * Get "?, ?, ..." for the smallest fixed size that holds count ids
+     */
+    static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(paddedSize(count), "?"));
+    }
+
+    /**
+     * Bind the ids from parameter index first on, padded to the size placeholders(ids.size())
+     * gave
+     */
+    static void bind(PreparedStatement stmt, int first, List<Integer> ids) throws SQLException {
+        int size = paddedSize(ids.size());
+        for (int i = 0; i < size; i++) {
+            stmt.setInt(first + i, ids.get(Math.min(i, ids.size() - 1)));
+        }
+    }
+
+    private static int paddedSize(int count) {
+        for (int size : SIZES) {
+            if (count <= size) {
+                return size;
+            }
+        }
+        throw new IllegalArgumentException("IN list of " + count + " ids is longer than " + MAX_SIZE);
+    }
+}
@@ -0,0 +1,67 @@
+package view;
+
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Forward-only ResultSet over rows held in memory, so DAO and report mappers can be
+ * benchmarked without a database. Name lookups go through a case-insensitive map
+ * like the MySQL driver's. Supports next, findColumn, wasNull, close and the
+ * getInt/getLong/getDouble/getString/getTimestamp/getDate getters.
+ */
+final class InMemoryResultSet {
+
+    private InMemoryResultSet() {
+    }
+
+    static ResultSet of(String[] columns, Object[][] rows) {
+        Map<String, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < columns.length; i++) {
+            indexes.put(columns[i].toLowerCase(Locale.ROOT), i + 1);
+        }
+        int[] cursor = {-1};
+        boolean[] lastNull = {false};
+
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    switch (name) {
+                        case "next": return ++cursor[0] < rows.length;
+                        case "close": return null;
+                        case "wasNull": return lastNull[0];
+                        case "findColumn": return column(indexes, (String) args[0]);
+                        default: break;
+                    }
+                    if (name.startsWith("get") && args != null && args.length == 1) {
+                        int column = args[0] instanceof String
+                                ? column(indexes, (String) args[0])
+                                : (Integer) args[0];
+                        Object value = rows[cursor[0]][column - 1];
+                        lastNull[0] = value == null;
+                        switch (name) {
+                            case "getInt": return value == null ? 0 : ((Number) value).intValue();
+                            case "getLong": return value == null ? 0L : ((Number) value).longValue();
+                            case "getDouble": return value == null ? 0.0 : ((Number) value).doubleValue();
+                            case "getString": return (String) value;
+                            case "getTimestamp": return (java.sql.Timestamp) value;
+                            case "getDate": return (java.sql.Date) value;
+                            default: break;
+                        }
+                    }
+                    throw new UnsupportedOperationException(name);
+                });
+    }
+
+    private static int column(Map<String, Integer> indexes, String label) throws SQLException {
+        Integer index = indexes.get(label.toLowerCase(Locale.ROOT));
+        if (index == null) {
+            throw new SQLException("Column '" + label + "' not found");
+        }
+        return index;
+    }
+}
@@ -3,12 +3,14 @@ package view;
 import java.awt.*;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
-import java.sql.Timestamp;
 import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
+import javax.swing.table.AbstractTableModel;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.DefaultTableModel;
 
@@ -16,6 +18,7 @@ public class KasirFrame extends JFrame {
     private RestaurantDAO restaurantDAO;
     private PembayaranDAO pembayaranDAO;
     private NotaDAO notaDAO;
+    private PaymentService paymentService;
     private CustomerOrderDAO customerOrderDAO;
     
     // Components
@@ -44,15 +47,36 @@ public class KasirFrame extends JFrame {
     private CustomerOrder currentOrder;
     private Pembayaran currentPembayaran;
     private List<OrderDetail> currentDetails;
+    private String currentCustomerName;
+    private String currentKasirName;
+    
+    // Nota lookups run in the background; a new search supersedes the previous one
+    private final DataAccess.Slot notaSlot = new DataAccess.Slot();
+    
+    // Live queue of cash payments waiting for confirmation
+    private JTable pendingTable;
+    private PendingTableModel pendingTableModel;
+    private JLabel pendingCountLabel;
+    private Timer pendingClock;
+    private final Consumer<List<ReportDAO.PendingCashPayment>> pendingListener = this::showPendingPayments;
     
     // Formatters
     private DecimalFormat currencyFormat = new DecimalFormat("#,##0.00");
     private SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss");
 
+    // Logged-in kasir; null when started on its own, then the name is asked on confirmation
+    private final User kasir;
+
     public KasirFrame() {
+        this(null);
+    }
+
+    public KasirFrame(User kasir) {
+        this.kasir = kasir;
         restaurantDAO = new RestaurantDAO();
         pembayaranDAO = new PembayaranDAO();
         notaDAO = new NotaDAO();
+        paymentService = new PaymentService();
         customerOrderDAO = new CustomerOrderDAO();
         
         initializeComponents();
@@ -60,6 +84,15 @@ public class KasirFrame extends JFrame {
         setupEventHandlers();
         clearAllData();
         
+        // The queue is pushed on every change; the clock only refreshes the waiting minutes
+        PendingPaymentQueue.addListener(pendingListener);
+        pendingClock = new Timer(30_000, e -> {
+            if (pendingTableModel.getRowCount() > 0) {
+                pendingTableModel.fireTableRowsUpdated(0, pendingTableModel.getRowCount() - 1);
+            }
+        });
+        pendingClock.start();
+        
         setTitle("Sistem Kasir - Restaurant Management System");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setSize(1200, 800);
@@ -153,6 +186,22 @@ public class KasirFrame extends JFrame {
         detailTable.getColumnModel().getColumn(2).setCellRenderer(currencyRenderer);
         detailTable.getColumnModel().getColumn(4).setCellRenderer(currencyRenderer);
         
+        // Pending cash queue
+        pendingTableModel = new PendingTableModel();
+        pendingTable = new JTable(pendingTableModel);
+        pendingTable.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 12));
+        pendingTable.setRowHeight(25);
+        pendingTable.getTableHeader().setFont(new Font(Font.SANS_SERIF, Font.BOLD, 12));
+        pendingTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        pendingTable.getColumnModel().getColumn(0).setPreferredWidth(50);  // Nota
+        pendingTable.getColumnModel().getColumn(1).setPreferredWidth(120); // Customer
+        pendingTable.getColumnModel().getColumn(2).setPreferredWidth(100); // Total
+        pendingTable.getColumnModel().getColumn(3).setPreferredWidth(70);  // Menunggu
+        pendingTable.getColumnModel().getColumn(0).setCellRenderer(centerRenderer);
+        pendingTable.getColumnModel().getColumn(2).setCellRenderer(currencyRenderer);
+        pendingTable.getColumnModel().getColumn(3).setCellRenderer(centerRenderer);
+        pendingCountLabel = new JLabel("Memuat antrian...");
+        
         // Button states
         printButton.setEnabled(false);
         confirmPaymentButton.setEnabled(false);
@@ -194,6 +243,7 @@ public class KasirFrame extends JFrame {
         
         mainPanel.add(searchPanel, BorderLayout.NORTH);
         mainPanel.add(centerPanel, BorderLayout.CENTER);
+        mainPanel.add(createPendingPanel(), BorderLayout.EAST);
         mainPanel.add(bottomPanel, BorderLayout.SOUTH);
         
         add(mainPanel);
@@ -319,6 +369,24 @@ public class KasirFrame extends JFrame {
         return panel;
     }
 
+    private JPanel createPendingPanel() {
+        JPanel panel = new JPanel(new BorderLayout(5, 5));
+        panel.setBorder(BorderFactory.createTitledBorder(
+            BorderFactory.createLineBorder(new Color(255, 193, 7)), 
+            "Antrian Pembayaran Cash", 
+            TitledBorder.LEFT, 
+            TitledBorder.TOP,
+            new Font(Font.SANS_SERIF, Font.BOLD, 12)
+        ));
+        
+        JScrollPane scrollPane = new JScrollPane(pendingTable);
+        scrollPane.setPreferredSize(new Dimension(340, 0));
+        panel.add(scrollPane, BorderLayout.CENTER);
+        panel.add(pendingCountLabel, BorderLayout.SOUTH);
+        
+        return panel;
+    }
+
     private JPanel createBottomPanel() {
         JPanel panel = new JPanel(new BorderLayout());
         
@@ -354,6 +422,18 @@ public class KasirFrame extends JFrame {
         clearButton.addActionListener(e -> clearAllData());
         printButton.addActionListener(e -> printNota());
         confirmPaymentButton.addActionListener(e -> confirmCashPayment()); // New action
+        
+        // Selecting a queued payment opens its nota
+        pendingTable.getSelectionModel().addListSelectionListener(e -> {
+            int row = pendingTable.getSelectedRow();
+            if (!e.getValueIsAdjusting() && row >= 0) {
+                int idNota = pendingTableModel.getPaymentAt(row).idNota();
+                if (currentNota == null || currentNota.getIdNota() != idNota) {
+                    idNotaField.setText(String.valueOf(idNota));
+                    loadNotaData(idNota);
+                }
+            }
+        });
         exitButton.addActionListener(e -> {
             int confirm = JOptionPane.showConfirmDialog(
                 this,
@@ -393,7 +473,7 @@ public class KasirFrame extends JFrame {
         }
         
         // Show confirmation dialog
-        String customerName = restaurantDAO.getCustomerName(currentOrder.getCustomerId());
+        String customerName = currentCustomerName;
         int confirm = JOptionPane.showConfirmDialog(this,
             "<html><body style='width: 300px;'>" +
             "<h3>Konfirmasi Pembayaran Cash</h3>" +
@@ -407,80 +487,101 @@ public class KasirFrame extends JFrame {
             JOptionPane.QUESTION_MESSAGE);
         
         if (confirm == JOptionPane.YES_OPTION) {
-            // Get kasir information
-            String kasirName = JOptionPane.showInputDialog(this,
-                "Masukkan nama kasir yang mengkonfirmasi:",
-                "Info Kasir",
-                JOptionPane.PLAIN_MESSAGE);
-            
-            if (kasirName == null || kasirName.trim().isEmpty()) {
-                kasirName = "Kasir Default";
+            String kasirName;
+            int kasirId;
+            if (kasir != null) {
+                kasirName = kasir.getNama();
+                kasirId = kasir.getUserId();
+            } else {
+                // Get kasir information
+                kasirName = JOptionPane.showInputDialog(this,
+                    "Masukkan nama kasir yang mengkonfirmasi:",
+                    "Info Kasir",
+                    JOptionPane.PLAIN_MESSAGE);
+                
+                if (kasirName == null || kasirName.trim().isEmpty()) {
+                    kasirName = "Kasir Default";
+                }
+                // Keep whoever is already on the payment record
+                kasirId = currentPembayaran != null ? currentPembayaran.getIdKasir() : 1;
             }
             
-            try {
-                // Update payment status in database
-                if (updatePaymentStatusToSuccess()) {
-                    // Update display
-                    loadNotaData(currentNota.getIdNota());
-                    
-                    // Show success message
-                    JOptionPane.showMessageDialog(this,
-                        "<html><body style='width: 250px;'>" +
-                        "<h3>✅ Pembayaran Berhasil Dikonfirmasi!</h3>" +
-                        "<b>ID Nota:</b> " + currentNota.getIdNota() + "<br>" +
-                        "<b>Customer:</b> " + customerName + "<br>" +
-                        "<b>Total:</b> Rp " + currencyFormat.format(currentNota.getTotalPembayaran()) + "<br>" +
-                        "<b>Dikonfirmasi oleh:</b> " + kasirName + "<br>" +
-                        "</body></html>",
-                        "Pembayaran Berhasil",
-                        JOptionPane.INFORMATION_MESSAGE);
-                    
-                    statusLabel.setText("Pembayaran berhasil dikonfirmasi!");
-                    statusLabel.setForeground(new Color(40, 167, 69));
-                } else {
-                    JOptionPane.showMessageDialog(this,
-                        "Gagal mengkonfirmasi pembayaran! Silakan coba lagi.",
-                        "Error",
-                        JOptionPane.ERROR_MESSAGE);
+            Nota nota = currentNota;
+            String confirmedBy = kasirName;
+            
+            confirmPaymentButton.setEnabled(false);
+            statusLabel.setText("Mengkonfirmasi pembayaran...");
+            statusLabel.setForeground(Color.ORANGE);
+            
+            // Nota, payment and order are confirmed together; a second cashier gets ALREADY_CONFIRMED
+            DataAccess.submit(() -> paymentService.confirm(nota.getIdNota(), kasirId), outcome -> {
+                // Show what the database now holds, whoever confirmed it
+                loadNotaData(nota.getIdNota());
+                
+                switch (outcome) {
+                    case CONFIRMED:
+                        JOptionPane.showMessageDialog(this,
+                            "<html><body style='width: 250px;'>" +
+                            "<h3>✅ Pembayaran Berhasil Dikonfirmasi!</h3>" +
+                            "<b>ID Nota:</b> " + nota.getIdNota() + "<br>" +
+                            "<b>Customer:</b> " + customerName + "<br>" +
+                            "<b>Total:</b> Rp " + currencyFormat.format(nota.getTotalPembayaran()) + "<br>" +
+                            "<b>Dikonfirmasi oleh:</b> " + confirmedBy + "<br>" +
+                            "</body></html>",
+                            "Pembayaran Berhasil",
+                            JOptionPane.INFORMATION_MESSAGE);
+                        break;
+                    case ALREADY_CONFIRMED:
+                        JOptionPane.showMessageDialog(this,
+                            "Pembayaran nota " + nota.getIdNota() + " sudah dikonfirmasi sebelumnya.",
+                            "Info",
+                            JOptionPane.INFORMATION_MESSAGE);
+                        break;
+                    case ORDER_CANCELLED:
+                        JOptionPane.showMessageDialog(this,
+                            "Pesanan untuk nota " + nota.getIdNota() + " sudah dibatalkan!",
+                            "Peringatan",
+                            JOptionPane.WARNING_MESSAGE);
+                        break;
+                    default:
+                        JOptionPane.showMessageDialog(this,
+                            "Nota " + nota.getIdNota() + " tidak ditemukan!",
+                            "Error",
+                            JOptionPane.ERROR_MESSAGE);
+                        break;
                 }
-            } catch (Exception e) {
-                e.printStackTrace();
+            }, e -> {
+                confirmPaymentButton.setEnabled(true);
                 JOptionPane.showMessageDialog(this,
                     "Error saat mengkonfirmasi pembayaran: " + e.getMessage(),
                     "Error",
                     JOptionPane.ERROR_MESSAGE);
-            }
+            });
         }
     }
 
-    /**
-     * Update payment status to 'berhasil' in database
-     */
-    private boolean updatePaymentStatusToSuccess() {
-        try {
-            boolean success = true;
-            
-            // 1. Update Nota status
-            currentNota.setStatusPembayaran("berhasil");
-            // Note: You'll need to add an update method to NotaDAO
-            
-            // 2. Update Pembayaran status
-            if (currentPembayaran != null) {
-                currentPembayaran.setStatusPembayaran("berhasil");
-                currentPembayaran.setTanggalPembayaran(new Timestamp(System.currentTimeMillis()));
-                success &= pembayaranDAO.updateStatus(currentPembayaran.getIdPembayaran(), "berhasil");
-            }
-            
-            // 3. Update Customer Order status
-            if (currentOrder != null) {
-                success &= customerOrderDAO.updateStatus(currentOrder.getIdPesanan(), "selesai");
+    private void showPendingPayments(List<ReportDAO.PendingCashPayment> payments) {
+        // Keep the selected nota selected when the queue changes around it
+        int selected = pendingTable.getSelectedRow();
+        int selectedNota = selected >= 0 ? pendingTableModel.getPaymentAt(selected).idNota() : -1;
+        
+        pendingTableModel.setPayments(payments);
+        
+        for (int i = 0; i < payments.size(); i++) {
+            if (payments.get(i).idNota() == selectedNota) {
+                pendingTable.getSelectionModel().setSelectionInterval(i, i);
+                break;
             }
-            
-            return success;
-        } catch (Exception e) {
-            e.printStackTrace();
-            return false;
         }
+        pendingCountLabel.setText(payments.size() + " pembayaran menunggu konfirmasi");
+    }
+
+    @Override
+    public void dispose() {
+        PendingPaymentQueue.removeListener(pendingListener);
+        pendingClock.stop();
+        notaSlot.cancel();
+        super.dispose();
     }
 
     private void cariNota() {
@@ -507,35 +608,43 @@ public class KasirFrame extends JFrame {
         currentOrder = null;
         currentPembayaran = null;
         currentDetails = null;
+        currentCustomerName = null;
+        currentKasirName = null;
         
         statusLabel.setText("Mencari nota...");
         statusLabel.setForeground(Color.ORANGE);
+        confirmPaymentButton.setEnabled(false);
         
+        // Nota, order, payment, lines and names arrive in one round trip
+        notaSlot.submit(() -> restaurantDAO.loadReceiptBundle(idNota), bundle -> showNotaData(idNota, bundle), e -> {
+            statusLabel.setText("Error: " + e.getMessage());
+            statusLabel.setForeground(Color.RED);
+            clearDisplayData();
+        });
+    }
+    
+    private void showNotaData(int idNota, RestaurantDAO.ReceiptBundle bundle) {
         try {
-            // Find nota by ID
-            currentNota = restaurantDAO.findNotaById(idNota);
-            
-            if (currentNota == null) {
+            if (bundle == null) {
                 statusLabel.setText("Nota dengan ID " + idNota + " tidak ditemukan!");
                 statusLabel.setForeground(Color.RED);
                 clearDisplayData();
                 return;
             }
             
-            // Load customer order data
-            currentOrder = restaurantDAO.findCustomerOrderById(currentNota.getIdPesanan());
-            if (currentOrder == null) {
+            if (bundle.order() == null) {
                 statusLabel.setText("Data pesanan tidak ditemukan!");
                 statusLabel.setForeground(Color.RED);
                 clearDisplayData();
                 return;
             }
             
-            // Load pembayaran data
-            currentPembayaran = restaurantDAO.findPembayaranByPesananId(currentNota.getIdPesanan());
-            
-            // Load order details
-            currentDetails = restaurantDAO.findOrderDetailsByPesananId(currentNota.getIdPesanan());
+            currentNota = bundle.nota();
+            currentOrder = bundle.order();
+            currentPembayaran = bundle.pembayaran();
+            currentDetails = bundle.details();
+            currentCustomerName = bundle.customerName();
+            currentKasirName = bundle.kasirName();
             
             // Display all data
             displayNotaData();
@@ -590,9 +699,7 @@ public class KasirFrame extends JFrame {
 
     private void displayPesananData() {
         if (currentOrder != null) {
-            // Get customer name
-            String customerName = restaurantDAO.getCustomerName(currentOrder.getCustomerId());
-            customerNameLabel.setText(customerName);
+            customerNameLabel.setText(currentCustomerName);
             tanggalPesananLabel.setText(dateFormat.format(currentOrder.getTanggalPesanan()));
             statusPesananLabel.setText(currentOrder.getStatusPesanan().toUpperCase());
             totalPesananLabel.setText("Rp " + currencyFormat.format(currentOrder.getTotalPesanan()));
@@ -618,9 +725,7 @@ public class KasirFrame extends JFrame {
         if (currentPembayaran != null) {
             idPembayaranLabel.setText(String.valueOf(currentPembayaran.getIdPembayaran()));
             
-            // Get kasir name
-            String kasirName = restaurantDAO.getKasirName(currentPembayaran.getIdKasir());
-            kasirLabel.setText(kasirName);
+            kasirLabel.setText(currentKasirName);
             
             tanggalPembayaranLabel.setText(dateFormat.format(currentPembayaran.getTanggalPembayaran()));
             metodePembayaranLabel.setText(currentPembayaran.getMetodePembayaran().toUpperCase());
@@ -669,6 +774,7 @@ public class KasirFrame extends JFrame {
     }
 
     private void clearAllData() {
+        notaSlot.cancel();
         idNotaField.setText("");
         clearDisplayData();
         statusLabel.setText("Siap untuk mencari nota...");
@@ -713,6 +819,8 @@ public class KasirFrame extends JFrame {
         currentOrder = null;
         currentPembayaran = null;
         currentDetails = null;
+        currentCustomerName = null;
+        currentKasirName = null;
     }
 
     private void printNota() {
@@ -731,8 +839,7 @@ public class KasirFrame extends JFrame {
         
         // Customer info
         if (currentOrder != null) {
-            String customerName = restaurantDAO.getCustomerName(currentOrder.getCustomerId());
-            receipt.append("Customer: ").append(customerName).append("\n");
+            receipt.append("Customer: ").append(currentCustomerName).append("\n");
             receipt.append("Tanggal Pesan: ").append(dateFormat.format(currentOrder.getTanggalPesanan())).append("\n");
             if (currentOrder.getCatatan() != null && !currentOrder.getCatatan().trim().isEmpty()) {
                 receipt.append("Catatan: ").append(currentOrder.getCatatan()).append("\n");
@@ -765,8 +872,7 @@ public class KasirFrame extends JFrame {
         
         if (currentPembayaran != null) {
             receipt.append("-------------------------------------\n");
-            String kasirName = restaurantDAO.getKasirName(currentPembayaran.getIdKasir());
-            receipt.append("Kasir: ").append(kasirName).append("\n");
+            receipt.append("Kasir: ").append(currentKasirName).append("\n");
             receipt.append("Tanggal Bayar: ").append(dateFormat.format(currentPembayaran.getTanggalPembayaran())).append("\n");
         }
         
@@ -805,7 +911,53 @@ public class KasirFrame extends JFrame {
         }
     }
 
+    // Rows of the cash queue; the waiting time is measured from the nota print time
+    private static class PendingTableModel extends AbstractTableModel {
+        private static final String[] COLUMNS = {"Nota", "Customer", "Total", "Menunggu"};
+        
+        private List<ReportDAO.PendingCashPayment> payments = Collections.emptyList();
+        
+        void setPayments(List<ReportDAO.PendingCashPayment> payments) {
+            this.payments = payments;
+            fireTableDataChanged();
+        }
+        
+        ReportDAO.PendingCashPayment getPaymentAt(int row) {
+            return payments.get(row);
+        }
+        
+        @Override
+        public int getRowCount() {
+            return payments.size();
+        }
+        
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+        
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+        
+        @Override
+        public Object getValueAt(int row, int column) {
+            ReportDAO.PendingCashPayment payment = payments.get(row);
+            switch (column) {
+                case 0: return payment.idNota();
+                case 1: return payment.customerName();
+                case 2: return payment.totalPembayaran();
+                default:
+                    long minutes = (System.currentTimeMillis() - payment.waktuCetak().getTime()) / 60_000;
+                    return Math.max(0, minutes) + " mnt";
+            }
+        }
+    }
+
     public static void main(String[] args) {
+        EdtWatchdog.install();
+        SchemaMigrator.migrateAtStartup();
         SwingUtilities.invokeLater(() -> {
             try {
                 UIManager.setLookAndFeel(UIManager.getLookAndFeel());
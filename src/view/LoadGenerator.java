@@ -0,0 +1,352 @@
+package view;
+
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Headless rush-hour load: KIOSKS customers placing orders, CASHIERS confirming the
+ * cash ones, and a manager refreshing the dashboard, all through the same services
+ * and DAOs the frames use. Kiosk orders, payments and cancellations go through
+ * OrderReplicator like CustomerFrame's, so the journal write, its sync and the
+ * replicator's apply are all in the kiosk latencies. Prints throughput and latency
+ * percentiles per operation. Every order it creates is tagged and deleted again at
+ * the end, rollups included.
+ *
+ * Usage: LoadGenerator [seconds] [kiosks] [cashiers]
+ * Needs an explicit -Ddb.url pointing at a scratch database.
+ *
+ * Everything shares one connection pool, journal and replicator thread here, while
+ * each real terminal has its own; raise the pool with -Ddb.pool.max to keep pool waits
+ * out of the numbers. The journal goes to a temporary directory unless -Djournal.dir
+ * is given.
+ */
+public class LoadGenerator {
+    private static final int SECONDS = 60;
+    private static final int KIOSKS = 8;
+    private static final int CASHIERS = 2;
+
+    private static final long KIOSK_THINK_MS = 1_000; // mean, exponentially distributed
+    private static final long CASHIER_IDLE_MS = 100;
+    private static final long MANAGER_REFRESH_MS = 5_000;
+    private static final int MANAGER_PAGE_SIZE = 200;
+    private static final long STOP_CHECK_MS = 100;
+
+    private static final double CASH_SHARE = 0.6;
+    private static final double CANCEL_SHARE = 0.03;
+    // Relative weight of a cart with index distinct menu items, and of a line with index quantity
+    private static final int[] CART_SIZE_WEIGHTS = {0, 30, 28, 18, 10, 6, 4, 2, 2};
+    private static final int[] QUANTITY_WEIGHTS = {0, 80, 15, 5};
+
+    private static final String MARKER = "load-generator";
+    private static final int MAX_REPORTED_ERRORS = 5;
+    private static final long DRAIN_TIMEOUT_MS = 30_000;
+
+    private final Map<String, OpStats> stats = new LinkedHashMap<>();
+    private final ConcurrentLinkedQueue<Integer> pendingNotas = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger reportedErrors = new AtomicInteger();
+    // Submits that returned before the database applied them
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final List<Menu> menus;
+    private final String customerName;
+    private final int kasirId;
+    private volatile boolean running = true;
+
+    private LoadGenerator(List<Menu> menus, String customerName, int kasirId) {
+        this.menus = menus;
+        this.customerName = customerName;
+        this.kasirId = kasirId;
+        for (String name : new String[]{
+                "kiosk.submitOrder", "kiosk.submitPayment", "kiosk.submitCancel",
+                "cashier.loadReceipt", "cashier.confirm",
+                "manager.stats", "manager.dashboard", "manager.ordersPage"}) {
+            stats.put(name, new OpStats(name));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        HarnessData.requireScratchDatabase("LoadGenerator");
+        SchemaMigrator.migrateAtStartup();
+        if (System.getProperty("journal.dir") == null) {
+            System.setProperty("journal.dir", Files.createTempDirectory("load-generator-journal").toString());
+        }
+
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : SECONDS;
+        int kiosks = args.length > 1 ? Integer.parseInt(args[1]) : KIOSKS;
+        int cashiers = args.length > 2 ? Integer.parseInt(args[2]) : CASHIERS;
+
+        try {
+            List<Menu> menus = MenuCatalog.get().getAll();
+            if (menus.isEmpty()) {
+                throw new IllegalStateException("No menus to order");
+            }
+            // Orders name an existing customer, so the replicator does not create new users
+            String customerName = new UserDAO().findById(HarnessData.findUser("customer")).getNama();
+            LoadGenerator generator = new LoadGenerator(menus, customerName, HarnessData.findUser("kasir"));
+
+            System.out.printf("%d kiosks, %d cashiers, 1 manager for %d s%n", kiosks, cashiers, seconds);
+            long elapsed = generator.run(seconds, kiosks, cashiers);
+            System.out.print(generator.formatReport(elapsed));
+            System.out.printf("%d submits returned before the database applied them%n", generator.queued.get());
+        } finally {
+            // Queued records still reach the database; wait for them so their orders are cleaned up too
+            OrderReplicator replicator = OrderReplicator.get();
+            long drainDeadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MS;
+            while (replicator.getPendingCount() > 0 && System.currentTimeMillis() < drainDeadline) {
+                Thread.sleep(STOP_CHECK_MS);
+            }
+            if (replicator.getPendingCount() > 0) {
+                System.err.println(replicator.getPendingCount() + " journaled records were not applied; "
+                        + "their orders (catatan = " + MARKER + ") are left behind");
+            }
+            HarnessData.deleteOrders(HarnessData.findOrderIds(MARKER));
+            DatabaseConnection.closeConnection();
+        }
+    }
+
+    private long run(int seconds, int kiosks, int cashiers) throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 1; i <= kiosks; i++) {
+            threads.add(new Thread(this::kiosk, "kiosk-" + i));
+        }
+        for (int i = 1; i <= cashiers; i++) {
+            threads.add(new Thread(this::cashier, "cashier-" + i));
+        }
+        threads.add(new Thread(this::manager, "manager"));
+
+        long start = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+        running = false;
+        long elapsed = System.nanoTime() - start;
+        // Let operations in flight finish rather than count them as failures
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return elapsed;
+    }
+
+    private void kiosk() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (running) {
+            if (!pause((long) (-KIOSK_THINK_MS * Math.log(1 - random.nextDouble())))) {
+                return;
+            }
+
+            List<OrderReplicator.Line> lines = randomCart(random);
+            double total = 0;
+            for (OrderReplicator.Line line : lines) {
+                total += line.jumlah() * line.hargaSatuan();
+            }
+
+            long begin = System.nanoTime();
+            String op = "kiosk.submitOrder";
+            try {
+                OrderReplicator replicator = OrderReplicator.get();
+                OrderReplicator.Submitted order = replicator.submitOrder(customerName, MARKER, total, lines);
+                stats.get(op).record(begin, true);
+                countQueued(order);
+
+                if (random.nextDouble() < CANCEL_SHARE) {
+                    begin = System.nanoTime();
+                    op = "kiosk.submitCancel";
+                    countQueued(replicator.submitCancel(order.key(), "Load test"));
+                    stats.get(op).record(begin, true);
+                    continue;
+                }
+
+                // Same records CustomerFrame writes: cash waits for a cashier, QRIS is paid at once
+                boolean cash = random.nextDouble() < CASH_SHARE;
+                begin = System.nanoTime();
+                op = "kiosk.submitPayment";
+                OrderReplicator.Submitted payment = replicator.submitPayment(order.key(),
+                        cash ? "menunggu_pembayaran" : "selesai", cash ? "cash" : "qris", total,
+                        cash ? "menunggu" : "berhasil", kasirId);
+                stats.get(op).record(begin, true);
+                countQueued(payment);
+                if (cash && payment.notaId() > 0) {
+                    pendingNotas.add(payment.notaId());
+                }
+            } catch (IOException e) {
+                fail(op, begin, e);
+            }
+        }
+    }
+
+    private void countQueued(OrderReplicator.Submitted submitted) {
+        if (!submitted.isApplied()) {
+            queued.incrementAndGet();
+        }
+    }
+
+    private void cashier() {
+        RestaurantDAO restaurantDAO = new RestaurantDAO();
+        PaymentService paymentService = new PaymentService();
+        while (running) {
+            Integer idNota = pendingNotas.poll();
+            if (idNota == null) {
+                if (!pause(CASHIER_IDLE_MS)) {
+                    return;
+                }
+                continue;
+            }
+
+            long begin = System.nanoTime();
+            String op = "cashier.loadReceipt";
+            try {
+                RestaurantDAO.ReceiptBundle bundle = restaurantDAO.loadReceiptBundle(idNota);
+                stats.get(op).record(begin, bundle != null);
+
+                begin = System.nanoTime();
+                op = "cashier.confirm";
+                PaymentService.Outcome outcome = paymentService.confirm(idNota, kasirId);
+                stats.get(op).record(begin, outcome == PaymentService.Outcome.CONFIRMED);
+            } catch (SQLException e) {
+                fail(op, begin, e);
+            }
+        }
+    }
+
+    private void manager() {
+        CustomerOrderDAO customerOrderDAO = new CustomerOrderDAO();
+        while (running) {
+            long begin = System.nanoTime();
+            try {
+                DashboardStats.get();
+                stats.get("manager.stats").record(begin, true);
+            } catch (SQLException e) {
+                fail("manager.stats", begin, e);
+            }
+
+            begin = System.nanoTime();
+            DashboardSnapshot snapshot = DashboardSnapshot.load();
+            stats.get("manager.dashboard").record(begin, snapshot.isComplete());
+
+            begin = System.nanoTime();
+            customerOrderDAO.findPage(null, null, 0, MANAGER_PAGE_SIZE);
+            stats.get("manager.ordersPage").record(begin, true);
+
+            if (!pause(MANAGER_REFRESH_MS)) {
+                return;
+            }
+        }
+    }
+
+    private List<OrderReplicator.Line> randomCart(ThreadLocalRandom random) {
+        int items = Math.min(pick(CART_SIZE_WEIGHTS, random), menus.size());
+        List<OrderReplicator.Line> lines = new ArrayList<>(items);
+        List<Menu> shuffled = new ArrayList<>(menus);
+        for (int i = 0; i < items; i++) {
+            Menu menu = shuffled.remove(random.nextInt(shuffled.size()));
+            lines.add(new OrderReplicator.Line(menu.getIdMenu(), pick(QUANTITY_WEIGHTS, random), menu.getHarga()));
+        }
+        return lines;
+    }
+
+    private static int pick(int[] weights, ThreadLocalRandom random) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int roll = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            roll -= weights[i];
+            if (roll < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    // Count a thrown operation as a failure; only the first few are printed
+    private void fail(String op, long begin, Exception e) {
+        stats.get(op).record(begin, false);
+        if (reportedErrors.incrementAndGet() <= MAX_REPORTED_ERRORS) {
+            e.printStackTrace();
+        }
+    }
+
+    /** Sleep in short slices so the end of the run is noticed; returns false once it is over */
+    private boolean pause(long millis) {
+        long until = System.currentTimeMillis() + millis;
+        try {
+            while (running) {
+                long left = until - System.currentTimeMillis();
+                if (left <= 0) {
+                    return true;
+                }
+                Thread.sleep(Math.min(left, STOP_CHECK_MS));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private String formatReport(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-20s %7s %6s %8s %8s %8s %8s %8s%n",
+                "operation", "count", "errors", "ops/s", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        for (OpStats opStats : stats.values()) {
+            long[] sorted = opStats.sorted();
+            if (sorted.length == 0) {
+                sb.append(String.format("%-20s %7d %6d%n", opStats.name, 0, opStats.errors()));
+                continue;
+            }
+            sb.append(String.format("%-20s %7d %6d %8.1f %8.2f %8.2f %8.2f %8.2f%n",
+                    opStats.name, sorted.length, opStats.errors(), sorted.length / seconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                    sorted[sorted.length - 1] / 1e6));
+        }
+        return sb.toString();
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    // Latencies of one operation type, kept whole so percentiles are exact
+    private static class OpStats {
+        private final String name;
+        private long[] samples = new long[1024];
+        private int size;
+        private int errors;
+
+        OpStats(String name) {
+            this.name = name;
+        }
+
+        synchronized void record(long beginNanos, boolean ok) {
+            if (size == samples.length) {
+                samples = Arrays.copyOf(samples, size * 2);
+            }
+            samples[size++] = System.nanoTime() - beginNanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+
+        synchronized int errors() { return errors; }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(samples, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
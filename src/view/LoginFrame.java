@@ -4,7 +4,6 @@ import javax.swing.*;
 
 import java.awt.*;
 import java.awt.event.ActionListener;
-import java.util.concurrent.ExecutionException;
 import view.ManagerFrame;
 
 
@@ -316,47 +315,26 @@ public class LoginFrame extends JFrame {
         loginButton.setText("Logging in...");
         
         // Perform authentication using database
-        SwingWorker<User, Void> worker = new SwingWorker<User, Void>() {
-            @Override
-            protected User doInBackground() throws Exception {
-                try {
-                    // Simulate authentication delay
-                    Thread.sleep(1000);
-                    
-                    // Database authentication
-                    return authenticateUserFromDatabase(username, password);
-                } catch (Exception e) {
-                    e.printStackTrace();
-                    return null;
-                }
-            }
-            
-            @Override
-            protected void done() {
-                try {
-                    User authenticatedUser = get();
-                    
-                    if (authenticatedUser != null) {
-                        showSuccessDialog("Login berhasil!\nSelamat datang, " + authenticatedUser.getNama());
-                        openDashboard(authenticatedUser);
-                        dispose();
-                    } else {
-                        showErrorDialog("Username atau password salah!");
-                        passwordField.setText("");
-                    }
-                } catch (InterruptedException | ExecutionException e) {
-                    showErrorDialog("Terjadi kesalahan saat login: " + e.getMessage());
-                    e.printStackTrace();
-                } finally {
-                    // Re-enable buttons
-                    loginButton.setEnabled(true);
-                    customerButton.setEnabled(true);
-                    loginButton.setText("LOGIN");
-                }
+        DataAccess.submit(() -> authenticateUserFromDatabase(username, password), authenticatedUser -> {
+            resetLoginButtons();
+            if (authenticatedUser != null) {
+                showSuccessDialog("Login berhasil!\nSelamat datang, " + authenticatedUser.getNama());
+                openDashboard(authenticatedUser);
+                dispose();
+            } else {
+                showErrorDialog("Username atau password salah!");
+                passwordField.setText("");
             }
-        };
-        
-        worker.execute();
+        }, e -> {
+            resetLoginButtons();
+            showErrorDialog("Terjadi kesalahan saat login: " + e.getMessage());
+        });
+    }
+    
+    private void resetLoginButtons() {
+        loginButton.setEnabled(true);
+        customerButton.setEnabled(true);
+        loginButton.setText("LOGIN");
     }
     
     // Database authentication method
@@ -395,7 +373,7 @@ public class LoginFrame extends JFrame {
                         new AdminFrame().setVisible(true);
                         break;
                     case "KASIR":
-                        new KasirFrame().setVisible(true);
+                        new KasirFrame(user).setVisible(true);
                         break;
                     case "MANAGER":
                         new ManagerFrame().setVisible(true);
@@ -418,6 +396,8 @@ public class LoginFrame extends JFrame {
     
     // Main method for testing
     public static void main(String[] args) {
+        EdtWatchdog.install();
+        SchemaMigrator.migrateAtStartup();
         // Set system properties for better integration
         System.setProperty("apple.laf.useScreenMenuBar", "true");
         System.setProperty("com.apple.mrj.application.apple.menu.about.name", "Restaurant Management System");
@@ -7,6 +7,8 @@ import java.util.List;
 
 public class Main {
     public static void main(String[] args) {
+        SchemaMigrator.migrateAtStartup();
+
         // Example usage of the DAO classes
         
         // Create DAOs
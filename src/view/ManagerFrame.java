@@ -11,6 +11,7 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.text.NumberFormat;
 import java.text.SimpleDateFormat;
@@ -44,6 +45,7 @@ public class ManagerFrame extends JFrame {
     private PesananDibatalkanDAO pesananDibatalkanDAO;
     private OrderDetailDAO orderDetailDAO;
     private UserDAO userDAO;
+    private ReportDAO reportDAO;
     
     // Main components
     private JPanel mainContentPanel;
@@ -68,23 +70,34 @@ public class ManagerFrame extends JFrame {
     
     // Menu management components
     private JTable menuTable;
-    private DefaultTableModel menuTableModel;
+    private MenuTableModel menuTableModel;
     
     // Sales report components
     private JTable salesReportTable;
-    private DefaultTableModel salesTableModel;
+    private SalesTableModel salesTableModel;
     private JComboBox<String> reportPeriodCombo;
     private JDateChooser startDateChooser;
     private JDateChooser endDateChooser;
+    private static final int SALES_REPORT_PAGE_SIZE = 500;
+    private static final int TABLE_PAGE_SIZE = 200;
+    private Timestamp salesReportFrom;
+    private Timestamp salesReportTo;
+
+    // Background loads, one slot per view so a refresh supersedes the one still running
+    private final DataAccess.Slot statsSlot = new DataAccess.Slot();
+    private final DataAccess.Slot menuSlot = new DataAccess.Slot();
+    private final DataAccess.Slot salesReportSlot = new DataAccess.Slot();
+    private final DataAccess.Slot orderSlot = new DataAccess.Slot();
+    private final DataAccess.Slot cancelledSlot = new DataAccess.Slot();
     
     // Order tracking components
     private JTable orderTrackingTable;
-    private DefaultTableModel orderTableModel;
+    private OrderTableModel orderTableModel;
     private JComboBox<String> orderStatusFilter;
     
     // Cancelled orders components
     private JTable cancelledOrdersTable;
-    private DefaultTableModel cancelledTableModel;
+    private CancelledTableModel cancelledTableModel;
 
     public ManagerFrame() {
         initializeDAOs();
@@ -135,6 +148,7 @@ public class ManagerFrame extends JFrame {
         pesananDibatalkanDAO = new PesananDibatalkanDAO();
         orderDetailDAO = new OrderDetailDAO();
         userDAO = new UserDAO();
+        reportDAO = new ReportDAO();
     }
     
     private void initializeFormatters() {
@@ -493,13 +507,7 @@ public class ManagerFrame extends JFrame {
         
         // Table
         JPanel tablePanel = createModernTablePanel();
-        String[] menuColumns = {"ID", "Menu Name", "Type", "Price", "Status", "Description", "Image"};
-        menuTableModel = new DefaultTableModel(menuColumns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        menuTableModel = new MenuTableModel(currencyFormat);
         menuTable = new JTable(menuTableModel);
         styleTable(menuTable);
         
@@ -555,18 +563,13 @@ public class ManagerFrame extends JFrame {
         
         // Table
         JPanel tablePanel = createModernTablePanel();
-        String[] salesColumns = {"Date", "Order ID", "Customer", "Items", "Total", "Payment", "Status"};
-        salesTableModel = new DefaultTableModel(salesColumns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        salesTableModel = new SalesTableModel(currencyFormat, dateFormat);
         salesReportTable = new JTable(salesTableModel);
         styleTable(salesReportTable);
         
         JScrollPane scrollPane = new JScrollPane(salesReportTable);
         scrollPane.setBorder(BorderFactory.createEmptyBorder());
+        salesTableModel.installPaging(salesReportTable, scrollPane, this::loadSalesReportPage);
         tablePanel.add(scrollPane, BorderLayout.CENTER);
         
         panel.add(headerPanel, BorderLayout.NORTH);
@@ -610,18 +613,13 @@ public class ManagerFrame extends JFrame {
         
         // Table
         JPanel tablePanel = createModernTablePanel();
-        String[] orderColumns = {"Order ID", "Customer", "Date", "Total", "Status", "Notes"};
-        orderTableModel = new DefaultTableModel(orderColumns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        orderTableModel = new OrderTableModel(currencyFormat, dateFormat);
         orderTrackingTable = new JTable(orderTableModel);
         styleTable(orderTrackingTable);
         
         JScrollPane scrollPane = new JScrollPane(orderTrackingTable);
         scrollPane.setBorder(BorderFactory.createEmptyBorder());
+        orderTableModel.installPaging(orderTrackingTable, scrollPane, this::loadOrderTrackingPage);
         tablePanel.add(scrollPane, BorderLayout.CENTER);
         
         panel.add(headerPanel, BorderLayout.NORTH);
@@ -656,18 +654,13 @@ public class ManagerFrame extends JFrame {
         
         // Table
         JPanel tablePanel = createModernTablePanel();
-        String[] cancelledColumns = {"Order ID", "Customer", "Cancel Date", "Reason", "Amount Lost"};
-        cancelledTableModel = new DefaultTableModel(cancelledColumns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        cancelledTableModel = new CancelledTableModel(currencyFormat, dateFormat);
         cancelledOrdersTable = new JTable(cancelledTableModel);
         styleTable(cancelledOrdersTable);
         
         JScrollPane scrollPane = new JScrollPane(cancelledOrdersTable);
         scrollPane.setBorder(BorderFactory.createEmptyBorder());
+        cancelledTableModel.installPaging(cancelledOrdersTable, scrollPane, this::loadCancelledOrdersPage);
         tablePanel.add(scrollPane, BorderLayout.CENTER);
         
         panel.add(headerPanel, BorderLayout.NORTH);
@@ -787,22 +780,13 @@ public class ManagerFrame extends JFrame {
     }
     
     private void loadDashboardData() {
-        SwingWorker<Void, Void> worker = new SwingWorker<Void, Void>() {
-            @Override
-            protected Void doInBackground() throws Exception {
-                loadStats();
-                loadMenuData();
-                loadOrderTracking();
-                loadCancelledOrders();
-                return null;
-            }
-            
-            @Override
-            protected void done() {
-                showModernNotification("Dashboard refreshed successfully!", SUCCESS_GREEN);
-            }
-        };
-        worker.execute();
+        statsSlot.submit(this::fetchStats, stats -> {
+            applyStats(stats);
+            showModernNotification("Dashboard refreshed successfully!", SUCCESS_GREEN);
+        }, this::showStatsError);
+        loadMenuData();
+        loadOrderTracking();
+        loadCancelledOrders();
     }
     
     /**
@@ -843,204 +827,129 @@ public class ManagerFrame extends JFrame {
     }
     
     private void loadStats() {
-        try {
-            // Total Revenue
-            List<Pembayaran> payments = pembayaranDAO.findAll();
-            double totalRevenue = payments.stream()
-                .filter(p -> "berhasil".equals(p.getStatusPembayaran()))
-                .mapToDouble(Pembayaran::getJumlahPembayaran)
-                .sum();
-            
-            SwingUtilities.invokeLater(() -> 
-                totalRevenueLabel.setText(currencyFormat.format(totalRevenue)));
-            
-            // Total Orders
-            List<CustomerOrder> orders = customerOrderDAO.findAll();
-            SwingUtilities.invokeLater(() -> 
-                totalOrdersLabel.setText(String.valueOf(orders.size())));
-            
-            // Cancelled Orders
-            List<PesananDibatalkan> cancelledOrders = pesananDibatalkanDAO.findAll();
-            SwingUtilities.invokeLater(() -> 
-                totalCancelledLabel.setText(String.valueOf(cancelledOrders.size())));
-            
-            // Menu Items
-            List<Menu> menus = menuDAO.findAll();
-            SwingUtilities.invokeLater(() -> 
-                totalMenusLabel.setText(String.valueOf(menus.size())));
-            
-        } catch (Exception e) {
-            e.printStackTrace();
-            SwingUtilities.invokeLater(() -> 
-                showModernNotification("Error loading stats: " + e.getMessage(), ERROR_RED));
-        }
+        statsSlot.submit(this::fetchStats, this::applyStats, this::showStatsError);
+    }
+    
+    private DashboardStats fetchStats() throws SQLException {
+        return DashboardStats.get();
+    }
+    
+    private void applyStats(DashboardStats stats) {
+        totalRevenueLabel.setText(currencyFormat.format(stats.getTotalRevenue()));
+        totalOrdersLabel.setText(String.valueOf(stats.getTotalOrders()));
+        totalCancelledLabel.setText(String.valueOf(stats.getTotalCancelled()));
+        totalMenusLabel.setText(String.valueOf(stats.getTotalMenus()));
+    }
+    
+    private void showStatsError(Exception e) {
+        showModernNotification("Error loading stats: " + e.getMessage(), ERROR_RED);
     }
     
     private void loadMenuData() {
-        SwingUtilities.invokeLater(() -> {
-            menuTableModel.setRowCount(0);
-            List<Menu> menus = menuDAO.findAll();
-            
-            for (Menu menu : menus) {
-                String status = "1".equals(menu.getKetersediaan()) ? "Available" : "Unavailable";
-                String description = menu.getDeskripsi();
-                if (description != null && description.length() > 50) {
-                    description = description.substring(0, 47) + "...";
-                }
-                
-                String hasImage = (menu.getGambar() != null && !menu.getGambar().trim().isEmpty()) ? "✓" : "✗";
-                
-                Object[] row = {
-                    menu.getIdMenu(),
-                    menu.getNamaMenu(),
-                    menu.getJenisMenu(),
-                    currencyFormat.format(menu.getHarga()),
-                    status,
-                    description != null ? description : "-",
-                    hasImage
-                };
-                menuTableModel.addRow(row);
-            }
-        });
+        // The catalog list is immutable, so the model can show it as is
+        menuSlot.submit(() -> MenuCatalog.get().getAll(), menus -> menuTableModel.setMenus(menus));
     }
     
     private void loadOrderTracking() {
-        SwingUtilities.invokeLater(() -> {
-            orderTableModel.setRowCount(0);
-            List<CustomerOrder> orders = customerOrderDAO.findAll();
-            
-            String statusFilter = (String) orderStatusFilter.getSelectedItem();
-            
+        // Submitting on the slot supersedes a page that is still loading
+        orderSlot.cancel();
+        orderTableModel.reload();
+    }
+    
+    private void loadOrderTrackingPage() {
+        String statusFilter = (String) orderStatusFilter.getSelectedItem();
+        String status = "All".equals(statusFilter) ? null : statusFilter;
+        Timestamp afterTanggal = orderTableModel.getLastTanggal();
+        int afterId = orderTableModel.getLastOrderId();
+        
+        orderSlot.submit(() -> {
+            List<CustomerOrder> orders = customerOrderDAO.findPage(status, afterTanggal, afterId, TABLE_PAGE_SIZE);
+            Set<Integer> customerIds = new HashSet<>();
             for (CustomerOrder order : orders) {
-                if (!"All".equals(statusFilter) && !statusFilter.equals(order.getStatusPesanan())) {
-                    continue;
-                }
-                
-                String customerName = "Unknown";
-                try {
-                    User customer = userDAO.findById(order.getCustomerId());
-                    if (customer != null) {
-                        customerName = customer.getNama();
-                    }
-                } catch (Exception e) {
-                    // Handle error silently
-                }
-                
-                Object[] row = {
-                    order.getIdPesanan(),
-                    customerName,
-                    dateFormat.format(order.getTanggalPesanan()),
-                    currencyFormat.format(order.getTotalPesanan()),
-                    order.getStatusPesanan(),
-                    order.getCatatan() != null ? order.getCatatan() : "-"
-                };
-                orderTableModel.addRow(row);
+                customerIds.add(order.getCustomerId());
             }
+            
+            // One query for every customer on the page instead of one per row
+            return new OrderPage(orders, UserCache.getAll(customerIds));
+        }, page -> {
+            orderTableModel.append(page.orders, page.customers);
+            orderTableModel.pageLoaded(page.orders.size() == TABLE_PAGE_SIZE);
+        }, e -> {
+            orderTableModel.pageFailed();
+            showModernNotification("Error loading orders", ERROR_RED);
         });
     }
     
     private void loadCancelledOrders() {
-        SwingUtilities.invokeLater(() -> {
-            cancelledTableModel.setRowCount(0);
-            List<PesananDibatalkan> cancelledOrders = pesananDibatalkanDAO.findAll();
-            
-            for (PesananDibatalkan cancelled : cancelledOrders) {
-                CustomerOrder originalOrder = customerOrderDAO.findById(cancelled.getIdPesanan());
-                String customerName = "Unknown";
-                double amountLost = 0;
-                
-                if (originalOrder != null) {
-                    amountLost = originalOrder.getTotalPesanan();
-                    try {
-                        User customer = userDAO.findById(originalOrder.getCustomerId());
-                        if (customer != null) {
-                            customerName = customer.getNama();
-                        }
-                    } catch (Exception e) {
-                        // Handle error silently
-                    }
-                }
-                
-                Object[] row = {
-                    cancelled.getIdPesanan(),
-                    customerName,
-                    dateFormat.format(cancelled.getTanggalBatal()),
-                    cancelled.getAlasanBatal(),
-                    currencyFormat.format(amountLost)
-                };
-                cancelledTableModel.addRow(row);
-            }
+        cancelledSlot.cancel();
+        cancelledTableModel.reload();
+    }
+    
+    private void loadCancelledOrdersPage() {
+        Timestamp afterTanggal = cancelledTableModel.getLastTanggalBatal();
+        int afterId = cancelledTableModel.getLastBatalId();
+        
+        cancelledSlot.submit(() -> reportDAO.getCancelledOrdersPage(afterTanggal, afterId, TABLE_PAGE_SIZE), page -> {
+            cancelledTableModel.append(page);
+            cancelledTableModel.pageLoaded(page.size() == TABLE_PAGE_SIZE);
+        }, e -> {
+            cancelledTableModel.pageFailed();
+            showModernNotification("Error loading cancelled orders", ERROR_RED);
         });
     }
     
+    /**
+     * Get customer name for display, "Unknown" when the user is missing. Call off the EDT.
+     */
+    private String findCustomerName(int customerId) {
+        return UserCache.getName(customerId, "Unknown");
+    }
+    
     private void generateSalesReport() {
-        try {
-            salesTableModel.setRowCount(0);
-            
-            Date startDate = startDateChooser.getDate();
-            Date endDate = endDateChooser.getDate();
-            
-            if (startDate == null || endDate == null) {
-                showModernNotification("Please select date range", ERROR_RED);
-                return;
-            }
-            
-            List<CustomerOrder> orders = customerOrderDAO.findAll();
-            double totalSales = 0;
-            int totalTransactions = 0;
-            
-            for (CustomerOrder order : orders) {
-                Date orderDate = new Date(order.getTanggalPesanan().getTime());
-                
-                if (orderDate.compareTo(startDate) >= 0 && orderDate.compareTo(endDate) <= 0) {
-                    if ("selesai".equals(order.getStatusPesanan())) {
-                        String customerName = "Unknown";
-                        try {
-                            User customer = userDAO.findById(order.getCustomerId());
-                            if (customer != null) {
-                                customerName = customer.getNama();
-                            }
-                        } catch (Exception e) {
-                            // Handle error silently
-                        }
-                        
-                        String paymentMethod = "Cash";
-                        try {
-                            Pembayaran payment = pembayaranDAO.findByOrderId(order.getIdPesanan());
-                            if (payment != null) {
-                                paymentMethod = payment.getMetodePembayaran().toUpperCase();
-                            }
-                        } catch (Exception e) {
-                            // Handle error silently
-                        }
-                        
-                        List<OrderDetail> details = orderDetailDAO.findByOrderId(order.getIdPesanan());
-                        int itemCount = details.stream().mapToInt(OrderDetail::getJumlah).sum();
-                        
-                        Object[] row = {
-                            dateFormat.format(order.getTanggalPesanan()),
-                            order.getIdPesanan(),
-                            customerName,
-                            itemCount + " items",
-                            currencyFormat.format(order.getTotalPesanan()),
-                            paymentMethod,
-                            order.getStatusPesanan()
-                        };
-                        
-                        salesTableModel.addRow(row);
-                        totalSales += order.getTotalPesanan();
-                        totalTransactions++;
-                    }
-                }
-            }
-            
+        Date startDate = startDateChooser.getDate();
+        Date endDate = endDateChooser.getDate();
+        
+        if (startDate == null || endDate == null) {
+            showModernNotification("Please select date range", ERROR_RED);
+            return;
+        }
+        
+        // Whole days, end date inclusive
+        Timestamp from = Timestamp.valueOf(toLocalDate(startDate).atStartOfDay());
+        Timestamp toExclusive = Timestamp.valueOf(toLocalDate(endDate).plusDays(1).atStartOfDay());
+        salesReportFrom = from;
+        salesReportTo = toExclusive;
+        
+        // Rows are paged in as the table scrolls, so the totals come from their own query
+        salesReportSlot.cancel();
+        salesTableModel.reload();
+        DataAccess.submit(() -> reportDAO.getSalesReportTotals(from, toExclusive, "selesai"), totals -> {
             showModernNotification(String.format("Generated %d transactions, Total: %s", 
-                totalTransactions, currencyFormat.format(totalSales)), SUCCESS_GREEN);
-                
-        } catch (Exception e) {
-            e.printStackTrace();
+                totals.totalTransactions(), currencyFormat.format(totals.totalSales())), SUCCESS_GREEN);
+        }, e -> showModernNotification("Error generating sales report", ERROR_RED));
+    }
+    
+    private void loadSalesReportPage() {
+        Timestamp from = salesReportFrom;
+        Timestamp toExclusive = salesReportTo;
+        Timestamp afterTanggal = salesTableModel.getLastTanggal();
+        int afterId = salesTableModel.getLastOrderId();
+        
+        salesReportSlot.submit(() -> reportDAO.getSalesReportPage(
+                from, toExclusive, "selesai", afterTanggal, afterId, TABLE_PAGE_SIZE), page -> {
+            salesTableModel.append(page);
+            salesTableModel.pageLoaded(page.size() == TABLE_PAGE_SIZE);
+        }, e -> {
+            salesTableModel.pageFailed();
             showModernNotification("Error generating sales report", ERROR_RED);
+        });
+    }
+    
+    private LocalDate toLocalDate(Date date) {
+        if (date instanceof java.sql.Date) {
+            return ((java.sql.Date) date).toLocalDate();
         }
+        return date.toInstant().atZone(java.time.ZoneId.systemDefault()).toLocalDate();
     }
     
     private void setDateRangeFromPeriod(String period) {
@@ -1245,21 +1154,21 @@ public class ManagerFrame extends JFrame {
                 menuToSave.setKetersediaan((String) availabilityCombo.getSelectedItem());
                 menuToSave.setGambar(currentImagePath[0]);
                 
-                boolean success;
-                if (menu == null) {
-                    success = menuDAO.create(menuToSave);
-                } else {
-                    success = menuDAO.update(menuToSave);
-                }
-                
-                if (success) {
-                    showModernNotification("Menu saved successfully!", SUCCESS_GREEN);
-                    loadMenuData();
-                    loadStats();
-                    dialog.dispose();
-                } else {
-                    showModernNotification("Failed to save menu!", ERROR_RED);
-                }
+                saveButton.setEnabled(false);
+                DataAccess.submit(() -> menu == null ? menuDAO.create(menuToSave) : menuDAO.update(menuToSave), success -> {
+                    saveButton.setEnabled(true);
+                    if (success) {
+                        showModernNotification("Menu saved successfully!", SUCCESS_GREEN);
+                        loadMenuData();
+                        loadStats();
+                        dialog.dispose();
+                    } else {
+                        showModernNotification("Failed to save menu!", ERROR_RED);
+                    }
+                }, ex -> {
+                    saveButton.setEnabled(true);
+                    showModernNotification("Error: " + ex.getMessage(), ERROR_RED);
+                });
             } catch (Exception ex) {
                 ex.printStackTrace();
                 showModernNotification("Error: " + ex.getMessage(), ERROR_RED);
@@ -1355,27 +1264,29 @@ public class ManagerFrame extends JFrame {
     
     // Helper methods
     private void displayImagePreview(JLabel imageLabel, String imagePath) {
-        try {
-            if (imagePath != null && !imagePath.trim().isEmpty()) {
-                java.io.File imageFile = new java.io.File(imagePath);
-                if (imageFile.exists()) {
-                    java.awt.image.BufferedImage originalImage = javax.imageio.ImageIO.read(imageFile);
-                    if (originalImage != null) {
-                        java.awt.Image scaledImage = originalImage.getScaledInstance(
-                            150, 100, java.awt.Image.SCALE_SMOOTH);
-                        imageLabel.setIcon(new ImageIcon(scaledImage));
-                        imageLabel.setText("");
-                        return;
-                    }
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Error loading image preview: " + e.getMessage());
+        if (imagePath == null || imagePath.trim().isEmpty()) {
+            clearImagePreview(imageLabel);
+            return;
         }
-        clearImagePreview(imageLabel);
+        // Remember which image was asked for so a slower earlier load cannot overwrite it
+        imageLabel.putClientProperty("previewPath", imagePath);
+        imageLabel.setIcon(null);
+        imageLabel.setText("Loading...");
+        ThumbnailService.load(imagePath, 150, 100, icon -> {
+            if (!imagePath.equals(imageLabel.getClientProperty("previewPath"))) {
+                return;
+            }
+            if (icon != null) {
+                imageLabel.setIcon(icon);
+                imageLabel.setText("");
+            } else {
+                clearImagePreview(imageLabel);
+            }
+        });
     }
     
     private void clearImagePreview(JLabel imageLabel) {
+        imageLabel.putClientProperty("previewPath", null);
         imageLabel.setIcon(null);
         imageLabel.setText("No Image");
     }
@@ -1392,10 +1303,11 @@ public class ManagerFrame extends JFrame {
         int selectedRow = menuTable.getSelectedRow();
         if (selectedRow >= 0) {
             int menuId = (Integer) menuTableModel.getValueAt(selectedRow, 0);
-            Menu menu = menuDAO.findById(menuId);
-            if (menu != null) {
-                openMenuDialog(menu);
-            }
+            DataAccess.submit(() -> menuDAO.findById(menuId), menu -> {
+                if (menu != null) {
+                    openMenuDialog(menu);
+                }
+            });
         } else {
             showModernNotification("Please select a menu to edit!", WARNING_ORANGE);
         }
@@ -1413,12 +1325,14 @@ public class ManagerFrame extends JFrame {
                 JOptionPane.YES_NO_OPTION);
                 
             if (confirm == JOptionPane.YES_OPTION) {
-                if (menuDAO.delete(menuId)) {
-                    showModernNotification("Menu deleted successfully!", SUCCESS_GREEN);
-                    loadMenuData();
-                } else {
-                    showModernNotification("Failed to delete menu!", ERROR_RED);
-                }
+                DataAccess.submit(() -> menuDAO.delete(menuId), deleted -> {
+                    if (deleted) {
+                        showModernNotification("Menu deleted successfully!", SUCCESS_GREEN);
+                        loadMenuData();
+                    } else {
+                        showModernNotification("Failed to delete menu!", ERROR_RED);
+                    }
+                });
             }
         } else {
             showModernNotification("Please select a menu to delete!", WARNING_ORANGE);
@@ -1436,11 +1350,33 @@ public class ManagerFrame extends JFrame {
     }
     
     private void showOrderDetailsDialog(int orderId) {
-        CustomerOrder order = customerOrderDAO.findById(orderId);
-        if (order == null) {
-            showModernNotification("Order not found!", ERROR_RED);
-            return;
-        }
+        DataAccess.submit(() -> {
+            OrderDetailsData data = new OrderDetailsData();
+            data.order = customerOrderDAO.findById(orderId);
+            if (data.order == null) {
+                return data;
+            }
+            data.customerName = findCustomerName(data.order.getCustomerId());
+            data.details = orderDetailDAO.findByOrderId(orderId);
+            MenuCatalog.Snapshot catalog = MenuCatalog.get();
+            for (OrderDetail detail : data.details) {
+                if (!data.menuNames.containsKey(detail.getIdMenu())) {
+                    Menu menu = catalog.findById(detail.getIdMenu());
+                    data.menuNames.put(detail.getIdMenu(), menu != null ? menu.getNamaMenu() : "Unknown Menu");
+                }
+            }
+            return data;
+        }, data -> {
+            if (data.order == null) {
+                showModernNotification("Order not found!", ERROR_RED);
+                return;
+            }
+            showOrderDetailsDialog(orderId, data);
+        });
+    }
+    
+    private void showOrderDetailsDialog(int orderId, OrderDetailsData data) {
+        CustomerOrder order = data.order;
         
         JDialog detailsDialog = new JDialog(this, "Order Details", true);
         detailsDialog.setSize(700, 900);
@@ -1468,17 +1404,7 @@ public class ManagerFrame extends JFrame {
             new EmptyBorder(20, 20, 20, 20)
         ));
         
-        String customerName = "Unknown";
-        try {
-            User customer = userDAO.findById(order.getCustomerId());
-            if (customer != null) {
-                customerName = customer.getNama();
-            }
-        } catch (Exception e) {
-            // Handle silently
-        }
-        
-        infoPanel.add(createInfoLabel("Customer:", customerName));
+        infoPanel.add(createInfoLabel("Customer:", data.customerName));
         infoPanel.add(createInfoLabel("Date:", dateFormat.format(order.getTanggalPesanan())));
         infoPanel.add(createInfoLabel("Status:", order.getStatusPesanan()));
         infoPanel.add(createInfoLabel("Total:", currencyFormat.format(order.getTotalPesanan())));
@@ -1496,20 +1422,9 @@ public class ManagerFrame extends JFrame {
         JTable itemsTable = new JTable(itemsModel);
         styleTable(itemsTable);
         
-        List<OrderDetail> orderDetails = orderDetailDAO.findByOrderId(orderId);
-        for (OrderDetail detail : orderDetails) {
-            String menuName = "Unknown Menu";
-            try {
-                Menu menu = menuDAO.findById(detail.getIdMenu());
-                if (menu != null) {
-                    menuName = menu.getNamaMenu();
-                }
-            } catch (Exception e) {
-                // Handle silently
-            }
-            
+        for (OrderDetail detail : data.details) {
             Object[] row = {
-                menuName,
+                data.menuNames.get(detail.getIdMenu()),
                 detail.getJumlah(),
                 currencyFormat.format(detail.getHargaSatuan()),
                 currencyFormat.format(detail.getJumlah() * detail.getHargaSatuan())
@@ -1557,28 +1472,39 @@ public class ManagerFrame extends JFrame {
     }
     
     private void analyzeCancellationReasons() {
-        try {
-            List<PesananDibatalkan> cancelledOrders = pesananDibatalkanDAO.findAll();
-            
-            if (cancelledOrders.isEmpty()) {
+        Map<String, Integer> reasonCounts = new HashMap<>();
+        Map<String, Double> reasonAmounts = new HashMap<>();
+        
+        DataAccess.submit(() -> {
+            // Page through cancellations with the order total joined in, instead of one lookup per row
+            int total = 0;
+            Timestamp afterTanggal = null;
+            int afterId = 0;
+            List<ReportDAO.CancelledOrderRow> page;
+            do {
+                page = reportDAO.getCancelledOrdersPage(afterTanggal, afterId, SALES_REPORT_PAGE_SIZE);
+                for (ReportDAO.CancelledOrderRow cancelled : page) {
+                    String reason = cancelled.alasanBatal();
+                    reasonCounts.put(reason, reasonCounts.getOrDefault(reason, 0) + 1);
+                    reasonAmounts.put(reason, reasonAmounts.getOrDefault(reason, 0.0) + cancelled.totalPesanan());
+                    afterTanggal = cancelled.tanggalBatal();
+                    afterId = cancelled.idBatal();
+                }
+                total += page.size();
+            } while (page.size() == SALES_REPORT_PAGE_SIZE);
+            return total;
+        }, totalCancellations -> {
+            if (totalCancellations == 0) {
                 showModernNotification("No cancelled orders found!", WARNING_ORANGE);
                 return;
             }
-            
-            Map<String, Integer> reasonCounts = new HashMap<>();
-            Map<String, Double> reasonAmounts = new HashMap<>();
-            
-            for (PesananDibatalkan cancelled : cancelledOrders) {
-                String reason = cancelled.getAlasanBatal();
-                reasonCounts.put(reason, reasonCounts.getOrDefault(reason, 0) + 1);
-                
-                CustomerOrder originalOrder = customerOrderDAO.findById(cancelled.getIdPesanan());
-                if (originalOrder != null) {
-                    reasonAmounts.put(reason, 
-                        reasonAmounts.getOrDefault(reason, 0.0) + originalOrder.getTotalPesanan());
-                }
-            }
-            
+            showCancellationAnalysis(reasonCounts, reasonAmounts, totalCancellations);
+        }, e -> showModernNotification("Error analyzing cancellation reasons", ERROR_RED));
+    }
+    
+    private void showCancellationAnalysis(Map<String, Integer> reasonCounts, Map<String, Double> reasonAmounts,
+                                          int totalCancellations) {
+        try {
             JDialog analysisDialog = new JDialog(this, "Cancellation Analysis", true);
             analysisDialog.setSize(600, 450);
             analysisDialog.setLocationRelativeTo(this);
@@ -1606,7 +1532,6 @@ public class ManagerFrame extends JFrame {
             JTable analysisTable = new JTable(analysisModel);
             styleTable(analysisTable);
             
-            int totalCancellations = cancelledOrders.size();
             double totalLostRevenue = reasonAmounts.values().stream().mapToDouble(Double::doubleValue).sum();
             
             for (Map.Entry<String, Integer> entry : reasonCounts.entrySet()) {
@@ -1678,40 +1603,88 @@ public class ManagerFrame extends JFrame {
     }
     
     private void exportSalesData() {
-        try {
-            JFileChooser fileChooser = new JFileChooser();
-            fileChooser.setDialogTitle("Export Sales Data");
-            fileChooser.setSelectedFile(new java.io.File("sales_report_" + 
-                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".csv"));
+        if (salesReportFrom == null) {
+            showModernNotification("Generate a sales report first", ERROR_RED);
+            return;
+        }
+        
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Export Sales Data");
+        fileChooser.setSelectedFile(new java.io.File("sales_report_" + 
+            LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")) + ".csv"));
+        
+        int userSelection = fileChooser.showSaveDialog(this);
+        if (userSelection != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        java.io.File fileToSave = fileChooser.getSelectedFile();
+        Timestamp from = salesReportFrom;
+        Timestamp toExclusive = salesReportTo;
+        
+        // The table only holds the pages scrolled so far, so export reads the whole report
+        // itself. Runs off the EDT with its own formatters since those are not thread safe.
+        DataAccess.submit(() -> {
+            NumberFormat csvCurrency = NumberFormat.getCurrencyInstance(new Locale("id", "ID"));
+            SimpleDateFormat csvDate = new SimpleDateFormat("dd/MM/yyyy HH:mm");
+            int rows = 0;
             
-            int userSelection = fileChooser.showSaveDialog(this);
-            if (userSelection == JFileChooser.APPROVE_OPTION) {
-                java.io.File fileToSave = fileChooser.getSelectedFile();
-                
-                StringBuilder csvContent = new StringBuilder();
-                csvContent.append("Date,Order ID,Customer,Items,Total,Payment Method,Status\n");
+            try (java.io.Writer writer = new java.io.BufferedWriter(new java.io.FileWriter(fileToSave))) {
+                writer.write("Date,Order ID,Customer,Items,Total,Payment Method,Status\n");
                 
-                for (int i = 0; i < salesTableModel.getRowCount(); i++) {
-                    for (int j = 0; j < salesTableModel.getColumnCount(); j++) {
-                        if (j > 0) csvContent.append(",");
-                        Object value = salesTableModel.getValueAt(i, j);
-                        csvContent.append("\"").append(value != null ? value.toString() : "").append("\"");
+                Timestamp afterTanggal = null;
+                int afterId = 0;
+                List<ReportDAO.SalesReportRow> page;
+                do {
+                    page = reportDAO.getSalesReportPage(from, toExclusive, "selesai", 
+                        afterTanggal, afterId, SALES_REPORT_PAGE_SIZE);
+                    for (ReportDAO.SalesReportRow order : page) {
+                        Object[] values = {
+                            csvDate.format(order.tanggalPesanan()),
+                            order.idPesanan(),
+                            order.customerName() != null ? order.customerName() : "Unknown",
+                            order.itemCount() + " items",
+                            csvCurrency.format(order.totalPesanan()),
+                            order.metodePembayaran() != null ? order.metodePembayaran().toUpperCase() : "Cash",
+                            order.statusPesanan()
+                        };
+                        for (int j = 0; j < values.length; j++) {
+                            if (j > 0) writer.write(",");
+                            writer.write("\"" + (values[j] != null ? values[j].toString() : "") + "\"");
+                        }
+                        writer.write("\n");
+                        rows++;
                     }
-                    csvContent.append("\n");
-                }
-                
-                try (java.io.FileWriter writer = new java.io.FileWriter(fileToSave)) {
-                    writer.write(csvContent.toString());
-                }
-                
-                showModernNotification("Sales data exported successfully!", SUCCESS_GREEN);
+                    if (!page.isEmpty()) {
+                        ReportDAO.SalesReportRow last = page.get(page.size() - 1);
+                        afterTanggal = last.tanggalPesanan();
+                        afterId = last.idPesanan();
+                    }
+                } while (page.size() == SALES_REPORT_PAGE_SIZE);
             }
-        } catch (Exception e) {
+            return rows;
+        }, rows -> showModernNotification("Sales data exported successfully!", SUCCESS_GREEN), e -> {
             e.printStackTrace();
             showModernNotification("Error exporting data", ERROR_RED);
-        }
+        });
     }
     
+    private static class OrderPage {
+        final List<CustomerOrder> orders;
+        final Map<Integer, User> customers;
+
+        OrderPage(List<CustomerOrder> orders, Map<Integer, User> customers) {
+            this.orders = orders;
+            this.customers = customers;
+        }
+    }
+
+    private static class OrderDetailsData {
+        CustomerOrder order;
+        String customerName;
+        List<OrderDetail> details;
+        Map<Integer, String> menuNames = new HashMap<>();
+    }
+
     // Custom JDateChooser implementation
     private static class JDateChooser extends JPanel {
         private JTextField dateField;
@@ -1815,6 +1788,8 @@ public class ManagerFrame extends JFrame {
     }
     
     public static void main(String[] args) {
+        EdtWatchdog.install();
+        SchemaMigrator.migrateAtStartup();
         SwingUtilities.invokeLater(() -> {
             try {
                 System.setProperty("awt.useSystemAAFontSettings", "on");
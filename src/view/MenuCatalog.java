@@ -0,0 +1,153 @@
+package view;
+
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory copy of the Menu table shared by all frames, indexed by id, name and
+ * category. MenuDAO writes bump the version row in menu_version; each terminal
+ * re-reads that one row at most every POLL_INTERVAL_MS and reloads the menu only
+ * when the version moved, so steady-state menu reads cost no queries.
+ *
+ * The Menu objects are shared: callers must not modify them.
+ */
+public final class MenuCatalog {
+    private static final long POLL_INTERVAL_MS = 5_000;
+
+    static final String CREATE_VERSION_TABLE_SQL = """
+        CREATE TABLE IF NOT EXISTS menu_version (
+            id TINYINT PRIMARY KEY,
+            version BIGINT NOT NULL,
+            updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+        )
+        """;
+
+    static final String SEED_VERSION_SQL = "INSERT IGNORE INTO menu_version (id, version) VALUES (1, 0)";
+
+    static final String BUMP_VERSION_SQL = "UPDATE menu_version SET version = version + 1, updated_at = CURRENT_TIMESTAMP WHERE id = 1";
+
+    private static final String SELECT_VERSION_SQL = "SELECT version FROM menu_version WHERE id = 1";
+
+    private static volatile Snapshot current;
+    private static volatile long lastCheckedAt;
+
+    private MenuCatalog() {
+    }
+
+    /**
+     * Get the current catalog, reloading it if another terminal changed the menu.
+     * May hit the database, so call it off the EDT.
+     */
+    public static Snapshot get() {
+        Snapshot snapshot = current;
+        long now = System.currentTimeMillis();
+        if (snapshot != null && now - lastCheckedAt < POLL_INTERVAL_MS) {
+            return snapshot;
+        }
+        return refresh(snapshot);
+    }
+
+    /**
+     * Drop the local copy so the next get() reloads it
+     */
+    public static void invalidate() {
+        current = null;
+    }
+
+    private static synchronized Snapshot refresh(Snapshot seen) {
+        // Another thread may have refreshed while this one waited for the lock
+        if (current != null && current != seen) {
+            return current;
+        }
+
+        try (Connection connection = DatabaseConnection.getConnection("MenuCatalog.refresh")) {
+            long version = readVersion(connection);
+            if (current != null && current.version == version) {
+                lastCheckedAt = System.currentTimeMillis();
+                return current;
+            }
+
+            // Read the version before the rows: a write in between only causes one extra reload
+            List<Menu> menus = new ArrayList<>();
+            String sql = "SELECT * FROM Menu ORDER BY jenis_menu, nama_menu";
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    menus.add(MenuDAO.mapRow(rs));
+                }
+            }
+
+            current = new Snapshot(version, menus);
+            lastCheckedAt = System.currentTimeMillis();
+            System.out.println("Menu catalog loaded: " + menus.size() + " items, version " + version);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            if (current == null) {
+                // Keep the frames usable with an empty menu; the next get() tries again
+                return new Snapshot(-1, new ArrayList<>());
+            }
+        }
+        return current;
+    }
+
+    private static long readVersion(Connection connection) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(SELECT_VERSION_SQL)) {
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Record a menu change so every terminal reloads its catalog
+     */
+    static void bumpVersion(Connection connection) {
+        try (PreparedStatement stmt = connection.prepareStatement(BUMP_VERSION_SQL)) {
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            // Other terminals only notice later; this one still reloads below
+            e.printStackTrace();
+        }
+        invalidate();
+    }
+
+    // One immutable load of the Menu table
+    public static final class Snapshot {
+        private final long version;
+        private final List<Menu> all;
+        private final Map<Integer, Menu> byId = new HashMap<>();
+        private final Map<String, Menu> byName = new HashMap<>();
+        private final Map<String, List<Menu>> byCategory = new LinkedHashMap<>();
+
+        private Snapshot(long version, List<Menu> menus) {
+            this.version = version;
+            this.all = Collections.unmodifiableList(menus);
+            for (Menu menu : menus) {
+                byId.put(menu.getIdMenu(), menu);
+                byName.putIfAbsent(menu.getNamaMenu(), menu);
+                byCategory.computeIfAbsent(menu.getJenisMenu(), k -> new ArrayList<>()).add(menu);
+            }
+            byCategory.replaceAll((k, v) -> Collections.unmodifiableList(v));
+        }
+
+        public long getVersion() { return version; }
+
+        /** Get all menus ordered by category and name */
+        public List<Menu> getAll() { return all; }
+
+        public Menu findById(int idMenu) { return byId.get(idMenu); }
+
+        public Menu findByName(String namaMenu) { return byName.get(namaMenu); }
+
+        public List<Menu> getByCategory(String jenisMenu) {
+            return byCategory.getOrDefault(jenisMenu, Collections.emptyList());
+        }
+
+        public int size() { return all.size(); }
+    }
+}
@@ -5,21 +5,22 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class MenuDAO {
-    private Connection connection;
-
-    public MenuDAO() {
-        this.connection = DatabaseConnection.getConnection();
-    }
 
     public boolean create(Menu menu) {
         String sql = "INSERT INTO Menu (nama_menu, jenis_menu, harga, deskripsi, gambar) VALUES (?, ?, ?, ?, ?)";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("MenuDAO.create");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, menu.getNamaMenu());
             stmt.setString(2, menu.getJenisMenu());
             stmt.setDouble(3, menu.getHarga());
             stmt.setString(4, menu.getDeskripsi());
             stmt.setString(5, menu.getGambar());
-            return stmt.executeUpdate() > 0;
+            boolean created = stmt.executeUpdate() > 0;
+            if (created) {
+                MenuCatalog.bumpVersion(connection);
+                DashboardStats.invalidate();
+            }
+            return created;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -28,18 +29,12 @@ public class MenuDAO {
 
     public Menu findById(int idMenu) {
         String sql = "SELECT * FROM Menu WHERE id_menu = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("MenuDAO.findById");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, idMenu);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
-                Menu menu = new Menu();
-                menu.setIdMenu(rs.getInt("id_menu"));
-                menu.setNamaMenu(rs.getString("nama_menu"));
-                menu.setJenisMenu(rs.getString("jenis_menu"));
-                menu.setHarga(rs.getDouble("harga"));
-                menu.setDeskripsi(rs.getString("deskripsi"));
-                menu.setGambar(rs.getString("gambar"));
-                return menu;
+                return mapRow(rs);
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -50,17 +45,11 @@ public class MenuDAO {
     public List<Menu> findAll() {
         List<Menu> menus = new ArrayList<>();
         String sql = "SELECT * FROM Menu ORDER BY jenis_menu, nama_menu";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("MenuDAO.findAll");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
-                Menu menu = new Menu();
-                menu.setIdMenu(rs.getInt("id_menu"));
-                menu.setNamaMenu(rs.getString("nama_menu"));
-                menu.setJenisMenu(rs.getString("jenis_menu"));
-                menu.setHarga(rs.getDouble("harga"));
-                menu.setDeskripsi(rs.getString("deskripsi"));
-                menu.setGambar(rs.getString("gambar"));
-                menus.add(menu);
+                menus.add(mapRow(rs));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -70,14 +59,19 @@ public class MenuDAO {
 
     public boolean update(Menu menu) {
         String sql = "UPDATE Menu SET nama_menu = ?, jenis_menu = ?, harga = ?, deskripsi = ?, gambar = ? WHERE id_menu = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("MenuDAO.update");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, menu.getNamaMenu());
             stmt.setString(2, menu.getJenisMenu());
             stmt.setDouble(3, menu.getHarga());
             stmt.setString(4, menu.getDeskripsi());
             stmt.setString(5, menu.getGambar());
             stmt.setInt(6, menu.getIdMenu());
-            return stmt.executeUpdate() > 0;
+            boolean updated = stmt.executeUpdate() > 0;
+            if (updated) {
+                MenuCatalog.bumpVersion(connection);
+            }
+            return updated;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -86,12 +80,29 @@ public class MenuDAO {
 
     public boolean delete(int idMenu) {
         String sql = "DELETE FROM Menu WHERE id_menu = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("MenuDAO.delete");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, idMenu);
-            return stmt.executeUpdate() > 0;
+            boolean deleted = stmt.executeUpdate() > 0;
+            if (deleted) {
+                MenuCatalog.bumpVersion(connection);
+                DashboardStats.invalidate();
+            }
+            return deleted;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
         }
     }
+
+    static Menu mapRow(ResultSet rs) throws SQLException {
+        Menu menu = new Menu();
+        menu.setIdMenu(rs.getInt("id_menu"));
+        menu.setNamaMenu(rs.getString("nama_menu"));
+        menu.setJenisMenu(rs.getString("jenis_menu"));
+        menu.setHarga(rs.getDouble("harga"));
+        menu.setDeskripsi(rs.getString("deskripsi"));
+        menu.setGambar(rs.getString("gambar"));
+        return menu;
+    }
 }
@@ -0,0 +1,67 @@
+package view;
+
+
+import java.text.NumberFormat;
+import java.util.Collections;
+import java.util.List;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Menu rows for ManagerFrame. Reads straight from the MenuCatalog snapshot list,
+ * which is already immutable, so no per-row copies are made.
+ */
+public class MenuTableModel extends AbstractTableModel {
+    private static final String[] COLUMNS = {"ID", "Menu Name", "Type", "Price", "Status", "Description", "Image"};
+
+    private final NumberFormat currencyFormat;
+    private List<Menu> menus = Collections.emptyList();
+
+    public MenuTableModel(NumberFormat currencyFormat) {
+        this.currencyFormat = currencyFormat;
+    }
+
+    public void setMenus(List<Menu> menus) {
+        this.menus = menus;
+        fireTableDataChanged();
+    }
+
+    @Override
+    public int getRowCount() {
+        return menus.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Menu menu = menus.get(row);
+        switch (column) {
+            case 0: return menu.getIdMenu();
+            case 1: return menu.getNamaMenu();
+            case 2: return menu.getJenisMenu();
+            case 3: return currencyFormat.format(menu.getHarga());
+            case 4: return "1".equals(menu.getKetersediaan()) ? "Available" : "Unavailable";
+            case 5:
+                String description = menu.getDeskripsi();
+                if (description == null) {
+                    return "-";
+                }
+                return description.length() > 50 ? description.substring(0, 47) + "..." : description;
+            default:
+                return menu.getGambar() != null && !menu.getGambar().trim().isEmpty() ? "✓" : "✗";
+        }
+    }
+}
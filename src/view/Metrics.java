@@ -0,0 +1,169 @@
+package view;
+
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+/**
+ * Process-wide counters, gauges and latency histograms, looked up by name.
+ *
+ * Every DAO and service call that borrows a connection through
+ * DatabaseConnection.getConnection(operation) is timed into the histogram of that
+ * name, from the borrow until the connection is closed. Looking up an existing
+ * metric and recording into it allocate nothing.
+ *
+ * Each metric is registered over JMX as view:type=Latency|Counter|Gauge,name=...
+ * Run with -Dmetrics.dump.seconds=N to also print every metric to stdout every N seconds.
+ */
+public final class Metrics {
+    private static final String JMX_DOMAIN = "view";
+
+    private static final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private static final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private static final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    static {
+        long dumpSeconds = Long.getLong("metrics.dump.seconds", 0);
+        if (dumpSeconds > 0) {
+            ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "metrics-dump");
+                t.setDaemon(true);
+                return t;
+            });
+            dumper.scheduleAtFixedRate(() -> System.out.print(formatReport()), dumpSeconds, dumpSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    private Metrics() {
+    }
+
+    /**
+     * Get the histogram with this name, creating and registering it on first use
+     */
+    public static LatencyHistogram histogram(String name) {
+        LatencyHistogram histogram = histograms.get(name);
+        if (histogram == null) {
+            histogram = histograms.computeIfAbsent(name, n -> {
+                LatencyHistogram created = new LatencyHistogram(n);
+                register("Latency", n, new LatencyView(created), LatencyMXBean.class);
+                return created;
+            });
+        }
+        return histogram;
+    }
+
+    /**
+     * Get the counter with this name, creating and registering it on first use
+     */
+    public static Counter counter(String name) {
+        Counter counter = counters.get(name);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(name, n -> {
+                Counter created = new Counter();
+                register("Counter", n, (ValueMXBean) created::get, ValueMXBean.class);
+                return created;
+            });
+        }
+        return counter;
+    }
+
+    /**
+     * Publish a value read on demand, such as a pool size. A later gauge with the
+     * same name replaces the earlier one.
+     */
+    public static void gauge(String name, LongSupplier value) {
+        if (gauges.put(name, value) == null) {
+            register("Gauge", name, (ValueMXBean) () -> gauges.get(name).getAsLong(), ValueMXBean.class);
+        }
+    }
+
+    /**
+     * Get every metric as text, one line each, sorted by name
+     */
+    public static String formatReport() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("--- metrics %tT ---%n", System.currentTimeMillis()));
+
+        List<LatencyHistogram> sorted = new ArrayList<>(new TreeMap<>(histograms).values());
+        if (!sorted.isEmpty()) {
+            sb.append(String.format("%-40s %9s %9s %9s %9s %9s %9s%n",
+                    "latency (ms)", "count", "mean", "p50", "p90", "p99", "max"));
+        }
+        for (LatencyHistogram h : sorted) {
+            sb.append(String.format("%-40s %9d %9.2f %9.2f %9.2f %9.2f %9.2f%n", h.getName(), h.getCount(),
+                    h.getMeanMillis(), h.getPercentileMillis(50), h.getPercentileMillis(90),
+                    h.getPercentileMillis(99), h.getMaxMillis()));
+        }
+        for (Map.Entry<String, Counter> e : new TreeMap<>(counters).entrySet()) {
+            sb.append(String.format("%-40s %9d%n", e.getKey(), e.getValue().get()));
+        }
+        for (Map.Entry<String, LongSupplier> e : new TreeMap<>(gauges).entrySet()) {
+            sb.append(String.format("%-40s %9d%n", e.getKey(), e.getValue().getAsLong()));
+        }
+        return sb.toString();
+    }
+
+    private static <T> void register(String type, String name, T bean, Class<T> mxbeanInterface) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(JMX_DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name));
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(new StandardMBean(bean, mxbeanInterface, true), objectName);
+            }
+        } catch (JMException e) {
+            // Metrics still record and dump without JMX
+            e.printStackTrace();
+        }
+    }
+
+    public static final class Counter {
+        private final AtomicLong value = new AtomicLong();
+
+        public void increment() { value.incrementAndGet(); }
+
+        public void add(long delta) { value.addAndGet(delta); }
+
+        public long get() { return value.get(); }
+    }
+
+    public interface LatencyMXBean {
+        long getCount();
+        double getMeanMillis();
+        double getP50Millis();
+        double getP90Millis();
+        double getP99Millis();
+        double getMaxMillis();
+    }
+
+    public interface ValueMXBean {
+        long getValue();
+    }
+
+    private static final class LatencyView implements LatencyMXBean {
+        private final LatencyHistogram histogram;
+
+        LatencyView(LatencyHistogram histogram) {
+            this.histogram = histogram;
+        }
+
+        public long getCount() { return histogram.getCount(); }
+        public double getMeanMillis() { return histogram.getMeanMillis(); }
+        public double getP50Millis() { return histogram.getPercentileMillis(50); }
+        public double getP90Millis() { return histogram.getPercentileMillis(90); }
+        public double getP99Millis() { return histogram.getPercentileMillis(99); }
+        public double getMaxMillis() { return histogram.getMaxMillis(); }
+    }
+}
@@ -0,0 +1,337 @@
+package view;
+
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import javax.swing.ImageIcon;
+
+/**
+ * Microbenchmarks for the hot client-side paths: DAO row mapping, report
+ * aggregation in Java versus mapping SQL's aggregated rows, menu image scaling and
+ * the cart total. Each benchmark is warmed up, then run for ITERATIONS timed
+ * iterations; the report gives time and bytes allocated per unit of work (a row,
+ * an image, a refresh) and the allocation rate, measured on the benchmark thread like JMH's GC profiler.
+ *
+ * Usage: MicroBenchmarks [name-filter...]
+ *
+ * report.hourly.sql.mapOnly only maps the ~12 rows HOURLY_ANALYSIS_SQL returns, so it
+ * is the client-side cost of the SQL path, not the query. With -Dbench.db=true the
+ * hourly report is also run against the configured database, after checking that
+ * both paths agree there: the SQL query on the rollups versus streaming the orders
+ * and grouping them here.
+ */
+public class MicroBenchmarks {
+    private static final long WARMUP_MS = 1_000;
+    private static final long ITERATION_MS = 1_000;
+    private static final int ITERATIONS = 5;
+
+    private static final int MENU_ROWS = 1_000;
+    private static final int ORDER_ROWS = 10_000;
+    private static final int DAY_ORDERS = 2_000;
+    private static final int CART_ITEMS = 5;
+
+    private static final String[] MENU_COLUMNS = {
+        "id_menu", "nama_menu", "jenis_menu", "harga", "deskripsi", "gambar"
+    };
+    private static final String[] ORDER_COLUMNS = {
+        "id_pesanan", "tanggal_pesanan", "total_pesanan", "catatan", "customer_id", "status_pesanan"
+    };
+    private static final String[] HOURLY_COLUMNS = {
+        "hour", "order_count", "hour_revenue", "avg_order_value", "completed_orders", "cancelled_orders"
+    };
+
+    // Keeps results reachable so the JIT cannot drop the measured work
+    private static volatile Object sink;
+
+    public static void main(String[] args) throws Exception {
+        Random random = new Random(42);
+        Object[][] menuRows = menuRows(random);
+        Object[][] orderRows = orderRows(random, ORDER_ROWS, 30);
+        Object[][] dayOrderRows = orderRows(random, DAY_ORDERS, 1);
+        // Built from the raw rows the way the rollup and HOURLY_ANALYSIS_SQL group them,
+        // independently of aggregateHourly
+        Object[][] hourlyRows = hourlyRowsAsSql(dayOrderRows);
+
+        // Both report paths must agree before their speed is worth comparing
+        ReportDAO.HourlyAnalysis inJava = aggregateHourly(mapOrders(InMemoryResultSet.of(ORDER_COLUMNS, dayOrderRows)));
+        ReportDAO.HourlyAnalysis fromSql = ReportDAO.mapHourlyAnalysis(InMemoryResultSet.of(HOURLY_COLUMNS, hourlyRows));
+        if (!inJava.hours().equals(fromSql.hours())) {
+            throw new IllegalStateException("Java and SQL hourly aggregation disagree");
+        }
+
+        BufferedImage photo = photo(1200, 800);
+        List<CustomerFrame.OrderItem> cart = cart(random);
+
+        List<Benchmark> benchmarks = new ArrayList<>();
+        benchmarks.add(new Benchmark("dao.menu.mapRow", "row", MENU_ROWS, () -> {
+            ResultSet rs = InMemoryResultSet.of(MENU_COLUMNS, menuRows);
+            List<Menu> menus = new ArrayList<>();
+            while (rs.next()) {
+                menus.add(MenuDAO.mapRow(rs));
+            }
+            sink = menus;
+        }));
+        benchmarks.add(new Benchmark("dao.order.mapRow", "row", ORDER_ROWS,
+                () -> sink = mapOrders(InMemoryResultSet.of(ORDER_COLUMNS, orderRows))));
+        benchmarks.add(new Benchmark("report.hourly.java", "refresh", 1,
+                () -> sink = aggregateHourly(mapOrders(InMemoryResultSet.of(ORDER_COLUMNS, dayOrderRows)))));
+        benchmarks.add(new Benchmark("report.hourly.sql.mapOnly", "refresh", 1,
+                () -> sink = ReportDAO.mapHourlyAnalysis(InMemoryResultSet.of(HOURLY_COLUMNS, hourlyRows))));
+        benchmarks.add(new Benchmark("image.resizeImage", "image", 1,
+                () -> sink = ImageUtils.resizeImage(photo, 180, 120)));
+        benchmarks.add(new Benchmark("image.getScaledInstance", "image", 1,
+                // How CustomerFrame.MenuItem scaled photos before ThumbnailService; ImageIcon waits for the pixels
+                () -> sink = new ImageIcon(photo.getScaledInstance(180, 120, Image.SCALE_SMOOTH))));
+        benchmarks.add(new Benchmark("cart.total", "cart", 1,
+                () -> sink = CustomerFrame.cartTotal(cart)));
+        benchmarks.add(new Benchmark("cart.total.stream", "cart", 1,
+                // The stream form checkout() used before it shared cartTotal
+                () -> sink = cart.stream().mapToDouble(item -> item.menuItem.price * item.quantity).sum()));
+
+        if (Boolean.getBoolean("bench.db")) {
+            ReportDAO reportDAO = new ReportDAO();
+            CustomerOrderDAO customerOrderDAO = new CustomerOrderDAO();
+            if (!reportDAO.getHourlyAnalysis().hours().equals(aggregateToday(customerOrderDAO).hours())) {
+                throw new IllegalStateException("HOURLY_ANALYSIS_SQL and the Java aggregation disagree on the database");
+            }
+            benchmarks.add(new Benchmark("report.hourly.db.sql", "refresh", 1,
+                    () -> sink = reportDAO.getHourlyAnalysis()));
+            benchmarks.add(new Benchmark("report.hourly.db.java", "refresh", 1,
+                    () -> sink = aggregateToday(customerOrderDAO)));
+        }
+
+        try {
+            System.out.printf("%-26s %8s %14s %14s %12s%n", "benchmark", "unit", "ns/unit", "B/unit", "alloc MB/s");
+            for (Benchmark benchmark : benchmarks) {
+                if (matches(benchmark.name, args)) {
+                    System.out.println(benchmark.run());
+                }
+            }
+        } finally {
+            DatabaseConnection.closeConnection();
+        }
+    }
+
+    private static boolean matches(String name, String[] filters) {
+        if (filters.length == 0) {
+            return true;
+        }
+        for (String filter : filters) {
+            if (name.contains(filter)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<CustomerOrder> mapOrders(ResultSet rs) throws SQLException {
+        List<CustomerOrder> orders = new ArrayList<>();
+        while (rs.next()) {
+            orders.add(CustomerOrderDAO.mapRow(rs));
+        }
+        return orders;
+    }
+
+    /**
+     * What HOURLY_ANALYSIS_SQL computes, done over the order rows in Java
+     */
+    private static ReportDAO.HourlyAnalysis aggregateHourly(List<CustomerOrder> orders) {
+        int[] orderCount = new int[24];
+        int[] completed = new int[24];
+        int[] cancelled = new int[24];
+        double[] revenue = new double[24];
+        for (CustomerOrder order : orders) {
+            int hour = order.getTanggalPesanan().toLocalDateTime().getHour();
+            orderCount[hour]++;
+            if ("selesai".equals(order.getStatusPesanan())) {
+                completed[hour]++;
+                revenue[hour] += order.getTotalPesanan();
+            } else if ("dibatalkan".equals(order.getStatusPesanan())) {
+                cancelled[hour]++;
+            }
+        }
+
+        List<ReportDAO.HourRow> hours = new ArrayList<>();
+        ReportDAO.HourRow peak = null;
+        double totalRevenue = 0;
+        for (int hour = 0; hour < 24; hour++) {
+            if (orderCount[hour] == 0) {
+                continue;
+            }
+            ReportDAO.HourRow row = new ReportDAO.HourRow(hour, orderCount[hour], revenue[hour],
+                    completed[hour] > 0 ? revenue[hour] / completed[hour] : 0, completed[hour], cancelled[hour]);
+            if (row.revenue() > 0 && (peak == null || row.revenue() > peak.revenue())) {
+                peak = row;
+            }
+            totalRevenue += row.revenue();
+            hours.add(row);
+        }
+        return new ReportDAO.HourlyAnalysis(Collections.unmodifiableList(hours),
+                peak != null ? peak.hour() : 0, peak != null ? peak.revenue() : 0,
+                hours.isEmpty() ? 0 : totalRevenue / hours.size());
+    }
+
+    private static ReportDAO.HourlyAnalysis aggregateToday(CustomerOrderDAO customerOrderDAO) throws SQLException {
+        Timestamp dayStart = Timestamp.valueOf(java.time.LocalDate.now().atStartOfDay());
+        List<CustomerOrder> today = new ArrayList<>();
+        customerOrderDAO.stream(order -> {
+            if (!order.getTanggalPesanan().before(dayStart)) {
+                today.add(order);
+            }
+        });
+        return aggregateHourly(today);
+    }
+
+    /**
+     * The rows HOURLY_ANALYSIS_SQL would return for these raw order rows: grouped by
+     * hour and status as in sales_rollup_hourly, then summed per hour with the query's
+     * CASE expressions
+     */
+    private static Object[][] hourlyRowsAsSql(Object[][] orderRows) {
+        // Rollup: (hour, status) -> {order_count, order_total}
+        Map<Integer, Map<String, double[]>> rollup = new TreeMap<>();
+        for (Object[] row : orderRows) {
+            int hour = ((Timestamp) row[1]).toLocalDateTime().getHour();
+            double[] cell = rollup.computeIfAbsent(hour, h -> new HashMap<>())
+                    .computeIfAbsent((String) row[5], status -> new double[2]);
+            cell[0]++;
+            cell[1] += (Double) row[2];
+        }
+
+        List<Object[]> rows = new ArrayList<>();
+        for (Map.Entry<Integer, Map<String, double[]>> hour : rollup.entrySet()) {
+            int orderCount = 0;
+            int completed = 0;
+            int cancelled = 0;
+            double revenue = 0;
+            for (Map.Entry<String, double[]> cell : hour.getValue().entrySet()) {
+                orderCount += (int) cell.getValue()[0];
+                if ("selesai".equals(cell.getKey())) {
+                    completed += (int) cell.getValue()[0];
+                    revenue += cell.getValue()[1];
+                } else if ("dibatalkan".equals(cell.getKey())) {
+                    cancelled += (int) cell.getValue()[0];
+                }
+            }
+            if (orderCount > 0) {
+                // NULLIF(completed, 0) gives NULL, which getDouble reads as 0
+                rows.add(new Object[]{hour.getKey(), orderCount, revenue,
+                        completed > 0 ? revenue / completed : null, completed, cancelled});
+            }
+        }
+        return rows.toArray(new Object[0][]);
+    }
+
+    private static Object[][] menuRows(Random random) {
+        String[] jenis = {"makanan", "minuman", "snack", "dessert"};
+        Object[][] rows = new Object[MENU_ROWS][];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = new Object[]{
+                i + 1, "Menu " + i, jenis[i % jenis.length], 5_000.0 + random.nextInt(60) * 1_000.0,
+                "Deskripsi menu nomor " + i, i % 3 == 0 ? null : "images/menu/menu_" + i + ".jpg"
+            };
+        }
+        return rows;
+    }
+
+    private static Object[][] orderRows(Random random, int count, int days) {
+        String[] statuses = {"selesai", "selesai", "selesai", "selesai", "selesai", "selesai", "selesai",
+            "selesai", "menunggu_pembayaran", "pending", "dibatalkan"};
+        long dayStart = Timestamp.valueOf(java.time.LocalDate.now().atStartOfDay()).getTime();
+        Object[][] rows = new Object[count][];
+        for (int i = 0; i < count; i++) {
+            // Opening hours 10:00 to 22:00
+            long at = dayStart - TimeUnit.DAYS.toMillis(random.nextInt(days))
+                    + TimeUnit.HOURS.toMillis(10) + (long) (random.nextDouble() * TimeUnit.HOURS.toMillis(12));
+            rows[i] = new Object[]{
+                i + 1, new Timestamp(at), 15_000.0 + random.nextInt(200) * 500.0,
+                i % 4 == 0 ? "Tidak pedas" : null, 1 + random.nextInt(500), statuses[random.nextInt(statuses.length)]
+            };
+        }
+        return rows;
+    }
+
+    private static BufferedImage photo(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+        g2d.setPaint(new GradientPaint(0, 0, new Color(200, 80, 40), width, height, new Color(250, 220, 120)));
+        g2d.fillRect(0, 0, width, height);
+        g2d.dispose();
+        return image;
+    }
+
+    private static List<CustomerFrame.OrderItem> cart(Random random) {
+        List<CustomerFrame.OrderItem> items = new ArrayList<>();
+        for (int i = 0; i < CART_ITEMS; i++) {
+            CustomerFrame.MenuItem menuItem = new CustomerFrame.MenuItem(
+                    "Menu " + i, 10_000 + random.nextInt(40) * 1_000, "", "makanan", null);
+            items.add(new CustomerFrame.OrderItem(menuItem, 1 + random.nextInt(3)));
+        }
+        return items;
+    }
+
+    private interface Work {
+        void run() throws Exception;
+    }
+
+    private static class Benchmark {
+        private final String name;
+        private final String unit;
+        private final int unitsPerCall;
+        private final Work work;
+
+        Benchmark(String name, String unit, int unitsPerCall, Work work) {
+            this.name = name;
+            this.unit = unit;
+            this.unitsPerCall = unitsPerCall;
+            this.work = work;
+        }
+
+        String run() throws Exception {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long threadId = Thread.currentThread().getId();
+
+            repeat(WARMUP_MS);
+
+            long calls = 0;
+            long nanos = 0;
+            long bytes = 0;
+            for (int i = 0; i < ITERATIONS; i++) {
+                long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+                long start = System.nanoTime();
+                calls += repeat(ITERATION_MS);
+                nanos += System.nanoTime() - start;
+                bytes += threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+            }
+
+            double units = (double) calls * unitsPerCall;
+            return String.format("%-26s %8s %14.1f %14.1f %12.1f",
+                    name, unit, nanos / units, bytes / units, bytes / 1e6 / (nanos / 1e9));
+        }
+
+        private long repeat(long millis) throws Exception {
+            long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+            long calls = 0;
+            do {
+                work.run();
+                calls++;
+            } while (System.nanoTime() < end);
+            return calls;
+        }
+    }
+}
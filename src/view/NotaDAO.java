@@ -3,23 +3,24 @@ package view;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class NotaDAO {
-    private Connection connection;
-
-    public NotaDAO() {
-        this.connection = DatabaseConnection.getConnection();
-        if (this.connection == null) {
-            System.err.println("Failed to establish database connection!");
-        }
-    }
 
     public boolean create(Nota nota) {
-        if (connection == null) {
-            System.err.println("Database connection is null!");
+        try (Connection connection = DatabaseConnection.getConnection("NotaDAO.create")) {
+            return create(connection, nota);
+        } catch (SQLException e) {
+            System.err.println("SQL Error in create(): " + e.getMessage());
+            e.printStackTrace();
             return false;
         }
+    }
 
+    /**
+     * Insert the nota on a caller-supplied connection so it can share a transaction
+     */
+    public boolean create(Connection connection, Nota nota) throws SQLException {
         String sql = "INSERT INTO Nota (id_pesanan, waktu_cetak, total_pembayaran, metode_pembayaran, status_pembayaran) VALUES (?, ?, ?, ?, ?)";
         try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setInt(1, nota.getIdPesanan());
@@ -41,21 +42,13 @@ public class NotaDAO {
             
             System.out.println("Nota created successfully. Rows affected: " + rowsAffected);
             return rowsAffected > 0;
-        } catch (SQLException e) {
-            System.err.println("SQL Error in create(): " + e.getMessage());
-            e.printStackTrace();
-            return false;
         }
     }
 
     public Nota findById(int idNota) {
-        if (connection == null) {
-            System.err.println("Database connection is null!");
-            return null;
-        }
-        
         String sql = "SELECT * FROM Nota WHERE id_nota = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("NotaDAO.findById");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, idNota);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -76,13 +69,9 @@ public class NotaDAO {
     }
 
     public Nota findByOrderId(int idPesanan) {
-        if (connection == null) {
-            System.err.println("Database connection is null!");
-            return null;
-        }
-        
         String sql = "SELECT * FROM Nota WHERE id_pesanan = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("NotaDAO.findByOrderId");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, idPesanan);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -104,23 +93,12 @@ public class NotaDAO {
 
     public List<Nota> findAll() {
         List<Nota> notas = new ArrayList<>();
-        if (connection == null) {
-            System.err.println("Database connection is null!");
-            return notas;
-        }
-        
         String sql = "SELECT * FROM Nota ORDER BY waktu_cetak DESC";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("NotaDAO.findAll");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
-                Nota nota = new Nota();
-                nota.setIdNota(rs.getInt("id_nota"));
-                nota.setIdPesanan(rs.getInt("id_pesanan"));
-                nota.setWaktuCetak(rs.getTimestamp("waktu_cetak"));
-                nota.setTotalPembayaran(rs.getDouble("total_pembayaran"));
-                nota.setMetodePembayaran(rs.getString("metode_pembayaran"));
-                nota.setStatusPembayaran(rs.getString("status_pembayaran"));
-                notas.add(nota);
+                notas.add(mapRow(rs));
             }
         } catch (SQLException e) {
             System.err.println("SQL Error in findAll(): " + e.getMessage());
@@ -129,17 +107,67 @@ public class NotaDAO {
         return notas;
     }
 
+    /**
+     * Get up to limit rows with id_nota greater than afterId, in id_nota order.
+     * Pass 0 for the first page, then the last id_nota of the previous page.
+     */
+    public List<Nota> findPage(int afterId, int limit) {
+        List<Nota> notas = new ArrayList<>();
+        String sql = "SELECT * FROM Nota WHERE id_nota > ? ORDER BY id_nota LIMIT ?";
+        try (Connection connection = DatabaseConnection.getConnection("NotaDAO.findPage");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                notas.add(mapRow(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("SQL Error in findPage(): " + e.getMessage());
+            e.printStackTrace();
+        }
+        return notas;
+    }
+
+    /**
+     * Hand every row to action in id_nota order without loading the table into memory.
+     * The driver streams rows one at a time and the connection is held until the
+     * last row, so action must not block or touch the database. Returns the row count.
+     */
+    public int stream(Consumer<? super Nota> action) throws SQLException {
+        String sql = "SELECT * FROM Nota ORDER BY id_nota";
+        int count = 0;
+        try (Connection connection = DatabaseConnection.getConnection("NotaDAO.stream");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    action.accept(mapRow(rs));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static Nota mapRow(ResultSet rs) throws SQLException {
+        Nota nota = new Nota();
+        nota.setIdNota(rs.getInt("id_nota"));
+        nota.setIdPesanan(rs.getInt("id_pesanan"));
+        nota.setWaktuCetak(rs.getTimestamp("waktu_cetak"));
+        nota.setTotalPembayaran(rs.getDouble("total_pembayaran"));
+        nota.setMetodePembayaran(rs.getString("metode_pembayaran"));
+        nota.setStatusPembayaran(rs.getString("status_pembayaran"));
+        return nota;
+    }
+
     /**
      * Update nota status
      */
     public boolean updateStatus(int idNota, String status) {
-        if (connection == null) {
-            System.err.println("Database connection is null!");
-            return false;
-        }
-        
         String sql = "UPDATE Nota SET status_pembayaran = ? WHERE id_nota = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("NotaDAO.updateStatus");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, status);
             stmt.setInt(2, idNota);
             
@@ -157,13 +185,9 @@ public class NotaDAO {
      * Update nota payment status by order ID
      */
     public boolean updateStatusByOrderId(int idPesanan, String status) {
-        if (connection == null) {
-            System.err.println("Database connection is null!");
-            return false;
-        }
-        
         String sql = "UPDATE Nota SET status_pembayaran = ? WHERE id_pesanan = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("NotaDAO.updateStatusByOrderId");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, status);
             stmt.setInt(2, idPesanan);
             
@@ -181,13 +205,9 @@ public class NotaDAO {
      * Update complete nota information
      */
     public boolean update(Nota nota) {
-        if (connection == null) {
-            System.err.println("Database connection is null!");
-            return false;
-        }
-        
         String sql = "UPDATE Nota SET id_pesanan = ?, waktu_cetak = ?, total_pembayaran = ?, metode_pembayaran = ?, status_pembayaran = ? WHERE id_nota = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("NotaDAO.update");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, nota.getIdPesanan());
             stmt.setTimestamp(2, nota.getWaktuCetak());
             stmt.setDouble(3, nota.getTotalPembayaran());
@@ -210,13 +230,9 @@ public class NotaDAO {
      */
     public List<Nota> findByStatus(String status) {
         List<Nota> notas = new ArrayList<>();
-        if (connection == null) {
-            System.err.println("Database connection is null!");
-            return notas;
-        }
-        
         String sql = "SELECT * FROM Nota WHERE status_pembayaran = ? ORDER BY waktu_cetak DESC";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("NotaDAO.findByStatus");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, status);
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
@@ -241,13 +257,9 @@ public class NotaDAO {
      */
     public List<Nota> findPendingCashPayments() {
         List<Nota> notas = new ArrayList<>();
-        if (connection == null) {
-            System.err.println("Database connection is null!");
-            return notas;
-        }
-        
         String sql = "SELECT * FROM Nota WHERE metode_pembayaran = 'cash' AND status_pembayaran = 'menunggu' ORDER BY waktu_cetak DESC";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("NotaDAO.findPendingCashPayments");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
                 Nota nota = new Nota();
@@ -270,13 +282,9 @@ public class NotaDAO {
      * Delete nota by ID
      */
     public boolean delete(int idNota) {
-        if (connection == null) {
-            System.err.println("Database connection is null!");
-            return false;
-        }
-        
         String sql = "DELETE FROM Nota WHERE id_nota = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("NotaDAO.delete");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, idNota);
             int rowsAffected = stmt.executeUpdate();
             System.out.println("Nota deleted successfully. Rows affected: " + rowsAffected);
@@ -292,13 +300,9 @@ public class NotaDAO {
      * Get count of notas by status
      */
     public int getCountByStatus(String status) {
-        if (connection == null) {
-            System.err.println("Database connection is null!");
-            return 0;
-        }
-        
         String sql = "SELECT COUNT(*) as count FROM Nota WHERE status_pembayaran = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("NotaDAO.getCountByStatus");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, status);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -310,18 +314,4 @@ public class NotaDAO {
         }
         return 0;
     }
-
-    /**
-     * Close database connection
-     */
-    public void closeConnection() {
-        if (connection != null) {
-            try {
-                connection.close();
-                System.out.println("Database connection closed successfully");
-            } catch (SQLException e) {
-                System.err.println("Error closing database connection: " + e.getMessage());
-            }
-        }
-    }
 }
\ No newline at end of file
@@ -3,17 +3,14 @@ package view;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class OrderDetailDAO {
-    private Connection connection;
-
-    public OrderDetailDAO() {
-        this.connection = DatabaseConnection.getConnection();
-    }
 
     public boolean create(OrderDetail detail) {
         String sql = "INSERT INTO OrderDetail (id_pesanan, id_menu, jumlah, harga_satuan, subtotal) VALUES (?, ?, ?, ?, ?)";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("OrderDetailDAO.create");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, detail.getIdPesanan());
             stmt.setInt(2, detail.getIdMenu());
             stmt.setInt(3, detail.getJumlah());
@@ -26,10 +23,48 @@ public class OrderDetailDAO {
         }
     }
 
+    /**
+     * Insert all details with one JDBC batch; with rewriteBatchedStatements the
+     * driver sends them as a single multi-row INSERT
+     */
+    public boolean createBatch(List<OrderDetail> details) {
+        try (Connection connection = DatabaseConnection.getConnection("OrderDetailDAO.createBatch")) {
+            return createBatch(connection, details);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    public boolean createBatch(Connection connection, List<OrderDetail> details) throws SQLException {
+        if (details.isEmpty()) {
+            return true;
+        }
+        String sql = "INSERT INTO OrderDetail (id_pesanan, id_menu, jumlah, harga_satuan, subtotal) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (OrderDetail detail : details) {
+                stmt.setInt(1, detail.getIdPesanan());
+                stmt.setInt(2, detail.getIdMenu());
+                stmt.setInt(3, detail.getJumlah());
+                stmt.setDouble(4, detail.getHargaSatuan());
+                stmt.setDouble(5, detail.getSubtotal());
+                stmt.addBatch();
+            }
+            int[] results = stmt.executeBatch();
+            for (int result : results) {
+                if (result == Statement.EXECUTE_FAILED) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
     public List<OrderDetail> findByOrderId(int idPesanan) {
         List<OrderDetail> details = new ArrayList<>();
         String sql = "SELECT * FROM OrderDetail WHERE id_pesanan = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("OrderDetailDAO.findByOrderId");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, idPesanan);
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
@@ -51,21 +86,68 @@ public class OrderDetailDAO {
     public List<OrderDetail> findAll() {
         List<OrderDetail> details = new ArrayList<>();
         String sql = "SELECT * FROM OrderDetail ORDER BY id_detail";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("OrderDetailDAO.findAll");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
-                OrderDetail detail = new OrderDetail();
-                detail.setIdDetail(rs.getInt("id_detail"));
-                detail.setIdPesanan(rs.getInt("id_pesanan"));
-                detail.setIdMenu(rs.getInt("id_menu"));
-                detail.setJumlah(rs.getInt("jumlah"));
-                detail.setHargaSatuan(rs.getDouble("harga_satuan"));
-                detail.setSubtotal(rs.getDouble("subtotal"));
-                details.add(detail);
+                details.add(mapRow(rs));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return details;
+    }
+
+    /**
+     * Get up to limit rows with id_detail greater than afterId, in id_detail order.
+     * Pass 0 for the first page, then the last id_detail of the previous page.
+     */
+    public List<OrderDetail> findPage(int afterId, int limit) {
+        List<OrderDetail> details = new ArrayList<>();
+        String sql = "SELECT * FROM OrderDetail WHERE id_detail > ? ORDER BY id_detail LIMIT ?";
+        try (Connection connection = DatabaseConnection.getConnection("OrderDetailDAO.findPage");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                details.add(mapRow(rs));
             }
         } catch (SQLException e) {
             e.printStackTrace();
         }
         return details;
     }
+
+    /**
+     * Hand every row to action in id_detail order without loading the table into memory.
+     * The driver streams rows one at a time and the connection is held until the
+     * last row, so action must not block or touch the database. Returns the row count.
+     */
+    public int stream(Consumer<? super OrderDetail> action) throws SQLException {
+        String sql = "SELECT * FROM OrderDetail ORDER BY id_detail";
+        int count = 0;
+        try (Connection connection = DatabaseConnection.getConnection("OrderDetailDAO.stream");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    action.accept(mapRow(rs));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static OrderDetail mapRow(ResultSet rs) throws SQLException {
+        OrderDetail detail = new OrderDetail();
+        detail.setIdDetail(rs.getInt("id_detail"));
+        detail.setIdPesanan(rs.getInt("id_pesanan"));
+        detail.setIdMenu(rs.getInt("id_menu"));
+        detail.setJumlah(rs.getInt("jumlah"));
+        detail.setHargaSatuan(rs.getDouble("harga_satuan"));
+        detail.setSubtotal(rs.getDouble("subtotal"));
+        return detail;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,100 @@
+package view;
+
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compares the old checkout write path (header insert + one auto-committed insert
+ * per line) with OrderService.createOrder (one transaction, batched details).
+ *
+ * Usage: OrderInsertBenchmark [customerId] [menuId] [linesPerOrder] [iterations]
+ * Needs an explicit -Ddb.url. The orders it writes (catatan = "benchmark") are
+ * removed again afterwards, rollups included.
+ */
+public class OrderInsertBenchmark {
+    public static void main(String[] args) throws Exception {
+        HarnessData.requireScratchDatabase("OrderInsertBenchmark");
+        SchemaMigrator.migrateAtStartup();
+
+        int customerId = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        int menuId = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        int lines = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int iterations = args.length > 3 ? Integer.parseInt(args[3]) : 200;
+
+        CustomerOrderDAO orderDAO = new CustomerOrderDAO();
+        OrderDetailDAO orderDetailDAO = new OrderDetailDAO();
+        OrderService orderService = new OrderService();
+
+        List<Integer> orderIds = new ArrayList<>();
+        try {
+            // Warm up the pool and statement caches for both paths
+            for (int i = 0; i < 20; i++) {
+                keep(orderIds, legacyCreate(orderDAO, orderDetailDAO, newOrder(customerId), newDetails(menuId, lines)));
+                keep(orderIds, orderService.createOrder(newOrder(customerId), newDetails(menuId, lines)));
+            }
+
+            long[] legacy = new long[iterations];
+            long[] batched = new long[iterations];
+            for (int i = 0; i < iterations; i++) {
+                long start = System.nanoTime();
+                int orderId = legacyCreate(orderDAO, orderDetailDAO, newOrder(customerId), newDetails(menuId, lines));
+                legacy[i] = System.nanoTime() - start;
+                keep(orderIds, orderId);
+
+                start = System.nanoTime();
+                orderId = orderService.createOrder(newOrder(customerId), newDetails(menuId, lines));
+                batched[i] = System.nanoTime() - start;
+                keep(orderIds, orderId);
+            }
+
+            System.out.println("Orders with " + lines + " lines, " + iterations + " iterations each");
+            report("per-line auto-commit", legacy);
+            report("transaction + batch ", batched);
+        } finally {
+            HarnessData.deleteOrders(orderIds);
+            DatabaseConnection.closeConnection();
+        }
+    }
+
+    private static void keep(List<Integer> orderIds, int orderId) {
+        if (orderId > 0) {
+            orderIds.add(orderId);
+        }
+    }
+
+    private static int legacyCreate(CustomerOrderDAO orderDAO, OrderDetailDAO orderDetailDAO,
+                                    CustomerOrder order, List<OrderDetail> details) {
+        int orderId = orderDAO.create(order);
+        if (orderId > 0) {
+            for (OrderDetail detail : details) {
+                detail.setIdPesanan(orderId);
+                orderDetailDAO.create(detail);
+            }
+        }
+        return orderId;
+    }
+
+    private static CustomerOrder newOrder(int customerId) {
+        return new CustomerOrder(new Timestamp(System.currentTimeMillis()), 0, "benchmark", customerId, "pending");
+    }
+
+    private static List<OrderDetail> newDetails(int menuId, int lines) {
+        List<OrderDetail> details = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            details.add(new OrderDetail(0, menuId, 1, 10000.0));
+        }
+        return details;
+    }
+
+    private static void report(String label, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%s  p50=%.2f ms  p95=%.2f ms  p99=%.2f ms%n", label,
+                sorted[sorted.length / 2] / 1e6,
+                sorted[(int) (sorted.length * 0.95)] / 1e6,
+                sorted[Math.min(sorted.length - 1, (int) (sorted.length * 0.99))] / 1e6);
+    }
+}
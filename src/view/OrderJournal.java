@@ -0,0 +1,300 @@
+package view;
+
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only local log of checkout writes, kept in fixed-size memory-mapped segment
+ * files named orders-NNNN.journal. Used by OrderReplicator.
+ *
+ * Each record is framed as [payload length][CRC32C of type and payload][type][payload],
+ * with the length written last. Recovery reads every record up to the first zero length
+ * or checksum mismatch, which is where a crash cut off the final write; that write was
+ * never acknowledged. A reopened journal always appends to a new segment.
+ *
+ * write() puts a record into the mapped segment and awaitDurable() waits until it has
+ * been forced to disk. A single sync thread forces everything written since its last
+ * force, so appends arriving while one force is running share the next (group commit).
+ */
+final class OrderJournal {
+    private static final int MAGIC = 0x4F4A524E; // "OJRN"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    private static final int FRAME_BYTES = 9; // length, crc, type
+    private static final String SEGMENT_PREFIX = "orders-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private static final LatencyHistogram FORCE = Metrics.histogram("journal.force");
+
+    private final Path directory;
+    private final int segmentBytes;
+
+    // Guarded by this
+    private Segment active;
+    private int writePosition;
+    private int syncedPosition;
+    private long writtenSeq;
+    private long durableSeq;
+    private IOException syncFailure;
+
+    /**
+     * Called once per intact record found when the journal is opened, in journal order
+     */
+    interface RecordVisitor {
+        void visit(long segmentId, byte type, byte[] payload);
+    }
+
+    /**
+     * Position of a written record: the segment it is in and its sequence for awaitDurable
+     */
+    record Ticket(long segmentId, long seq) {
+    }
+
+    /**
+     * Open the journal in directory, passing every recovered record to recovered, and
+     * start a new segment for appends
+     */
+    OrderJournal(Path directory, int segmentBytes, RecordVisitor recovered) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(directory);
+
+        long lastId = 0;
+        for (long id : listSegments()) {
+            recover(id, recovered);
+            lastId = id;
+        }
+        active = createSegment(lastId + 1);
+        writePosition = HEADER_BYTES;
+        syncedPosition = HEADER_BYTES;
+
+        Thread syncer = new Thread(this::syncLoop, "order-journal-sync");
+        syncer.setDaemon(true);
+        syncer.start();
+    }
+
+    /**
+     * Get the ids of the segments on disk, oldest first
+     */
+    List<Long> listSegments() throws IOException {
+        List<Long> ids = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    ids.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    System.err.println("Ignoring unexpected journal file: " + file);
+                }
+            }
+        }
+        ids.sort(null);
+        return ids;
+    }
+
+    /**
+     * Append a record to the mapped segment, rolling to a new segment when it does not fit.
+     * The record is not durable until awaitDurable(ticket) returns.
+     */
+    synchronized Ticket write(byte type, byte[] payload) throws IOException {
+        if (syncFailure != null) {
+            throw new IOException("Journal is unusable after a failed sync", syncFailure);
+        }
+        int size = FRAME_BYTES + payload.length;
+        if (size > segmentBytes - HEADER_BYTES) {
+            throw new IOException("Journal record of " + payload.length + " bytes does not fit in a segment");
+        }
+        if (writePosition + size > segmentBytes) {
+            roll();
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(type);
+        crc.update(payload);
+        MappedByteBuffer buffer = active.buffer;
+        buffer.putInt(writePosition + 4, (int) crc.getValue());
+        buffer.put(writePosition + 8, type);
+        buffer.put(writePosition + FRAME_BYTES, payload);
+        buffer.putInt(writePosition, payload.length);
+        writePosition += size;
+
+        notifyAll();
+        return new Ticket(active.id, ++writtenSeq);
+    }
+
+    /**
+     * Wait until the record behind ticket has been forced to disk
+     */
+    synchronized void awaitDurable(Ticket ticket) throws IOException {
+        while (durableSeq < ticket.seq() && syncFailure == null) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for the journal to sync");
+            }
+        }
+        if (durableSeq < ticket.seq()) {
+            throw new IOException("Journal sync failed", syncFailure);
+        }
+    }
+
+    synchronized long getActiveSegmentId() {
+        return active.id;
+    }
+
+    /**
+     * Delete a segment that is no longer needed. Returns false when the segment is the
+     * active one or could not be deleted yet (e.g. still mapped on Windows); try again later.
+     */
+    synchronized boolean delete(long segmentId) {
+        if (segmentId == active.id) {
+            return false;
+        }
+        try {
+            Files.deleteIfExists(segmentPath(segmentId));
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void syncLoop() {
+        while (true) {
+            Segment segment;
+            int from;
+            int to;
+            long target;
+            synchronized (this) {
+                while (writtenSeq == durableSeq) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                segment = active;
+                from = syncedPosition;
+                to = writePosition;
+                target = writtenSeq;
+            }
+
+            long start = System.nanoTime();
+            try {
+                segment.buffer.force(from, to - from);
+            } catch (UncheckedIOException e) {
+                synchronized (this) {
+                    syncFailure = e.getCause();
+                    notifyAll();
+                }
+                e.printStackTrace();
+                return;
+            }
+            FORCE.record(System.nanoTime() - start);
+
+            synchronized (this) {
+                durableSeq = Math.max(durableSeq, target);
+                if (segment == active) {
+                    syncedPosition = Math.max(syncedPosition, to);
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    // Called with the lock held; rolling is rare, so the old segment is forced inline
+    private void roll() throws IOException {
+        try {
+            active.buffer.force(syncedPosition, writePosition - syncedPosition);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        durableSeq = writtenSeq;
+        active = createSegment(active.id + 1);
+        writePosition = HEADER_BYTES;
+        syncedPosition = HEADER_BYTES;
+        notifyAll();
+    }
+
+    private Segment createSegment(long id) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(id),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Mapping past the end grows the file to the full segment size, zero-filled
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, FORMAT_VERSION);
+            buffer.force(0, HEADER_BYTES);
+            return new Segment(id, buffer);
+        }
+    }
+
+    private void recover(long id, RecordVisitor visitor) throws IOException {
+        Path path = segmentPath(id);
+        // Read into the heap rather than mapping, so finished segments can be deleted on any OS
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = ByteBuffer.allocate((int) Math.min(channel.size(), Integer.MAX_VALUE));
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading
+            }
+        }
+        int limit = buffer.position();
+
+        if (limit < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            Path aside = path.resolveSibling(path.getFileName() + ".corrupt");
+            System.err.println("Journal segment " + path + " has no valid header, moved to " + aside);
+            Files.move(path, aside, StandardCopyOption.REPLACE_EXISTING);
+            return;
+        }
+
+        int position = HEADER_BYTES;
+        while (position + FRAME_BYTES <= limit) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || length > limit - position - FRAME_BYTES) {
+                break;
+            }
+            int storedCrc = buffer.getInt(position + 4);
+            byte type = buffer.get(position + 8);
+            byte[] payload = new byte[length];
+            buffer.get(position + FRAME_BYTES, payload);
+
+            CRC32C crc = new CRC32C();
+            crc.update(type);
+            crc.update(payload);
+            if ((int) crc.getValue() != storedCrc) {
+                System.err.println("Journal segment " + path + ": torn record at offset " + position
+                        + ", ignoring the rest of the segment");
+                break;
+            }
+            visitor.visit(id, type, payload);
+            position += FRAME_BYTES + length;
+        }
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    private static final class Segment {
+        final long id;
+        final MappedByteBuffer buffer;
+
+        Segment(long id, MappedByteBuffer buffer) {
+            this.id = id;
+            this.buffer = buffer;
+        }
+    }
+}
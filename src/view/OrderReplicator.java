@@ -0,0 +1,603 @@
+package view;
+
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Write-behind path for checkout, so the kiosk keeps selling while MySQL is down.
+ *
+ * Orders, payments and cancellations are first appended to the local OrderJournal and
+ * are durable when submit* returns. The "order-replicator" thread then applies them to
+ * MySQL through OrderService, in journal order. Every record carries a random
+ * idempotency key that is stored in order_journal_applied in the same transaction as
+ * the write, so a record replayed after a crash or a lost commit reply is skipped.
+ * Payments and cancellations name their order by its key, so they can be taken before
+ * the order itself has reached the database.
+ *
+ * submit* waits up to -Djournal.applyWaitMs (default 1500) for the database write so
+ * the caller can show real ids; while the database is known to be unreachable it returns
+ * straight after the local write. Connection problems are retried with backoff; a record
+ * the database rejects is reported and its segment kept on disk for inspection.
+ * The journal lives in -Djournal.dir (default "journal").
+ */
+public final class OrderReplicator {
+    static final String CREATE_APPLIED_TABLE_SQL = """
+        CREATE TABLE IF NOT EXISTS order_journal_applied (
+            idempotency_key CHAR(36) NOT NULL PRIMARY KEY,
+            id_pesanan INT NOT NULL,
+            id_nota INT NULL,
+            applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+        )
+        """;
+
+    private static final String FIND_APPLIED_SQL = "SELECT id_pesanan, id_nota FROM order_journal_applied WHERE idempotency_key = ?";
+
+    private static final String INSERT_APPLIED_SQL = "INSERT INTO order_journal_applied (idempotency_key, id_pesanan, id_nota) VALUES (?, ?, ?)";
+
+    private static final byte ORDER = 1;
+    private static final byte PAYMENT = 2;
+    private static final byte CANCEL = 3;
+
+    private static final Path DIRECTORY = Paths.get(System.getProperty("journal.dir", "journal"));
+    private static final int SEGMENT_BYTES = Integer.getInteger("journal.segmentBytes", 8 * 1024 * 1024);
+    private static final long APPLY_WAIT_MS = Long.getLong("journal.applyWaitMs", 1_500);
+    private static final long MIN_RETRY_MS = 1_000;
+    private static final long MAX_RETRY_MS = 30_000;
+
+    private static final LatencyHistogram SUBMIT = Metrics.histogram("journal.submit");
+    private static final Metrics.Counter APPLIED = Metrics.counter("journal.applied");
+    private static final Metrics.Counter REJECTED = Metrics.counter("journal.rejected");
+
+    private static OrderReplicator instance;
+
+    private final OrderJournal journal;
+    private final OrderService orderService = new OrderService();
+    private final UserDAO userDAO = new UserDAO();
+    private final LinkedBlockingDeque<Pending> queue = new LinkedBlockingDeque<>();
+    private final Map<String, CompletableFuture<Applied>> waiters = new ConcurrentHashMap<>();
+    private volatile boolean databaseReachable = true;
+
+    // Records not yet applied per segment, and segments kept because a record was rejected.
+    // Guarded by segmentLock, which also makes writing a record and counting it one step.
+    private final Object segmentLock = new Object();
+    private final Map<Long, Integer> unappliedPerSegment = new HashMap<>();
+    private final Set<Long> keptSegments = new HashSet<>();
+
+    /**
+     * An order line as journaled
+     */
+    public record Line(int idMenu, int jumlah, double hargaSatuan) {
+    }
+
+    /**
+     * Outcome of a submit: the record's key, and its database ids once applied (-1 while queued)
+     */
+    public record Submitted(String key, int orderId, int notaId) {
+        public boolean isApplied() {
+            return orderId > 0;
+        }
+    }
+
+    private record Applied(int orderId, int notaId) {
+    }
+
+    private interface Entry {
+        String key();
+    }
+
+    private record OrderEntry(String key, long createdAt, String customerName, String catatan,
+                              double total, List<Line> lines) implements Entry {
+    }
+
+    private record PaymentEntry(String key, long createdAt, String orderKey, String orderStatus, String metode,
+                                double jumlah, String status, int kasirId) implements Entry {
+    }
+
+    private record CancelEntry(String key, long createdAt, String orderKey, String alasan) implements Entry {
+    }
+
+    private record Pending(long segmentId, Entry entry) {
+    }
+
+    /**
+     * Get the replicator, opening the journal and replaying unapplied records on first use
+     */
+    public static synchronized OrderReplicator get() throws IOException {
+        if (instance == null) {
+            instance = new OrderReplicator();
+        }
+        return instance;
+    }
+
+    private OrderReplicator() throws IOException {
+        List<Pending> recovered = new ArrayList<>();
+        List<Long> undecodable = new ArrayList<>();
+        journal = new OrderJournal(DIRECTORY, SEGMENT_BYTES, (segmentId, type, payload) -> {
+            try {
+                recovered.add(new Pending(segmentId, decode(type, payload)));
+            } catch (IOException | RuntimeException e) {
+                // Intact on disk but unreadable by this version; keep its segment like a rejected record
+                REJECTED.increment();
+                System.err.println("Undecodable journal record in segment " + segmentId + " is kept on disk: " + e);
+                undecodable.add(segmentId);
+            }
+        });
+        synchronized (segmentLock) {
+            for (long id : journal.listSegments()) {
+                unappliedPerSegment.putIfAbsent(id, 0);
+            }
+            for (Pending pending : recovered) {
+                unappliedPerSegment.merge(pending.segmentId(), 1, Integer::sum);
+            }
+            for (long segmentId : undecodable) {
+                unappliedPerSegment.merge(segmentId, 1, Integer::sum);
+                keptSegments.add(segmentId);
+            }
+            deleteFinishedSegments();
+        }
+        if (!recovered.isEmpty()) {
+            System.out.println("Order journal: replaying " + recovered.size() + " records");
+        }
+        queue.addAll(recovered);
+        Metrics.gauge("journal.pending", queue::size);
+
+        startReplicator(0);
+    }
+
+    /**
+     * Start the thread that drains the queue. Should it ever die, the failure is printed
+     * and a new one takes over after a pause, so queued sales keep draining.
+     */
+    private void startReplicator(long delayMs) {
+        Thread replicator = new Thread(() -> {
+            if (sleep(delayMs)) {
+                replicate();
+            }
+        }, "order-replicator");
+        replicator.setDaemon(true);
+        replicator.setUncaughtExceptionHandler((thread, e) -> {
+            System.err.println("Order replicator died, restarting in " + MAX_RETRY_MS + " ms; "
+                    + queue.size() + " journaled records are waiting");
+            e.printStackTrace();
+            startReplicator(MAX_RETRY_MS);
+        });
+        replicator.start();
+    }
+
+    /**
+     * Take an order for a customer by name; the customer is created on apply if needed
+     */
+    public Submitted submitOrder(String customerName, String catatan, double total, List<Line> lines)
+            throws IOException {
+        return submit(ORDER, new OrderEntry(newKey(), System.currentTimeMillis(), customerName, catatan,
+                total, List.copyOf(lines)));
+    }
+
+    /**
+     * Take a payment for the order submitted under orderKey, moving the order to orderStatus
+     */
+    public Submitted submitPayment(String orderKey, String orderStatus, String metode, double jumlah,
+                                   String status, int kasirId) throws IOException {
+        return submit(PAYMENT, new PaymentEntry(newKey(), System.currentTimeMillis(), orderKey, orderStatus,
+                metode, jumlah, status, kasirId));
+    }
+
+    /**
+     * Cancel the order submitted under orderKey
+     */
+    public Submitted submitCancel(String orderKey, String alasan) throws IOException {
+        return submit(CANCEL, new CancelEntry(newKey(), System.currentTimeMillis(), orderKey, alasan));
+    }
+
+    /**
+     * Get the number of records still waiting for the database
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    private Submitted submit(byte type, Entry entry) throws IOException {
+        FlightEvents.JournalSubmit flight = new FlightEvents.JournalSubmit();
+        flight.begin();
+        Submitted submitted = null;
+        try {
+            submitted = journalAndWait(type, entry);
+            return submitted;
+        } finally {
+            flight.finish(typeName(type), entry.key(), submitted != null && submitted.isApplied());
+        }
+    }
+
+    private Submitted journalAndWait(byte type, Entry entry) throws IOException {
+        long start = System.nanoTime();
+        CompletableFuture<Applied> applied = new CompletableFuture<>();
+        waiters.put(entry.key(), applied);
+        try {
+            byte[] payload = encode(entry);
+            OrderJournal.Ticket ticket;
+            synchronized (segmentLock) {
+                ticket = journal.write(type, payload);
+                unappliedPerSegment.merge(ticket.segmentId(), 1, Integer::sum);
+            }
+            journal.awaitDurable(ticket);
+            queue.addLast(new Pending(ticket.segmentId(), entry));
+        } catch (IOException e) {
+            waiters.remove(entry.key());
+            throw e;
+        }
+        SUBMIT.record(System.nanoTime() - start);
+
+        if (databaseReachable) {
+            try {
+                Applied result = applied.get(APPLY_WAIT_MS, TimeUnit.MILLISECONDS);
+                return new Submitted(entry.key(), result.orderId(), result.notaId());
+            } catch (TimeoutException e) {
+                // Still queued; the replicator applies it when it can
+            } catch (ExecutionException e) {
+                throw new IOException("The database rejected the record: " + e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        waiters.remove(entry.key());
+        return new Submitted(entry.key(), -1, -1);
+    }
+
+    private void replicate() {
+        long retryMs = MIN_RETRY_MS;
+        while (true) {
+            Pending pending;
+            try {
+                pending = queue.takeFirst();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            Applied applied;
+            try {
+                applied = apply(pending.entry());
+            } catch (SQLException e) {
+                if (isTransient(e)) {
+                    if (databaseReachable) {
+                        System.err.println("Database unavailable, orders are queued in the local journal: " + e.getMessage());
+                    }
+                    databaseReachable = false;
+                    queue.addFirst(pending);
+                    if (!sleep(retryMs)) {
+                        return;
+                    }
+                    retryMs = Math.min(MAX_RETRY_MS, retryMs * 2);
+                    continue;
+                }
+                reject(pending, e);
+                continue;
+            } catch (RuntimeException e) {
+                // IllegalStateException for data the database refused, or a bug on this side
+                reject(pending, e);
+                continue;
+            } catch (Error e) {
+                // Leave the record queued for the restarted thread
+                queue.addFirst(pending);
+                throw e;
+            }
+
+            if (!databaseReachable) {
+                System.out.println("Database reachable again, " + queue.size() + " journaled records left to apply");
+            }
+            databaseReachable = true;
+            retryMs = MIN_RETRY_MS;
+            APPLIED.increment();
+            CompletableFuture<Applied> waiter = waiters.remove(pending.entry().key());
+            if (waiter != null) {
+                waiter.complete(applied);
+            }
+            settle(pending, false);
+        }
+    }
+
+    private void reject(Pending pending, Exception e) {
+        REJECTED.increment();
+        System.err.println("Journaled record " + pending.entry().key() + " was rejected by the database and is kept in "
+                + "segment " + pending.segmentId() + ": " + pending.entry());
+        e.printStackTrace();
+        CompletableFuture<Applied> waiter = waiters.remove(pending.entry().key());
+        if (waiter != null) {
+            waiter.completeExceptionally(e);
+        }
+        settle(pending, true);
+    }
+
+    private void settle(Pending pending, boolean keep) {
+        synchronized (segmentLock) {
+            if (keep) {
+                keptSegments.add(pending.segmentId());
+            }
+            unappliedPerSegment.merge(pending.segmentId(), -1, Integer::sum);
+            deleteFinishedSegments();
+        }
+    }
+
+    // Called with segmentLock held
+    private void deleteFinishedSegments() {
+        Iterator<Map.Entry<Long, Integer>> it = unappliedPerSegment.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Long, Integer> e = it.next();
+            if (e.getValue() == 0 && !keptSegments.contains(e.getKey()) && journal.delete(e.getKey())) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Apply one record in its own transaction, or return what an earlier apply of the
+     * same key produced. IllegalStateException means the database refused it for good.
+     * Each kind is timed under its own OrderReplicator.apply.* operation and recorded as
+     * the same JFR event OrderService emits for it.
+     */
+    private Applied apply(Entry entry) throws SQLException {
+        Applied applied = null;
+        if (entry instanceof OrderEntry order) {
+            FlightEvents.OrderCreate flight = new FlightEvents.OrderCreate();
+            flight.begin();
+            try {
+                applied = applyInTransaction(entry, "OrderReplicator.apply.order");
+                return applied;
+            } finally {
+                flight.finish(applied == null ? -1 : applied.orderId(), order.lines().size(), order.total());
+            }
+        } else if (entry instanceof PaymentEntry payment) {
+            FlightEvents.OrderPayment flight = new FlightEvents.OrderPayment();
+            flight.begin();
+            try {
+                applied = applyInTransaction(entry, "OrderReplicator.apply.payment");
+                return applied;
+            } finally {
+                flight.finish(applied == null ? -1 : applied.orderId(), payment.metode(), payment.jumlah(),
+                        applied != null);
+            }
+        } else {
+            FlightEvents.OrderCancel flight = new FlightEvents.OrderCancel();
+            flight.begin();
+            try {
+                applied = applyInTransaction(entry, "OrderReplicator.apply.cancel");
+                return applied;
+            } finally {
+                flight.finish(applied == null ? -1 : applied.orderId(), applied != null);
+            }
+        }
+    }
+
+    private Applied applyInTransaction(Entry entry, String operation) throws SQLException {
+        Nota nota = null;
+        Applied applied;
+        try (Connection connection = DatabaseConnection.getConnection(operation)) {
+            Applied earlier = findApplied(connection, entry.key());
+            if (earlier != null) {
+                return earlier;
+            }
+
+            connection.setAutoCommit(false);
+            try {
+                if (entry instanceof OrderEntry order) {
+                    applied = new Applied(applyOrder(connection, order), -1);
+                } else if (entry instanceof PaymentEntry payment) {
+                    int orderId = findOrderId(connection, payment.orderKey());
+                    Timestamp at = new Timestamp(payment.createdAt());
+                    Pembayaran pembayaran = new Pembayaran(orderId, payment.kasirId(), at, payment.metode(),
+                            payment.jumlah(), payment.status());
+                    nota = new Nota(orderId, at, payment.jumlah(), payment.metode(), payment.status());
+                    if (!orderService.recordPayment(connection, orderId, payment.orderStatus(), pembayaran, nota)) {
+                        throw new IllegalStateException("Payment for order " + orderId + " was not recorded");
+                    }
+                    applied = new Applied(orderId, nota.getIdNota());
+                } else {
+                    CancelEntry cancel = (CancelEntry) entry;
+                    int orderId = findOrderId(connection, cancel.orderKey());
+                    if (!orderService.cancelOrder(connection, orderId, cancel.alasan())) {
+                        throw new IllegalStateException("Order " + orderId + " could not be cancelled");
+                    }
+                    applied = new Applied(orderId, -1);
+                }
+                insertApplied(connection, entry.key(), applied);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+
+        if (entry instanceof PaymentEntry) {
+            orderService.paymentCommitted(nota);
+        } else if (entry instanceof CancelEntry) {
+            orderService.cancelCommitted();
+        } else {
+            DashboardStats.invalidate();
+        }
+        return applied;
+    }
+
+    private int applyOrder(Connection connection, OrderEntry entry) throws SQLException {
+        int customerId = userDAO.findOrCreateCustomer(connection, entry.customerName());
+        if (customerId <= 0) {
+            throw new IllegalStateException("Customer " + entry.customerName() + " could not be created");
+        }
+        CustomerOrder order = new CustomerOrder(new Timestamp(entry.createdAt()), entry.total(), entry.catatan(),
+                customerId, "pending");
+        List<OrderDetail> details = new ArrayList<>(entry.lines().size());
+        for (Line line : entry.lines()) {
+            details.add(new OrderDetail(0, line.idMenu(), line.jumlah(), line.hargaSatuan()));
+        }
+        int orderId = orderService.createOrder(connection, order, details);
+        if (orderId <= 0) {
+            throw new IllegalStateException("Order was not created");
+        }
+        return orderId;
+    }
+
+    private static Applied findApplied(Connection connection, String key) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(FIND_APPLIED_SQL)) {
+            stmt.setString(1, key);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                int idNota = rs.getInt("id_nota");
+                return new Applied(rs.getInt("id_pesanan"), rs.wasNull() ? -1 : idNota);
+            }
+        }
+        return null;
+    }
+
+    private static int findOrderId(Connection connection, String orderKey) throws SQLException {
+        Applied order = findApplied(connection, orderKey);
+        if (order == null) {
+            throw new IllegalStateException("Order " + orderKey + " has not been applied");
+        }
+        return order.orderId();
+    }
+
+    private static void insertApplied(Connection connection, String key, Applied applied) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(INSERT_APPLIED_SQL)) {
+            stmt.setString(1, key);
+            stmt.setInt(2, applied.orderId());
+            if (applied.notaId() > 0) {
+                stmt.setInt(3, applied.notaId());
+            } else {
+                stmt.setNull(3, Types.INTEGER);
+            }
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Connection loss, pool timeouts, deadlocks and lock waits are worth retrying;
+     * anything else is the database refusing the data
+     */
+    private static boolean isTransient(SQLException e) {
+        String state = e.getSQLState();
+        return e instanceof SQLTransientException
+                || e instanceof SQLRecoverableException
+                || state != null && state.startsWith("08")
+                || "40001".equals(state)
+                || e.getErrorCode() == 1205;
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            return false;
+        }
+    }
+
+    private static String typeName(byte type) {
+        return switch (type) {
+            case ORDER -> "order";
+            case PAYMENT -> "payment";
+            default -> "cancel";
+        };
+    }
+
+    private static String newKey() {
+        return UUID.randomUUID().toString();
+    }
+
+    private static byte[] encode(Entry entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF(entry.key());
+        if (entry instanceof OrderEntry order) {
+            out.writeLong(order.createdAt());
+            out.writeUTF(order.customerName());
+            writeNullable(out, order.catatan());
+            out.writeDouble(order.total());
+            out.writeInt(order.lines().size());
+            for (Line line : order.lines()) {
+                out.writeInt(line.idMenu());
+                out.writeInt(line.jumlah());
+                out.writeDouble(line.hargaSatuan());
+            }
+        } else if (entry instanceof PaymentEntry payment) {
+            out.writeLong(payment.createdAt());
+            out.writeUTF(payment.orderKey());
+            out.writeUTF(payment.orderStatus());
+            out.writeUTF(payment.metode());
+            out.writeDouble(payment.jumlah());
+            out.writeUTF(payment.status());
+            out.writeInt(payment.kasirId());
+        } else {
+            CancelEntry cancel = (CancelEntry) entry;
+            out.writeLong(cancel.createdAt());
+            out.writeUTF(cancel.orderKey());
+            writeNullable(out, cancel.alasan());
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static Entry decode(byte type, byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        String key = in.readUTF();
+        switch (type) {
+            case ORDER: {
+                long createdAt = in.readLong();
+                String customerName = in.readUTF();
+                String catatan = readNullable(in);
+                double total = in.readDouble();
+                int count = in.readInt();
+                List<Line> lines = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    lines.add(new Line(in.readInt(), in.readInt(), in.readDouble()));
+                }
+                return new OrderEntry(key, createdAt, customerName, catatan, total, lines);
+            }
+            case PAYMENT:
+                return new PaymentEntry(key, in.readLong(), in.readUTF(), in.readUTF(), in.readUTF(),
+                        in.readDouble(), in.readUTF(), in.readInt());
+            case CANCEL:
+                return new CancelEntry(key, in.readLong(), in.readUTF(), readNullable(in));
+            default:
+                throw new IOException("Unknown record type " + type);
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -1,6 +1,8 @@
 package view;
 
 
+import java.sql.Connection;
+import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.List;
 
@@ -10,6 +12,7 @@ public class OrderService {
     private PembayaranDAO pembayaranDAO;
     private NotaDAO notaDAO;
     private MenuDAO menuDAO;
+    private PesananDibatalkanDAO pesananDibatalkanDAO;
 
     public OrderService() {
         this.orderDAO = new CustomerOrderDAO();
@@ -17,56 +20,138 @@ public class OrderService {
         this.pembayaranDAO = new PembayaranDAO();
         this.notaDAO = new NotaDAO();
         this.menuDAO = new MenuDAO();
+        this.pesananDibatalkanDAO = new PesananDibatalkanDAO();
     }
 
+    /**
+     * Insert the order header and all its details in one transaction:
+     * one INSERT for the header and one batched INSERT for the details
+     */
     public int createOrder(CustomerOrder order, List<OrderDetail> orderDetails) {
-        try {
-            // Create main order
-            int orderId = orderDAO.create(order);
-            if (orderId > 0) {
-                // Create order details
-                for (OrderDetail detail : orderDetails) {
-                    detail.setIdPesanan(orderId);
-                    orderDetailDAO.create(detail);
+        FlightEvents.OrderCreate flight = new FlightEvents.OrderCreate();
+        flight.begin();
+        int orderId = insertOrder(order, orderDetails);
+        flight.finish(orderId, orderDetails.size(), order.getTotalPesanan());
+        return orderId;
+    }
+
+    private int insertOrder(CustomerOrder order, List<OrderDetail> orderDetails) {
+        try (Connection connection = DatabaseConnection.getConnection("OrderService.createOrder")) {
+            connection.setAutoCommit(false);
+            try {
+                int orderId = createOrder(connection, order, orderDetails);
+                if (orderId <= 0) {
+                    connection.rollback();
+                    return -1;
                 }
+                connection.commit();
+                DashboardStats.invalidate();
                 return orderId;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
             }
-        } catch (Exception e) {
+        } catch (SQLException e) {
             e.printStackTrace();
         }
         return -1;
     }
 
+    /**
+     * Insert the order and its details on a caller-supplied connection so it can share a
+     * transaction; the caller commits, or rolls back when -1 is returned
+     */
+    int createOrder(Connection connection, CustomerOrder order, List<OrderDetail> orderDetails) throws SQLException {
+        int orderId = orderDAO.create(connection, order);
+        if (orderId <= 0) {
+            return -1;
+        }
+        for (OrderDetail detail : orderDetails) {
+            detail.setIdPesanan(orderId);
+        }
+        if (!orderDetailDAO.createBatch(connection, orderDetails)) {
+            return -1;
+        }
+        SalesRollup.replace(connection, null, SalesRollup.capture(connection, orderId));
+        order.setIdPesanan(orderId);
+        return orderId;
+    }
+
     public boolean processPayment(int orderId, int kasirId, String metode, double jumlah) {
-        try {
-            CustomerOrder order = orderDAO.findById(orderId);
-            if (order != null) {
-                // Create payment record
-                Pembayaran pembayaran = new Pembayaran(
-                    orderId, kasirId, new Timestamp(System.currentTimeMillis()),
-                    metode, jumlah, "berhasil"
-                );
-                
-                if (pembayaranDAO.create(pembayaran)) {
-                    // Update order status
-                    orderDAO.updateStatus(orderId, "selesai");
-                    
-                    // Create nota
-                    Nota nota = new Nota(
-                        orderId, new Timestamp(System.currentTimeMillis()),
-                        jumlah, metode, "berhasil"
-                    );
-                    notaDAO.create(nota);
-                    
-                    return true;
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        Pembayaran pembayaran = new Pembayaran(orderId, kasirId, now, metode, jumlah, "berhasil");
+        Nota nota = new Nota(orderId, now, jumlah, metode, "berhasil");
+        return recordPayment(orderId, "selesai", pembayaran, nota);
+    }
+
+    /**
+     * Set the order status and insert its payment and nota in one transaction,
+     * keeping the sales rollups in step. The nota gets its generated id on success.
+     */
+    public boolean recordPayment(int orderId, String orderStatus, Pembayaran pembayaran, Nota nota) {
+        FlightEvents.OrderPayment flight = new FlightEvents.OrderPayment();
+        flight.begin();
+        boolean recorded = insertPayment(orderId, orderStatus, pembayaran, nota);
+        flight.finish(orderId, pembayaran.getMetodePembayaran(), pembayaran.getJumlahPembayaran(), recorded);
+        return recorded;
+    }
+
+    private boolean insertPayment(int orderId, String orderStatus, Pembayaran pembayaran, Nota nota) {
+        try (Connection connection = DatabaseConnection.getConnection("OrderService.recordPayment")) {
+            connection.setAutoCommit(false);
+            try {
+                if (!recordPayment(connection, orderId, orderStatus, pembayaran, nota)) {
+                    connection.rollback();
+                    return false;
                 }
+                connection.commit();
+                paymentCommitted(nota);
+                return true;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
             }
-        } catch (Exception e) {
+        } catch (SQLException e) {
             e.printStackTrace();
         }
         return false;
     }
 
+    /**
+     * Record the payment on a caller-supplied connection so it can share a transaction;
+     * the caller commits and then calls paymentCommitted, or rolls back when false is returned
+     */
+    boolean recordPayment(Connection connection, int orderId, String orderStatus, Pembayaran pembayaran, Nota nota)
+            throws SQLException {
+        SalesRollup.Contribution before = SalesRollup.capture(connection, orderId);
+        if (before == null
+                || !orderDAO.updateStatus(connection, orderId, orderStatus)
+                || !pembayaranDAO.create(connection, pembayaran)
+                || !notaDAO.create(connection, nota)) {
+            return false;
+        }
+        SalesRollup.replace(connection, before, SalesRollup.capture(connection, orderId));
+        if (isCash(nota)) {
+            PendingPaymentQueue.logChange(connection, orderId, "pending");
+        }
+        return true;
+    }
+
+    void paymentCommitted(Nota nota) {
+        DashboardStats.invalidate();
+        if (isCash(nota)) {
+            PendingPaymentQueue.wake();
+        }
+    }
+
+    private static boolean isCash(Nota nota) {
+        return "cash".equalsIgnoreCase(nota.getMetodePembayaran());
+    }
+
     public List<CustomerOrder> getOrdersByCustomer(int customerId) {
         return (List<CustomerOrder>) orderDAO.findById(customerId);
     }
@@ -75,20 +160,61 @@ public class OrderService {
         return orderDetailDAO.findByOrderId(orderId);
     }
 
+    /**
+     * Cancel the order and record the reason in one transaction
+     */
     public boolean cancelOrder(int orderId, String alasan) {
-        try {
-            // Update order status
-            if (orderDAO.updateStatus(orderId, "dibatalkan")) {
-                // Record cancellation
-                PesananDibatalkanDAO batalDAO = new PesananDibatalkanDAO();
-                PesananDibatalkan batal = new PesananDibatalkan(
-                    orderId, new Timestamp(System.currentTimeMillis()), alasan
-                );
-                return batalDAO.create(batal);
+        FlightEvents.OrderCancel flight = new FlightEvents.OrderCancel();
+        flight.begin();
+        boolean cancelled = markCancelled(orderId, alasan);
+        flight.finish(orderId, cancelled);
+        return cancelled;
+    }
+
+    private boolean markCancelled(int orderId, String alasan) {
+        try (Connection connection = DatabaseConnection.getConnection("OrderService.cancelOrder")) {
+            connection.setAutoCommit(false);
+            try {
+                if (!cancelOrder(connection, orderId, alasan)) {
+                    connection.rollback();
+                    return false;
+                }
+                connection.commit();
+                cancelCommitted();
+                return true;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
             }
-        } catch (Exception e) {
+        } catch (SQLException e) {
             e.printStackTrace();
         }
         return false;
     }
+
+    /**
+     * Cancel the order on a caller-supplied connection so it can share a transaction;
+     * the caller commits and then calls cancelCommitted, or rolls back when false is returned
+     */
+    boolean cancelOrder(Connection connection, int orderId, String alasan) throws SQLException {
+        SalesRollup.Contribution before = SalesRollup.capture(connection, orderId);
+        PesananDibatalkan batal = new PesananDibatalkan(
+            orderId, new Timestamp(System.currentTimeMillis()), alasan
+        );
+        if (before == null
+                || !orderDAO.updateStatus(connection, orderId, "dibatalkan")
+                || !pesananDibatalkanDAO.create(connection, batal)) {
+            return false;
+        }
+        SalesRollup.replace(connection, before, SalesRollup.capture(connection, orderId));
+        PendingPaymentQueue.logChange(connection, orderId, "cancelled");
+        return true;
+    }
+
+    void cancelCommitted() {
+        DashboardStats.invalidate();
+        PendingPaymentQueue.wake();
+    }
 }
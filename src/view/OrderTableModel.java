@@ -0,0 +1,88 @@
+package view;
+
+
+import java.sql.Timestamp;
+import java.text.NumberFormat;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Order tracking rows for ManagerFrame, newest first, stored column by column
+ */
+public class OrderTableModel extends ColumnarTableModel {
+    private final NumberFormat currencyFormat;
+    private final SimpleDateFormat dateFormat;
+
+    private final Dictionary customerNames = new Dictionary();
+    private final Dictionary statuses = new Dictionary();
+
+    private int[] ids = new int[0];
+    private int[] customerCodes = new int[0];
+    private long[] tanggalMillis = new long[0];
+    private long[] totalCents = new long[0];
+    private int[] statusCodes = new int[0];
+    private String[] catatan = new String[0];
+
+    public OrderTableModel(NumberFormat currencyFormat, SimpleDateFormat dateFormat) {
+        super("Order ID", "Customer", "Date", "Total", "Status", "Notes");
+        this.currencyFormat = currencyFormat;
+        this.dateFormat = dateFormat;
+    }
+
+    /**
+     * Append one page of orders; customers maps customer id to user for the names
+     */
+    public void append(List<CustomerOrder> orders, Map<Integer, User> customers) {
+        int first = beginAppend(orders.size());
+        for (CustomerOrder order : orders) {
+            User customer = customers.get(order.getCustomerId());
+            ids[size] = order.getIdPesanan();
+            customerCodes[size] = customerNames.encode(customer != null ? customer.getNama() : "Unknown");
+            tanggalMillis[size] = order.getTanggalPesanan().getTime();
+            totalCents[size] = toCents(order.getTotalPesanan());
+            statusCodes[size] = statuses.encode(order.getStatusPesanan());
+            catatan[size] = order.getCatatan();
+            size++;
+        }
+        endAppend(first);
+    }
+
+    @Override
+    protected void ensureCapacity(int capacity) {
+        ids = grow(ids, capacity);
+        customerCodes = grow(customerCodes, capacity);
+        tanggalMillis = grow(tanggalMillis, capacity);
+        totalCents = grow(totalCents, capacity);
+        statusCodes = grow(statusCodes, capacity);
+        catatan = grow(catatan, capacity);
+    }
+
+    @Override
+    protected void clearColumns() {
+        Arrays.fill(catatan, null);
+        customerNames.clear();
+        statuses.clear();
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        switch (column) {
+            case 0: return ids[row];
+            case 1: return customerNames.decode(customerCodes[row]);
+            case 2: return dateFormat.format(new Date(tanggalMillis[row]));
+            case 3: return currencyFormat.format(fromCents(totalCents[row]));
+            case 4: return statuses.decode(statusCodes[row]);
+            default: return catatan[row] != null ? catatan[row] : "-";
+        }
+    }
+
+    public int getOrderId(int row) { return ids[row]; }
+
+    /** Get the keyset position of the last loaded row, null when empty */
+    public Timestamp getLastTanggal() { return size > 0 ? new Timestamp(tanggalMillis[size - 1]) : null; }
+
+    public int getLastOrderId() { return size > 0 ? ids[size - 1] : 0; }
+}
@@ -0,0 +1,181 @@
+package view;
+
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contention test for PaymentService.confirm. Creates NOTAS waiting cash payments,
+ * then THREADS cashiers each try to confirm every one of them, in their own random
+ * order. Checks that each nota was confirmed exactly once and that its nota, payment
+ * and order all ended up paid, and reports throughput and latency. The orders it
+ * creates are removed again, rollups included.
+ *
+ * Usage: PaymentConfirmHarness [notas] [threads]
+ * Needs an explicit -Ddb.url pointing at a scratch database.
+ */
+public class PaymentConfirmHarness {
+    private static final int NOTAS = 200;
+    // Below the connection pool size so the threads contend on rows, not on the pool
+    private static final int THREADS = 8;
+    private static final String MARKER = "payment-confirm-harness";
+
+    private static final String CHECK_SQL = """
+        SELECT COUNT(*)
+        FROM Nota n
+        JOIN CustomerOrder co ON co.id_pesanan = n.id_pesanan
+        JOIN Pembayaran p ON p.id_pesanan = n.id_pesanan
+        WHERE co.catatan = ?
+        AND n.status_pembayaran = 'berhasil'
+        AND p.status_pembayaran = 'berhasil'
+        AND co.status_pesanan = 'selesai'
+        """;
+
+    public static void main(String[] args) throws Exception {
+        HarnessData.requireScratchDatabase("PaymentConfirmHarness");
+        SchemaMigrator.migrateAtStartup();
+
+        int notaCount = args.length > 0 ? Integer.parseInt(args[0]) : NOTAS;
+        int threadCount = args.length > 1 ? Integer.parseInt(args[1]) : THREADS;
+
+        List<Integer> orderIds = new ArrayList<>();
+        boolean ok;
+        try {
+            int customerId = HarnessData.findUser("customer");
+            int kasirId = HarnessData.findUser("kasir");
+            Menu menu = MenuCatalog.get().getAll().get(0);
+
+            int[] notaIds = createPendingNotas(notaCount, customerId, menu, orderIds);
+            Map<PaymentService.Outcome, Integer> outcomes = new EnumMap<>(PaymentService.Outcome.class);
+            long[] latencies = new long[notaCount * threadCount];
+            long elapsed = run(notaIds, threadCount, kasirId, outcomes, latencies);
+
+            int confirmed = outcomes.getOrDefault(PaymentService.Outcome.CONFIRMED, 0);
+            int already = outcomes.getOrDefault(PaymentService.Outcome.ALREADY_CONFIRMED, 0);
+            int paid = countPaid();
+
+            Arrays.sort(latencies);
+            double seconds = elapsed / 1e9;
+            System.out.printf("%d notas, %d threads, %d attempts in %.2f s%n", notaCount, threadCount, latencies.length, seconds);
+            System.out.printf("Outcomes: %s%n", outcomes);
+            System.out.printf("Throughput: %.0f attempts/s, %.0f confirmations/s%n", latencies.length / seconds, confirmed / seconds);
+            System.out.printf("Latency: p50 %.2f ms  p99 %.2f ms  max %.2f ms%n",
+                    percentile(latencies, 0.50), percentile(latencies, 0.99), latencies[latencies.length - 1] / 1e6);
+
+            ok = confirmed == notaCount
+                    && already == notaCount * (threadCount - 1)
+                    && paid == notaCount;
+            System.out.println(ok
+                    ? "OK: every nota confirmed exactly once, nota, payment and order all paid"
+                    : "FAILED: expected " + notaCount + " confirmations and " + notaCount + " fully paid orders, got "
+                            + confirmed + " and " + paid);
+        } finally {
+            HarnessData.deleteOrders(orderIds);
+            DatabaseConnection.closeConnection();
+        }
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    private static int[] createPendingNotas(int count, int customerId, Menu menu, List<Integer> orderIds) {
+        OrderService orderService = new OrderService();
+        int[] notaIds = new int[count];
+        for (int i = 0; i < count; i++) {
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            CustomerOrder order = new CustomerOrder(now, menu.getHarga(), MARKER, customerId, "pending");
+            List<OrderDetail> details = new ArrayList<>();
+            details.add(new OrderDetail(0, menu.getIdMenu(), 1, menu.getHarga()));
+
+            int orderId = orderService.createOrder(order, details);
+            if (orderId <= 0) {
+                throw new IllegalStateException("Could not create test order");
+            }
+            orderIds.add(orderId);
+
+            Pembayaran pembayaran = new Pembayaran(orderId, customerId, now, "cash", menu.getHarga(), "menunggu");
+            Nota nota = new Nota(orderId, now, menu.getHarga(), "cash", "menunggu");
+            if (!orderService.recordPayment(orderId, "menunggu_pembayaran", pembayaran, nota)) {
+                throw new IllegalStateException("Could not record test payment");
+            }
+            notaIds[i] = nota.getIdNota();
+        }
+        return notaIds;
+    }
+
+    private static long run(int[] notaIds, int threadCount, int kasirId,
+                            Map<PaymentService.Outcome, Integer> outcomes, long[] latencies) throws InterruptedException {
+        PaymentService paymentService = new PaymentService();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threadCount);
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+
+        for (int t = 0; t < threadCount; t++) {
+            int offset = t * notaIds.length;
+            Thread thread = new Thread(() -> {
+                int[] order = notaIds.clone();
+                shuffle(order);
+                try {
+                    start.await();
+                    for (int i = 0; i < order.length; i++) {
+                        long begin = System.nanoTime();
+                        PaymentService.Outcome outcome = paymentService.confirm(order[i], kasirId);
+                        latencies[offset + i] = System.nanoTime() - begin;
+                        synchronized (outcomes) {
+                            outcomes.merge(outcome, 1, Integer::sum);
+                        }
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                } finally {
+                    done.countDown();
+                }
+            }, "cashier-" + (t + 1));
+            thread.start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - begin;
+
+        if (!failures.isEmpty()) {
+            failures.get(0).printStackTrace();
+            throw new IllegalStateException(failures.size() + " cashier threads failed");
+        }
+        return elapsed;
+    }
+
+    private static int countPaid() throws SQLException {
+        try (Connection connection = DatabaseConnection.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(CHECK_SQL)) {
+            stmt.setString(1, MARKER);
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static void shuffle(int[] values) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return TimeUnit.NANOSECONDS.toMicros(sorted[Math.max(0, index)]) / 1000.0;
+    }
+}
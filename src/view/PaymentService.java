@@ -0,0 +1,116 @@
+package view;
+
+
+import java.sql.*;
+
+/**
+ * Cash payment confirmation. Locks the nota row, then moves the nota, its payment
+ * and its order out of the waiting state in one transaction. Every update is
+ * conditional on the waiting status, so two cashiers confirming the same nota get
+ * exactly one CONFIRMED and one ALREADY_CONFIRMED, and a retry after a lost reply
+ * is harmless.
+ */
+public class PaymentService {
+
+    public enum Outcome { CONFIRMED, ALREADY_CONFIRMED, ORDER_CANCELLED, NOT_FOUND }
+
+    private static final String LOCK_NOTA_SQL = "SELECT id_pesanan, status_pembayaran FROM Nota WHERE id_nota = ? FOR UPDATE";
+
+    private static final String CONFIRM_NOTA_SQL = "UPDATE Nota SET status_pembayaran = 'berhasil' WHERE id_nota = ? AND status_pembayaran = 'menunggu'";
+
+    private static final String CONFIRM_PEMBAYARAN_SQL = """
+        UPDATE Pembayaran
+        SET status_pembayaran = 'berhasil', id_kasir = ?, tanggal_pembayaran = CURRENT_TIMESTAMP
+        WHERE id_pesanan = ? AND status_pembayaran = 'menunggu'
+        """;
+
+    private static final String FINISH_ORDER_SQL = "UPDATE CustomerOrder SET status_pesanan = 'selesai' WHERE id_pesanan = ? AND status_pesanan = 'menunggu_pembayaran'";
+
+    /**
+     * Confirm that the cash for a nota was received by kasirId. Throws only when the
+     * database fails; the transaction is rolled back and nothing changes.
+     */
+    public Outcome confirm(int idNota, int kasirId) throws SQLException {
+        FlightEvents.PaymentConfirm flight = new FlightEvents.PaymentConfirm();
+        flight.begin();
+        Outcome outcome = null;
+        try {
+            outcome = confirmInTransaction(idNota, kasirId);
+        } finally {
+            flight.finish(idNota, outcome);
+        }
+
+        if (outcome == Outcome.CONFIRMED) {
+            DashboardStats.invalidate();
+            PendingPaymentQueue.wake();
+        }
+        return outcome;
+    }
+
+    private Outcome confirmInTransaction(int idNota, int kasirId) throws SQLException {
+        Outcome outcome;
+        try (Connection connection = DatabaseConnection.getConnection("PaymentService.confirm")) {
+            connection.setAutoCommit(false);
+            try {
+                outcome = confirm(connection, idNota, kasirId);
+                if (outcome == Outcome.CONFIRMED) {
+                    connection.commit();
+                } else {
+                    connection.rollback();
+                }
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+        return outcome;
+    }
+
+    private Outcome confirm(Connection connection, int idNota, int kasirId) throws SQLException {
+        // Nota first, then the order (locked by capture); nothing takes these locks the other way round
+        int idPesanan;
+        try (PreparedStatement stmt = connection.prepareStatement(LOCK_NOTA_SQL)) {
+            stmt.setInt(1, idNota);
+            ResultSet rs = stmt.executeQuery();
+            if (!rs.next()) {
+                return Outcome.NOT_FOUND;
+            }
+            if (!"menunggu".equals(rs.getString("status_pembayaran"))) {
+                return Outcome.ALREADY_CONFIRMED;
+            }
+            idPesanan = rs.getInt("id_pesanan");
+        }
+
+        SalesRollup.Contribution before = SalesRollup.capture(connection, idPesanan);
+        if (before == null) {
+            return Outcome.NOT_FOUND;
+        }
+
+        try (PreparedStatement stmt = connection.prepareStatement(FINISH_ORDER_SQL)) {
+            stmt.setInt(1, idPesanan);
+            if (stmt.executeUpdate() == 0) {
+                // The order left menunggu_pembayaran without this nota being paid: it was cancelled
+                return Outcome.ORDER_CANCELLED;
+            }
+        }
+
+        try (PreparedStatement stmt = connection.prepareStatement(CONFIRM_NOTA_SQL)) {
+            stmt.setInt(1, idNota);
+            if (stmt.executeUpdate() == 0) {
+                return Outcome.ALREADY_CONFIRMED;
+            }
+        }
+
+        try (PreparedStatement stmt = connection.prepareStatement(CONFIRM_PEMBAYARAN_SQL)) {
+            stmt.setInt(1, kasirId);
+            stmt.setInt(2, idPesanan);
+            stmt.executeUpdate();
+        }
+
+        SalesRollup.replace(connection, before, SalesRollup.capture(connection, idPesanan));
+        PendingPaymentQueue.logChange(connection, idPesanan, "confirmed");
+        return Outcome.CONFIRMED;
+    }
+}
@@ -3,23 +3,24 @@ package view;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class PembayaranDAO {
-    private Connection connection;
-
-    public PembayaranDAO() {
-        this.connection = DatabaseConnection.getConnection();
-        if (this.connection == null) {
-            System.err.println("Failed to establish database connection!");
-        }
-    }
 
     public boolean create(Pembayaran pembayaran) {
-        if (connection == null) {
-            System.err.println("Database connection is null!");
+        try (Connection connection = DatabaseConnection.getConnection("PembayaranDAO.create")) {
+            return create(connection, pembayaran);
+        } catch (SQLException e) {
+            System.err.println("SQL Error in create(): " + e.getMessage());
+            e.printStackTrace();
             return false;
         }
+    }
 
+    /**
+     * Insert the payment on a caller-supplied connection so it can share a transaction
+     */
+    public boolean create(Connection connection, Pembayaran pembayaran) throws SQLException {
         String sql = "INSERT INTO Pembayaran (id_pesanan, id_kasir, tanggal_pembayaran, metode_pembayaran, jumlah_pembayaran, status_pembayaran) VALUES (?, ?, ?, ?, ?, ?)";
         try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setInt(1, pembayaran.getIdPesanan());
@@ -42,21 +43,13 @@ public class PembayaranDAO {
             
             System.out.println("Pembayaran created successfully. Rows affected: " + rowsAffected);
             return rowsAffected > 0;
-        } catch (SQLException e) {
-            System.err.println("SQL Error in create(): " + e.getMessage());
-            e.printStackTrace();
-            return false;
         }
     }
 
     public Pembayaran findById(int idPembayaran) {
-        if (connection == null) {
-            System.err.println("Database connection is null!");
-            return null;
-        }
-        
         String sql = "SELECT * FROM Pembayaran WHERE id_pembayaran = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("PembayaranDAO.findById");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, idPembayaran);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -78,13 +71,9 @@ public class PembayaranDAO {
     }
 
     public Pembayaran findByOrderId(int idPesanan) {
-        if (connection == null) {
-            System.err.println("Database connection is null!");
-            return null;
-        }
-        
         String sql = "SELECT * FROM Pembayaran WHERE id_pesanan = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("PembayaranDAO.findByOrderId");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, idPesanan);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -107,24 +96,12 @@ public class PembayaranDAO {
 
     public List<Pembayaran> findAll() {
         List<Pembayaran> pembayarans = new ArrayList<>();
-        if (connection == null) {
-            System.err.println("Database connection is null!");
-            return pembayarans;
-        }
-        
         String sql = "SELECT * FROM Pembayaran ORDER BY tanggal_pembayaran DESC";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("PembayaranDAO.findAll");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
-                Pembayaran pembayaran = new Pembayaran();
-                pembayaran.setIdPembayaran(rs.getInt("id_pembayaran"));
-                pembayaran.setIdPesanan(rs.getInt("id_pesanan"));
-                pembayaran.setIdKasir(rs.getInt("id_kasir"));
-                pembayaran.setTanggalPembayaran(rs.getTimestamp("tanggal_pembayaran"));
-                pembayaran.setMetodePembayaran(rs.getString("metode_pembayaran"));
-                pembayaran.setJumlahPembayaran(rs.getDouble("jumlah_pembayaran"));
-                pembayaran.setStatusPembayaran(rs.getString("status_pembayaran"));
-                pembayarans.add(pembayaran);
+                pembayarans.add(mapRow(rs));
             }
         } catch (SQLException e) {
             System.err.println("SQL Error in findAll(): " + e.getMessage());
@@ -133,15 +110,78 @@ public class PembayaranDAO {
         return pembayarans;
     }
 
+    /**
+     * Get up to limit rows with id_pembayaran greater than afterId, in id_pembayaran order.
+     * Pass 0 for the first page, then the last id_pembayaran of the previous page.
+     */
+    public List<Pembayaran> findPage(int afterId, int limit) {
+        List<Pembayaran> pembayarans = new ArrayList<>();
+        String sql = "SELECT * FROM Pembayaran WHERE id_pembayaran > ? ORDER BY id_pembayaran LIMIT ?";
+        try (Connection connection = DatabaseConnection.getConnection("PembayaranDAO.findPage");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                pembayarans.add(mapRow(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("SQL Error in findPage(): " + e.getMessage());
+            e.printStackTrace();
+        }
+        return pembayarans;
+    }
+
+    /**
+     * Hand every row to action in id_pembayaran order without loading the table into memory.
+     * The driver streams rows one at a time and the connection is held until the
+     * last row, so action must not block or touch the database. Returns the row count.
+     */
+    public int stream(Consumer<? super Pembayaran> action) throws SQLException {
+        String sql = "SELECT * FROM Pembayaran ORDER BY id_pembayaran";
+        int count = 0;
+        try (Connection connection = DatabaseConnection.getConnection("PembayaranDAO.stream");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    action.accept(mapRow(rs));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static Pembayaran mapRow(ResultSet rs) throws SQLException {
+        Pembayaran pembayaran = new Pembayaran();
+        pembayaran.setIdPembayaran(rs.getInt("id_pembayaran"));
+        pembayaran.setIdPesanan(rs.getInt("id_pesanan"));
+        pembayaran.setIdKasir(rs.getInt("id_kasir"));
+        pembayaran.setTanggalPembayaran(rs.getTimestamp("tanggal_pembayaran"));
+        pembayaran.setMetodePembayaran(rs.getString("metode_pembayaran"));
+        pembayaran.setJumlahPembayaran(rs.getDouble("jumlah_pembayaran"));
+        pembayaran.setStatusPembayaran(rs.getString("status_pembayaran"));
+        return pembayaran;
+    }
+
     /**
      * Update payment status
      */
     public boolean updateStatus(int idPembayaran, String status) {
-        if (connection == null) {
-            System.err.println("Database connection is null!");
+        try (Connection connection = DatabaseConnection.getConnection("PembayaranDAO.updateStatus")) {
+            return updateStatus(connection, idPembayaran, status);
+        } catch (SQLException e) {
+            System.err.println("SQL Error in updateStatus(): " + e.getMessage());
+            e.printStackTrace();
             return false;
         }
-        
+    }
+
+    /**
+     * Update the status on a caller-supplied connection so it can share a transaction
+     */
+    public boolean updateStatus(Connection connection, int idPembayaran, String status) throws SQLException {
         String sql = "UPDATE Pembayaran SET status_pembayaran = ?, tanggal_pembayaran = CURRENT_TIMESTAMP WHERE id_pembayaran = ?";
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, status);
@@ -150,10 +190,6 @@ public class PembayaranDAO {
             int rowsAffected = stmt.executeUpdate();
             System.out.println("Pembayaran status updated successfully. Rows affected: " + rowsAffected);
             return rowsAffected > 0;
-        } catch (SQLException e) {
-            System.err.println("SQL Error in updateStatus(): " + e.getMessage());
-            e.printStackTrace();
-            return false;
         }
     }
 
@@ -161,13 +197,9 @@ public class PembayaranDAO {
      * Update payment status by order ID
      */
     public boolean updateStatusByOrderId(int idPesanan, String status) {
-        if (connection == null) {
-            System.err.println("Database connection is null!");
-            return false;
-        }
-        
         String sql = "UPDATE Pembayaran SET status_pembayaran = ?, tanggal_pembayaran = CURRENT_TIMESTAMP WHERE id_pesanan = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("PembayaranDAO.updateStatusByOrderId");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, status);
             stmt.setInt(2, idPesanan);
             
@@ -185,13 +217,9 @@ public class PembayaranDAO {
      * Update kasir and confirm payment
      */
     public boolean confirmPayment(int idPembayaran, int kasirId, String status) {
-        if (connection == null) {
-            System.err.println("Database connection is null!");
-            return false;
-        }
-        
         String sql = "UPDATE Pembayaran SET id_kasir = ?, status_pembayaran = ?, tanggal_pembayaran = CURRENT_TIMESTAMP WHERE id_pembayaran = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("PembayaranDAO.confirmPayment");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, kasirId);
             stmt.setString(2, status);
             stmt.setInt(3, idPembayaran);
@@ -210,13 +238,9 @@ public class PembayaranDAO {
      * Update complete pembayaran information
      */
     public boolean update(Pembayaran pembayaran) {
-        if (connection == null) {
-            System.err.println("Database connection is null!");
-            return false;
-        }
-        
         String sql = "UPDATE Pembayaran SET id_pesanan = ?, id_kasir = ?, tanggal_pembayaran = ?, metode_pembayaran = ?, jumlah_pembayaran = ?, status_pembayaran = ? WHERE id_pembayaran = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("PembayaranDAO.update");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, pembayaran.getIdPesanan());
             stmt.setInt(2, pembayaran.getIdKasir());
             stmt.setTimestamp(3, pembayaran.getTanggalPembayaran());
@@ -240,13 +264,9 @@ public class PembayaranDAO {
      */
     public List<Pembayaran> findByStatus(String status) {
         List<Pembayaran> pembayarans = new ArrayList<>();
-        if (connection == null) {
-            System.err.println("Database connection is null!");
-            return pembayarans;
-        }
-        
         String sql = "SELECT * FROM Pembayaran WHERE status_pembayaran = ? ORDER BY tanggal_pembayaran DESC";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("PembayaranDAO.findByStatus");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, status);
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
@@ -272,13 +292,9 @@ public class PembayaranDAO {
      */
     public List<Pembayaran> findByMethod(String method) {
         List<Pembayaran> pembayarans = new ArrayList<>();
-        if (connection == null) {
-            System.err.println("Database connection is null!");
-            return pembayarans;
-        }
-        
         String sql = "SELECT * FROM Pembayaran WHERE metode_pembayaran = ? ORDER BY tanggal_pembayaran DESC";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("PembayaranDAO.findByMethod");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, method);
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
@@ -304,13 +320,9 @@ public class PembayaranDAO {
      */
     public List<Pembayaran> findPendingCashPayments() {
         List<Pembayaran> pembayarans = new ArrayList<>();
-        if (connection == null) {
-            System.err.println("Database connection is null!");
-            return pembayarans;
-        }
-        
         String sql = "SELECT * FROM Pembayaran WHERE metode_pembayaran = 'cash' AND status_pembayaran = 'menunggu' ORDER BY tanggal_pembayaran DESC";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("PembayaranDAO.findPendingCashPayments");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
                 Pembayaran pembayaran = new Pembayaran();
@@ -334,13 +346,9 @@ public class PembayaranDAO {
      * Get total payments by status
      */
     public double getTotalPaymentsByStatus(String status) {
-        if (connection == null) {
-            System.err.println("Database connection is null!");
-            return 0.0;
-        }
-        
         String sql = "SELECT SUM(jumlah_pembayaran) as total FROM Pembayaran WHERE status_pembayaran = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("PembayaranDAO.getTotalPaymentsByStatus");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, status);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -357,13 +365,9 @@ public class PembayaranDAO {
      * Get count of payments by status
      */
     public int getCountByStatus(String status) {
-        if (connection == null) {
-            System.err.println("Database connection is null!");
-            return 0;
-        }
-        
         String sql = "SELECT COUNT(*) as count FROM Pembayaran WHERE status_pembayaran = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("PembayaranDAO.getCountByStatus");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, status);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -380,13 +384,9 @@ public class PembayaranDAO {
      * Delete payment by ID
      */
     public boolean delete(int idPembayaran) {
-        if (connection == null) {
-            System.err.println("Database connection is null!");
-            return false;
-        }
-        
         String sql = "DELETE FROM Pembayaran WHERE id_pembayaran = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("PembayaranDAO.delete");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, idPembayaran);
             int rowsAffected = stmt.executeUpdate();
             System.out.println("Pembayaran deleted successfully. Rows affected: " + rowsAffected);
@@ -397,18 +397,4 @@ public class PembayaranDAO {
             return false;
         }
     }
-
-    /**
-     * Close database connection
-     */
-    public void closeConnection() {
-        if (connection != null) {
-            try {
-                connection.close();
-                System.out.println("Database connection closed successfully");
-            } catch (SQLException e) {
-                System.err.println("Error closing database connection: " + e.getMessage());
-            }
-        }
-    }
 }
\ No newline at end of file
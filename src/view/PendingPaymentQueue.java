@@ -0,0 +1,292 @@
+package view;
+
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+
+/**
+ * Cash payments waiting for a cashier, kept in memory and pushed to listeners.
+ *
+ * OrderService writes a row to payment_change_log, in the same transaction, whenever
+ * an order's cash payment is recorded, confirmed or the order is cancelled. Each
+ * terminal polls that log every POLL_INTERVAL_MS and re-reads only the orders named in
+ * new rows, so a new pending payment shows up within a second on every terminal. A
+ * full reload every RESYNC_INTERVAL_MS (and after any error) covers log rows pruned
+ * or missed.
+ *
+ * An idle poll is two small queries: a primary-key range probe for ids above the last
+ * one read, and a created_at index range over the last LATE_COMMIT_WINDOW_SECONDS.
+ * The second is needed because log ids are assigned when the row is inserted, not when
+ * its transaction commits, so a row can become visible after rows with higher ids have
+ * already been read; the poll applies those it has not seen yet.
+ *
+ * Listeners get an unmodifiable list, oldest nota first, on the EDT.
+ */
+public final class PendingPaymentQueue {
+    private static final long POLL_INTERVAL_MS = 500;
+    private static final long RESYNC_INTERVAL_MS = 5 * 60_000;
+    private static final int CHANGE_BATCH = 500;
+    private static final int LATE_COMMIT_WINDOW_SECONDS = 10;
+
+    static final String CREATE_LOG_TABLE_SQL = """
+        CREATE TABLE IF NOT EXISTS payment_change_log (
+            id BIGINT AUTO_INCREMENT PRIMARY KEY,
+            id_pesanan INT NOT NULL,
+            event VARCHAR(16) NOT NULL,
+            created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+            INDEX idx_change_log_created (created_at)
+        )
+        """;
+
+    private static final String INSERT_CHANGE_SQL = "INSERT INTO payment_change_log (id_pesanan, event) VALUES (?, ?)";
+
+    private static final String SELECT_CHANGES_SQL = "SELECT id, id_pesanan FROM payment_change_log WHERE id > ? ORDER BY id LIMIT ?";
+
+    private static final String SELECT_RECENT_CHANGES_SQL =
+            "SELECT id, id_pesanan FROM payment_change_log WHERE created_at >= NOW() - INTERVAL "
+            + LATE_COMMIT_WINDOW_SECONDS + " SECOND AND id <= ?";
+
+    private static final String MAX_CHANGE_ID_SQL = "SELECT COALESCE(MAX(id), 0) FROM payment_change_log";
+
+    // Every terminal resyncs well within a day, so older rows are no longer needed
+    private static final String PRUNE_CHANGES_SQL = "DELETE FROM payment_change_log WHERE created_at < NOW() - INTERVAL 1 DAY LIMIT 1000";
+
+    private static final Comparator<ReportDAO.PendingCashPayment> OLDEST_FIRST =
+            Comparator.comparing(ReportDAO.PendingCashPayment::waktuCetak)
+                    .thenComparingInt(ReportDAO.PendingCashPayment::idNota);
+
+    private static final List<Consumer<List<ReportDAO.PendingCashPayment>>> listeners = new CopyOnWriteArrayList<>();
+
+    // Owned by the poll thread
+    private static final Map<Integer, ReportDAO.PendingCashPayment> byOrder = new HashMap<>();
+    private static long lastChangeId;
+    // Log ids already applied, with when they were read; kept a little longer than the late commit window
+    private static final Map<Long, Long> seenChangeIds = new HashMap<>();
+    private static long lastResyncAt;
+    private static boolean needsResync = true;
+    private static boolean failing;
+
+    private static volatile List<ReportDAO.PendingCashPayment> pending = Collections.emptyList();
+    private static ScheduledExecutorService poller;
+
+    private PendingPaymentQueue() {
+    }
+
+    /**
+     * Get the pending cash payments as of the last poll, oldest first
+     */
+    public static List<ReportDAO.PendingCashPayment> getPending() {
+        return pending;
+    }
+
+    /**
+     * Start receiving the queue on the EDT, beginning with the current contents.
+     * The first listener starts the background poller.
+     */
+    public static synchronized void addListener(Consumer<List<ReportDAO.PendingCashPayment>> listener) {
+        listeners.add(listener);
+        if (poller == null) {
+            poller = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "pending-payments");
+                t.setDaemon(true);
+                return t;
+            });
+            poller.scheduleWithFixedDelay(PendingPaymentQueue::poll, 0, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        } else {
+            List<ReportDAO.PendingCashPayment> current = pending;
+            SwingUtilities.invokeLater(() -> listener.accept(current));
+        }
+    }
+
+    public static synchronized void removeListener(Consumer<List<ReportDAO.PendingCashPayment>> listener) {
+        listeners.remove(listener);
+        if (listeners.isEmpty() && poller != null) {
+            poller.shutdownNow();
+            poller = null;
+            needsResync = true;
+        }
+    }
+
+    /**
+     * Poll now instead of waiting for the next tick; called after this terminal commits a change
+     */
+    public static synchronized void wake() {
+        if (poller != null) {
+            poller.execute(PendingPaymentQueue::poll);
+        }
+    }
+
+    /**
+     * Record that the order's cash payment state may have changed. Call inside the
+     * transaction that makes the change so the log row commits with it.
+     */
+    static void logChange(Connection connection, int idPesanan, String event) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(INSERT_CHANGE_SQL)) {
+            stmt.setInt(1, idPesanan);
+            stmt.setString(2, event);
+            stmt.executeUpdate();
+        }
+    }
+
+    private static void poll() {
+        try (Connection connection = DatabaseConnection.getConnection("PendingPaymentQueue.poll")) {
+            if (needsResync || System.currentTimeMillis() - lastResyncAt > RESYNC_INTERVAL_MS) {
+                resync(connection);
+            } else {
+                applyChanges(connection);
+            }
+            if (failing) {
+                System.err.println("Pending payment queue reconnected");
+                failing = false;
+            }
+        } catch (SQLException e) {
+            // The database may be briefly unreachable; report once, then resync when it is back
+            if (!failing) {
+                System.err.println("Pending payment queue poll failed: " + e.getMessage());
+                failing = true;
+            }
+            needsResync = true;
+        }
+    }
+
+    private static void resync(Connection connection) throws SQLException {
+        // Take the log position first: changes made during the reload are applied again, harmlessly
+        long changeId;
+        try (PreparedStatement stmt = connection.prepareStatement(MAX_CHANGE_ID_SQL)) {
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            changeId = rs.getLong(1);
+        }
+
+        List<ReportDAO.PendingCashPayment> all;
+        try (PreparedStatement stmt = connection.prepareStatement(ReportDAO.PENDING_CASH_PAYMENTS_SQL)) {
+            all = ReportDAO.mapPendingCashPayments(stmt.executeQuery());
+        }
+
+        try (PreparedStatement stmt = connection.prepareStatement(PRUNE_CHANGES_SQL)) {
+            stmt.executeUpdate();
+        }
+
+        byOrder.clear();
+        for (ReportDAO.PendingCashPayment payment : all) {
+            byOrder.put(payment.idPesanan(), payment);
+        }
+        lastChangeId = changeId;
+        lastResyncAt = System.currentTimeMillis();
+        needsResync = false;
+        publish();
+    }
+
+    private static void applyChanges(Connection connection) throws SQLException {
+        long now = System.currentTimeMillis();
+        seenChangeIds.values().removeIf(seenAt -> now - seenAt > 2_000L * LATE_COMMIT_WINDOW_SECONDS);
+
+        boolean changed = applyLateChanges(connection, now);
+        int fetched;
+        do {
+            Set<Integer> orderIds = new LinkedHashSet<>();
+            long maxId = lastChangeId;
+            fetched = 0;
+            try (PreparedStatement stmt = connection.prepareStatement(SELECT_CHANGES_SQL)) {
+                stmt.setLong(1, lastChangeId);
+                stmt.setInt(2, CHANGE_BATCH);
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    maxId = rs.getLong(1);
+                    orderIds.add(rs.getInt(2));
+                    seenChangeIds.put(maxId, now);
+                    fetched++;
+                }
+            }
+            if (orderIds.isEmpty()) {
+                break;
+            }
+
+            changed |= refresh(connection, orderIds);
+            lastChangeId = maxId;
+        } while (fetched == CHANGE_BATCH);
+
+        if (changed) {
+            publish();
+        }
+    }
+
+    /**
+     * Apply recent log rows at or below lastChangeId that were not visible when that
+     * range was read, i.e. whose transaction committed after a later one
+     */
+    private static boolean applyLateChanges(Connection connection, long now) throws SQLException {
+        Set<Integer> orderIds = new LinkedHashSet<>();
+        try (PreparedStatement stmt = connection.prepareStatement(SELECT_RECENT_CHANGES_SQL)) {
+            stmt.setLong(1, lastChangeId);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                if (seenChangeIds.putIfAbsent(rs.getLong(1), now) == null) {
+                    orderIds.add(rs.getInt(2));
+                }
+            }
+        }
+        return !orderIds.isEmpty() && refresh(connection, orderIds);
+    }
+
+    /**
+     * Re-read the current state of each changed order: still pending or gone. Returns
+     * whether the queue changed.
+     */
+    private static boolean refresh(Connection connection, Set<Integer> orderIds) throws SQLException {
+        Map<Integer, ReportDAO.PendingCashPayment> current = loadPending(connection, orderIds);
+        boolean changed = false;
+        for (Integer idPesanan : orderIds) {
+            ReportDAO.PendingCashPayment payment = current.get(idPesanan);
+            ReportDAO.PendingCashPayment previous = payment != null
+                    ? byOrder.put(idPesanan, payment)
+                    : byOrder.remove(idPesanan);
+            changed |= !Objects.equals(previous, payment);
+        }
+        return changed;
+    }
+
+    private static Map<Integer, ReportDAO.PendingCashPayment> loadPending(Connection connection,
+                                                                          Collection<Integer> orderIds) throws SQLException {
+        List<Integer> ids = new ArrayList<>(orderIds);
+        Map<Integer, ReportDAO.PendingCashPayment> result = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += InLists.MAX_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + InLists.MAX_SIZE));
+            String sql = ReportDAO.PENDING_CASH_SELECT_SQL + "AND n.id_pesanan IN (" + InLists.placeholders(chunk.size()) + ")";
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                InLists.bind(stmt, 1, chunk);
+                for (ReportDAO.PendingCashPayment payment : ReportDAO.mapPendingCashPayments(stmt.executeQuery())) {
+                    result.put(payment.idPesanan(), payment);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void publish() {
+        List<ReportDAO.PendingCashPayment> sorted = new ArrayList<>(byOrder.values());
+        sorted.sort(OLDEST_FIRST);
+        List<ReportDAO.PendingCashPayment> snapshot = Collections.unmodifiableList(sorted);
+        pending = snapshot;
+        SwingUtilities.invokeLater(() -> {
+            for (Consumer<List<ReportDAO.PendingCashPayment>> listener : listeners) {
+                listener.accept(snapshot);
+            }
+        });
+    }
+}
@@ -3,30 +3,36 @@ package view;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class PesananDibatalkanDAO {
-    private Connection connection;
 
-    public PesananDibatalkanDAO() {
-        this.connection = DatabaseConnection.getConnection();
+    public boolean create(PesananDibatalkan pesananBatal) {
+        try (Connection connection = DatabaseConnection.getConnection("PesananDibatalkanDAO.create")) {
+            return create(connection, pesananBatal);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
     }
 
-    public boolean create(PesananDibatalkan pesananBatal) {
+    /**
+     * Insert the cancellation on a caller-supplied connection so it can share a transaction
+     */
+    public boolean create(Connection connection, PesananDibatalkan pesananBatal) throws SQLException {
         String sql = "INSERT INTO PesananDibatalkan (id_pesanan, tanggal_batal, alasan_batal) VALUES (?, ?, ?)";
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, pesananBatal.getIdPesanan());
             stmt.setTimestamp(2, pesananBatal.getTanggalBatal());
             stmt.setString(3, pesananBatal.getAlasanBatal());
             return stmt.executeUpdate() > 0;
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return false;
         }
     }
 
     public PesananDibatalkan findByOrderId(int idPesanan) {
         String sql = "SELECT * FROM PesananDibatalkan WHERE id_pesanan = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("PesananDibatalkanDAO.findByOrderId");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, idPesanan);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -46,19 +52,66 @@ public class PesananDibatalkanDAO {
     public List<PesananDibatalkan> findAll() {
         List<PesananDibatalkan> pesananBatals = new ArrayList<>();
         String sql = "SELECT * FROM PesananDibatalkan ORDER BY tanggal_batal DESC";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("PesananDibatalkanDAO.findAll");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
-                PesananDibatalkan pesananBatal = new PesananDibatalkan();
-                pesananBatal.setIdBatal(rs.getInt("id_batal"));
-                pesananBatal.setIdPesanan(rs.getInt("id_pesanan"));
-                pesananBatal.setTanggalBatal(rs.getTimestamp("tanggal_batal"));
-                pesananBatal.setAlasanBatal(rs.getString("alasan_batal"));
-                pesananBatals.add(pesananBatal);
+                pesananBatals.add(mapRow(rs));
             }
         } catch (SQLException e) {
             e.printStackTrace();
         }
         return pesananBatals;
     }
+
+    /**
+     * Get up to limit rows with id_batal greater than afterId, in id_batal order.
+     * Pass 0 for the first page, then the last id_batal of the previous page.
+     */
+    public List<PesananDibatalkan> findPage(int afterId, int limit) {
+        List<PesananDibatalkan> pesananBatals = new ArrayList<>();
+        String sql = "SELECT * FROM PesananDibatalkan WHERE id_batal > ? ORDER BY id_batal LIMIT ?";
+        try (Connection connection = DatabaseConnection.getConnection("PesananDibatalkanDAO.findPage");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                pesananBatals.add(mapRow(rs));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return pesananBatals;
+    }
+
+    /**
+     * Hand every row to action in id_batal order without loading the table into memory.
+     * The driver streams rows one at a time and the connection is held until the
+     * last row, so action must not block or touch the database. Returns the row count.
+     */
+    public int stream(Consumer<? super PesananDibatalkan> action) throws SQLException {
+        String sql = "SELECT * FROM PesananDibatalkan ORDER BY id_batal";
+        int count = 0;
+        try (Connection connection = DatabaseConnection.getConnection("PesananDibatalkanDAO.stream");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    action.accept(mapRow(rs));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static PesananDibatalkan mapRow(ResultSet rs) throws SQLException {
+        PesananDibatalkan pesananBatal = new PesananDibatalkan();
+        pesananBatal.setIdBatal(rs.getInt("id_batal"));
+        pesananBatal.setIdPesanan(rs.getInt("id_pesanan"));
+        pesananBatal.setTanggalBatal(rs.getTimestamp("tanggal_batal"));
+        pesananBatal.setAlasanBatal(rs.getString("alasan_batal"));
+        return pesananBatal;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,359 @@
+package view;
+
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.FileHandler;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * JDBC tracing for finding slow queries and N+1 loops. Off unless the app runs with
+ * -Ddb.trace=true; when off, DatabaseConnection hands out connections untouched.
+ *
+ * Every statement executed through a traced connection is timed (execute plus
+ * fetching the rows) together with its SQL, bind count, row count and the DAO method
+ * that ran it. Statements slower than -Ddb.trace.slowMs (default 100) are written to
+ * a rolling log, -Ddb.trace.log (default slow-queries.%g.log, 5 files of 5 MB).
+ *
+ * An action is one unit of UI work, i.e. one DataAccess task. When the same SQL runs
+ * more than -Ddb.trace.nPlusOne times (default 10) within one action, such as a
+ * findById per table row, the action is reported as an N+1 suspect in the same log
+ * and on stderr, with the final execution count when the action ends.
+ */
+public final class QueryTracer {
+    public static final boolean ENABLED = Boolean.getBoolean("db.trace");
+
+    private static final long SLOW_NANOS = Long.getLong("db.trace.slowMs", 100) * 1_000_000L;
+    private static final int N_PLUS_ONE_LIMIT = Integer.getInteger("db.trace.nPlusOne", 10);
+    private static final String LOG_PATTERN = System.getProperty("db.trace.log", "slow-queries.%g.log");
+    private static final int LOG_FILE_BYTES = 5 * 1024 * 1024;
+    private static final int LOG_FILE_COUNT = 5;
+
+    // Frames that belong to the JDBC plumbing rather than the code that issued the query
+    private static final String[] PLUMBING = {
+            "view.QueryTracer", "view.ConnectionPool", "view.StatementCache", "view.DatabaseConnection",
+            "view.DataAccess", "jdk.proxy", "com.sun.proxy", "java.", "jdk.internal.", "com.mysql."
+    };
+
+    private static final ThreadLocal<Action> currentAction = new ThreadLocal<>();
+    private static FileHandler slowLog;
+
+    private QueryTracer() {
+    }
+
+    /**
+     * Wrap a borrowed connection so its statements are traced; returns it unchanged when tracing is off
+     */
+    static Connection wrap(Connection connection) {
+        if (!ENABLED) {
+            return connection;
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new TracedConnection(connection));
+    }
+
+    /**
+     * Get the method that called into the JDBC or DataAccess plumbing, e.g. "UserDAO.findById:88"
+     */
+    static String caller() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(f -> !isPlumbing(f.getClassName()))
+                .findFirst()
+                .map(f -> simpleName(f.getClassName()) + "." + f.getMethodName() + ":" + f.getLineNumber())
+                .orElse("?"));
+    }
+
+    /**
+     * Start an action on this thread; returns null when tracing is off
+     */
+    static Action beginAction(String name) {
+        if (!ENABLED) {
+            return null;
+        }
+        Action action = new Action(name);
+        currentAction.set(action);
+        return action;
+    }
+
+    /**
+     * End the action started by beginAction and report its N+1 suspects; null is ignored
+     */
+    static void endAction(Action action) {
+        if (action == null) {
+            return;
+        }
+        currentAction.remove();
+        for (Map.Entry<String, String> e : action.flagged.entrySet()) {
+            report(String.format("N+1 statement ran %d times in action %s, from %s: %s",
+                    action.executions.get(e.getKey()), action.name, e.getValue(), oneLine(e.getKey())), true);
+        }
+    }
+
+    private static void record(String sql, int binds, long rows, long nanos, String from) {
+        Metrics.counter("jdbc.statements").increment();
+        Metrics.histogram("jdbc.statement").record(nanos);
+
+        if (nanos >= SLOW_NANOS) {
+            Metrics.counter("jdbc.slowStatements").increment();
+            report(String.format("SLOW %.1f ms rows=%d binds=%d %s [%s] %s",
+                    nanos / 1e6, rows, binds, from, Thread.currentThread().getName(), oneLine(sql)), false);
+        }
+
+        Action action = currentAction.get();
+        if (action != null && sql != null) {
+            int count = action.executions.merge(sql, 1, Integer::sum);
+            if (count == N_PLUS_ONE_LIMIT + 1) {
+                Metrics.counter("jdbc.nPlusOneSuspects").increment();
+                action.flagged.put(sql, from);
+                report(String.format("N+1 statement ran over %d times in action %s, from %s: %s",
+                        N_PLUS_ONE_LIMIT, action.name, from, oneLine(sql)), true);
+            }
+        }
+    }
+
+    private static synchronized void report(String line, boolean alsoStderr) {
+        if (alsoStderr) {
+            System.err.println(line);
+        }
+        if (slowLog == null) {
+            try {
+                slowLog = new FileHandler(LOG_PATTERN, LOG_FILE_BYTES, LOG_FILE_COUNT, true);
+                slowLog.setFormatter(new LineFormatter());
+            } catch (IOException e) {
+                System.err.println("Slow query log unavailable: " + e.getMessage());
+                System.err.println(line);
+                return;
+            }
+        }
+        slowLog.publish(new LogRecord(Level.INFO, line));
+        slowLog.flush();
+    }
+
+    private static boolean isPlumbing(String className) {
+        for (String prefix : PLUMBING) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return className.contains("$Proxy");
+    }
+
+    private static String simpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    private static String oneLine(String sql) {
+        return sql == null ? "" : sql.strip().replaceAll("\\s+", " ");
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * One unit of UI work: the statements it ran, keyed by SQL
+     */
+    static final class Action {
+        final String name;
+        final Map<String, Integer> executions = new HashMap<>();
+        // SQL that crossed the limit, and the method that ran it
+        final Map<String, String> flagged = new LinkedHashMap<>();
+
+        Action(String name) {
+            this.name = name;
+        }
+    }
+
+    private static final class LineFormatter extends Formatter {
+        @Override
+        public String format(LogRecord record) {
+            return String.format("%1$tF %1$tT %2$s%n", record.getMillis(), record.getMessage());
+        }
+    }
+
+    private static final class TracedConnection implements InvocationHandler {
+        private final Connection delegate;
+
+        TracedConnection(Connection delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Traced" + delegate;
+                default:
+                    break;
+            }
+            Object result = QueryTracer.invoke(delegate, method, args);
+            if (result instanceof Statement) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                return TracedStatement.wrap((Statement) result, (Connection) proxy, sql);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Times executions of one statement. A query is recorded when its result set or
+     * the statement is closed, or the statement runs again, so the row count is known.
+     */
+    private static final class TracedStatement implements InvocationHandler {
+        private final Statement delegate;
+        private final Connection owner;
+        private final String preparedSql;
+        private int binds;
+
+        // The query whose rows are still being read
+        private String openSql;
+        private int openBinds;
+        private long openNanos;
+        private long openRows;
+        private String openFrom;
+
+        private TracedStatement(Statement delegate, Connection owner, String preparedSql) {
+            this.delegate = delegate;
+            this.owner = owner;
+            this.preparedSql = preparedSql;
+        }
+
+        static Statement wrap(Statement statement, Connection owner, String sql) {
+            Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                    : statement instanceof PreparedStatement ? PreparedStatement.class
+                    : Statement.class;
+            return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                    new Class<?>[]{type}, new TracedStatement(statement, owner, sql));
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getConnection":
+                    return owner;
+                case "close":
+                    finishQuery();
+                    return QueryTracer.invoke(delegate, method, args);
+                case "clearParameters":
+                    binds = 0;
+                    return QueryTracer.invoke(delegate, method, args);
+                case "getResultSet": {
+                    ResultSet rs = (ResultSet) QueryTracer.invoke(delegate, method, args);
+                    return rs == null || openSql == null ? rs : wrapResultSet(proxy, rs);
+                }
+                default:
+                    break;
+            }
+
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                binds = Math.max(binds, (Integer) args[0]);
+                return QueryTracer.invoke(delegate, method, args);
+            }
+            if (!name.startsWith("execute")) {
+                return QueryTracer.invoke(delegate, method, args);
+            }
+
+            finishQuery();
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : preparedSql;
+            String from = caller();
+            long start = System.nanoTime();
+            Object result = QueryTracer.invoke(delegate, method, args);
+            long nanos = System.nanoTime() - start;
+
+            if (result instanceof ResultSet) {
+                openQuery(sql, nanos, from);
+                return wrapResultSet(proxy, (ResultSet) result);
+            }
+            if (Boolean.TRUE.equals(result)) {
+                // execute() produced a result set; its rows are counted through getResultSet()
+                openQuery(sql, nanos, from);
+                return result;
+            }
+            record(sql, binds, updateCount(result), nanos, from);
+            return result;
+        }
+
+        private void openQuery(String sql, long nanos, String from) {
+            openSql = sql;
+            openBinds = binds;
+            openNanos = nanos;
+            openRows = 0;
+            openFrom = from;
+        }
+
+        private void finishQuery() {
+            if (openSql != null) {
+                String sql = openSql;
+                openSql = null;
+                record(sql, openBinds, openRows, openNanos, openFrom);
+            }
+        }
+
+        private static long updateCount(Object result) {
+            if (result instanceof Integer || result instanceof Long) {
+                return ((Number) result).longValue();
+            }
+            long total = 0;
+            if (result instanceof int[]) {
+                for (int n : (int[]) result) total += Math.max(0, n);
+            } else if (result instanceof long[]) {
+                for (long n : (long[]) result) total += Math.max(0, n);
+            }
+            return total;
+        }
+
+        private ResultSet wrapResultSet(Object statement, ResultSet rs) {
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "next": {
+                                long start = System.nanoTime();
+                                Object more = QueryTracer.invoke(rs, method, args);
+                                openNanos += System.nanoTime() - start;
+                                if (Boolean.TRUE.equals(more)) {
+                                    openRows++;
+                                }
+                                return more;
+                            }
+                            case "close":
+                                finishQuery();
+                                return QueryTracer.invoke(rs, method, args);
+                            case "getStatement":
+                                return statement;
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            default:
+                                return QueryTracer.invoke(rs, method, args);
+                        }
+                    });
+        }
+    }
+}
@@ -2,520 +2,616 @@ package view;
 
 
 import java.sql.*;
-import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.Date;
 
 public class ReportDAO {
-    private Connection connection;
-    private SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
-    private SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss");
+    // System.nanoTime() by which every query must have finished, 0 for no limit
+    private final long deadlineNanos;
 
     public ReportDAO() {
-        this.connection = DatabaseConnection.getConnection();
-        if (this.connection == null) {
-            System.err.println("Failed to establish database connection!");
-        }
+        this(0);
+    }
+
+    private ReportDAO(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Get a ReportDAO whose queries the driver kills once deadlineNanos (System.nanoTime) has passed
+     */
+    static ReportDAO withDeadline(long deadlineNanos) {
+        return new ReportDAO(deadlineNanos);
     }
 
+    // Daily, hourly, weekly and menu figures come from the SalesRollup tables, so their cost
+    // does not grow with the order history. The remaining day filters are half-open timestamp
+    // ranges (col >= day AND col < next day) rather than DATE(col) = ?, so MySQL can
+    // range-scan the indexes added by SchemaMigrator.
+    static final String DAILY_ORDERS_SQL = """
+        SELECT 
+            SUM(order_count) as total_orders,
+            SUM(CASE WHEN status_pesanan = 'selesai' THEN order_total ELSE 0 END) as total_revenue,
+            SUM(CASE WHEN status_pesanan = 'pending' OR status_pesanan = 'menunggu_pembayaran' THEN order_count ELSE 0 END) as pending_count,
+            SUM(CASE WHEN status_pesanan = 'selesai' THEN order_count ELSE 0 END) as completed_count,
+            SUM(CASE WHEN status_pesanan = 'dibatalkan' THEN order_count ELSE 0 END) as cancelled_count,
+            SUM(CASE WHEN status_pesanan = 'selesai' THEN order_total ELSE 0 END)
+                / NULLIF(SUM(CASE WHEN status_pesanan = 'selesai' THEN order_count ELSE 0 END), 0) as avg_order
+        FROM sales_rollup_hourly
+        WHERE day = ?
+        """;
+
+    static final String DAILY_PAYMENTS_SQL = """
+        SELECT 
+            SUM(CASE WHEN metode_pembayaran = 'cash' THEN paid_total ELSE 0 END) as cash_revenue,
+            SUM(CASE WHEN metode_pembayaran = 'qris' THEN paid_total ELSE 0 END) as qris_revenue,
+            SUM(CASE WHEN metode_pembayaran = 'cash' THEN order_count ELSE 0 END) as cash_count,
+            SUM(CASE WHEN metode_pembayaran = 'qris' THEN order_count ELSE 0 END) as qris_count
+        FROM sales_rollup_hourly
+        WHERE day = ?
+        """;
+
+    static final String PAYMENT_METHOD_SUMMARY_SQL = """
+        SELECT 
+            p.metode_pembayaran,
+            p.status_pembayaran,
+            COUNT(*) as transaction_count,
+            SUM(p.jumlah_pembayaran) as total_amount,
+            AVG(p.jumlah_pembayaran) as avg_amount
+        FROM Pembayaran p
+        JOIN CustomerOrder co ON p.id_pesanan = co.id_pesanan
+        WHERE co.tanggal_pesanan >= ? AND co.tanggal_pesanan < ?
+        GROUP BY p.metode_pembayaran, p.status_pembayaran
+        ORDER BY p.metode_pembayaran, p.status_pembayaran
+        """;
+
+    // Shared with PendingPaymentQueue, which appends an id_pesanan filter. The order status
+    // check drops notas whose payment was already confirmed.
+    static final String PENDING_CASH_SELECT_SQL = """
+        SELECT 
+            n.id_nota,
+            n.id_pesanan,
+            n.waktu_cetak,
+            n.total_pembayaran,
+            u.nama as customer_name,
+            co.tanggal_pesanan,
+            TIMESTAMPDIFF(MINUTE, n.waktu_cetak, NOW()) as waiting_minutes
+        FROM Nota n
+        JOIN CustomerOrder co ON n.id_pesanan = co.id_pesanan
+        JOIN User u ON co.customer_id = u.user_id
+        WHERE n.metode_pembayaran = 'cash' 
+        AND n.status_pembayaran = 'menunggu'
+        AND co.status_pesanan = 'menunggu_pembayaran'
+        """;
+
+    static final String PENDING_CASH_PAYMENTS_SQL = PENDING_CASH_SELECT_SQL + "ORDER BY n.waktu_cetak ASC\n";
+
+    static final String MENU_PERFORMANCE_SQL = """
+        SELECT 
+            m.nama_menu,
+            m.jenis_menu,
+            SUM(r.qty_sold) as total_sold,
+            SUM(r.revenue) as total_revenue,
+            SUM(r.revenue) / NULLIF(SUM(r.qty_sold), 0) as avg_price,
+            SUM(r.order_count) as order_count
+        FROM sales_rollup_menu r
+        JOIN Menu m ON r.id_menu = m.id_menu
+        WHERE r.day = ?
+        GROUP BY m.id_menu, m.nama_menu, m.jenis_menu
+        HAVING total_sold > 0
+        ORDER BY total_sold DESC, total_revenue DESC
+        """;
+
+    static final String HOURLY_ANALYSIS_SQL = """
+        SELECT 
+            hour,
+            SUM(order_count) as order_count,
+            SUM(CASE WHEN status_pesanan = 'selesai' THEN order_total ELSE 0 END) as hour_revenue,
+            SUM(CASE WHEN status_pesanan = 'selesai' THEN order_total ELSE 0 END)
+                / NULLIF(SUM(CASE WHEN status_pesanan = 'selesai' THEN order_count ELSE 0 END), 0) as avg_order_value,
+            SUM(CASE WHEN status_pesanan = 'selesai' THEN order_count ELSE 0 END) as completed_orders,
+            SUM(CASE WHEN status_pesanan = 'dibatalkan' THEN order_count ELSE 0 END) as cancelled_orders
+        FROM sales_rollup_hourly
+        WHERE day = ?
+        GROUP BY hour
+        HAVING SUM(order_count) > 0
+        ORDER BY hour
+        """;
+
+    static final String RECENT_TRANSACTIONS_SQL = """
+        SELECT 
+            n.id_nota,
+            n.waktu_cetak,
+            u.nama as customer_name,
+            n.total_pembayaran,
+            n.metode_pembayaran,
+            n.status_pembayaran
+        FROM Nota n
+        JOIN CustomerOrder co ON n.id_pesanan = co.id_pesanan
+        JOIN User u ON co.customer_id = u.user_id
+        WHERE co.tanggal_pesanan >= ? AND co.tanggal_pesanan < ?
+        ORDER BY n.waktu_cetak DESC
+        LIMIT ?
+        """;
+
+    static final String WEEKLY_SUMMARY_SQL = """
+        SELECT 
+            day as order_date,
+            SUM(order_count) as daily_orders,
+            SUM(CASE WHEN status_pesanan = 'selesai' THEN order_total ELSE 0 END) as daily_revenue,
+            SUM(CASE WHEN metode_pembayaran = 'cash' THEN order_count ELSE 0 END) as cash_transactions,
+            SUM(CASE WHEN metode_pembayaran = 'qris' THEN order_count ELSE 0 END) as qris_transactions
+        FROM sales_rollup_hourly
+        WHERE day >= DATE_SUB(CURDATE(), INTERVAL 7 DAY)
+        GROUP BY day
+        HAVING daily_orders > 0
+        ORDER BY order_date DESC
+        """;
+
+    static final String TOP_CUSTOMERS_SQL = """
+        SELECT 
+            u.nama as customer_name,
+            COUNT(co.id_pesanan) as total_orders,
+            SUM(CASE WHEN co.status_pesanan = 'selesai' THEN co.total_pesanan ELSE 0 END) as total_spent,
+            AVG(CASE WHEN co.status_pesanan = 'selesai' THEN co.total_pesanan ELSE NULL END) as avg_order_value,
+            MAX(co.tanggal_pesanan) as last_order_date
+        FROM User u
+        JOIN CustomerOrder co ON u.user_id = co.customer_id
+        WHERE u.role = 'customer'
+        AND co.tanggal_pesanan >= DATE_SUB(CURDATE(), INTERVAL 30 DAY)
+        GROUP BY u.user_id, u.nama
+        HAVING total_orders > 0
+        ORDER BY total_spent DESC, total_orders DESC
+        LIMIT ?
+        """;
+
+    static final String CANCELLED_REASONS_SQL = """
+        SELECT 
+            pd.alasan_batal,
+            COUNT(*) as count,
+            SUM(co.total_pesanan) as lost_revenue
+        FROM PesananDibatalkan pd
+        JOIN CustomerOrder co ON pd.id_pesanan = co.id_pesanan
+        WHERE pd.tanggal_batal >= ? AND pd.tanggal_batal < ?
+        GROUP BY pd.alasan_batal
+        ORDER BY count DESC
+        """;
+
+    static final String SALES_REPORT_PAGE_SQL = """
+        SELECT 
+            co.id_pesanan,
+            co.tanggal_pesanan,
+            co.total_pesanan,
+            co.status_pesanan,
+            u.nama as customer_name,
+            (SELECT p.metode_pembayaran FROM Pembayaran p
+              WHERE p.id_pesanan = co.id_pesanan
+              ORDER BY p.id_pembayaran LIMIT 1) as metode_pembayaran,
+            (SELECT COALESCE(SUM(od.jumlah), 0) FROM OrderDetail od
+              WHERE od.id_pesanan = co.id_pesanan) as item_count
+        FROM CustomerOrder co
+        LEFT JOIN User u ON co.customer_id = u.user_id
+        WHERE co.tanggal_pesanan >= ? AND co.tanggal_pesanan < ?
+        AND co.status_pesanan = ?
+        AND (? IS NULL OR co.tanggal_pesanan < ? OR (co.tanggal_pesanan = ? AND co.id_pesanan < ?))
+        ORDER BY co.tanggal_pesanan DESC, co.id_pesanan DESC
+        LIMIT ?
+        """;
+
+    static final String SALES_REPORT_TOTALS_SQL = """
+        SELECT 
+            COUNT(*) as total_transactions,
+            COALESCE(SUM(total_pesanan), 0) as total_sales
+        FROM CustomerOrder
+        WHERE tanggal_pesanan >= ? AND tanggal_pesanan < ?
+        AND status_pesanan = ?
+        """;
+
+    static final String CANCELLED_ORDERS_PAGE_SQL = """
+        SELECT 
+            pd.id_batal,
+            pd.id_pesanan,
+            pd.tanggal_batal,
+            pd.alasan_batal,
+            COALESCE(co.total_pesanan, 0) as total_pesanan,
+            u.nama as customer_name
+        FROM PesananDibatalkan pd
+        LEFT JOIN CustomerOrder co ON pd.id_pesanan = co.id_pesanan
+        LEFT JOIN User u ON co.customer_id = u.user_id
+        WHERE (? IS NULL OR pd.tanggal_batal < ? OR (pd.tanggal_batal = ? AND pd.id_batal < ?))
+        ORDER BY pd.tanggal_batal DESC, pd.id_batal DESC
+        LIMIT ?
+        """;
+
     /**
      * Get daily summary report for today
      */
-    public Map<String, Object> getDailySummary(Date date) {
-        Map<String, Object> result = new HashMap<>();
-        String dateStr = dateFormat.format(date);
+    public DailySummary getDailySummary(Date date) {
+        return new DailySummary(getDailyOrderSummary(date), getDailyPaymentSummary(date));
+    }
+
+    /**
+     * Get the order half of the daily summary: counts by status, revenue and average order
+     */
+    public DailyOrderSummary getDailyOrderSummary(Date date) {
+        java.sql.Date day = new java.sql.Date(startOfDay(date).getTime());
         
-        if (connection == null) {
-            return result;
+        try (Connection connection = DatabaseConnection.getConnection("ReportDAO.getDailyOrderSummary");
+             PreparedStatement stmt = prepare(connection, DAILY_ORDERS_SQL)) {
+            stmt.setDate(1, day);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return new DailyOrderSummary(rs.getInt(1), rs.getDouble(2), rs.getInt(3),
+                        rs.getInt(4), rs.getInt(5), rs.getDouble(6));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting daily order summary: " + e.getMessage());
+            e.printStackTrace();
         }
 
-        try {
-            // Total orders today
-            String orderSql = """
-                SELECT 
-                    COUNT(*) as total_orders,
-                    SUM(CASE WHEN status_pesanan = 'selesai' THEN total_pesanan ELSE 0 END) as total_revenue,
-                    SUM(CASE WHEN status_pesanan = 'pending' OR status_pesanan = 'menunggu_pembayaran' THEN 1 ELSE 0 END) as pending_count,
-                    SUM(CASE WHEN status_pesanan = 'selesai' THEN 1 ELSE 0 END) as completed_count,
-                    SUM(CASE WHEN status_pesanan = 'dibatalkan' THEN 1 ELSE 0 END) as cancelled_count,
-                    AVG(CASE WHEN status_pesanan = 'selesai' THEN total_pesanan ELSE NULL END) as avg_order
-                FROM Customer_Order 
-                WHERE DATE(tanggal_pesanan) = ?
-                """;
-            
-            try (PreparedStatement stmt = connection.prepareStatement(orderSql)) {
-                stmt.setString(1, dateStr);
-                ResultSet rs = stmt.executeQuery();
-                
-                if (rs.next()) {
-                    result.put("totalOrders", rs.getInt("total_orders"));
-                    result.put("totalRevenue", rs.getDouble("total_revenue"));
-                    result.put("pendingCount", rs.getInt("pending_count"));
-                    result.put("completedCount", rs.getInt("completed_count"));
-                    result.put("cancelledCount", rs.getInt("cancelled_count"));
-                    result.put("avgOrder", rs.getDouble("avg_order"));
-                }
-            }
+        return new DailyOrderSummary(0, 0, 0, 0, 0, 0);
+    }
 
-            // Payment method breakdown
-            String paymentSql = """
-                SELECT 
-                    SUM(CASE WHEN p.metode_pembayaran = 'cash' AND p.status_pembayaran = 'berhasil' THEN p.jumlah_pembayaran ELSE 0 END) as cash_revenue,
-                    SUM(CASE WHEN p.metode_pembayaran = 'qris' AND p.status_pembayaran = 'berhasil' THEN p.jumlah_pembayaran ELSE 0 END) as qris_revenue,
-                    COUNT(CASE WHEN p.metode_pembayaran = 'cash' THEN 1 END) as cash_count,
-                    COUNT(CASE WHEN p.metode_pembayaran = 'qris' THEN 1 END) as qris_count
-                FROM Pembayaran p
-                JOIN Customer_Order co ON p.id_pesanan = co.id_pesanan
-                WHERE DATE(co.tanggal_pesanan) = ?
-                """;
-            
-            try (PreparedStatement stmt = connection.prepareStatement(paymentSql)) {
-                stmt.setString(1, dateStr);
-                ResultSet rs = stmt.executeQuery();
-                
-                if (rs.next()) {
-                    result.put("cashRevenue", rs.getDouble("cash_revenue"));
-                    result.put("qrisRevenue", rs.getDouble("qris_revenue"));
-                    result.put("cashCount", rs.getInt("cash_count"));
-                    result.put("qrisCount", rs.getInt("qris_count"));
-                }
+    /**
+     * Get the payment half of the daily summary: cash and QRIS revenue and counts
+     */
+    public DailyPaymentSummary getDailyPaymentSummary(Date date) {
+        java.sql.Date day = new java.sql.Date(startOfDay(date).getTime());
+        
+        try (Connection connection = DatabaseConnection.getConnection("ReportDAO.getDailyPaymentSummary");
+             PreparedStatement stmt = prepare(connection, DAILY_PAYMENTS_SQL)) {
+            stmt.setDate(1, day);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return new DailyPaymentSummary(rs.getDouble(1), rs.getDouble(2), rs.getInt(3), rs.getInt(4));
             }
-
         } catch (SQLException e) {
-            System.err.println("Error getting daily summary: " + e.getMessage());
+            System.err.println("Error getting daily payment summary: " + e.getMessage());
             e.printStackTrace();
         }
 
-        return result;
+        return new DailyPaymentSummary(0, 0, 0, 0);
     }
 
     /**
      * Get payment method summary
      */
-    public Map<String, Object> getPaymentMethodSummary() {
-        Map<String, Object> result = new HashMap<>();
-        String dateStr = dateFormat.format(new Date());
+    public List<PaymentMethodRow> getPaymentMethodSummary() {
+        Timestamp dayStart = startOfDay(new Date());
+        Timestamp dayEnd = startOfNextDay(new Date());
         
-        if (connection == null) {
-            return result;
-        }
-
-        try {
-            String sql = """
-                SELECT 
-                    p.metode_pembayaran,
-                    p.status_pembayaran,
-                    COUNT(*) as transaction_count,
-                    SUM(p.jumlah_pembayaran) as total_amount,
-                    AVG(p.jumlah_pembayaran) as avg_amount
-                FROM Pembayaran p
-                JOIN Customer_Order co ON p.id_pesanan = co.id_pesanan
-                WHERE DATE(co.tanggal_pesanan) = ?
-                GROUP BY p.metode_pembayaran, p.status_pembayaran
-                ORDER BY p.metode_pembayaran, p.status_pembayaran
-                """;
-            
-            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                stmt.setString(1, dateStr);
-                ResultSet rs = stmt.executeQuery();
-                
-                List<Map<String, Object>> payments = new ArrayList<>();
-                while (rs.next()) {
-                    Map<String, Object> payment = new HashMap<>();
-                    payment.put("method", rs.getString("metode_pembayaran"));
-                    payment.put("status", rs.getString("status_pembayaran"));
-                    payment.put("count", rs.getInt("transaction_count"));
-                    payment.put("total", rs.getDouble("total_amount"));
-                    payment.put("average", rs.getDouble("avg_amount"));
-                    payments.add(payment);
-                }
-                result.put("payments", payments);
-            }
-
+        try (Connection connection = DatabaseConnection.getConnection("ReportDAO.getPaymentMethodSummary");
+             PreparedStatement stmt = prepare(connection, PAYMENT_METHOD_SUMMARY_SQL)) {
+            stmt.setTimestamp(1, dayStart);
+            stmt.setTimestamp(2, dayEnd);
+            return mapPaymentMethods(stmt.executeQuery());
         } catch (SQLException e) {
             System.err.println("Error getting payment method summary: " + e.getMessage());
             e.printStackTrace();
         }
 
-        return result;
+        return List.of();
+    }
+
+    static List<PaymentMethodRow> mapPaymentMethods(ResultSet rs) throws SQLException {
+        int method = rs.findColumn("metode_pembayaran");
+        int status = rs.findColumn("status_pembayaran");
+        int count = rs.findColumn("transaction_count");
+        int total = rs.findColumn("total_amount");
+        int average = rs.findColumn("avg_amount");
+
+        List<PaymentMethodRow> rows = new ArrayList<>();
+        while (rs.next()) {
+            rows.add(new PaymentMethodRow(rs.getString(method), rs.getString(status), rs.getInt(count),
+                    rs.getDouble(total), rs.getDouble(average)));
+        }
+        return Collections.unmodifiableList(rows);
     }
 
     /**
      * Get pending cash payments
      */
-    public List<Map<String, Object>> getPendingCashPayments() {
-        List<Map<String, Object>> result = new ArrayList<>();
-        
-        if (connection == null) {
-            return result;
-        }
-
-        try {
-            String sql = """
-                SELECT 
-                    n.id_nota,
-                    n.waktu_cetak,
-                    n.total_pembayaran,
-                    u.nama as customer_name,
-                    co.tanggal_pesanan,
-                    TIMESTAMPDIFF(MINUTE, n.waktu_cetak, NOW()) as waiting_minutes
-                FROM Nota n
-                JOIN Customer_Order co ON n.id_pesanan = co.id_pesanan
-                JOIN User u ON co.customer_id = u.user_id
-                WHERE n.metode_pembayaran = 'cash' 
-                AND n.status_pembayaran = 'menunggu'
-                ORDER BY n.waktu_cetak ASC
-                """;
-            
-            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                ResultSet rs = stmt.executeQuery();
-                
-                while (rs.next()) {
-                    Map<String, Object> pending = new HashMap<>();
-                    pending.put("idNota", rs.getInt("id_nota"));
-                    pending.put("waktuCetak", rs.getTimestamp("waktu_cetak"));
-                    pending.put("totalPembayaran", rs.getDouble("total_pembayaran"));
-                    pending.put("customerName", rs.getString("customer_name"));
-                    pending.put("tanggalPesanan", rs.getTimestamp("tanggal_pesanan"));
-                    pending.put("waitingMinutes", rs.getInt("waiting_minutes"));
-                    result.add(pending);
-                }
-            }
-
+    public List<PendingCashPayment> getPendingCashPayments() {
+        try (Connection connection = DatabaseConnection.getConnection("ReportDAO.getPendingCashPayments");
+             PreparedStatement stmt = prepare(connection, PENDING_CASH_PAYMENTS_SQL)) {
+            return mapPendingCashPayments(stmt.executeQuery());
         } catch (SQLException e) {
             System.err.println("Error getting pending cash payments: " + e.getMessage());
             e.printStackTrace();
         }
 
-        return result;
+        return List.of();
+    }
+
+    static List<PendingCashPayment> mapPendingCashPayments(ResultSet rs) throws SQLException {
+        int idNota = rs.findColumn("id_nota");
+        int idPesanan = rs.findColumn("id_pesanan");
+        int waktuCetak = rs.findColumn("waktu_cetak");
+        int total = rs.findColumn("total_pembayaran");
+        int customerName = rs.findColumn("customer_name");
+        int tanggalPesanan = rs.findColumn("tanggal_pesanan");
+        int waitingMinutes = rs.findColumn("waiting_minutes");
+
+        List<PendingCashPayment> rows = new ArrayList<>();
+        while (rs.next()) {
+            rows.add(new PendingCashPayment(rs.getInt(idNota), rs.getInt(idPesanan), rs.getTimestamp(waktuCetak),
+                    rs.getDouble(total), rs.getString(customerName), rs.getTimestamp(tanggalPesanan),
+                    rs.getInt(waitingMinutes)));
+        }
+        return Collections.unmodifiableList(rows);
     }
 
     /**
      * Get menu performance for today
      */
-    public Map<String, Object> getMenuPerformance() {
-        Map<String, Object> result = new HashMap<>();
-        String dateStr = dateFormat.format(new Date());
+    public MenuPerformance getMenuPerformance() {
+        java.sql.Date day = new java.sql.Date(startOfDay(new Date()).getTime());
         
-        if (connection == null) {
-            return result;
-        }
-
-        try {
-            String sql = """
-                SELECT 
-                    m.nama_menu,
-                    m.jenis_menu,
-                    SUM(od.jumlah) as total_sold,
-                    SUM(od.jumlah * od.harga_satuan) as total_revenue,
-                    AVG(od.harga_satuan) as avg_price,
-                    COUNT(DISTINCT od.id_pesanan) as order_count
-                FROM Order_Detail od
-                JOIN Menu m ON od.id_menu = m.id_menu
-                JOIN Customer_Order co ON od.id_pesanan = co.id_pesanan
-                WHERE DATE(co.tanggal_pesanan) = ?
-                AND co.status_pesanan = 'selesai'
-                GROUP BY m.id_menu, m.nama_menu, m.jenis_menu
-                ORDER BY total_sold DESC, total_revenue DESC
-                """;
-            
-            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                stmt.setString(1, dateStr);
-                ResultSet rs = stmt.executeQuery();
-                
-                List<Map<String, Object>> menuItems = new ArrayList<>();
-                int rank = 1;
-                String bestSeller = "";
-                String topCategory = "";
-                int totalItemsSold = 0;
-                double totalMenuRevenue = 0;
-                
-                while (rs.next()) {
-                    Map<String, Object> menu = new HashMap<>();
-                    menu.put("rank", rank);
-                    menu.put("namaMenu", rs.getString("nama_menu"));
-                    menu.put("jenisMenu", rs.getString("jenis_menu"));
-                    menu.put("totalSold", rs.getInt("total_sold"));
-                    menu.put("totalRevenue", rs.getDouble("total_revenue"));
-                    menu.put("avgPrice", rs.getDouble("avg_price"));
-                    menu.put("orderCount", rs.getInt("order_count"));
-                    
-                    if (rank == 1) {
-                        bestSeller = rs.getString("nama_menu");
-                        topCategory = rs.getString("jenis_menu");
-                    }
-                    
-                    totalItemsSold += rs.getInt("total_sold");
-                    totalMenuRevenue += rs.getDouble("total_revenue");
-                    
-                    menuItems.add(menu);
-                    rank++;
-                }
-                
-                result.put("menuItems", menuItems);
-                result.put("bestSeller", bestSeller);
-                result.put("topCategory", topCategory);
-                result.put("totalItemsSold", totalItemsSold);
-                result.put("totalMenuRevenue", totalMenuRevenue);
-                result.put("avgMenuPrice", totalItemsSold > 0 ? totalMenuRevenue / totalItemsSold : 0);
-            }
-
+        try (Connection connection = DatabaseConnection.getConnection("ReportDAO.getMenuPerformance");
+             PreparedStatement stmt = prepare(connection, MENU_PERFORMANCE_SQL)) {
+            stmt.setDate(1, day);
+            return mapMenuPerformance(stmt.executeQuery());
         } catch (SQLException e) {
             System.err.println("Error getting menu performance: " + e.getMessage());
             e.printStackTrace();
         }
 
-        return result;
+        return new MenuPerformance(List.of(), "", "", 0, 0, 0);
+    }
+
+    static MenuPerformance mapMenuPerformance(ResultSet rs) throws SQLException {
+        int namaMenu = rs.findColumn("nama_menu");
+        int jenisMenu = rs.findColumn("jenis_menu");
+        int totalSold = rs.findColumn("total_sold");
+        int totalRevenue = rs.findColumn("total_revenue");
+        int avgPrice = rs.findColumn("avg_price");
+        int orderCount = rs.findColumn("order_count");
+
+        List<MenuPerformanceRow> items = new ArrayList<>();
+        int totalItemsSold = 0;
+        double totalMenuRevenue = 0;
+        while (rs.next()) {
+            MenuPerformanceRow item = new MenuPerformanceRow(items.size() + 1, rs.getString(namaMenu),
+                    rs.getString(jenisMenu), rs.getInt(totalSold), rs.getDouble(totalRevenue),
+                    rs.getDouble(avgPrice), rs.getInt(orderCount));
+            totalItemsSold += item.totalSold();
+            totalMenuRevenue += item.totalRevenue();
+            items.add(item);
+        }
+
+        // Rows come back best seller first
+        String bestSeller = items.isEmpty() ? "" : items.get(0).namaMenu();
+        String topCategory = items.isEmpty() ? "" : items.get(0).jenisMenu();
+        return new MenuPerformance(Collections.unmodifiableList(items), bestSeller, topCategory,
+                totalItemsSold, totalMenuRevenue, totalItemsSold > 0 ? totalMenuRevenue / totalItemsSold : 0);
     }
 
     /**
      * Get hourly analysis for today
      */
-    public Map<String, Object> getHourlyAnalysis() {
-        Map<String, Object> result = new HashMap<>();
-        String dateStr = dateFormat.format(new Date());
+    public HourlyAnalysis getHourlyAnalysis() {
+        java.sql.Date day = new java.sql.Date(startOfDay(new Date()).getTime());
         
-        if (connection == null) {
-            return result;
-        }
-
-        try {
-            String sql = """
-                SELECT 
-                    HOUR(co.tanggal_pesanan) as hour,
-                    COUNT(*) as order_count,
-                    SUM(CASE WHEN co.status_pesanan = 'selesai' THEN co.total_pesanan ELSE 0 END) as hour_revenue,
-                    AVG(CASE WHEN co.status_pesanan = 'selesai' THEN co.total_pesanan ELSE NULL END) as avg_order_value,
-                    SUM(CASE WHEN co.status_pesanan = 'selesai' THEN 1 ELSE 0 END) as completed_orders,
-                    SUM(CASE WHEN co.status_pesanan = 'dibatalkan' THEN 1 ELSE 0 END) as cancelled_orders
-                FROM Customer_Order co
-                WHERE DATE(co.tanggal_pesanan) = ?
-                GROUP BY HOUR(co.tanggal_pesanan)
-                ORDER BY hour
-                """;
-            
-            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                stmt.setString(1, dateStr);
-                ResultSet rs = stmt.executeQuery();
-                
-                List<Map<String, Object>> hourlyData = new ArrayList<>();
-                int peakHour = 0;
-                double peakRevenue = 0;
-                double totalHourlyRevenue = 0;
-                int totalHours = 0;
-                
-                while (rs.next()) {
-                    Map<String, Object> hourData = new HashMap<>();
-                    int hour = rs.getInt("hour");
-                    int orderCount = rs.getInt("order_count");
-                    double hourRevenue = rs.getDouble("hour_revenue");
-                    double avgOrderValue = rs.getDouble("avg_order_value");
-                    
-                    hourData.put("hour", String.format("%02d:00", hour));
-                    hourData.put("orderCount", orderCount);
-                    hourData.put("revenue", hourRevenue);
-                    hourData.put("avgOrderValue", avgOrderValue);
-                    hourData.put("completedOrders", rs.getInt("completed_orders"));
-                    hourData.put("cancelledOrders", rs.getInt("cancelled_orders"));
-                    
-                    String status = "Normal";
-                    if (orderCount > 10) {
-                        status = "Sibuk";
-                    } else if (orderCount > 5) {
-                        status = "Sedang";
-                    } else if (orderCount > 0) {
-                        status = "Sepi";
-                    } else {
-                        status = "Tutup";
-                    }
-                    hourData.put("status", status);
-                    
-                    if (hourRevenue > peakRevenue) {
-                        peakRevenue = hourRevenue;
-                        peakHour = hour;
-                    }
-                    
-                    totalHourlyRevenue += hourRevenue;
-                    totalHours++;
-                    
-                    hourlyData.add(hourData);
-                }
-                
-                result.put("hourlyData", hourlyData);
-                result.put("peakHour", String.format("%02d:00", peakHour));
-                result.put("peakRevenue", peakRevenue);
-                result.put("avgRevenuePerHour", totalHours > 0 ? totalHourlyRevenue / totalHours : 0);
-            }
-
+        try (Connection connection = DatabaseConnection.getConnection("ReportDAO.getHourlyAnalysis");
+             PreparedStatement stmt = prepare(connection, HOURLY_ANALYSIS_SQL)) {
+            stmt.setDate(1, day);
+            return mapHourlyAnalysis(stmt.executeQuery());
         } catch (SQLException e) {
             System.err.println("Error getting hourly analysis: " + e.getMessage());
             e.printStackTrace();
         }
 
-        return result;
+        return new HourlyAnalysis(List.of(), 0, 0, 0);
+    }
+
+    static HourlyAnalysis mapHourlyAnalysis(ResultSet rs) throws SQLException {
+        int hourCol = rs.findColumn("hour");
+        int orderCount = rs.findColumn("order_count");
+        int hourRevenue = rs.findColumn("hour_revenue");
+        int avgOrderValue = rs.findColumn("avg_order_value");
+        int completedOrders = rs.findColumn("completed_orders");
+        int cancelledOrders = rs.findColumn("cancelled_orders");
+
+        List<HourRow> hours = new ArrayList<>();
+        HourRow peak = null;
+        double totalHourlyRevenue = 0;
+        while (rs.next()) {
+            HourRow hour = new HourRow(rs.getInt(hourCol), rs.getInt(orderCount), rs.getDouble(hourRevenue),
+                    rs.getDouble(avgOrderValue), rs.getInt(completedOrders), rs.getInt(cancelledOrders));
+            if (hour.revenue() > 0 && (peak == null || hour.revenue() > peak.revenue())) {
+                peak = hour;
+            }
+            totalHourlyRevenue += hour.revenue();
+            hours.add(hour);
+        }
+
+        return new HourlyAnalysis(Collections.unmodifiableList(hours),
+                peak != null ? peak.hour() : 0, peak != null ? peak.revenue() : 0,
+                hours.isEmpty() ? 0 : totalHourlyRevenue / hours.size());
     }
 
     /**
      * Get recent transactions for today
      */
-    public List<Map<String, Object>> getRecentTransactions(int limit) {
-        List<Map<String, Object>> result = new ArrayList<>();
-        String dateStr = dateFormat.format(new Date());
+    public List<RecentTransaction> getRecentTransactions(int limit) {
+        Timestamp dayStart = startOfDay(new Date());
+        Timestamp dayEnd = startOfNextDay(new Date());
         
-        if (connection == null) {
-            return result;
-        }
-
-        try {
-            String sql = """
-                SELECT 
-                    n.id_nota,
-                    n.waktu_cetak,
-                    u.nama as customer_name,
-                    n.total_pembayaran,
-                    n.metode_pembayaran,
-                    n.status_pembayaran
-                FROM Nota n
-                JOIN Customer_Order co ON n.id_pesanan = co.id_pesanan
-                JOIN User u ON co.customer_id = u.user_id
-                WHERE DATE(co.tanggal_pesanan) = ?
-                ORDER BY n.waktu_cetak DESC
-                LIMIT ?
-                """;
-            
-            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                stmt.setString(1, dateStr);
-                stmt.setInt(2, limit);
-                ResultSet rs = stmt.executeQuery();
-                
-                while (rs.next()) {
-                    Map<String, Object> transaction = new HashMap<>();
-                    transaction.put("idNota", rs.getInt("id_nota"));
-                    transaction.put("waktuCetak", rs.getTimestamp("waktu_cetak"));
-                    transaction.put("customerName", rs.getString("customer_name"));
-                    transaction.put("totalPembayaran", rs.getDouble("total_pembayaran"));
-                    transaction.put("metodePembayaran", rs.getString("metode_pembayaran"));
-                    transaction.put("statusPembayaran", rs.getString("status_pembayaran"));
-                    result.add(transaction);
-                }
-            }
-
+        try (Connection connection = DatabaseConnection.getConnection("ReportDAO.getRecentTransactions");
+             PreparedStatement stmt = prepare(connection, RECENT_TRANSACTIONS_SQL)) {
+            stmt.setTimestamp(1, dayStart);
+            stmt.setTimestamp(2, dayEnd);
+            stmt.setInt(3, limit);
+            return mapRecentTransactions(stmt.executeQuery());
         } catch (SQLException e) {
             System.err.println("Error getting recent transactions: " + e.getMessage());
             e.printStackTrace();
         }
 
-        return result;
+        return List.of();
+    }
+
+    static List<RecentTransaction> mapRecentTransactions(ResultSet rs) throws SQLException {
+        int idNota = rs.findColumn("id_nota");
+        int waktuCetak = rs.findColumn("waktu_cetak");
+        int customerName = rs.findColumn("customer_name");
+        int total = rs.findColumn("total_pembayaran");
+        int method = rs.findColumn("metode_pembayaran");
+        int status = rs.findColumn("status_pembayaran");
+
+        List<RecentTransaction> rows = new ArrayList<>();
+        while (rs.next()) {
+            rows.add(new RecentTransaction(rs.getInt(idNota), rs.getTimestamp(waktuCetak), rs.getString(customerName),
+                    rs.getDouble(total), rs.getString(method), rs.getString(status)));
+        }
+        return Collections.unmodifiableList(rows);
     }
 
     /**
      * Get weekly summary report
      */
-    public Map<String, Object> getWeeklySummary() {
-        Map<String, Object> result = new HashMap<>();
-        
-        if (connection == null) {
-            return result;
-        }
-
-        try {
-            String sql = """
-                SELECT 
-                    DATE(co.tanggal_pesanan) as order_date,
-                    COUNT(*) as daily_orders,
-                    SUM(CASE WHEN co.status_pesanan = 'selesai' THEN co.total_pesanan ELSE 0 END) as daily_revenue,
-                    COUNT(CASE WHEN p.metode_pembayaran = 'cash' THEN 1 END) as cash_transactions,
-                    COUNT(CASE WHEN p.metode_pembayaran = 'qris' THEN 1 END) as qris_transactions
-                FROM Customer_Order co
-                LEFT JOIN Pembayaran p ON co.id_pesanan = p.id_pesanan
-                WHERE co.tanggal_pesanan >= DATE_SUB(CURDATE(), INTERVAL 7 DAY)
-                GROUP BY DATE(co.tanggal_pesanan)
-                ORDER BY order_date DESC
-                """;
-            
-            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                ResultSet rs = stmt.executeQuery();
-                
-                List<Map<String, Object>> weeklyData = new ArrayList<>();
-                double totalWeeklyRevenue = 0;
-                int totalWeeklyOrders = 0;
-                
-                while (rs.next()) {
-                    Map<String, Object> dayData = new HashMap<>();
-                    dayData.put("date", rs.getDate("order_date"));
-                    dayData.put("orders", rs.getInt("daily_orders"));
-                    dayData.put("revenue", rs.getDouble("daily_revenue"));
-                    dayData.put("cashTransactions", rs.getInt("cash_transactions"));
-                    dayData.put("qrisTransactions", rs.getInt("qris_transactions"));
-                    
-                    totalWeeklyRevenue += rs.getDouble("daily_revenue");
-                    totalWeeklyOrders += rs.getInt("daily_orders");
-                    
-                    weeklyData.add(dayData);
-                }
-                
-                result.put("weeklyData", weeklyData);
-                result.put("totalWeeklyRevenue", totalWeeklyRevenue);
-                result.put("totalWeeklyOrders", totalWeeklyOrders);
-                result.put("avgDailyRevenue", weeklyData.size() > 0 ? totalWeeklyRevenue / weeklyData.size() : 0);
-                result.put("avgDailyOrders", weeklyData.size() > 0 ? (double)totalWeeklyOrders / weeklyData.size() : 0);
+    public WeeklySummary getWeeklySummary() {
+        try (Connection connection = DatabaseConnection.getConnection("ReportDAO.getWeeklySummary");
+             PreparedStatement stmt = prepare(connection, WEEKLY_SUMMARY_SQL)) {
+            ResultSet rs = stmt.executeQuery();
+            int orderDate = rs.findColumn("order_date");
+            int dailyOrders = rs.findColumn("daily_orders");
+            int dailyRevenue = rs.findColumn("daily_revenue");
+            int cashTransactions = rs.findColumn("cash_transactions");
+            int qrisTransactions = rs.findColumn("qris_transactions");
+
+            List<DayRow> days = new ArrayList<>();
+            double totalWeeklyRevenue = 0;
+            int totalWeeklyOrders = 0;
+            while (rs.next()) {
+                DayRow day = new DayRow(rs.getDate(orderDate), rs.getInt(dailyOrders), rs.getDouble(dailyRevenue),
+                        rs.getInt(cashTransactions), rs.getInt(qrisTransactions));
+                totalWeeklyRevenue += day.revenue();
+                totalWeeklyOrders += day.orders();
+                days.add(day);
             }
 
+            return new WeeklySummary(Collections.unmodifiableList(days), totalWeeklyRevenue, totalWeeklyOrders,
+                    days.isEmpty() ? 0 : totalWeeklyRevenue / days.size(),
+                    days.isEmpty() ? 0 : (double) totalWeeklyOrders / days.size());
         } catch (SQLException e) {
             System.err.println("Error getting weekly summary: " + e.getMessage());
             e.printStackTrace();
         }
 
-        return result;
+        return new WeeklySummary(List.of(), 0, 0, 0, 0);
     }
 
     /**
      * Get top customers (most orders or highest spending)
      */
-    public List<Map<String, Object>> getTopCustomers(int limit) {
-        List<Map<String, Object>> result = new ArrayList<>();
+    public List<TopCustomer> getTopCustomers(int limit) {
+        try (Connection connection = DatabaseConnection.getConnection("ReportDAO.getTopCustomers");
+             PreparedStatement stmt = prepare(connection, TOP_CUSTOMERS_SQL)) {
+            stmt.setInt(1, limit);
+            return mapTopCustomers(stmt.executeQuery());
+        } catch (SQLException e) {
+            System.err.println("Error getting top customers: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        return List.of();
+    }
+
+    static List<TopCustomer> mapTopCustomers(ResultSet rs) throws SQLException {
+        int customerName = rs.findColumn("customer_name");
+        int totalOrders = rs.findColumn("total_orders");
+        int totalSpent = rs.findColumn("total_spent");
+        int avgOrderValue = rs.findColumn("avg_order_value");
+        int lastOrderDate = rs.findColumn("last_order_date");
+
+        List<TopCustomer> rows = new ArrayList<>();
+        while (rs.next()) {
+            rows.add(new TopCustomer(rows.size() + 1, rs.getString(customerName), rs.getInt(totalOrders),
+                    rs.getDouble(totalSpent), rs.getDouble(avgOrderValue), rs.getTimestamp(lastOrderDate)));
+        }
+        return Collections.unmodifiableList(rows);
+    }
+
+    /**
+     * Get cancelled orders analysis
+     */
+    public CancellationAnalysis getCancelledOrdersAnalysis() {
+        Timestamp dayStart = startOfDay(new Date());
+        Timestamp dayEnd = startOfNextDay(new Date());
         
-        if (connection == null) {
-            return result;
+        try (Connection connection = DatabaseConnection.getConnection("ReportDAO.getCancelledOrdersAnalysis");
+             PreparedStatement stmt = prepare(connection, CANCELLED_REASONS_SQL)) {
+            stmt.setTimestamp(1, dayStart);
+            stmt.setTimestamp(2, dayEnd);
+            ResultSet rs = stmt.executeQuery();
+            int reasonCol = rs.findColumn("alasan_batal");
+            int countCol = rs.findColumn("count");
+            int lostRevenue = rs.findColumn("lost_revenue");
+
+            List<CancelReasonRow> reasons = new ArrayList<>();
+            double totalLostRevenue = 0;
+            int totalCancelled = 0;
+            while (rs.next()) {
+                CancelReasonRow reason = new CancelReasonRow(rs.getString(reasonCol), rs.getInt(countCol),
+                        rs.getDouble(lostRevenue));
+                totalLostRevenue += reason.lostRevenue();
+                totalCancelled += reason.count();
+                reasons.add(reason);
+            }
+
+            return new CancellationAnalysis(Collections.unmodifiableList(reasons), totalCancelled, totalLostRevenue);
+        } catch (SQLException e) {
+            System.err.println("Error getting cancelled orders analysis: " + e.getMessage());
+            e.printStackTrace();
         }
 
-        try {
-            String sql = """
-                SELECT 
-                    u.nama as customer_name,
-                    COUNT(co.id_pesanan) as total_orders,
-                    SUM(CASE WHEN co.status_pesanan = 'selesai' THEN co.total_pesanan ELSE 0 END) as total_spent,
-                    AVG(CASE WHEN co.status_pesanan = 'selesai' THEN co.total_pesanan ELSE NULL END) as avg_order_value,
-                    MAX(co.tanggal_pesanan) as last_order_date
-                FROM User u
-                JOIN Customer_Order co ON u.user_id = co.customer_id
-                WHERE u.role = 'customer'
-                AND co.tanggal_pesanan >= DATE_SUB(CURDATE(), INTERVAL 30 DAY)
-                GROUP BY u.user_id, u.nama
-                HAVING total_orders > 0
-                ORDER BY total_spent DESC, total_orders DESC
-                LIMIT ?
-                """;
-            
-            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-                stmt.setInt(1, limit);
-                ResultSet rs = stmt.executeQuery();
-                
-                int rank = 1;
-                while (rs.next()) {
-                    Map<String, Object> customer = new HashMap<>();
-                    customer.put("rank", rank++);
-                    customer.put("customerName", rs.getString("customer_name"));
-                    customer.put("totalOrders", rs.getInt("total_orders"));
-                    customer.put("totalSpent", rs.getDouble("total_spent"));
-                    customer.put("avgOrderValue", rs.getDouble("avg_order_value"));
-                    customer.put("lastOrderDate", rs.getTimestamp("last_order_date"));
-                    result.add(customer);
-                }
+        return new CancellationAnalysis(List.of(), 0, 0);
+    }
+
+    /**
+     * Get one page of the sales report for [from, toExclusive) and the given order status.
+     * Customer name, payment method and item count come back in the same round trip.
+     * Pass afterTanggal = null for the first page, otherwise the tanggal/id of the last
+     * row of the previous page (keyset pagination, newest first).
+     */
+    public List<SalesReportRow> getSalesReportPage(Timestamp from, Timestamp toExclusive, String status,
+                                                   Timestamp afterTanggal, int afterId, int limit) {
+        List<SalesReportRow> result = new ArrayList<>();
+
+        try (Connection connection = DatabaseConnection.getConnection("ReportDAO.getSalesReportPage");
+             PreparedStatement stmt = prepare(connection, SALES_REPORT_PAGE_SQL)) {
+            stmt.setTimestamp(1, from);
+            stmt.setTimestamp(2, toExclusive);
+            stmt.setString(3, status);
+            stmt.setTimestamp(4, afterTanggal);
+            stmt.setTimestamp(5, afterTanggal);
+            stmt.setTimestamp(6, afterTanggal);
+            stmt.setInt(7, afterId);
+            stmt.setInt(8, limit);
+            ResultSet rs = stmt.executeQuery();
+
+            int idPesanan = rs.findColumn("id_pesanan");
+            int tanggalPesanan = rs.findColumn("tanggal_pesanan");
+            int totalPesanan = rs.findColumn("total_pesanan");
+            int statusPesanan = rs.findColumn("status_pesanan");
+            int customerName = rs.findColumn("customer_name");
+            int metodePembayaran = rs.findColumn("metode_pembayaran");
+            int itemCount = rs.findColumn("item_count");
+
+            while (rs.next()) {
+                result.add(new SalesReportRow(
+                        rs.getInt(idPesanan),
+                        rs.getTimestamp(tanggalPesanan),
+                        rs.getDouble(totalPesanan),
+                        rs.getString(statusPesanan),
+                        rs.getString(customerName),
+                        rs.getString(metodePembayaran),
+                        rs.getInt(itemCount)));
             }
 
         } catch (SQLException e) {
-            System.err.println("Error getting top customers: " + e.getMessage());
+            System.err.println("Error getting sales report page: " + e.getMessage());
             e.printStackTrace();
         }
 
@@ -523,57 +619,62 @@ public class ReportDAO {
     }
 
     /**
-     * Get cancelled orders analysis
+     * Get the transaction count and sales total behind a sales report, so the
+     * table itself can be loaded page by page
      */
-    public Map<String, Object> getCancelledOrdersAnalysis() {
-        Map<String, Object> result = new HashMap<>();
-        String dateStr = dateFormat.format(new Date());
-        
-        if (connection == null) {
-            return result;
+    public SalesReportTotals getSalesReportTotals(Timestamp from, Timestamp toExclusive, String status) {
+        try (Connection connection = DatabaseConnection.getConnection("ReportDAO.getSalesReportTotals");
+             PreparedStatement stmt = prepare(connection, SALES_REPORT_TOTALS_SQL)) {
+            stmt.setTimestamp(1, from);
+            stmt.setTimestamp(2, toExclusive);
+            stmt.setString(3, status);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return new SalesReportTotals(rs.getInt(1), rs.getDouble(2));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting sales report totals: " + e.getMessage());
+            e.printStackTrace();
         }
 
-        try {
-            // Get cancellation reasons
-            String reasonSql = """
-                SELECT 
-                    pd.alasan_batal,
-                    COUNT(*) as count,
-                    SUM(co.total_pesanan) as lost_revenue
-                FROM Pesanan_Dibatalkan pd
-                JOIN Customer_Order co ON pd.id_pesanan = co.id_pesanan
-                WHERE DATE(pd.tanggal_batal) = ?
-                GROUP BY pd.alasan_batal
-                ORDER BY count DESC
-                """;
-            
-            try (PreparedStatement stmt = connection.prepareStatement(reasonSql)) {
-                stmt.setString(1, dateStr);
-                ResultSet rs = stmt.executeQuery();
-                
-                List<Map<String, Object>> cancelReasons = new ArrayList<>();
-                double totalLostRevenue = 0;
-                int totalCancelled = 0;
-                
-                while (rs.next()) {
-                    Map<String, Object> reason = new HashMap<>();
-                    reason.put("reason", rs.getString("alasan_batal"));
-                    reason.put("count", rs.getInt("count"));
-                    reason.put("lostRevenue", rs.getDouble("lost_revenue"));
-                    
-                    totalLostRevenue += rs.getDouble("lost_revenue");
-                    totalCancelled += rs.getInt("count");
-                    
-                    cancelReasons.add(reason);
-                }
-                
-                result.put("cancelReasons", cancelReasons);
-                result.put("totalCancelled", totalCancelled);
-                result.put("totalLostRevenue", totalLostRevenue);
-            }
+        return new SalesReportTotals(0, 0);
+    }
 
+    /**
+     * Get one page of cancelled orders with the order amount and customer name joined in.
+     * Pass afterTanggal = null for the first page, otherwise the tanggal_batal/id_batal
+     * of the last row of the previous page (keyset pagination, newest first).
+     */
+    public List<CancelledOrderRow> getCancelledOrdersPage(Timestamp afterTanggal, int afterId, int limit) {
+        List<CancelledOrderRow> result = new ArrayList<>();
+
+        try (Connection connection = DatabaseConnection.getConnection("ReportDAO.getCancelledOrdersPage");
+             PreparedStatement stmt = prepare(connection, CANCELLED_ORDERS_PAGE_SQL)) {
+            stmt.setTimestamp(1, afterTanggal);
+            stmt.setTimestamp(2, afterTanggal);
+            stmt.setTimestamp(3, afterTanggal);
+            stmt.setInt(4, afterId);
+            stmt.setInt(5, limit);
+            ResultSet rs = stmt.executeQuery();
+
+            int idBatal = rs.findColumn("id_batal");
+            int idPesanan = rs.findColumn("id_pesanan");
+            int tanggalBatal = rs.findColumn("tanggal_batal");
+            int alasanBatal = rs.findColumn("alasan_batal");
+            int totalPesanan = rs.findColumn("total_pesanan");
+            int customerName = rs.findColumn("customer_name");
+
+            while (rs.next()) {
+                result.add(new CancelledOrderRow(
+                        rs.getInt(idBatal),
+                        rs.getInt(idPesanan),
+                        rs.getTimestamp(tanggalBatal),
+                        rs.getString(alasanBatal),
+                        rs.getDouble(totalPesanan),
+                        rs.getString(customerName)));
+            }
         } catch (SQLException e) {
-            System.err.println("Error getting cancelled orders analysis: " + e.getMessage());
+            System.err.println("Error getting cancelled orders page: " + e.getMessage());
             e.printStackTrace();
         }
 
@@ -581,16 +682,121 @@ public class ReportDAO {
     }
 
     /**
-     * Close database connection
+     * Prepare sql with a query timeout that ends by this DAO's deadline, if one is set
      */
-    public void closeConnection() {
-        if (connection != null) {
+    private PreparedStatement prepare(Connection connection, String sql) throws SQLException {
+        PreparedStatement stmt = connection.prepareStatement(sql);
+        if (deadlineNanos != 0) {
+            long remainingMillis = (deadlineNanos - System.nanoTime()) / 1_000_000L;
             try {
-                connection.close();
-                System.out.println("ReportDAO database connection closed successfully");
+                // Whole seconds, rounded up so the kill never comes before the caller gives up; 0 would mean no limit
+                stmt.setQueryTimeout((int) Math.max(1, (remainingMillis + 999) / 1000));
             } catch (SQLException e) {
-                System.err.println("Error closing ReportDAO database connection: " + e.getMessage());
+                stmt.close();
+                throw e;
             }
         }
+        return stmt;
+    }
+
+    /**
+     * Get midnight at the start of the given day
+     */
+    static Timestamp startOfDay(Date date) {
+        return Timestamp.valueOf(new Timestamp(date.getTime()).toLocalDateTime().toLocalDate().atStartOfDay());
+    }
+
+    /**
+     * Get midnight at the start of the day after the given day
+     */
+    static Timestamp startOfNextDay(Date date) {
+        return Timestamp.valueOf(new Timestamp(date.getTime()).toLocalDateTime().toLocalDate().plusDays(1).atStartOfDay());
+    }
+
+    public record SalesReportRow(int idPesanan, Timestamp tanggalPesanan, double totalPesanan, String statusPesanan,
+                                 String customerName, String metodePembayaran, int itemCount) {
+    }
+
+    public record CancelledOrderRow(int idBatal, int idPesanan, Timestamp tanggalBatal, String alasanBatal,
+                                    double totalPesanan, String customerName) {
+    }
+
+    // Report result records. Rows are mapped with column indexes resolved once per
+    // ResultSet, and lists handed out are unmodifiable.
+
+    public record DailyOrderSummary(int totalOrders, double totalRevenue, int pendingCount,
+                                    int completedCount, int cancelledCount, double avgOrder) {
+    }
+
+    public record DailyPaymentSummary(double cashRevenue, double qrisRevenue, int cashCount, int qrisCount) {
+    }
+
+    public record DailySummary(DailyOrderSummary orders, DailyPaymentSummary payments) {
+    }
+
+    public record PaymentMethodRow(String method, String status, int count, double total, double average) {
+    }
+
+    public record PendingCashPayment(int idNota, int idPesanan, Timestamp waktuCetak, double totalPembayaran,
+                                     String customerName, Timestamp tanggalPesanan, int waitingMinutes) {
+    }
+
+    public record MenuPerformanceRow(int rank, String namaMenu, String jenisMenu, int totalSold,
+                                     double totalRevenue, double avgPrice, int orderCount) {
+    }
+
+    public record MenuPerformance(List<MenuPerformanceRow> items, String bestSeller, String topCategory,
+                                  int totalItemsSold, double totalMenuRevenue, double avgMenuPrice) {
+    }
+
+    public record HourRow(int hour, int orderCount, double revenue, double avgOrderValue,
+                          int completedOrders, int cancelledOrders) {
+        /** Get the hour as HH:00 */
+        public String label() {
+            return String.format("%02d:00", hour);
+        }
+
+        /** Get how busy the hour was */
+        public String status() {
+            if (orderCount > 10) {
+                return "Sibuk";
+            } else if (orderCount > 5) {
+                return "Sedang";
+            } else if (orderCount > 0) {
+                return "Sepi";
+            }
+            return "Tutup";
+        }
+    }
+
+    public record HourlyAnalysis(List<HourRow> hours, int peakHour, double peakRevenue, double avgRevenuePerHour) {
+        /** Get the peak hour as HH:00 */
+        public String peakLabel() {
+            return String.format("%02d:00", peakHour);
+        }
+    }
+
+    public record RecentTransaction(int idNota, Timestamp waktuCetak, String customerName,
+                                    double totalPembayaran, String metodePembayaran, String statusPembayaran) {
+    }
+
+    public record DayRow(java.sql.Date date, int orders, double revenue, int cashTransactions, int qrisTransactions) {
+    }
+
+    public record WeeklySummary(List<DayRow> days, double totalRevenue, int totalOrders,
+                                double avgDailyRevenue, double avgDailyOrders) {
+    }
+
+    public record TopCustomer(int rank, String customerName, int totalOrders, double totalSpent,
+                              double avgOrderValue, Timestamp lastOrderDate) {
+    }
+
+    public record CancelReasonRow(String reason, int count, double lostRevenue) {
+    }
+
+    public record CancellationAnalysis(List<CancelReasonRow> reasons, int totalCancelled, double totalLostRevenue) {
+    }
+
+    public record SalesReportTotals(int totalTransactions, double totalSales) {
     }
 }
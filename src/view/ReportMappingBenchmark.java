@@ -0,0 +1,111 @@
+package view;
+
+
+import java.lang.management.ManagementFactory;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the old HashMap-per-row report mapping (column lookup by name for every
+ * cell, boxed values) with ReportDAO's record mapping (column indexes resolved once)
+ * on ROWS in-memory top-customer rows, so no database is needed. Reports time and
+ * bytes allocated per pass, measured on this thread after WARMUP passes.
+ *
+ * Usage: ReportMappingBenchmark [rows]
+ */
+public class ReportMappingBenchmark {
+    private static final int ROWS = 100_000;
+    private static final int WARMUP = 20;
+    private static final int MEASURED = 20;
+
+    private static final String[] COLUMNS = {
+        "customer_name", "total_orders", "total_spent", "avg_order_value", "last_order_date"
+    };
+
+    // Keeps results reachable so the JIT cannot drop the mapping work
+    private static volatile Object sink;
+
+    public static void main(String[] args) throws SQLException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : ROWS;
+        Object[][] data = generate(rows);
+
+        for (int i = 0; i < WARMUP; i++) {
+            sink = mapAsHashMaps(resultSet(data));
+            sink = ReportDAO.mapTopCustomers(resultSet(data));
+        }
+
+        Result maps = measure(data, true);
+        Result records = measure(data, false);
+
+        System.out.printf("%,d rows per pass, %d passes%n", rows, MEASURED);
+        System.out.printf("HashMap rows:  %8.2f ms/pass  %,14d bytes/pass%n", maps.millis, maps.bytes);
+        System.out.printf("Record rows:   %8.2f ms/pass  %,14d bytes/pass%n", records.millis, records.bytes);
+        System.out.printf("Records use %.1f%% of the time and %.1f%% of the allocation%n",
+                100.0 * records.millis / maps.millis, 100.0 * records.bytes / maps.bytes);
+    }
+
+    private static Result measure(Object[][] data, boolean hashMaps) throws SQLException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED; i++) {
+            ResultSet rs = resultSet(data);
+            sink = hashMaps ? mapAsHashMaps(rs) : ReportDAO.mapTopCustomers(rs);
+        }
+        long elapsed = System.nanoTime() - start;
+        long bytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+        Result result = new Result();
+        result.millis = elapsed / 1e6 / MEASURED;
+        result.bytes = bytes / MEASURED;
+        return result;
+    }
+
+    /**
+     * The mapping ReportDAO.getTopCustomers used before it returned records
+     */
+    private static List<Map<String, Object>> mapAsHashMaps(ResultSet rs) throws SQLException {
+        List<Map<String, Object>> result = new ArrayList<>();
+        int rank = 1;
+        while (rs.next()) {
+            Map<String, Object> customer = new HashMap<>();
+            customer.put("rank", rank++);
+            customer.put("customerName", rs.getString("customer_name"));
+            customer.put("totalOrders", rs.getInt("total_orders"));
+            customer.put("totalSpent", rs.getDouble("total_spent"));
+            customer.put("avgOrderValue", rs.getDouble("avg_order_value"));
+            customer.put("lastOrderDate", rs.getTimestamp("last_order_date"));
+            result.add(customer);
+        }
+        return result;
+    }
+
+    private static Object[][] generate(int rows) {
+        Object[][] data = new Object[rows][];
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < rows; i++) {
+            int orders = 1 + i % 40;
+            double spent = orders * 27_500.0;
+            data[i] = new Object[]{
+                "Customer " + (i % 5_000), orders, spent, spent / orders, new Timestamp(now - i * 60_000L)
+            };
+        }
+        return data;
+    }
+
+    private static ResultSet resultSet(Object[][] data) {
+        return InMemoryResultSet.of(COLUMNS, data);
+    }
+
+    private static class Result {
+        double millis;
+        long bytes;
+    }
+}
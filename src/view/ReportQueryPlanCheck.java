@@ -0,0 +1,88 @@
+package view;
+
+
+import java.sql.*;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Runs EXPLAIN on the ReportDAO day-range queries and checks that the date-filtered
+ * table is read through its SchemaMigrator V1 index with a range or ref access, not
+ * a full table scan or a full index scan.
+ *
+ * Usage: ReportQueryPlanCheck (exits with status 1 if any query falls back to a scan)
+ */
+public class ReportQueryPlanCheck {
+    /**
+     * The table alias (or name) carrying a query's day filter, and the index it should use
+     */
+    private record DateFilter(String table, String index) {
+    }
+
+    public static void main(String[] args) {
+        SchemaMigrator.migrateAtStartup();
+        Timestamp dayStart = ReportDAO.startOfDay(new Date());
+        Timestamp dayEnd = ReportDAO.startOfNextDay(new Date());
+
+        // The daily, hourly and menu figures read the SalesRollup tables by primary key and
+        // are not listed here
+        Map<String, DateFilter> queries = new LinkedHashMap<>();
+        queries.put(ReportDAO.PAYMENT_METHOD_SUMMARY_SQL, new DateFilter("co", "idx_order_tanggal_status_total"));
+        queries.put(ReportDAO.RECENT_TRANSACTIONS_SQL, new DateFilter("co", "idx_order_tanggal_status_total"));
+        queries.put(ReportDAO.CANCELLED_REASONS_SQL, new DateFilter("pd", "idx_batal_tanggal"));
+
+        int failures = 0;
+        try (Connection connection = DatabaseConnection.getConnection()) {
+            for (Map.Entry<String, DateFilter> entry : queries.entrySet()) {
+                if (!checkPlan(connection, entry.getKey(), entry.getValue(), dayStart, dayEnd)) {
+                    failures++;
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            failures++;
+        } finally {
+            DatabaseConnection.closeConnection();
+        }
+
+        System.out.println(failures == 0 ? "All report queries use index range scans"
+                : failures + " report queries do not range-scan the date index");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    private static boolean checkPlan(Connection connection, String sql, DateFilter dateFilter,
+                                     Timestamp dayStart, Timestamp dayEnd) throws SQLException {
+        System.out.println(sql.strip().lines().filter(line -> line.startsWith("FROM")).findFirst().orElse(""));
+
+        String problem = "no plan row for " + dateFilter.table();
+        try (PreparedStatement stmt = connection.prepareStatement("EXPLAIN " + sql)) {
+            stmt.setTimestamp(1, dayStart);
+            stmt.setTimestamp(2, dayEnd);
+            if (sql.contains("LIMIT ?")) {
+                stmt.setInt(3, 10);
+            }
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                String table = rs.getString("table");
+                String type = rs.getString("type");
+                String key = rs.getString("key");
+                System.out.printf("  %-20s type=%-8s key=%-36s rows=%s%n", table, type, key, rs.getString("rows"));
+
+                if (dateFilter.table().equals(table)) {
+                    if (!"range".equalsIgnoreCase(type) && !"ref".equalsIgnoreCase(type)) {
+                        problem = "type=" + type + " on " + table + ", expected range or ref";
+                    } else if (!dateFilter.index().equalsIgnoreCase(key)) {
+                        problem = "key=" + key + " on " + table + ", expected " + dateFilter.index();
+                    } else {
+                        problem = null;
+                    }
+                }
+            }
+        }
+
+        System.out.println(problem == null ? "  OK" : "  NOT A RANGE SCAN: " + problem);
+        return problem == null;
+    }
+}
@@ -6,18 +6,39 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class RestaurantDAO {
-    private Connection connection;
 
-    public RestaurantDAO() {
-        this.connection = DatabaseConnection.getConnection();
-    }
+    // One row per detail line, the nota, order, first payment and both names repeated on each.
+    // An order with no lines still gives one row with NULL detail columns.
+    private static final String RECEIPT_BUNDLE_SQL = """
+        SELECT
+            n.id_nota, n.id_pesanan, n.waktu_cetak, n.total_pembayaran,
+            n.metode_pembayaran as nota_metode, n.status_pembayaran as nota_status,
+            co.id_pesanan as order_id, co.tanggal_pesanan, co.total_pesanan, co.catatan,
+            co.customer_id, co.status_pesanan,
+            p.id_pembayaran, p.id_kasir, p.tanggal_pembayaran,
+            p.metode_pembayaran as bayar_metode, p.jumlah_pembayaran, p.status_pembayaran as bayar_status,
+            cu.nama as customer_name,
+            k.nama as kasir_name,
+            od.id_detail, od.id_menu, od.jumlah, od.harga_satuan, od.subtotal, m.nama_menu
+        FROM Nota n
+        LEFT JOIN CustomerOrder co ON co.id_pesanan = n.id_pesanan
+        LEFT JOIN Pembayaran p ON p.id_pembayaran = (
+            SELECT MIN(p2.id_pembayaran) FROM Pembayaran p2 WHERE p2.id_pesanan = n.id_pesanan
+        )
+        LEFT JOIN User cu ON cu.user_id = co.customer_id
+        LEFT JOIN User k ON k.user_id = p.id_kasir
+        LEFT JOIN (OrderDetail od JOIN Menu m ON od.id_menu = m.id_menu) ON od.id_pesanan = co.id_pesanan
+        WHERE n.id_nota = ?
+        ORDER BY od.id_detail
+        """;
 
     /**
      * Update nota status by nota ID
      */
     public boolean updateNotaStatus(int idNota, String newStatus) {
         String sql = "UPDATE Nota SET status_pembayaran = ? WHERE id_nota = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("RestaurantDAO.updateNotaStatus");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, newStatus);
             stmt.setInt(2, idNota);
             return stmt.executeUpdate() > 0;
@@ -32,7 +53,8 @@ public class RestaurantDAO {
      */
     public boolean updatePembayaranStatus(int idPembayaran, String newStatus) {
         String sql = "UPDATE Pembayaran SET status_pembayaran = ? WHERE id_pembayaran = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("RestaurantDAO.updatePembayaranStatus");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, newStatus);
             stmt.setInt(2, idPembayaran);
             return stmt.executeUpdate() > 0;
@@ -47,7 +69,8 @@ public class RestaurantDAO {
      */
     public boolean updateOrderStatus(int idPesanan, String newStatus) {
         String sql = "UPDATE CustomerOrder SET status_pesanan = ? WHERE id_pesanan = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("RestaurantDAO.updateOrderStatus");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, newStatus);
             stmt.setInt(2, idPesanan);
             return stmt.executeUpdate() > 0;
@@ -62,7 +85,8 @@ public class RestaurantDAO {
      */
     public Nota findNotaById(int idNota) {
         String sql = "SELECT * FROM Nota WHERE id_nota = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("RestaurantDAO.findNotaById");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, idNota);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -86,7 +110,8 @@ public class RestaurantDAO {
      */
     public CustomerOrder findCustomerOrderById(int idPesanan) {
         String sql = "SELECT * FROM CustomerOrder WHERE id_pesanan = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("RestaurantDAO.findCustomerOrderById");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, idPesanan);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -110,7 +135,8 @@ public class RestaurantDAO {
      */
     public Pembayaran findPembayaranByPesananId(int idPesanan) {
         String sql = "SELECT * FROM Pembayaran WHERE id_pesanan = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("RestaurantDAO.findPembayaranByPesananId");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, idPesanan);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -138,7 +164,8 @@ public class RestaurantDAO {
         String sql = "SELECT od.*, m.nama_menu FROM OrderDetail od " +
                      "JOIN Menu m ON od.id_menu = m.id_menu " +
                      "WHERE od.id_pesanan = ? ORDER BY od.id_detail";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("RestaurantDAO.findOrderDetailsByPesananId");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, idPesanan);
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
@@ -159,37 +186,101 @@ public class RestaurantDAO {
     }
 
     /**
-     * Get customer name by customer ID
+     * Load everything the kasir screen shows for a nota with one query: the nota, its
+     * order, payment, detail lines with menu names, and the customer and kasir names.
+     * Returns null when the nota does not exist. Call it off the EDT.
      */
-    public String getCustomerName(int customerId) {
-        String sql = "SELECT nama FROM User WHERE user_id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setInt(1, customerId);
+    public ReceiptBundle loadReceiptBundle(int idNota) throws SQLException {
+        try (Connection connection = DatabaseConnection.getConnection("RestaurantDAO.loadReceiptBundle");
+             PreparedStatement stmt = connection.prepareStatement(RECEIPT_BUNDLE_SQL)) {
+            stmt.setInt(1, idNota);
             ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getString("nama");
+            if (!rs.next()) {
+                return null;
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
+
+            Nota nota = new Nota();
+            nota.setIdNota(rs.getInt("id_nota"));
+            nota.setIdPesanan(rs.getInt("id_pesanan"));
+            nota.setWaktuCetak(rs.getTimestamp("waktu_cetak"));
+            nota.setTotalPembayaran(rs.getDouble("total_pembayaran"));
+            nota.setMetodePembayaran(rs.getString("nota_metode"));
+            nota.setStatusPembayaran(rs.getString("nota_status"));
+
+            CustomerOrder order = null;
+            String customerName = null;
+            rs.getInt("order_id");
+            if (!rs.wasNull()) {
+                order = new CustomerOrder();
+                order.setIdPesanan(rs.getInt("order_id"));
+                order.setTanggalPesanan(rs.getTimestamp("tanggal_pesanan"));
+                order.setTotalPesanan(rs.getDouble("total_pesanan"));
+                order.setCatatan(rs.getString("catatan"));
+                order.setCustomerId(rs.getInt("customer_id"));
+                order.setStatusPesanan(rs.getString("status_pesanan"));
+                customerName = rs.getString("customer_name");
+                if (customerName == null) {
+                    customerName = "Unknown Customer";
+                }
+            }
+
+            Pembayaran pembayaran = null;
+            String kasirName = null;
+            rs.getInt("id_pembayaran");
+            if (!rs.wasNull()) {
+                pembayaran = new Pembayaran();
+                pembayaran.setIdPembayaran(rs.getInt("id_pembayaran"));
+                pembayaran.setIdPesanan(nota.getIdPesanan());
+                pembayaran.setIdKasir(rs.getInt("id_kasir"));
+                pembayaran.setTanggalPembayaran(rs.getTimestamp("tanggal_pembayaran"));
+                pembayaran.setMetodePembayaran(rs.getString("bayar_metode"));
+                pembayaran.setJumlahPembayaran(rs.getDouble("jumlah_pembayaran"));
+                pembayaran.setStatusPembayaran(rs.getString("bayar_status"));
+                kasirName = rs.getString("kasir_name");
+                if (kasirName == null) {
+                    kasirName = "Unknown Kasir";
+                }
+            }
+
+            List<OrderDetail> details = new ArrayList<>();
+            int idDetail = rs.findColumn("id_detail");
+            int idMenu = rs.findColumn("id_menu");
+            int jumlah = rs.findColumn("jumlah");
+            int hargaSatuan = rs.findColumn("harga_satuan");
+            int subtotal = rs.findColumn("subtotal");
+            int namaMenu = rs.findColumn("nama_menu");
+            do {
+                int id = rs.getInt(idDetail);
+                if (rs.wasNull()) {
+                    continue;
+                }
+                OrderDetail detail = new OrderDetail();
+                detail.setIdDetail(id);
+                detail.setIdPesanan(nota.getIdPesanan());
+                detail.setIdMenu(rs.getInt(idMenu));
+                detail.setJumlah(rs.getInt(jumlah));
+                detail.setHargaSatuan(rs.getDouble(hargaSatuan));
+                detail.setSubtotal(rs.getDouble(subtotal));
+                detail.setNamaMenu(rs.getString(namaMenu));
+                details.add(detail);
+            } while (rs.next());
+
+            return new ReceiptBundle(nota, order, pembayaran, details, customerName, kasirName);
         }
-        return "Unknown Customer";
+    }
+
+    /**
+     * Get customer name by customer ID
+     */
+    public String getCustomerName(int customerId) {
+        return UserCache.getName(customerId, "Unknown Customer");
     }
 
     /**
      * Get kasir name by kasir ID
      */
     public String getKasirName(int kasirId) {
-        String sql = "SELECT nama FROM User WHERE user_id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setInt(1, kasirId);
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getString("nama");
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return "Unknown Kasir";
+        return UserCache.getName(kasirId, "Unknown Kasir");
     }
 
     /**
@@ -200,7 +291,8 @@ public class RestaurantDAO {
         String sql = "SELECT * FROM Nota WHERE metode_pembayaran = 'cash' " +
                      "AND (status_pembayaran = 'menunggu pembayaran' OR status_pembayaran = 'menunggu') " +
                      "ORDER BY waktu_cetak DESC";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("RestaurantDAO.getPendingCashPayments");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
                 Nota nota = new Nota();
@@ -227,34 +319,32 @@ public class RestaurantDAO {
         // Count pending cash payments
         String pendingSql = "SELECT COUNT(*) FROM Nota WHERE metode_pembayaran = 'cash' " +
                            "AND (status_pembayaran = 'menunggu pembayaran' OR status_pembayaran = 'menunggu')";
-        try (PreparedStatement stmt = connection.prepareStatement(pendingSql)) {
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                stats.setPendingCashPayments(rs.getInt(1));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        
         // Count successful payments today
         String successfulSql = "SELECT COUNT(*) FROM Nota WHERE status_pembayaran = 'berhasil' " +
                               "AND DATE(waktu_cetak) = CURDATE()";
-        try (PreparedStatement stmt = connection.prepareStatement(successfulSql)) {
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                stats.setSuccessfulPaymentsToday(rs.getInt(1));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        
         // Calculate total revenue today
         String revenueSql = "SELECT COALESCE(SUM(total_pembayaran), 0) FROM Nota " +
                            "WHERE status_pembayaran = 'berhasil' AND DATE(waktu_cetak) = CURDATE()";
-        try (PreparedStatement stmt = connection.prepareStatement(revenueSql)) {
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                stats.setTotalRevenueToday(rs.getDouble(1));
+        
+        // One connection for all three, so the call is timed once
+        try (Connection connection = DatabaseConnection.getConnection("RestaurantDAO.getPaymentStats")) {
+            try (PreparedStatement stmt = connection.prepareStatement(pendingSql)) {
+                ResultSet rs = stmt.executeQuery();
+                if (rs.next()) {
+                    stats.setPendingCashPayments(rs.getInt(1));
+                }
+            }
+            try (PreparedStatement stmt = connection.prepareStatement(successfulSql)) {
+                ResultSet rs = stmt.executeQuery();
+                if (rs.next()) {
+                    stats.setSuccessfulPaymentsToday(rs.getInt(1));
+                }
+            }
+            try (PreparedStatement stmt = connection.prepareStatement(revenueSql)) {
+                ResultSet rs = stmt.executeQuery();
+                if (rs.next()) {
+                    stats.setTotalRevenueToday(rs.getDouble(1));
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -263,6 +353,14 @@ public class RestaurantDAO {
         return stats;
     }
     
+    /**
+     * A nota with everything printed on it. order is null when the order row is missing,
+     * pembayaran when no payment has been recorded; details may be empty.
+     */
+    public record ReceiptBundle(Nota nota, CustomerOrder order, Pembayaran pembayaran, List<OrderDetail> details,
+                                String customerName, String kasirName) {
+    }
+
     // Inner class for payment statistics
     public static class PaymentStats {
         private int pendingCashPayments;
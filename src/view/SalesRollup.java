@@ -0,0 +1,260 @@
+package view;
+
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pre-aggregated sales tables read by the dashboard instead of the raw order history.
+ *
+ * sales_rollup_hourly is keyed by (day, hour, order status, payment method) and
+ * sales_rollup_menu by (day, id_menu), the latter only counting finished orders.
+ * Every write that changes an order captures the order's contribution before and
+ * after the change and moves the difference, inside the same transaction.
+ *
+ * Usage: SalesRollup (rebuilds both tables from the full order history)
+ */
+public class SalesRollup {
+    static final String CREATE_HOURLY_SQL = """
+        CREATE TABLE IF NOT EXISTS sales_rollup_hourly (
+            day DATE NOT NULL,
+            hour TINYINT NOT NULL,
+            status_pesanan VARCHAR(30) NOT NULL,
+            metode_pembayaran VARCHAR(20) NOT NULL,
+            order_count INT NOT NULL DEFAULT 0,
+            order_total DECIMAL(14,2) NOT NULL DEFAULT 0,
+            paid_count INT NOT NULL DEFAULT 0,
+            paid_total DECIMAL(14,2) NOT NULL DEFAULT 0,
+            PRIMARY KEY (day, hour, status_pesanan, metode_pembayaran)
+        )
+        """;
+
+    static final String CREATE_MENU_SQL = """
+        CREATE TABLE IF NOT EXISTS sales_rollup_menu (
+            day DATE NOT NULL,
+            id_menu INT NOT NULL,
+            qty_sold INT NOT NULL DEFAULT 0,
+            revenue DECIMAL(14,2) NOT NULL DEFAULT 0,
+            order_count INT NOT NULL DEFAULT 0,
+            PRIMARY KEY (day, id_menu)
+        )
+        """;
+
+    static final String CLEAR_HOURLY_SQL = "DELETE FROM sales_rollup_hourly";
+    static final String CLEAR_MENU_SQL = "DELETE FROM sales_rollup_menu";
+
+    // An order with no payment yet is filed under metode_pembayaran = ''
+    static final String BACKFILL_HOURLY_SQL = """
+        INSERT INTO sales_rollup_hourly
+            (day, hour, status_pesanan, metode_pembayaran, order_count, order_total, paid_count, paid_total)
+        SELECT
+            DATE(co.tanggal_pesanan),
+            HOUR(co.tanggal_pesanan),
+            co.status_pesanan,
+            COALESCE(p.metode_pembayaran, ''),
+            COUNT(*),
+            SUM(co.total_pesanan),
+            COALESCE(SUM(p.paid_count), 0),
+            COALESCE(SUM(p.paid_total), 0)
+        FROM CustomerOrder co
+        LEFT JOIN (
+            SELECT
+                id_pesanan,
+                SUBSTRING_INDEX(GROUP_CONCAT(metode_pembayaran ORDER BY id_pembayaran), ',', 1) as metode_pembayaran,
+                SUM(CASE WHEN status_pembayaran = 'berhasil' THEN 1 ELSE 0 END) as paid_count,
+                SUM(CASE WHEN status_pembayaran = 'berhasil' THEN jumlah_pembayaran ELSE 0 END) as paid_total
+            FROM Pembayaran
+            GROUP BY id_pesanan
+        ) p ON p.id_pesanan = co.id_pesanan
+        GROUP BY DATE(co.tanggal_pesanan), HOUR(co.tanggal_pesanan), co.status_pesanan, COALESCE(p.metode_pembayaran, '')
+        """;
+
+    static final String BACKFILL_MENU_SQL = """
+        INSERT INTO sales_rollup_menu (day, id_menu, qty_sold, revenue, order_count)
+        SELECT
+            DATE(co.tanggal_pesanan),
+            od.id_menu,
+            SUM(od.jumlah),
+            SUM(od.jumlah * od.harga_satuan),
+            COUNT(DISTINCT od.id_pesanan)
+        FROM OrderDetail od
+        JOIN CustomerOrder co ON od.id_pesanan = co.id_pesanan
+        WHERE co.status_pesanan = 'selesai'
+        GROUP BY DATE(co.tanggal_pesanan), od.id_menu
+        """;
+
+    private static final String ADD_HOURLY_SQL = """
+        INSERT INTO sales_rollup_hourly
+            (day, hour, status_pesanan, metode_pembayaran, order_count, order_total, paid_count, paid_total)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+        ON DUPLICATE KEY UPDATE
+            order_count = order_count + VALUES(order_count),
+            order_total = order_total + VALUES(order_total),
+            paid_count = paid_count + VALUES(paid_count),
+            paid_total = paid_total + VALUES(paid_total)
+        """;
+
+    private static final String ADD_MENU_SQL = """
+        INSERT INTO sales_rollup_menu (day, id_menu, qty_sold, revenue, order_count)
+        VALUES (?, ?, ?, ?, ?)
+        ON DUPLICATE KEY UPDATE
+            qty_sold = qty_sold + VALUES(qty_sold),
+            revenue = revenue + VALUES(revenue),
+            order_count = order_count + VALUES(order_count)
+        """;
+
+    public static void main(String[] args) {
+        SchemaMigrator.migrateAtStartup();
+        try {
+            rebuild();
+            System.out.println("Sales rollups rebuilt");
+        } catch (SQLException e) {
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            DatabaseConnection.closeConnection();
+        }
+    }
+
+    /**
+     * Regenerate both rollup tables from the order history in one transaction
+     */
+    public static void rebuild() throws SQLException {
+        try (Connection connection = DatabaseConnection.getConnection("SalesRollup.rebuild")) {
+            connection.setAutoCommit(false);
+            try (Statement stmt = connection.createStatement()) {
+                stmt.executeUpdate(CLEAR_HOURLY_SQL);
+                stmt.executeUpdate(CLEAR_MENU_SQL);
+                stmt.executeUpdate(BACKFILL_HOURLY_SQL);
+                stmt.executeUpdate(BACKFILL_MENU_SQL);
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Read what an order currently contributes to the rollups, locking the order row
+     * until the transaction ends. Returns null if the order does not exist.
+     */
+    public static Contribution capture(Connection connection, int idPesanan) throws SQLException {
+        Contribution contribution = null;
+
+        String sql = "SELECT tanggal_pesanan, status_pesanan, total_pesanan FROM CustomerOrder WHERE id_pesanan = ? FOR UPDATE";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, idPesanan);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                contribution = new Contribution();
+                LocalDateTime tanggal = rs.getTimestamp("tanggal_pesanan").toLocalDateTime();
+                contribution.day = Date.valueOf(tanggal.toLocalDate());
+                contribution.hour = tanggal.getHour();
+                contribution.statusPesanan = rs.getString("status_pesanan");
+                contribution.orderTotal = rs.getDouble("total_pesanan");
+            }
+        }
+        if (contribution == null) {
+            return null;
+        }
+
+        sql = "SELECT metode_pembayaran, status_pembayaran, jumlah_pembayaran FROM Pembayaran WHERE id_pesanan = ? ORDER BY id_pembayaran";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, idPesanan);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                if (contribution.metodePembayaran.isEmpty()) {
+                    contribution.metodePembayaran = rs.getString("metode_pembayaran");
+                }
+                if ("berhasil".equals(rs.getString("status_pembayaran"))) {
+                    contribution.paidCount++;
+                    contribution.paidTotal += rs.getDouble("jumlah_pembayaran");
+                }
+            }
+        }
+
+        if ("selesai".equals(contribution.statusPesanan)) {
+            sql = "SELECT id_menu, SUM(jumlah) as qty, SUM(jumlah * harga_satuan) as revenue FROM OrderDetail WHERE id_pesanan = ? GROUP BY id_menu";
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                stmt.setInt(1, idPesanan);
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    contribution.menuLines.add(new MenuLine(rs.getInt("id_menu"), rs.getInt("qty"), rs.getDouble("revenue")));
+                }
+            }
+        }
+
+        return contribution;
+    }
+
+    /**
+     * Replace an order's old contribution with its new one. Either side may be null
+     * (a new order has no old contribution).
+     */
+    public static void replace(Connection connection, Contribution before, Contribution after) throws SQLException {
+        if (before != null) {
+            apply(connection, before, -1);
+        }
+        if (after != null) {
+            apply(connection, after, 1);
+        }
+    }
+
+    private static void apply(Connection connection, Contribution contribution, int sign) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(ADD_HOURLY_SQL)) {
+            stmt.setDate(1, contribution.day);
+            stmt.setInt(2, contribution.hour);
+            stmt.setString(3, contribution.statusPesanan);
+            stmt.setString(4, contribution.metodePembayaran);
+            stmt.setInt(5, sign);
+            stmt.setDouble(6, sign * contribution.orderTotal);
+            stmt.setInt(7, sign * contribution.paidCount);
+            stmt.setDouble(8, sign * contribution.paidTotal);
+            stmt.executeUpdate();
+        }
+
+        if (contribution.menuLines.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement stmt = connection.prepareStatement(ADD_MENU_SQL)) {
+            for (MenuLine line : contribution.menuLines) {
+                stmt.setDate(1, contribution.day);
+                stmt.setInt(2, line.idMenu);
+                stmt.setInt(3, sign * line.qty);
+                stmt.setDouble(4, sign * line.revenue);
+                stmt.setInt(5, sign);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    // What one order adds to the rollup tables
+    public static class Contribution {
+        private Date day;
+        private int hour;
+        private String statusPesanan;
+        private String metodePembayaran = "";
+        private double orderTotal;
+        private int paidCount;
+        private double paidTotal;
+        private final List<MenuLine> menuLines = new ArrayList<>();
+    }
+
+    private static class MenuLine {
+        private final int idMenu;
+        private final int qty;
+        private final double revenue;
+
+        MenuLine(int idMenu, int qty, double revenue) {
+            this.idMenu = idMenu;
+            this.qty = qty;
+            this.revenue = revenue;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package view;
+
+
+import java.sql.Timestamp;
+import java.text.NumberFormat;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Sales report rows for ManagerFrame, newest first, stored column by column
+ */
+public class SalesTableModel extends ColumnarTableModel {
+    private static final int NO_CODE = -1;
+
+    private final NumberFormat currencyFormat;
+    private final SimpleDateFormat dateFormat;
+
+    private final Dictionary customerNames = new Dictionary();
+    private final Dictionary methods = new Dictionary();
+    private final Dictionary statuses = new Dictionary();
+
+    private long[] tanggalMillis = new long[0];
+    private int[] ids = new int[0];
+    private int[] customerCodes = new int[0];
+    private int[] itemCounts = new int[0];
+    private long[] totalCents = new long[0];
+    private int[] methodCodes = new int[0];
+    private int[] statusCodes = new int[0];
+
+    public SalesTableModel(NumberFormat currencyFormat, SimpleDateFormat dateFormat) {
+        super("Date", "Order ID", "Customer", "Items", "Total", "Payment", "Status");
+        this.currencyFormat = currencyFormat;
+        this.dateFormat = dateFormat;
+    }
+
+    public void append(List<ReportDAO.SalesReportRow> rows) {
+        int first = beginAppend(rows.size());
+        for (ReportDAO.SalesReportRow row : rows) {
+            tanggalMillis[size] = row.tanggalPesanan().getTime();
+            ids[size] = row.idPesanan();
+            customerCodes[size] = customerNames.encode(row.customerName() != null ? row.customerName() : "Unknown");
+            itemCounts[size] = row.itemCount();
+            totalCents[size] = toCents(row.totalPesanan());
+            methodCodes[size] = row.metodePembayaran() != null ? methods.encode(row.metodePembayaran()) : NO_CODE;
+            statusCodes[size] = statuses.encode(row.statusPesanan());
+            size++;
+        }
+        endAppend(first);
+    }
+
+    @Override
+    protected void ensureCapacity(int capacity) {
+        tanggalMillis = grow(tanggalMillis, capacity);
+        ids = grow(ids, capacity);
+        customerCodes = grow(customerCodes, capacity);
+        itemCounts = grow(itemCounts, capacity);
+        totalCents = grow(totalCents, capacity);
+        methodCodes = grow(methodCodes, capacity);
+        statusCodes = grow(statusCodes, capacity);
+    }
+
+    @Override
+    protected void clearColumns() {
+        customerNames.clear();
+        methods.clear();
+        statuses.clear();
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        switch (column) {
+            case 0: return dateFormat.format(new Date(tanggalMillis[row]));
+            case 1: return ids[row];
+            case 2: return customerNames.decode(customerCodes[row]);
+            case 3: return itemCounts[row] + " items";
+            case 4: return currencyFormat.format(fromCents(totalCents[row]));
+            case 5: return methodCodes[row] != NO_CODE ? methods.decode(methodCodes[row]).toUpperCase() : "Cash";
+            default: return statuses.decode(statusCodes[row]);
+        }
+    }
+
+    /** Get the keyset position of the last loaded row, null when empty */
+    public Timestamp getLastTanggal() { return size > 0 ? new Timestamp(tanggalMillis[size - 1]) : null; }
+
+    public int getLastOrderId() { return size > 0 ? ids[size - 1] : 0; }
+}
@@ -0,0 +1,237 @@
+package view;
+
+
+import java.awt.GraphicsEnvironment;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.JOptionPane;
+
+/**
+ * Versioned schema migrations. Applied versions are recorded in schema_version and
+ * each pending version runs once, in order, under a named lock so several terminals
+ * starting together do not race each other.
+ *
+ * Usage: SchemaMigrator (applies pending versions and prints the current version)
+ */
+public class SchemaMigrator {
+    private static final String LOCK_NAME = "pemesananmakanan.schema_migration";
+    private static final int LOCK_TIMEOUT_SECONDS = 30;
+
+    // V1 only adds indexes, but every version since creates tables that checkout, payment
+    // or confirmation write to; raise this with each migration that adds such a table
+    static final int REQUIRED_VERSION = 5;
+
+    // MySQL error codes that mean a DDL step already took effect
+    private static final int ER_DUP_KEYNAME = 1061;
+    private static final int ER_TABLE_EXISTS = 1050;
+    private static final int ER_DUP_FIELDNAME = 1060;
+
+    private static final List<Migration> MIGRATIONS = new ArrayList<>();
+
+    static {
+        // V1: covering indexes for the ReportDAO day-range queries
+        register(1, "report covering indexes",
+                "CREATE INDEX idx_order_tanggal_status_total ON CustomerOrder (tanggal_pesanan, status_pesanan, total_pesanan)",
+                "CREATE INDEX idx_pembayaran_order_metode_status ON Pembayaran (id_pesanan, metode_pembayaran, status_pembayaran, jumlah_pembayaran)",
+                "CREATE INDEX idx_nota_metode_status_waktu ON Nota (metode_pembayaran, status_pembayaran, waktu_cetak)",
+                "CREATE INDEX idx_detail_order_menu ON OrderDetail (id_pesanan, id_menu, jumlah, harga_satuan)",
+                "CREATE INDEX idx_batal_tanggal ON PesananDibatalkan (tanggal_batal)");
+
+        // V2: sales rollup tables, backfilled from the existing history
+        register(2, "sales rollup tables",
+                SalesRollup.CREATE_HOURLY_SQL,
+                SalesRollup.CREATE_MENU_SQL,
+                SalesRollup.CLEAR_HOURLY_SQL,
+                SalesRollup.CLEAR_MENU_SQL,
+                SalesRollup.BACKFILL_HOURLY_SQL,
+                SalesRollup.BACKFILL_MENU_SQL);
+
+        // V3: version row polled by MenuCatalog to notice menu changes from other terminals
+        register(3, "menu catalog version",
+                MenuCatalog.CREATE_VERSION_TABLE_SQL,
+                MenuCatalog.SEED_VERSION_SQL);
+
+        // V4: change log polled by PendingPaymentQueue to keep every cashier's queue current
+        register(4, "payment change log",
+                PendingPaymentQueue.CREATE_LOG_TABLE_SQL);
+
+        // V5: idempotency keys of the journaled checkout writes applied by OrderReplicator
+        register(5, "order journal applied keys",
+                OrderReplicator.CREATE_APPLIED_TABLE_SQL);
+    }
+
+    public static void main(String[] args) {
+        try {
+            System.out.println("Schema version: " + migrate());
+        } catch (SQLException e) {
+            e.printStackTrace();
+            System.exit(1);
+        } finally {
+            DatabaseConnection.closeConnection();
+        }
+    }
+
+    /**
+     * Apply pending migrations before the app uses the database. Mains call this once,
+     * before opening any screen; the V2 backfill can take a while on a long history.
+     *
+     * If migration fails and the schema is still below REQUIRED_VERSION, every write would
+     * fail, so the failure is shown and the app exits. When the database cannot be reached
+     * at all the app still starts, so a kiosk can take orders into its journal.
+     */
+    public static void migrateAtStartup() {
+        try {
+            migrate();
+            return;
+        } catch (SQLException e) {
+            System.err.println("Schema migration failed: " + e.getMessage());
+            e.printStackTrace();
+        }
+
+        int version;
+        try {
+            version = getAppliedVersion();
+        } catch (SQLException e) {
+            System.err.println("Database unreachable at startup, schema version not checked: " + e.getMessage());
+            return;
+        }
+        if (version >= REQUIRED_VERSION) {
+            // Only later, optional steps are missing
+            return;
+        }
+
+        String message = "Database schema update failed: the database is at version " + version
+                + " but this application needs version " + REQUIRED_VERSION + ".\n"
+                + "See the error output, fix the cause and start the application again.";
+        System.err.println(message);
+        if (!GraphicsEnvironment.isHeadless()) {
+            JOptionPane.showMessageDialog(null, message, "Database Error", JOptionPane.ERROR_MESSAGE);
+        }
+        DatabaseConnection.closeConnection();
+        System.exit(1);
+    }
+
+    /**
+     * Get the highest schema version recorded in the database, 0 when none is
+     */
+    static int getAppliedVersion() throws SQLException {
+        try (Connection connection = DatabaseConnection.getConnection()) {
+            createVersionTable(connection);
+            return getCurrentVersion(connection);
+        }
+    }
+
+    /**
+     * Apply every pending migration and return the resulting schema version
+     */
+    public static int migrate() throws SQLException {
+        try (Connection connection = DatabaseConnection.getConnection()) {
+            acquireLock(connection);
+            try {
+                createVersionTable(connection);
+                int current = getCurrentVersion(connection);
+                for (Migration migration : MIGRATIONS) {
+                    if (migration.version > current) {
+                        apply(connection, migration);
+                        current = migration.version;
+                    }
+                }
+                return current;
+            } finally {
+                releaseLock(connection);
+            }
+        }
+    }
+
+    /**
+     * Register a migration; versions must be added in increasing order
+     */
+    static void register(int version, String description, String... statements) {
+        if (!MIGRATIONS.isEmpty() && MIGRATIONS.get(MIGRATIONS.size() - 1).version >= version) {
+            throw new IllegalArgumentException("Migration version out of order: " + version);
+        }
+        MIGRATIONS.add(new Migration(version, description, statements));
+    }
+
+    private static void apply(Connection connection, Migration migration) throws SQLException {
+        System.out.println("Applying schema version " + migration.version + ": " + migration.description);
+        // MySQL DDL commits implicitly, so each step must be safe to re-run after a crash
+        try (Statement stmt = connection.createStatement()) {
+            for (String sql : migration.statements) {
+                try {
+                    stmt.execute(sql);
+                } catch (SQLException e) {
+                    if (!isAlreadyApplied(e)) {
+                        throw e;
+                    }
+                }
+            }
+        }
+
+        String sql = "INSERT INTO schema_version (version, description, applied_at) VALUES (?, ?, ?)";
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, migration.version);
+            stmt.setString(2, migration.description);
+            stmt.setTimestamp(3, new Timestamp(System.currentTimeMillis()));
+            stmt.executeUpdate();
+        }
+    }
+
+    private static boolean isAlreadyApplied(SQLException e) {
+        int code = e.getErrorCode();
+        return code == ER_DUP_KEYNAME || code == ER_TABLE_EXISTS || code == ER_DUP_FIELDNAME;
+    }
+
+    private static void createVersionTable(Connection connection) throws SQLException {
+        String sql = """
+            CREATE TABLE IF NOT EXISTS schema_version (
+                version INT PRIMARY KEY,
+                description VARCHAR(200) NOT NULL,
+                applied_at TIMESTAMP NOT NULL
+            )
+            """;
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    private static int getCurrentVersion(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static void acquireLock(Connection connection) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.setInt(2, LOCK_TIMEOUT_SECONDS);
+            ResultSet rs = stmt.executeQuery();
+            if (!rs.next() || rs.getInt(1) != 1) {
+                throw new SQLException("Timed out waiting for the schema migration lock");
+            }
+        }
+    }
+
+    private static void releaseLock(Connection connection) {
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.executeQuery();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static class Migration {
+        private final int version;
+        private final String description;
+        private final String[] statements;
+
+        Migration(int version, String description, String... statements) {
+            this.version = version;
+            this.description = description;
+            this.statements = statements;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package view;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU cache of prepared statements attached to one pooled connection, keyed by SQL text.
+ * close() on a cached statement hands it back to the cache instead of closing it, so the
+ * server-side prepare is reused by the next DAO call with the same SQL.
+ */
+public class StatementCache {
+    private final int capacity;
+    private final Counters counters;
+    private final LinkedHashMap<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+    // Evicted while in use: closed when released, and reclaimed by releaseAll if the borrower never closes them
+    private final Set<CachedStatement> evictedInUse = new HashSet<>();
+
+    public StatementCache(int capacity, Counters counters) {
+        this.capacity = capacity;
+        this.counters = counters;
+    }
+
+    /**
+     * Get a statement for the SQL, reusing a cached one when it is not already in use.
+     * autoGeneratedKeys is -1 for a plain prepareStatement(sql). owner is the current
+     * borrow's connection handle, returned by the statement's getConnection().
+     */
+    public PreparedStatement prepare(Connection physical, Connection owner, String sql, int autoGeneratedKeys)
+            throws SQLException {
+        String key = autoGeneratedKeys < 0 ? sql : autoGeneratedKeys + "#" + sql;
+        CachedStatement cached = statements.get(key);
+        if (cached != null && cached.closeOnRelease && !cached.inUse) {
+            // Reset failed on an earlier close, drop it and prepare again
+            statements.remove(key);
+            closeQuietly(cached.physical);
+            cached = null;
+        }
+
+        if (cached != null && !cached.inUse) {
+            counters.hits.incrementAndGet();
+            cached.owner = owner;
+            cached.inUse = true;
+            return cached.proxy;
+        }
+
+        counters.misses.incrementAndGet();
+        PreparedStatement physicalStmt = autoGeneratedKeys < 0
+                ? physical.prepareStatement(sql)
+                : physical.prepareStatement(sql, autoGeneratedKeys);
+
+        if (cached != null) {
+            // Same SQL is already open in this borrow (nested use), hand out an uncached one
+            return physicalStmt;
+        }
+
+        CachedStatement created = new CachedStatement(physicalStmt, owner);
+        created.inUse = true;
+        statements.put(key, created);
+        evictOverflow();
+        return created.proxy;
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, CachedStatement>> it = statements.entrySet().iterator();
+        while (statements.size() > capacity && it.hasNext()) {
+            CachedStatement eldest = it.next().getValue();
+            it.remove();
+            counters.evictions.incrementAndGet();
+            if (eldest.inUse) {
+                eldest.closeOnRelease = true;
+                evictedInUse.add(eldest);
+            } else {
+                closeQuietly(eldest.physical);
+            }
+        }
+    }
+
+    /**
+     * Called when the owning connection goes back to the pool; statements the borrower forgot to close are reclaimed
+     */
+    public void releaseAll() {
+        for (CachedStatement cached : statements.values()) {
+            if (cached.inUse) {
+                cached.reset();
+                cached.inUse = false;
+            }
+        }
+        for (CachedStatement evicted : evictedInUse) {
+            evicted.inUse = false;
+            closeQuietly(evicted.physical);
+        }
+        evictedInUse.clear();
+    }
+
+    public void clear() {
+        for (CachedStatement cached : statements.values()) {
+            closeQuietly(cached.physical);
+        }
+        statements.clear();
+        for (CachedStatement evicted : evictedInUse) {
+            closeQuietly(evicted.physical);
+        }
+        evictedInUse.clear();
+    }
+
+    public int size() {
+        return statements.size();
+    }
+
+    private static void closeQuietly(Statement stmt) {
+        try {
+            stmt.close();
+        } catch (SQLException e) {
+            // Statement or connection already gone
+        }
+    }
+
+    /**
+     * Hit/miss/eviction counters shared by every cache in a pool
+     */
+    public static class Counters {
+        final AtomicLong hits = new AtomicLong();
+        final AtomicLong misses = new AtomicLong();
+        final AtomicLong evictions = new AtomicLong();
+
+        public long getHits() { return hits.get(); }
+        public long getMisses() { return misses.get(); }
+        public long getEvictions() { return evictions.get(); }
+
+        public double getHitRatio() {
+            long total = hits.get() + misses.get();
+            return total == 0 ? 0 : (double) hits.get() / total;
+        }
+    }
+
+    private class CachedStatement implements InvocationHandler {
+        final PreparedStatement physical;
+        Connection owner;
+        final PreparedStatement proxy;
+        boolean inUse;
+        boolean closeOnRelease;
+
+        CachedStatement(PreparedStatement physical, Connection owner) {
+            this.physical = physical;
+            this.owner = owner;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    this);
+        }
+
+        void reset() {
+            try {
+                ResultSet open = physical.getResultSet();
+                if (open != null) {
+                    open.close();
+                }
+                physical.clearParameters();
+                physical.clearBatch();
+                physical.setFetchSize(0);
+                physical.setMaxRows(0);
+                physical.setQueryTimeout(0);
+            } catch (SQLException e) {
+                closeOnRelease = true;
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxyObj, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (inUse) {
+                        reset();
+                        inUse = false;
+                        if (closeOnRelease) {
+                            closeQuietly(physical);
+                            evictedInUse.remove(this);
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return !inUse || physical.isClosed();
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxyObj == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxyObj);
+                default:
+                    if (!inUse) {
+                        throw new SQLException("Statement has already been closed");
+                    }
+                    try {
+                        return method.invoke(physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package view;
+
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+import javax.swing.SwingUtilities;
+
+/**
+ * Loads menu thumbnails off the EDT. Images are decoded in parallel with ImageReader
+ * subsampling, resized thumbnails are kept on disk under a hash of
+ * (path, mtime, size, target size), and recently used thumbnails stay in memory.
+ * Callers show a placeholder and get the thumbnail later on the EDT.
+ */
+public final class ThumbnailService {
+    public static final String CACHE_FOLDER = "images/thumbnails/";
+    private static final int MEMORY_ENTRIES = 256;
+
+    private static final AtomicInteger threadNumber = new AtomicInteger();
+    private static final ExecutorService decoders = Executors.newFixedThreadPool(
+            Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())),
+            r -> {
+                Thread t = new Thread(r, "thumbnail-" + threadNumber.incrementAndGet());
+                t.setDaemon(true);
+                t.setPriority(Thread.NORM_PRIORITY - 1);
+                return t;
+            });
+
+    private static final Map<String, BufferedImage> memory = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, BufferedImage> eldest) {
+            return size() > MEMORY_ENTRIES;
+        }
+    };
+
+    // Requests for the same thumbnail share one decode
+    private static final Map<String, CompletableFuture<BufferedImage>> inFlight = new ConcurrentHashMap<>();
+
+    private ThumbnailService() {
+    }
+
+    /**
+     * Load a thumbnail that fits in width x height. onLoaded runs on the EDT, with
+     * null if the image is missing or unreadable. A thumbnail already in memory is
+     * delivered before this method returns.
+     */
+    public static void load(String imagePath, int width, int height, Consumer<ImageIcon> onLoaded) {
+        if (imagePath == null || imagePath.trim().isEmpty()) {
+            deliver(onLoaded, null);
+            return;
+        }
+
+        File file = new File(imagePath);
+        String key = cacheKey(file, width, height);
+        BufferedImage cached = getFromMemory(key);
+        if (cached != null) {
+            deliver(onLoaded, cached);
+            return;
+        }
+
+        CompletableFuture<BufferedImage> pending = inFlight.computeIfAbsent(key,
+                k -> CompletableFuture.supplyAsync(() -> loadThumbnail(file, k, width, height), decoders));
+        pending.whenComplete((image, error) -> {
+            inFlight.remove(key, pending);
+            deliver(onLoaded, error == null ? image : null);
+        });
+    }
+
+    private static void deliver(Consumer<ImageIcon> onLoaded, BufferedImage image) {
+        ImageIcon icon = image != null ? new ImageIcon(image) : null;
+        if (SwingUtilities.isEventDispatchThread()) {
+            onLoaded.accept(icon);
+        } else {
+            SwingUtilities.invokeLater(() -> onLoaded.accept(icon));
+        }
+    }
+
+    private static BufferedImage loadThumbnail(File file, String key, int width, int height) {
+        if (!file.isFile()) {
+            System.err.println("Image file not found: " + file.getPath());
+            return null;
+        }
+
+        Path cachedPath = Paths.get(CACHE_FOLDER, key + ".png");
+        try {
+            BufferedImage thumbnail = null;
+            if (Files.isRegularFile(cachedPath)) {
+                thumbnail = ImageIO.read(cachedPath.toFile());
+            }
+            if (thumbnail == null) {
+                BufferedImage decoded = ImageUtils.readSubsampled(file, width, height);
+                if (decoded == null) {
+                    System.err.println("Cannot read image file: " + file.getPath());
+                    return null;
+                }
+                thumbnail = (BufferedImage) ImageUtils.resizeImage(decoded, width, height);
+                writeToDisk(thumbnail, cachedPath);
+            }
+            putInMemory(key, thumbnail);
+            return thumbnail;
+        } catch (IOException e) {
+            System.err.println("Error loading image: " + file.getPath() + " - " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static void writeToDisk(BufferedImage thumbnail, Path cachedPath) {
+        Path temp = null;
+        try {
+            Files.createDirectories(cachedPath.getParent());
+            // Write to a temp file first so a reader never sees half a PNG
+            temp = Files.createTempFile(cachedPath.getParent(), "thumb", ".tmp");
+            ImageIO.write(thumbnail, "png", temp.toFile());
+            Files.move(temp, cachedPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // The thumbnail is still shown, it is just decoded again next time
+            System.err.println("Error caching thumbnail: " + cachedPath + " - " + e.getMessage());
+            try {
+                if (temp != null) {
+                    Files.deleteIfExists(temp);
+                }
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static synchronized BufferedImage getFromMemory(String key) {
+        return memory.get(key);
+    }
+
+    private static synchronized void putInMemory(String key, BufferedImage image) {
+        memory.put(key, image);
+    }
+
+    /**
+     * Get the cache key; mtime and size change whenever the source image is replaced
+     */
+    private static String cacheKey(File file, int width, int height) {
+        String identity = file.getAbsolutePath() + "|" + file.lastModified() + "|" + file.length()
+                + "|" + width + "x" + height;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest(identity.getBytes(StandardCharsets.UTF_8))) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(identity.hashCode());
+        }
+    }
+}
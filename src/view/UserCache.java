@@ -0,0 +1,114 @@
+package view;
+
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bounded user-id to User cache for display-name lookups. Entries expire after
+ * TTL_MS and the least recently used entry is evicted past MAX_ENTRIES. UserDAO
+ * update and delete invalidate the affected id.
+ *
+ * The User objects are shared: callers must not modify them.
+ */
+public final class UserCache {
+    private static final int MAX_ENTRIES = 2_000;
+    private static final long TTL_MS = 5 * 60_000;
+
+    private static final UserDAO userDAO = new UserDAO();
+
+    private static final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private UserCache() {
+    }
+
+    /**
+     * Get a user by id, loading it on a miss. May hit the database, so call it off the EDT.
+     */
+    public static User get(int userId) {
+        User user = getCached(userId);
+        if (user == null) {
+            user = userDAO.findById(userId);
+            if (user != null) {
+                put(user);
+            }
+        }
+        return user;
+    }
+
+    /**
+     * Get several users at once; all misses are loaded with a single query.
+     * Ids with no matching user are left out of the result.
+     */
+    public static Map<Integer, User> getAll(Collection<Integer> userIds) {
+        Map<Integer, User> result = new HashMap<>();
+        Set<Integer> missing = new LinkedHashSet<>();
+        for (Integer userId : userIds) {
+            User user = getCached(userId);
+            if (user != null) {
+                result.put(userId, user);
+            } else {
+                missing.add(userId);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            for (User user : userDAO.findByIds(missing)) {
+                put(user);
+                result.put(user.getUserId(), user);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the display name of a user, or fallback when the user does not exist
+     */
+    public static String getName(int userId, String fallback) {
+        User user = get(userId);
+        return user != null && user.getNama() != null ? user.getNama() : fallback;
+    }
+
+    public static synchronized void invalidate(int userId) {
+        entries.remove(userId);
+    }
+
+    public static synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    private static synchronized User getCached(int userId) {
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - entry.loadedAt > TTL_MS) {
+            entries.remove(userId);
+            return null;
+        }
+        return entry.user;
+    }
+
+    private static synchronized void put(User user) {
+        entries.put(user.getUserId(), new Entry(user, System.currentTimeMillis()));
+    }
+
+    private static class Entry {
+        private final User user;
+        private final long loadedAt;
+
+        Entry(User user, long loadedAt) {
+            this.user = user;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
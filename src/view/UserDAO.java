@@ -3,18 +3,15 @@ package view;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class UserDAO {
-    private Connection connection;
-
-    public UserDAO() {
-        this.connection = DatabaseConnection.getConnection();
-    }
-
     public boolean create(User user) {
         String sql = "INSERT INTO User (username, password, nama, role) VALUES (?, ?, ?, ?)";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("UserDAO.create");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, user.getUsername());
             stmt.setString(2, user.getPassword());
             stmt.setString(3, user.getNama());
@@ -28,17 +25,12 @@ public class UserDAO {
 
     public User findById(int userId) {
         String sql = "SELECT * FROM User WHERE user_id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("UserDAO.findById");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, userId);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
-                User user = new User();
-                user.setUserId(rs.getInt("user_id"));
-                user.setUsername(rs.getString("username"));
-                user.setPassword(rs.getString("password"));
-                user.setNama(rs.getString("nama"));
-                user.setRole(rs.getString("role"));
-                return user;
+                return mapRow(rs);
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -48,17 +40,12 @@ public class UserDAO {
 
     public User findByUsername(String username) {
         String sql = "SELECT * FROM User WHERE username = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("UserDAO.findByUsername");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, username);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
-                User user = new User();
-                user.setUserId(rs.getInt("user_id"));
-                user.setUsername(rs.getString("username"));
-                user.setPassword(rs.getString("password"));
-                user.setNama(rs.getString("nama"));
-                user.setRole(rs.getString("role"));
-                return user;
+                return mapRow(rs);
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -66,19 +53,94 @@ public class UserDAO {
         return null;
     }
 
+    /**
+     * Get the id of the customer with this name, creating one with a generated username
+     * when there is none, on a caller-supplied connection so it can share a transaction
+     */
+    public int findOrCreateCustomer(Connection connection, String nama) throws SQLException {
+        String findSql = "SELECT user_id FROM User WHERE nama = ? AND role = 'customer' ORDER BY user_id LIMIT 1";
+        try (PreparedStatement stmt = connection.prepareStatement(findSql)) {
+            stmt.setString(1, nama);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return rs.getInt("user_id");
+            }
+        }
+
+        String insertSql = "INSERT INTO User (username, password, nama, role) VALUES (?, ?, ?, 'customer')";
+        try (PreparedStatement stmt = connection.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setString(1, generateCustomerUsername(nama));
+            stmt.setString(2, "default123");
+            stmt.setString(3, nama);
+            stmt.executeUpdate();
+            ResultSet generatedKeys = stmt.getGeneratedKeys();
+            return generatedKeys.next() ? generatedKeys.getInt(1) : -1;
+        }
+    }
+
+    private static String generateCustomerUsername(String nama) {
+        String baseUsername = nama.toLowerCase().replaceAll("\\s+", "");
+        String timestampSuffix = String.valueOf(System.currentTimeMillis()).substring(8);
+        return "cust_" + baseUsername + "_" + timestampSuffix;
+    }
+
+    /**
+     * Get all users with the given ids using IN lists instead of one query per id.
+     * Lists are padded to InLists' fixed sizes and longer requests are split into chunks.
+     */
+    public List<User> findByIds(Collection<Integer> userIds) {
+        List<User> users = new ArrayList<>();
+        if (userIds.isEmpty()) {
+            return users;
+        }
+        List<Integer> ids = new ArrayList<>(userIds);
+        try (Connection connection = DatabaseConnection.getConnection("UserDAO.findByIds")) {
+            for (int from = 0; from < ids.size(); from += InLists.MAX_SIZE) {
+                List<Integer> chunk = ids.subList(from, Math.min(ids.size(), from + InLists.MAX_SIZE));
+                String sql = "SELECT * FROM User WHERE user_id IN (" + InLists.placeholders(chunk.size()) + ")";
+                try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                    InLists.bind(stmt, 1, chunk);
+                    ResultSet rs = stmt.executeQuery();
+                    while (rs.next()) {
+                        users.add(mapRow(rs));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return users;
+    }
+
     public List<User> findAll() {
         List<User> users = new ArrayList<>();
         String sql = "SELECT * FROM User";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("UserDAO.findAll");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                users.add(mapRow(rs));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return users;
+    }
+
+    /**
+     * Get up to limit rows with user_id greater than afterId, in user_id order.
+     * Pass 0 for the first page, then the last user_id of the previous page.
+     */
+    public List<User> findPage(int afterId, int limit) {
+        List<User> users = new ArrayList<>();
+        String sql = "SELECT * FROM User WHERE user_id > ? ORDER BY user_id LIMIT ?";
+        try (Connection connection = DatabaseConnection.getConnection("UserDAO.findPage");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
-                User user = new User();
-                user.setUserId(rs.getInt("user_id"));
-                user.setUsername(rs.getString("username"));
-                user.setPassword(rs.getString("password"));
-                user.setNama(rs.getString("nama"));
-                user.setRole(rs.getString("role"));
-                users.add(user);
+                users.add(mapRow(rs));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -86,15 +148,49 @@ public class UserDAO {
         return users;
     }
 
+    /**
+     * Hand every row to action in user_id order without loading the table into memory.
+     * The driver streams rows one at a time and the connection is held until the
+     * last row, so action must not block or touch the database. Returns the row count.
+     */
+    public int stream(Consumer<? super User> action) throws SQLException {
+        String sql = "SELECT * FROM User ORDER BY user_id";
+        int count = 0;
+        try (Connection connection = DatabaseConnection.getConnection("UserDAO.stream");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    action.accept(mapRow(rs));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static User mapRow(ResultSet rs) throws SQLException {
+        User user = new User();
+        user.setUserId(rs.getInt("user_id"));
+        user.setUsername(rs.getString("username"));
+        user.setPassword(rs.getString("password"));
+        user.setNama(rs.getString("nama"));
+        user.setRole(rs.getString("role"));
+        return user;
+    }
+
     public boolean update(User user) {
         String sql = "UPDATE User SET username = ?, password = ?, nama = ?, role = ? WHERE user_id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("UserDAO.update");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, user.getUsername());
             stmt.setString(2, user.getPassword());
             stmt.setString(3, user.getNama());
             stmt.setString(4, user.getRole());
             stmt.setInt(5, user.getUserId());
-            return stmt.executeUpdate() > 0;
+            boolean updated = stmt.executeUpdate() > 0;
+            UserCache.invalidate(user.getUserId());
+            return updated;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -103,9 +199,12 @@ public class UserDAO {
 
     public boolean delete(int userId) {
         String sql = "DELETE FROM User WHERE user_id = ?";
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = DatabaseConnection.getConnection("UserDAO.delete");
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setInt(1, userId);
-            return stmt.executeUpdate() > 0;
+            boolean deleted = stmt.executeUpdate() > 0;
+            UserCache.invalidate(userId);
+            return deleted;
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
@@ -0,0 +1,77 @@
+package view;
+
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * User rows for one AdminFrame tab. All tabs share the same loaded user list;
+ * each model only keeps the row indexes that match its role.
+ */
+public class UserTableModel extends AbstractTableModel {
+    private static final String[] COLUMNS = {"ID", "Username", "Nama", "Role", "Actions"};
+
+    private final String role; // null shows every role
+    private List<User> users = Collections.emptyList();
+    private int[] rows = new int[0];
+
+    public UserTableModel(String role) {
+        this.role = role;
+    }
+
+    public void setUsers(List<User> users) {
+        this.users = users;
+        int[] matching = new int[users.size()];
+        int count = 0;
+        for (int i = 0; i < users.size(); i++) {
+            if (role == null || role.equalsIgnoreCase(users.get(i).getRole())) {
+                matching[count++] = i;
+            }
+        }
+        this.rows = Arrays.copyOf(matching, count);
+        fireTableDataChanged();
+    }
+
+    public void clear() {
+        setUsers(new ArrayList<>());
+    }
+
+    public User getUserAt(int row) {
+        return users.get(rows[row]);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.length;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        User user = getUserAt(row);
+        switch (column) {
+            case 0: return user.getUserId();
+            case 1: return user.getUsername();
+            case 2: return user.getNama();
+            case 3: return user.getRole();
+            default: return "Actions";
+        }
+    }
+}